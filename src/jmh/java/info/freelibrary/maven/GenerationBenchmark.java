@@ -0,0 +1,205 @@
+
+package info.freelibrary.maven;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import info.freelibrary.util.FileUtils;
+
+/**
+ * Benchmarks how long the {@link MediaTypeMojo} and the {@link I18nCodesMojo} take to generate their sources from
+ * synthetic inputs of ten thousand entries. The media type mojo reads the synthetic media types in addition to the
+ * bundled ones, and doesn't cache its parses, so that each invocation parses all of its sources. The message codes
+ * class is generated with each of the mojo's generators.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GenerationBenchmark {
+
+    /**
+     * The number of synthetic entries.
+     */
+    private static final int ENTRY_COUNT = 10_000;
+
+    /**
+     * The generator the message codes class is generated with.
+     */
+    @Param({ "text", "roaster" })
+    protected String myGenerator;
+
+    /**
+     * The media type mojo being benchmarked.
+     */
+    private MediaTypeMojo myMediaTypeMojo;
+
+    /**
+     * The message codes mojo being benchmarked.
+     */
+    private I18nCodesMojo myCodesMojo;
+
+    /**
+     * The file in which the media type mojo keeps the fingerprint of its inputs.
+     */
+    private Path myStateFile;
+
+    /**
+     * The file in which the message codes mojo keeps the fingerprints of its message files.
+     */
+    private Path myCodesStateFile;
+
+    /**
+     * The directory in which the inputs and outputs are kept.
+     */
+    private Path myWorkDir;
+
+    /**
+     * Writes the synthetic inputs and configures the mojos to use them.
+     *
+     * @throws IOException If the synthetic inputs cannot be written
+     */
+    @Setup
+    public void setup() throws IOException {
+        final Path typesFile;
+        final Path messagesFile;
+
+        myWorkDir = Files.createTempDirectory("generation-benchmark");
+        typesFile = myWorkDir.resolve("benchmark.types");
+        messagesFile = myWorkDir.resolve("benchmark_messages.xml");
+        myStateFile = myWorkDir.resolve("state").resolve(MojoNames.GENERATE_MEDIATYPE + ".sha256");
+        myCodesStateFile = myStateFile.resolveSibling(MojoNames.GENERATE_CODES + ".state");
+
+        writeMediaTypes(typesFile);
+        writeMessages(messagesFile);
+
+        myMediaTypeMojo = new MediaTypeMojo();
+        myMediaTypeMojo.myGenSrcDir = myWorkDir.resolve("mediatype-src").toFile();
+        myMediaTypeMojo.myPackagePath = "info.freelibrary.maven.bench";
+        myMediaTypeMojo.myStateDir = myStateFile.getParent().toFile();
+        myMediaTypeMojo.myLookup = "index";
+        myMediaTypeMojo.myOutput = "enum";
+        myMediaTypeMojo.myGenerator = "text";
+        myMediaTypeMojo.mySources = List.of("classpath:mime.types", typesFile.toString());
+
+        myCodesMojo = new I18nCodesMojo();
+        myCodesMojo.myGeneratedSrcDir = myWorkDir.resolve("codes-src").toFile();
+        myCodesMojo.myPropertyFiles = List.of(messagesFile.toString());
+        myCodesMojo.myStateDir = myStateFile.getParent().toFile();
+        myCodesMojo.myGenerator = myGenerator;
+    }
+
+    /**
+     * Forgets the mojos' last inputs so that they can't skip generation.
+     *
+     * @throws IOException If the mojos' state cannot be removed
+     */
+    @Setup(Level.Invocation)
+    public void forgetState() throws IOException {
+        Files.deleteIfExists(myStateFile);
+        Files.deleteIfExists(myCodesStateFile);
+    }
+
+    /**
+     * Removes the inputs and outputs.
+     *
+     * @throws IOException If the benchmark's directory cannot be removed
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        if (!FileUtils.delete(myWorkDir.toFile())) {
+            throw new IOException("Couldn't delete: " + myWorkDir);
+        }
+    }
+
+    /**
+     * Benchmarks generating a <code>MediaType</code> enum.
+     *
+     * @throws MojoExecutionException If the enum cannot be generated
+     * @throws MojoFailureException If the enum cannot be generated
+     */
+    @Benchmark
+    public void generateMediaType() throws MojoExecutionException, MojoFailureException {
+        myMediaTypeMojo.execute();
+    }
+
+    /**
+     * Benchmarks generating a message codes class.
+     *
+     * @throws MojoExecutionException If the class cannot be generated
+     * @throws MojoFailureException If the class cannot be generated
+     */
+    @Benchmark
+    public void generateMessageCodes() throws MojoExecutionException, MojoFailureException {
+        myCodesMojo.execute();
+    }
+
+    /**
+     * Writes a <code>mime.types</code> file of synthetic media types, each with a couple of extensions.
+     *
+     * @param aFile The file to write
+     * @throws IOException If the file cannot be written
+     */
+    private static void writeMediaTypes(final Path aFile) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(aFile, StandardCharsets.UTF_8)) {
+            writer.write("# Synthetic media types");
+            writer.newLine();
+
+            for (int index = 0; index < ENTRY_COUNT; index++) {
+                writer.write(String.format(Locale.ROOT, "application/x-benchmark-%05d\tbm%05d xbm%05d", index, index,
+                        index));
+                writer.newLine();
+            }
+        }
+    }
+
+    /**
+     * Writes an XML messages file of synthetic messages.
+     *
+     * @param aFile The file to write
+     * @throws IOException If the file cannot be written
+     */
+    private static void writeMessages(final Path aFile) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(aFile, StandardCharsets.UTF_8)) {
+            writer.write("""
+                <?xml version="1.0" encoding="UTF-8"?>
+                <!DOCTYPE properties SYSTEM "http://java.sun.com/dtd/properties.dtd">
+                <properties>
+                  <entry key="message-class-name">info.freelibrary.maven.bench.BenchmarkCodes</entry>
+                """);
+
+            for (int index = 0; index < ENTRY_COUNT; index++) {
+                writer.write(String.format(Locale.ROOT, "  <entry key=\"BMK-%05d\">Benchmark message %d: {}</entry>",
+                        index, index));
+                writer.newLine();
+            }
+
+            writer.write("</properties>");
+            writer.newLine();
+        }
+    }
+}
@@ -0,0 +1,187 @@
+
+package info.freelibrary.maven;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import info.freelibrary.util.FileUtils;
+
+/**
+ * Benchmarks the lookups of a <code>MediaType</code> enum that's generated from the bundled <code>mime.types</code>.
+ * Each operation looks up every one of a small set of sample keys, a mix of the common, the uncommon, and the
+ * unknown.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MediaTypeBenchmark {
+
+    /**
+     * Sample extensions.
+     */
+    private static final String[] EXTS = { "jpg", "JPEG", "mp4", "json", "tif", "html", "epub", "not-an-ext" };
+
+    /**
+     * Sample media types.
+     */
+    private static final String[] TYPES = { "image/jpeg", "VIDEO/MP4", "application/json", "text/html",
+        "application/vnd.oasis.opendocument.text", "not/a-type" };
+
+    /**
+     * Sample URIs.
+     */
+    private static final String[] URIS = { "http://example.com/images/photo.jpg",
+        "https://example.com/clip.mp4?start=10#intro", "http://example.com/docs/readme", "file:///tmp/notes.TXT",
+        "image/png" };
+
+    /**
+     * Sample classes of media type.
+     */
+    private static final String[] CLASSES = { "image", "audio", "application", "not-a-class" };
+
+    /**
+     * A hint that chooses between media types that share an extension.
+     */
+    private static final String VIDEO_HINT = "video";
+
+    /**
+     * The type of lookup the enum is generated with.
+     */
+    @Param({ "index", "switch", "lazy" })
+    protected String myLookup;
+
+    /**
+     * The lookups of the generated enum.
+     */
+    private MediaTypeLookup myMediaTypes;
+
+    /**
+     * The sample URIs, parsed in advance so their parsing isn't part of what's measured.
+     */
+    private URI[] myURIs;
+
+    /**
+     * The directory in which the enum is generated.
+     */
+    private Path myWorkDir;
+
+    /**
+     * Generates, compiles, and loads the enum.
+     *
+     * @throws Exception If the enum cannot be generated
+     */
+    @Setup
+    public void setup() throws Exception {
+        myWorkDir = Files.createTempDirectory("mediatype-benchmark");
+        myMediaTypes = MediaTypeLoader.load(myLookup, myWorkDir);
+        myURIs = new URI[URIS.length];
+
+        for (int index = 0; index < URIS.length; index++) {
+            myURIs[index] = URI.create(URIS[index]);
+        }
+    }
+
+    /**
+     * Removes the generated enum.
+     *
+     * @throws IOException If the enum's directory cannot be removed
+     */
+    @TearDown
+    public void tearDown() throws IOException {
+        if (!FileUtils.delete(myWorkDir.toFile())) {
+            throw new IOException("Couldn't delete: " + myWorkDir);
+        }
+    }
+
+    /**
+     * Benchmarks <code>fromExt</code> without a hint.
+     *
+     * @param aBlackhole A sink for the results
+     */
+    @Benchmark
+    public void fromExt(final Blackhole aBlackhole) {
+        for (final String ext : EXTS) {
+            aBlackhole.consume(myMediaTypes.fromExt(ext, null));
+        }
+    }
+
+    /**
+     * Benchmarks <code>fromExt</code> with a hint.
+     *
+     * @param aBlackhole A sink for the results
+     */
+    @Benchmark
+    public void fromExtWithHint(final Blackhole aBlackhole) {
+        for (final String ext : EXTS) {
+            aBlackhole.consume(myMediaTypes.fromExt(ext, VIDEO_HINT));
+        }
+    }
+
+    /**
+     * Benchmarks <code>fromString</code>.
+     *
+     * @param aBlackhole A sink for the results
+     */
+    @Benchmark
+    public void fromString(final Blackhole aBlackhole) {
+        for (final String type : TYPES) {
+            aBlackhole.consume(myMediaTypes.fromString(type));
+        }
+    }
+
+    /**
+     * Benchmarks <code>getTypes</code>.
+     *
+     * @param aBlackhole A sink for the results
+     */
+    @Benchmark
+    public void getTypes(final Blackhole aBlackhole) {
+        for (final String typeClass : CLASSES) {
+            aBlackhole.consume(myMediaTypes.getTypes(typeClass));
+        }
+    }
+
+    /**
+     * Benchmarks <code>parse(String)</code>.
+     *
+     * @param aBlackhole A sink for the results
+     */
+    @Benchmark
+    public void parseString(final Blackhole aBlackhole) {
+        for (final String uri : URIS) {
+            aBlackhole.consume(myMediaTypes.parse(uri));
+        }
+    }
+
+    /**
+     * Benchmarks <code>parse(URI, String)</code>.
+     *
+     * @param aBlackhole A sink for the results
+     */
+    @Benchmark
+    public void parseUriWithHint(final Blackhole aBlackhole) {
+        for (final URI uri : myURIs) {
+            aBlackhole.consume(myMediaTypes.parse(uri, VIDEO_HINT));
+        }
+    }
+}
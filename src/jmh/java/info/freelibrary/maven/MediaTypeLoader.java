@@ -0,0 +1,127 @@
+
+package info.freelibrary.maven;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import javax.tools.ToolProvider;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+
+/**
+ * Generates a <code>MediaType</code> enum with the current {@link MediaTypeMojo}, compiles it along with an adapter
+ * that implements {@link MediaTypeLookup}, and loads the adapter. Calling the enum through an interface, rather than by
+ * reflection, lets the JIT compiler inline the calls just as it would in code that was compiled against the enum.
+ */
+final class MediaTypeLoader {
+
+    /**
+     * The package into which the enum and its adapter are generated.
+     */
+    private static final String PACKAGE = "info.freelibrary.maven.bench";
+
+    /**
+     * The simple name of the adapter class.
+     */
+    private static final String ADAPTER_NAME = "MediaTypeAdapter";
+
+    /**
+     * A Java source file extension.
+     */
+    private static final String JAVA_EXT = ".java";
+
+    /**
+     * The source of the adapter class.
+     */
+    private static final String ADAPTER = """
+        package info.freelibrary.maven.bench;
+
+        import java.net.URI;
+        import java.util.List;
+        import java.util.Optional;
+
+        import info.freelibrary.maven.MediaTypeLookup;
+
+        public final class MediaTypeAdapter implements MediaTypeLookup {
+
+            @Override
+            public Optional<?> fromExt(final CharSequence aExt, final String aHint) {
+                return MediaType.fromExt(aExt, aHint);
+            }
+
+            @Override
+            public Optional<?> fromString(final String aType) {
+                return MediaType.fromString(aType);
+            }
+
+            @Override
+            public List<?> getTypes(final String aClass) {
+                return MediaType.getTypes(aClass);
+            }
+
+            @Override
+            public Optional<?> parse(final String aURI) {
+                return MediaType.parse(aURI);
+            }
+
+            @Override
+            public Optional<?> parse(final URI aURI, final String aHint) {
+                return MediaType.parse(aURI, aHint);
+            }
+        }
+        """;
+
+    /**
+     * Creates a new media type loader.
+     */
+    private MediaTypeLoader() {
+        // This is intentionally left empty.
+    }
+
+    /**
+     * Generates, compiles, and loads a <code>MediaType</code> enum that uses the supplied lookup.
+     *
+     * @param aLookup The type of lookup the enum should be generated with (e.g., "index" or "switch")
+     * @param aWorkDir A directory in which to generate and compile the enum
+     * @return The lookups of the generated enum
+     * @throws MojoExecutionException If the enum cannot be generated
+     * @throws MojoFailureException If the enum cannot be generated
+     * @throws IOException If the enum cannot be compiled or loaded
+     * @throws ReflectiveOperationException If the enum's adapter cannot be created
+     */
+    static MediaTypeLookup load(final String aLookup, final Path aWorkDir) throws MojoExecutionException,
+            MojoFailureException, IOException, ReflectiveOperationException {
+        final MediaTypeMojo mojo = new MediaTypeMojo();
+        final Path srcDir = aWorkDir.resolve("src");
+        final Path classesDir = aWorkDir.resolve("classes");
+        final Path pkgDir = srcDir.resolve(PACKAGE.replace('.', File.separatorChar));
+        final int result;
+
+        mojo.myGenSrcDir = srcDir.toFile();
+        mojo.myPackagePath = PACKAGE;
+        mojo.myStateDir = aWorkDir.resolve("state").toFile();
+        mojo.myLookup = aLookup;
+        mojo.myOutput = "enum";
+        mojo.myGenerator = "text";
+        mojo.execute();
+
+        Files.writeString(pkgDir.resolve(ADAPTER_NAME + JAVA_EXT), ADAPTER, StandardCharsets.UTF_8);
+        result = ToolProvider.getSystemJavaCompiler().run(null, null, null, "-d", classesDir.toString(), "-cp",
+                System.getProperty("java.class.path"), pkgDir.resolve("MediaType" + JAVA_EXT).toString(),
+                pkgDir.resolve(ADAPTER_NAME + JAVA_EXT).toString());
+
+        if (result != 0) {
+            throw new IOException("Couldn't compile the generated MediaType in: " + srcDir);
+        }
+
+        return (MediaTypeLookup) new URLClassLoader(new URL[] { classesDir.toUri().toURL() },
+                MediaTypeLoader.class.getClassLoader()).loadClass(PACKAGE + '.' + ADAPTER_NAME)
+                        .getDeclaredConstructor().newInstance();
+    }
+}
@@ -0,0 +1,55 @@
+
+package info.freelibrary.maven;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * The lookups of a generated <code>MediaType</code> enum. The benchmarks call the enum through this interface, since
+ * it's generated while they run and can't be compiled against.
+ */
+public interface MediaTypeLookup {
+
+    /**
+     * Gets a media type from an extension.
+     *
+     * @param aExt A file extension
+     * @param aHint A hint as to what class of media type we want
+     * @return The media type that corresponds to the supplied extension
+     */
+    Optional<?> fromExt(CharSequence aExt, String aHint);
+
+    /**
+     * Gets a media type from its string form.
+     *
+     * @param aType A media type
+     * @return The media type that corresponds to the supplied string
+     */
+    Optional<?> fromString(String aType);
+
+    /**
+     * Gets the media types of a class of media type.
+     *
+     * @param aClass A class of media type (e.g., "application")
+     * @return The media types that correspond to the supplied class
+     */
+    List<?> getTypes(String aClass);
+
+    /**
+     * Gets a media type from the extension of a URI string.
+     *
+     * @param aURI A URI string
+     * @return The media type of the URI
+     */
+    Optional<?> parse(String aURI);
+
+    /**
+     * Gets a media type from the extension of a URI.
+     *
+     * @param aURI A URI
+     * @param aHint A hint as to what class of media type we want
+     * @return The media type of the URI
+     */
+    Optional<?> parse(URI aURI, String aHint);
+}
@@ -0,0 +1,444 @@
+package info.freelibrary.maven;
+/**
+ * Codes used for internationalized text in logs and other application
+ * components. This class is automatically generated from the project's
+ * <code>*_messages.xml</code> file (found in the project's
+ * <code>src/main/resources</code> directory). Do not manually edit the Java
+ * code for this class.
+ * <p>
+ * BEGIN GENERATED CODE
+ * </p>
+ */
+final public class MessageCodes {
+
+	/**
+	 * Message: Gets a media type from the supplied extension.
+	 */
+	public static final String MVN_140 = "MVN-140";
+	/**
+	 * Message: aHint A class of type (e.g. 'audio' or 'application')
+	 */
+	public static final String MVN_141 = "MVN-141";
+	/**
+	 * Message: aURI A string URI from which to parse the media type
+	 */
+	public static final String MVN_142 = "MVN-142";
+	/**
+	 * Message: The media type that corresponds to the supplied URI
+	 */
+	public static final String MVN_143 = "MVN-143";
+	/**
+	 * Message: Gets a media type from the supplied URI's extension.
+	 */
+	public static final String MVN_144 = "MVN-144";
+	/**
+	 * Message: aURI A URI from which to parse the media type
+	 */
+	public static final String MVN_145 = "MVN-145";
+	/**
+	 * Message: aType A type of media type
+	 */
+	public static final String MVN_146 = "MVN-146";
+	/**
+	 * Message: The media type that corresponds to the supplied type
+	 */
+	public static final String MVN_147 = "MVN-147";
+	/**
+	 * Message: Gets a media type from the supplied type.
+	 */
+	public static final String MVN_148 = "MVN-148";
+	/**
+	 * Message: The first relevant media-type extension
+	 */
+	public static final String MVN_149 = "MVN-149";
+	/**
+	 * Message: Found resource in Jar file: {}
+	 */
+	public static final String MVN_130 = "MVN-130";
+	/**
+	 * Message: Checking Jar files for: {}
+	 */
+	public static final String MVN_131 = "MVN-131";
+	/**
+	 * Message: Supplied logger '{}' isn't a org.slf4j.impl.SimpleLogger
+	 */
+	public static final String MVN_010 = "MVN-010";
+	/**
+	 * Message: Updating '{}' property with: {}
+	 */
+	public static final String MVN_132 = "MVN-132";
+	/**
+	 * Message: Has the Maven logger changed?
+	 */
+	public static final String MVN_011 = "MVN-011";
+	/**
+	 * Message: Adding '{}' property value: {}
+	 */
+	public static final String MVN_133 = "MVN-133";
+	/**
+	 * Message: '{}' logging level is now set to: {}
+	 */
+	public static final String MVN_012 = "MVN-012";
+	/**
+	 * Message: '{}' is a required plugin parameter
+	 */
+	public static final String MVN_134 = "MVN-134";
+	/**
+	 * Message: Setting a UUID property ({} = {}) for use in the Maven build
+	 */
+	public static final String MVN_013 = "MVN-013";
+	/**
+	 * Message: POM file must exist
+	 */
+	public static final String MVN_135 = "MVN-135";
+	/**
+	 * Message: Setting System property ({} = {}) for use in the Maven build
+	 */
+	public static final String MVN_014 = "MVN-014";
+	/**
+	 * Message: File '{}' exists, but there are no properties to be set
+	 */
+	public static final String MVN_015 = "MVN-015";
+	/**
+	 * Message: POM file argument may not be null
+	 */
+	public static final String MVN_136 = "MVN-136";
+	/**
+	 * Message: Module name cannot be found in POM: {}
+	 */
+	public static final String MVN_137 = "MVN-137";
+	/**
+	 * Message: aExt The extension of the desired media type
+	 */
+	public static final String MVN_138 = "MVN-138";
+	/**
+	 * Message: The media type that corresponds to the supplied extension
+	 */
+	public static final String MVN_139 = "MVN-139";
+	/**
+	 * Message: The mime.types file was not found in the expected place
+	 */
+	public static final String MVN_120 = "MVN-120";
+	/**
+	 * Message: Failed to parse maven-metadata.xml file: {}
+	 */
+	public static final String MVN_121 = "MVN-121";
+	/**
+	 * Message: No message files were supplied so no code classes were created
+	 */
+	public static final String MVN_001 = "MVN-001";
+	/**
+	 * Message: Failed to find snapshot timestamp in response: {}
+	 */
+	public static final String MVN_122 = "MVN-122";
+	/**
+	 * Message: ResourceBundle's "{}" key not found
+	 */
+	public static final String MVN_002 = "MVN-002";
+	/**
+	 * Message: Discovered XML resource bundle file: {}
+	 */
+	public static final String MVN_123 = "MVN-123";
+	/**
+	 * Message: Codes class ({}) cannot be created because package directory ({})
+	 * does not exist and cannot be created
+	 */
+	public static final String MVN_003 = "MVN-003";
+	/**
+	 * Message: Writing resource bundle properties file: {}
+	 */
+	public static final String MVN_124 = "MVN-124";
+	/**
+	 * Message: Set system.free.memory property to: {}
+	 */
+	public static final String MVN_004 = "MVN-004";
+	/**
+	 * Message: Writing '{}' to '{}'
+	 */
+	public static final String MVN_125 = "MVN-125";
+	/**
+	 * Message: Set system.total.memory property to: {}
+	 */
+	public static final String MVN_005 = "MVN-005";
+	/**
+	 * Message: Autogenerated by I18nCodesMojo (Maven Plugin) - Do Not Edit
+	 */
+	public static final String MVN_126 = "MVN-126";
+	/**
+	 * Message: Set system.cores property to: {}
+	 */
+	public static final String MVN_006 = "MVN-006";
+	/**
+	 * Message: Generating I18n resource bundles
+	 */
+	public static final String MVN_127 = "MVN-127";
+	/**
+	 * Message: Getting a percentage of system's free memory: {} of {}
+	 */
+	public static final String MVN_007 = "MVN-007";
+	/**
+	 * Message: Transcoding supplied resource bundles
+	 */
+	public static final String MVN_128 = "MVN-128";
+	/**
+	 * Message: Codes used for internationalized text in logs and other application
+	 * components. This class is automatically generated from the project's
+	 * <code>*_messages.xml</code> file (found in the project's
+	 * <code>src/main/resources</code> directory). Do not manually edit the Java
+	 * code for this class.
+	 * <p>
+	 * BEGIN GENERATED CODE
+	 * </p>
+	 */
+	public static final String MVN_008 = "MVN-008";
+	/**
+	 * Message: Transcoding default resource bundle
+	 */
+	public static final String MVN_129 = "MVN-129";
+	/**
+	 * Message: Supplied log level '{}' was unknown, setting level to 'ERROR'
+	 */
+	public static final String MVN_009 = "MVN-009";
+	/**
+	 * Message: Staged the snapshot file {} in: {}
+	 */
+	public static final String MVN_190 = "MVN-190";
+	/**
+	 * Message: Using the staged copy of the snapshot file {}: {}
+	 */
+	public static final String MVN_191 = "MVN-191";
+	/**
+	 * Message: Resuming the download of {} at byte {} (of the part ending at byte
+	 * {})
+	 */
+	public static final String MVN_192 = "MVN-192";
+	/**
+	 * Message: The snapshot file isn't staged, and can't be downloaded while
+	 * offline: {}
+	 */
+	public static final String MVN_193 = "MVN-193";
+	/**
+	 * Message: The download of {} is incomplete; got {} of {} bytes
+	 */
+	public static final String MVN_194 = "MVN-194";
+	/**
+	 * Message: POM file is unchanged, so it isn't rewritten: {}
+	 */
+	public static final String MVN_195 = "MVN-195";
+	/**
+	 * Message: Couldn't find the markup of an element in POM file: {}
+	 */
+	public static final String MVN_196 = "MVN-196";
+	/**
+	 * Message: Invalid module '{}'; expected 'name:groupId:artifactId' or
+	 * 'name:groupId:artifactId:version'
+	 */
+	public static final String MVN_197 = "MVN-197";
+	/**
+	 * Message: Module '{}' is listed more than once
+	 */
+	public static final String MVN_198 = "MVN-198";
+	/**
+	 * Message: Templating {} modules in a batch
+	 */
+	public static final String MVN_199 = "MVN-199";
+	/**
+	 * Message: Unable to create missing generated sources directory: {}
+	 */
+	public static final String MVN_116 = "MVN-116";
+	/**
+	 * Message: Invalid number of property keys and values: {} [{}]
+	 */
+	public static final String MVN_117 = "MVN-117";
+	/**
+	 * Message: Unable to create Java source package directory: {}
+	 */
+	public static final String MVN_118 = "MVN-118";
+	/**
+	 * Message: BEGIN GENERATED CODE
+	 */
+	public static final String MVN_119 = "MVN-119";
+	/**
+	 * Message bundle name.
+	 */
+	public static final String BUNDLE = "freelib-maven_messages";
+	/**
+	 * Message: Couldn't cache the snapshot metadata in: {}
+	 */
+	public static final String MVN_180 = "MVN-180";
+	/**
+	 * Message: Invalid snapshot coordinates '{}'; expected
+	 * 'groupId:artifactId:version'
+	 */
+	public static final String MVN_181 = "MVN-181";
+	/**
+	 * Message: No snapshot artifacts to resolve; set '{}' (and its group and
+	 * version) or '{}'
+	 */
+	public static final String MVN_182 = "MVN-182";
+	/**
+	 * Message: Sharing this build's resolution of the snapshot: {}
+	 */
+	public static final String MVN_183 = "MVN-183";
+	/**
+	 * Message: Couldn't resolve a timestamped snapshot of '{}' from: {}
+	 */
+	public static final String MVN_184 = "MVN-184";
+	/**
+	 * Message: Unsupported snapshot resolution '{}'; expected 'http' or 'resolver'
+	 */
+	public static final String MVN_185 = "MVN-185";
+	/**
+	 * Message: The snapshot metadata doesn't have a file with classifier '{}' and
+	 * extension '{}': {}
+	 */
+	public static final String MVN_186 = "MVN-186";
+	/**
+	 * Message: The snapshot file doesn't match its SHA-1 checksum: {}
+	 */
+	public static final String MVN_187 = "MVN-187";
+	/**
+	 * Message: Skipping the checksum verification of the snapshot file while
+	 * offline: {}
+	 */
+	public static final String MVN_188 = "MVN-188";
+	/**
+	 * Message: Invalid snapshot type '{}'; expected 'extension' or
+	 * 'classifier:extension'
+	 */
+	public static final String MVN_189 = "MVN-189";
+	/**
+	 * Message: Message file has an entry without a key at line: {}
+	 */
+	public static final String MVN_170 = "MVN-170";
+	/**
+	 * Message: Unsupported code generator '{}'; expected 'text' or 'roaster'
+	 */
+	public static final String MVN_171 = "MVN-171";
+	/**
+	 * Message: Locale '{}' of '{}' has {} missing, {} extra, and {} mismatched
+	 * placeholder keys
+	 */
+	public static final String MVN_172 = "MVN-172";
+	/**
+	 * Message: Checked {} locale variants; wrote the locale report to: {}
+	 */
+	public static final String MVN_173 = "MVN-173";
+	/**
+	 * Message: {} locale variants don't match their base message files; see: {}
+	 */
+	public static final String MVN_174 = "MVN-174";
+	/**
+	 * Message: Using cached snapshot metadata for: {}
+	 */
+	public static final String MVN_175 = "MVN-175";
+	/**
+	 * Message: Snapshot metadata is unchanged; revalidated the cached copy of: {}
+	 */
+	public static final String MVN_176 = "MVN-176";
+	/**
+	 * Message: Couldn't revalidate snapshot metadata; using the cached copy of: {}
+	 */
+	public static final String MVN_177 = "MVN-177";
+	/**
+	 * Message: Working offline, and there's no cached snapshot metadata for: {}
+	 */
+	public static final String MVN_178 = "MVN-178";
+	/**
+	 * Message: Unexpected HTTP status {} from: {}
+	 */
+	public static final String MVN_179 = "MVN-179";
+	/**
+	 * Message: Couldn't find a hash multiplier that gives each media type key a
+	 * unique hash
+	 */
+	public static final String MVN_160 = "MVN-160";
+	/**
+	 * Message: Media type source not found: {}
+	 */
+	public static final String MVN_161 = "MVN-161";
+	/**
+	 * Message: Using cached media types for: {}
+	 */
+	public static final String MVN_162 = "MVN-162";
+	/**
+	 * Message: Couldn't cache the parsed media types in: {}
+	 */
+	public static final String MVN_163 = "MVN-163";
+	/**
+	 * Message: Ignoring an unreadable media type cache file: {}
+	 */
+	public static final String MVN_164 = "MVN-164";
+	/**
+	 * Message: Unsupported media type output '{}'; expected 'enum' or 'registry'
+	 */
+	public static final String MVN_166 = "MVN-166";
+	/**
+	 * Message: Message files '{}' and '{}' both generate: {}
+	 */
+	public static final String MVN_167 = "MVN-167";
+	/**
+	 * Message: Snapshots '{}' and '{}' have the same artifact ID, so both would
+	 * set: {}
+	 */
+	public static final String MVN_200 = "MVN-200";
+	/**
+	 * Message: Message file is unchanged; skipping: {}
+	 */
+	public static final String MVN_168 = "MVN-168";
+	/**
+	 * Message: Templates are only supported for multi-module projects; project has
+	 * no modules: {}
+	 */
+	public static final String MVN_201 = "MVN-201";
+	/**
+	 * Message: Deleting a stale generated file: {}
+	 */
+	public static final String MVN_169 = "MVN-169";
+	/**
+	 * Message: Gets the first relevant media-type extension.
+	 */
+	public static final String MVN_150 = "MVN-150";
+	/**
+	 * Message: An array of relevant media-type extensions
+	 */
+	public static final String MVN_151 = "MVN-151";
+	/**
+	 * Message: Gets an array of relevant media-type extensions.
+	 */
+	public static final String MVN_152 = "MVN-152";
+	/**
+	 * Message: aClass A class of media type (e.g., "application")
+	 */
+	public static final String MVN_153 = "MVN-153";
+	/**
+	 * Message: The media types that correspond to the supplied type class
+	 */
+	public static final String MVN_154 = "MVN-154";
+	/**
+	 * Message: Gets an unmodifiable list of media types that correspond to the
+	 * supplied class.
+	 */
+	public static final String MVN_155 = "MVN-155";
+	/**
+	 * Message: aHint A hint as to what class of media type we want
+	 */
+	public static final String MVN_156 = "MVN-156";
+	/**
+	 * Message: Media type sources are unchanged; skipping generation of: {}
+	 */
+	public static final String MVN_157 = "MVN-157";
+	/**
+	 * Message: Generated source is unchanged; not rewriting: {}
+	 */
+	public static final String MVN_158 = "MVN-158";
+	/**
+	 * Message: Unsupported media type lookup '{}'; expected 'index', 'switch', or
+	 * 'lazy'
+	 */
+	public static final String MVN_159 = "MVN-159";
+
+	private MessageCodes() {
+		super();
+	}
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+
+package info.freelibrary.maven;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A generator of compact, binary resource bundles, which the {@link I18nCodesMojo} can transcode message files into,
+ * and of the <code>ResourceBundle</code> that reads them. The reader memory-maps a bundle that's a file, and searches
+ * its sorted keys in place, so loading a bundle doesn't parse it or copy its messages onto the heap.
+ * <p>
+ * A bundle is a header of three ints (a magic number, the number of messages, and the number of characters), then:
+ * </p>
+ * <ol>
+ * <li>a record for each message, sorted by key: the offset and length of its key, and the offset and length of its
+ * message; and,</li>
+ * <li>the characters of all the strings, which the records refer to by offset and length.</li>
+ * </ol>
+ */
+final class BinaryBundle {
+
+    /** The file extension of a binary bundle. */
+    static final String BUNDLE_EXT = ".bin";
+
+    /** The magic number at the start of a binary bundle: "MBB1". */
+    private static final int MAGIC = 0x4D42_4231;
+
+    /**
+     * The reader of a binary bundle, which is nested in the message codes class of the bundle. Its source is kept in a
+     * template, with the {@link MessageAccessors} templates, in the plugin's resources.
+     */
+    private static final String READER = MessageAccessors.getTemplate("Bundle");
+
+    /**
+     * A private constructor for a utilities class.
+     */
+    private BinaryBundle() {
+        // This is intentionally left empty.
+    }
+
+    /**
+     * Gets the source of the <code>Bundle</code> class that reads a binary bundle. It's nested in the message codes
+     * class of the bundle, from whose <code>BUNDLE</code> field it gets the name of the binary bundle.
+     *
+     * @return The source of the reader
+     */
+    static String getReaderSource() {
+        return READER;
+    }
+
+    /**
+     * Gets a binary bundle of the supplied messages.
+     *
+     * @param aMessageMap The messages, keyed by their keys
+     * @return The bytes of the binary bundle
+     * @throws UncheckedIOException If the bundle cannot be written, which an in-memory stream never does
+     */
+    static byte[] toBytes(final Map<String, String> aMessageMap) {
+        final Map<String, String> sortedMessages = new TreeMap<>(aMessageMap);
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final ByteArrayOutputStream records = new ByteArrayOutputStream();
+        final Map<String, Integer> offsets = new HashMap<>();
+        final StringBuilder chars = new StringBuilder();
+
+        try (DataOutputStream output = new DataOutputStream(records)) {
+            for (final Map.Entry<String, String> message : sortedMessages.entrySet()) {
+                writeString(output, message.getKey(), offsets, chars);
+                writeString(output, message.getValue(), offsets, chars);
+            }
+        } catch (final IOException details) {
+            // A ByteArrayOutputStream doesn't throw I/O exceptions
+            throw new UncheckedIOException(details);
+        }
+
+        // The header is written last, since the number of characters isn't known until the strings have been added
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(MAGIC);
+            output.writeInt(sortedMessages.size());
+            output.writeInt(chars.length());
+            records.writeTo(output);
+            output.writeChars(chars.toString());
+        } catch (final IOException details) {
+            // A ByteArrayOutputStream doesn't throw I/O exceptions
+            throw new UncheckedIOException(details);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes a reference to a string, adding the string to the bundle's characters if it's not already there.
+     *
+     * @param aOutput The bundle's output
+     * @param aString A string
+     * @param aOffsetMap The offsets of the strings that have already been added
+     * @param aChars The bundle's characters
+     * @throws IOException If the reference cannot be written
+     */
+    private static void writeString(final DataOutputStream aOutput, final String aString,
+            final Map<String, Integer> aOffsetMap, final StringBuilder aChars) throws IOException {
+        final Integer offset = aOffsetMap.get(aString);
+
+        if (offset == null) {
+            aOffsetMap.put(aString, aChars.length());
+            aOutput.writeInt(aChars.length());
+            aChars.append(aString);
+        } else {
+            aOutput.writeInt(offset);
+        }
+
+        aOutput.writeInt(aString.length());
+    }
+}
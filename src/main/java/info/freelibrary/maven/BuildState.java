@@ -0,0 +1,253 @@
+
+package info.freelibrary.maven;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFileAttributeView;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.UUID;
+
+import info.freelibrary.util.I18nRuntimeException;
+
+/**
+ * A fingerprint of the inputs a generating mojo last used. The fingerprint is persisted in the build directory so that
+ * a later build with the same inputs can skip the work of regenerating its outputs.
+ */
+final class BuildState {
+
+    /**
+     * The digest algorithm used to fingerprint inputs.
+     */
+    private static final String ALGORITHM = "SHA-256";
+
+    /**
+     * The digest that accumulates the inputs.
+     */
+    private final MessageDigest myDigest; // NOPMD - AvoidMessageDigestField, a build state isn't shared
+
+    /**
+     * The file in which the fingerprint is stored between builds.
+     */
+    private final Path myStateFile;
+
+    /**
+     * The finished fingerprint; this is null until the fingerprint is first requested.
+     */
+    private String myFingerprint;
+
+    /**
+     * Creates a new build state that isn't persisted on its own (e.g., the fingerprint of one of a mojo's inputs).
+     */
+    BuildState() {
+        this(null);
+    }
+
+    /**
+     * Creates a new build state that's persisted in the supplied file.
+     *
+     * @param aStateFile A file in which to store the fingerprint
+     */
+    BuildState(final Path aStateFile) {
+        this(aStateFile, newDigest());
+    }
+
+    /**
+     * Creates a new build state that starts from the supplied digest.
+     *
+     * @param aStateFile A file in which to store the fingerprint, or null if it isn't persisted on its own
+     * @param aDigest The digest that accumulates the inputs
+     */
+    private BuildState(final Path aStateFile, final MessageDigest aDigest) {
+        myStateFile = aStateFile;
+        myDigest = aDigest;
+    }
+
+    /**
+     * Creates a build state that starts with the inputs that have been added to this one, so inputs that many
+     * fingerprints share only have to be read and digested once. The copy isn't persisted on its own.
+     *
+     * @return A copy of this build state
+     * @throws I18nRuntimeException If the digest cannot be copied
+     */
+    BuildState copy() {
+        try {
+            return new BuildState(null, (MessageDigest) myDigest.clone());
+        } catch (final CloneNotSupportedException details) {
+            throw new I18nRuntimeException(details);
+        }
+    }
+
+    /**
+     * Adds the supplied bytes to the fingerprint; a null value is recorded as a missing input.
+     *
+     * @param aBytes The bytes of an input
+     * @return This build state
+     */
+    BuildState update(final byte[] aBytes) {
+        // Length prefix the input so that adjacent inputs can't run together; a missing input has a length of -1
+        myDigest.update(ByteBuffer.allocate(Integer.BYTES).putInt(aBytes == null ? -1 : aBytes.length).array());
+
+        if (aBytes != null) {
+            myDigest.update(aBytes);
+        }
+
+        return this;
+    }
+
+    /**
+     * Adds the bytecode of the supplied class to the fingerprint, so that a change to the code that generates the
+     * outputs is treated like a change to its inputs.
+     *
+     * @param aClass A class that generates outputs
+     * @return This build state
+     * @throws I18nRuntimeException If the class' bytecode cannot be read
+     */
+    BuildState update(final Class<?> aClass) {
+        try (InputStream classStream = aClass.getResourceAsStream(aClass.getSimpleName() + ".class")) {
+            return update(classStream == null ? null : classStream.readAllBytes());
+        } catch (final IOException details) {
+            throw new I18nRuntimeException(details);
+        }
+    }
+
+    /**
+     * Adds the supplied value to the fingerprint; a null value is recorded as a missing input.
+     *
+     * @param aValue The value of an input (e.g., a mojo parameter)
+     * @return This build state
+     */
+    BuildState update(final String aValue) {
+        return update(aValue == null ? null : aValue.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Gets the fingerprint of the inputs that have been added.
+     *
+     * @return A hex encoded fingerprint
+     */
+    String getFingerprint() {
+        if (myFingerprint == null) {
+            myFingerprint = HexFormat.of().formatHex(myDigest.digest());
+        }
+
+        return myFingerprint;
+    }
+
+    /**
+     * Checks whether the inputs match those recorded by the last build.
+     *
+     * @return True if the inputs haven't changed since the last build
+     * @throws IOException If the stored fingerprint cannot be read
+     */
+    boolean isUnchanged() throws IOException {
+        try {
+            return getFingerprint().equals(Files.readString(myStateFile, StandardCharsets.UTF_8).trim());
+        } catch (final NoSuchFileException details) {
+            return false;
+        }
+    }
+
+    /**
+     * Stores the fingerprint so that the next build can compare its inputs against it.
+     *
+     * @throws IOException If the fingerprint cannot be written
+     */
+    void save() throws IOException {
+        Files.createDirectories(myStateFile.getParent());
+        Files.writeString(myStateFile, getFingerprint(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the supplied bytes to a file, but only if the file's current contents differ. Leaving an unchanged file
+     * alone keeps its timestamp, so tools downstream of the build don't see it as modified. The bytes are written to a
+     * temporary file next to the file, which is then moved into its place, so a build that's interrupted doesn't leave
+     * a half-written file behind.
+     *
+     * @param aFile A file to write
+     * @param aBytes The bytes the file should contain
+     * @return True if the file was written; else, false
+     * @throws IOException If the file cannot be read or written
+     */
+    static boolean write(final Path aFile, final byte[] aBytes) throws IOException {
+        final boolean fileExists = Files.exists(aFile);
+
+        if (fileExists && Files.size(aFile) == aBytes.length && Arrays.equals(Files.readAllBytes(aFile), aBytes)) {
+            return false;
+        }
+
+        // A hidden sibling is on the same file store as the file, so it can be moved into place atomically
+        final Path tmpFile =
+                aFile.resolveSibling('.' + aFile.getFileName().toString() + '.' + UUID.randomUUID() + ".tmp");
+
+        try {
+            Files.write(tmpFile, aBytes, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+
+            // The file that's replaced keeps its permissions (e.g., an executable script stays executable)
+            if (fileExists && Files.getFileStore(aFile).supportsFileAttributeView(PosixFileAttributeView.class)) {
+                Files.setPosixFilePermissions(tmpFile, Files.getPosixFilePermissions(aFile));
+            }
+        } catch (final IOException details) {
+            Files.deleteIfExists(tmpFile);
+            throw details;
+        }
+
+        move(tmpFile, aFile);
+        return true;
+    }
+
+    /**
+     * Moves a temporary file into the place of another file, atomically if the file system supports it.
+     *
+     * @param aTmpFile A temporary file
+     * @param aFile The file it replaces
+     * @throws IOException If the file cannot be moved
+     */
+    static void move(final Path aTmpFile, final Path aFile) throws IOException {
+        try {
+            Files.move(aTmpFile, aFile, StandardCopyOption.ATOMIC_MOVE);
+        } catch (final AtomicMoveNotSupportedException details) {
+            Files.move(aTmpFile, aFile, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            // If the file was moved, there's nothing left to delete
+            Files.deleteIfExists(aTmpFile);
+        }
+    }
+
+    /**
+     * Gets a hex encoded digest of the supplied bytes. The buffer's position is left where it was.
+     *
+     * @param aBytes A buffer of bytes
+     * @return A hex encoded digest of the buffer's remaining bytes
+     */
+    static String digest(final ByteBuffer aBytes) {
+        final MessageDigest digest = newDigest();
+
+        digest.update(aBytes.duplicate());
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    /**
+     * Creates a new message digest.
+     *
+     * @return A message digest
+     * @throws I18nRuntimeException If the JVM doesn't support the digest algorithm
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (final NoSuchAlgorithmException details) {
+            throw new I18nRuntimeException(details);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+
+package info.freelibrary.maven;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * The fingerprints of the inputs a generating mojo last used, kept separately for each input, along with the output
+ * each input generated. Unlike a {@link BuildState}, which covers all of a mojo's inputs at once, this lets a mojo skip
+ * the inputs that haven't changed, regenerate the ones that have, and clean up the outputs of the ones that are gone.
+ */
+final class BundleState {
+
+    /**
+     * The separator between the fields of a line of the state file.
+     */
+    private static final String SEPARATOR = "\t";
+
+    /**
+     * The number of fields in a line of the state file: the fingerprint, the input, and the output.
+     */
+    private static final int FIELD_COUNT = 3;
+
+    /**
+     * The fingerprints and outputs of the inputs that were recorded by the last build, keyed by input.
+     */
+    private final Map<String, String[]> myLastState;
+
+    /**
+     * The fingerprints and outputs of the inputs that have been recorded by this build, keyed by input.
+     */
+    private final Map<String, String[]> myState = new TreeMap<>();
+
+    /**
+     * The file in which the state is stored between builds.
+     */
+    private final Path myStateFile;
+
+    /**
+     * Creates a new bundle state from what the last build stored in the supplied file.
+     *
+     * @param aStateFile A file in which to store the state
+     * @throws IOException If the stored state cannot be read
+     */
+    BundleState(final Path aStateFile) throws IOException {
+        myStateFile = aStateFile;
+        myLastState = read(aStateFile);
+    }
+
+    /**
+     * Gets the output an input generated in the last build, if it's unchanged since then and the output still exists.
+     *
+     * @param aInput An input (e.g., the path of a message file)
+     * @param aFingerprint The input's current fingerprint
+     * @return The output the input generated, if it can be reused
+     */
+    Optional<Path> getUnchangedOutput(final String aInput, final String aFingerprint) {
+        final String[] lastState = myLastState.get(aInput);
+
+        if (lastState == null || !lastState[0].equals(aFingerprint)) {
+            return Optional.empty();
+        }
+
+        return Optional.of(Path.of(lastState[2])).filter(Files::exists);
+    }
+
+    /**
+     * Checks whether an input has already been recorded by this build.
+     *
+     * @param aInput An input (e.g., the path of a message file)
+     * @return True if the input has been recorded
+     */
+    boolean isRecorded(final String aInput) {
+        return myState.containsKey(aInput);
+    }
+
+    /**
+     * Records the output an input generated in this build.
+     *
+     * @param aInput An input (e.g., the path of a message file)
+     * @param aFingerprint The input's fingerprint
+     * @param aOutput The output the input generated
+     * @return This bundle state
+     */
+    BundleState record(final String aInput, final String aFingerprint, final Path aOutput) {
+        myState.put(aInput, new String[] { aFingerprint, aInput, aOutput.toString() });
+        return this;
+    }
+
+    /**
+     * Keeps what the last build recorded for an input that this build couldn't generate, so that its outputs aren't
+     * treated as stale. Since the last build's fingerprint is kept, the input is generated again by the next build.
+     *
+     * @param aInput An input (e.g., the path of a message file)
+     * @return This bundle state
+     */
+    BundleState keep(final String aInput) {
+        final String[] lastState = myLastState.get(aInput);
+
+        if (lastState != null) {
+            myState.putIfAbsent(aInput, lastState);
+        }
+
+        return this;
+    }
+
+    /**
+     * Gets the outputs that were generated by the last build from inputs that weren't recorded by this one, and that
+     * this build didn't generate from some other input.
+     *
+     * @return The outputs that are stale
+     */
+    List<Path> getStaleOutputs() {
+        final Set<String> outputs = new HashSet<>();
+        final List<Path> staleOutputs = new ArrayList<>();
+
+        for (final String[] state : myState.values()) {
+            outputs.add(state[2]);
+        }
+
+        for (final Map.Entry<String, String[]> lastState : myLastState.entrySet()) {
+            final String output = lastState.getValue()[2];
+
+            if (!myState.containsKey(lastState.getKey()) && outputs.add(output)) {
+                staleOutputs.add(Path.of(output));
+            }
+        }
+
+        return staleOutputs;
+    }
+
+    /**
+     * Stores the recorded state so that the next build can compare its inputs against it. The state file is only
+     * written if the state has changed.
+     *
+     * @throws IOException If the state cannot be written
+     */
+    void save() throws IOException {
+        final StringBuilder builder = new StringBuilder();
+
+        for (final String[] state : myState.values()) {
+            builder.append(String.join(SEPARATOR, state)).append('\n');
+        }
+
+        Files.createDirectories(myStateFile.getParent());
+        BuildState.write(myStateFile, builder.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads the state that was stored by the last build.
+     *
+     * @param aStateFile A file in which the state is stored
+     * @return The fingerprints, inputs, and outputs that were stored, keyed by input
+     * @throws IOException If the state file cannot be read
+     */
+    private static Map<String, String[]> read(final Path aStateFile) throws IOException {
+        final Map<String, String[]> state = new HashMap<>();
+
+        // Without any state from a last build, every input is new
+        if (!Files.exists(aStateFile)) {
+            return state;
+        }
+
+        for (final String line : Files.readAllLines(aStateFile, StandardCharsets.UTF_8)) {
+            final String[] fields = line.split(SEPARATOR, FIELD_COUNT);
+
+            // Ignore anything that's not a complete record; the input will just be regenerated
+            if (fields.length == FIELD_COUNT) {
+                state.put(fields[1], fields);
+            }
+        }
+
+        return state;
+    }
+}
@@ -1,30 +1,30 @@
 
 package info.freelibrary.maven;
 
-import static info.freelibrary.util.Constants.DASH;
-
-import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileWriter;
 import java.io.IOException;
-import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Properties;
-import java.util.UUID;
-import java.util.function.Predicate;
-import java.util.jar.JarFile;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import org.apache.commons.io.filefilter.RegexFileFilter;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -33,17 +33,15 @@ import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
-import org.codehaus.plexus.util.StringUtils;
 import org.jboss.forge.roaster.Roaster;
 import org.jboss.forge.roaster.model.source.FieldSource;
 import org.jboss.forge.roaster.model.source.JavaClassSource;
 
 import info.freelibrary.util.FileUtils;
 import info.freelibrary.util.I18nRuntimeException;
-import info.freelibrary.util.JarUtils;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
-import info.freelibrary.util.ThrowingConsumer;
+import info.freelibrary.util.warnings.Checkstyle;
 import info.freelibrary.util.warnings.PMD;
 
 /**
@@ -53,7 +51,8 @@ import info.freelibrary.util.warnings.PMD;
  */
 @Mojo(name = MojoNames.GENERATE_CODES, defaultPhase = LifecyclePhase.PROCESS_SOURCES,
         requiresDependencyResolution = ResolutionScope.COMPILE)
-@SuppressWarnings({ PMD.EXCESSIVE_IMPORTS })
+@SuppressWarnings({ PMD.EXCESSIVE_IMPORTS, PMD.COUPLING_BETWEEN_OBJECTS, PMD.GOD_CLASS, PMD.TOO_MANY_METHODS,
+    PMD.CYCLOMATIC_COMPLEXITY, PMD.AVOID_DUPLICATE_LITERALS, Checkstyle.MULTIPLE_STRING_LITERALS })
 public class I18nCodesMojo extends AbstractMojo {
 
     /**
@@ -61,10 +60,68 @@ public class I18nCodesMojo extends AbstractMojo {
      */
     private static final String BUNDLE_DELIM = "_";
 
+    /**
+     * The name of the field that holds the bundle's name.
+     */
+    private static final String BUNDLE_FIELD = "BUNDLE";
+
+    /**
+     * The Javadoc of the field that holds the bundle's name.
+     */
+    private static final String BUNDLE_JAVADOC = "Message bundle name.";
+
+    /**
+     * The characters in a message key that can't be in a field name.
+     */
+    private static final Pattern KEY_DELIMS = Pattern.compile("[\\.-]");
+
+    /**
+     * A pattern that matches the name of a locale variant of a message file, with the base file's name (without its
+     * extension) and the variant's locale as its groups.
+     */
+    private static final Pattern LOCALE_VARIANT =
+            Pattern.compile("(.+_messages)_([A-Za-z]{2,3}(?:_[A-Za-z0-9]+)*)\\.xml");
+
+    /**
+     * The prefix of a message field's Javadoc.
+     */
+    private static final String MESSAGE_JAVADOC = "Message: ";
+
+    /**
+     * The file extension of a properties file that a message file is transcoded into.
+     */
+    private static final String PROPERTIES_EXT = ".properties";
+
+    /**
+     * The modifier of the codes class' fields.
+     */
+    private static final String PUBLIC = "public";
+
+    /**
+     * The generator that builds message codes classes with Roaster.
+     */
+    private static final String ROASTER_GENERATOR = "roaster";
+
+    /**
+     * The body of the codes class' constructor.
+     */
+    private static final String SUPER_CALL = "super();";
+
+    /**
+     * The generator that writes message codes classes straight out as text.
+     */
+    private static final String TEXT_GENERATOR = "text";
+
+    /**
+     * The file extension of a message file.
+     */
+    private static final String XML_EXT = ".xml";
+
     /**
      * A regular expression pattern to find the expected message file.
      */
-    private static final RegexFileFilter DEFAULT_MESSAGE_FILTER = new RegexFileFilter(".*_messages.xml");
+    private static final RegexFileFilter DEFAULT_MESSAGE_FILTER =
+            new RegexFileFilter(".*_messages(_[A-Za-z0-9]+)*\\.xml");
 
     /**
      * The logger for I18nCodesMojo.
@@ -76,11 +133,36 @@ public class I18nCodesMojo extends AbstractMojo {
      */
     private static final String MESSAGE_CLASS_NAME = "message-class-name";
 
+    /**
+     * The extension of the file, in the build state directory, that holds the fingerprints of the message files an
+     * execution of the goal last used.
+     */
+    private static final String STATE_EXT = ".state";
+
+    /**
+     * The characters that can't be used in the name of an execution's state file.
+     */
+    private static final Pattern UNSAFE_CHARS = Pattern.compile("[^A-Za-z0-9._-]");
+
     /**
      * The resources directory where the message file should be found.
      */
     private static final File RESOURCES_DIR = new File("src/main/resources");
 
+    /**
+     * A configuration option for generating, along with each message's code, a method that formats the message. The
+     * methods parse each message once, the first time it's used, and reuse the parsed message after that.
+     */
+    @Parameter(alias = Config.ACCESSORS, property = Config.ACCESSORS, defaultValue = "false")
+    protected boolean isGeneratingAccessors;
+
+    /**
+     * A configuration option to fail the build if a locale variant of a message file is missing any of its base file's
+     * keys, has keys its base file doesn't, or has messages with a different number of placeholders.
+     */
+    @Parameter(alias = Config.FAIL_ON_LOCALE_ERRORS, property = Config.FAIL_ON_LOCALE_ERRORS, defaultValue = "false")
+    protected boolean isFailingOnLocaleErrors;
+
     /**
      * A configuration option to ignore if the messages file is missing.
      */
@@ -88,12 +170,27 @@ public class I18nCodesMojo extends AbstractMojo {
             defaultValue = "false")
     protected boolean isIgnoringMissingFiles;
 
+    /**
+     * A configuration option for generating a compact, binary resource bundle in addition to the codes class, along
+     * with a <code>Bundle</code> class, nested in the codes class, that reads it.
+     */
+    @Parameter(alias = Config.IS_BINARY_BUNDLE_NEEDED, property = Config.IS_BINARY_BUNDLE_NEEDED,
+            defaultValue = "false")
+    protected boolean isBinaryBundleNeeded;
+
     /**
      * A configuration option for generating a standard properties file in addition to the codes class.
      */
     @Parameter(alias = Config.IS_TRANSCODING_NEEDED, property = Config.IS_TRANSCODING_NEEDED, defaultValue = "false")
     protected boolean isTranscodingNeeded;
 
+    /**
+     * A configuration option for how message codes classes are generated: "text" writes their source straight out, and
+     * "roaster" builds it with Roaster, which is slower and uses more memory with large message files.
+     */
+    @Parameter(alias = Config.GENERATOR, property = Config.GENERATOR, defaultValue = TEXT_GENERATOR)
+    protected String myGenerator;
+
     /**
      * A configuration option for the generated sources directory.
      */
@@ -101,6 +198,14 @@ public class I18nCodesMojo extends AbstractMojo {
             defaultValue = "${project.basedir}/src/main/generated")
     protected File myGeneratedSrcDir;
 
+    /**
+     * A configuration option for the JSON report of how well the locale variants of message files match their base
+     * files.
+     */
+    @Parameter(alias = Config.LOCALE_REPORT, property = Config.LOCALE_REPORT,
+            defaultValue = "${project.build.directory}/freelib-maven/locale-report.json")
+    protected File myLocaleReport;
+
     /**
      * The Maven project directory.
      */
@@ -113,30 +218,65 @@ public class I18nCodesMojo extends AbstractMojo {
     @Parameter(alias = Config.MESSAGE_FILES, property = Config.MESSAGE_FILES)
     protected List<String> myPropertyFiles;
 
+    /**
+     * A configuration option for the directory in which the fingerprints of the last build's message files are kept.
+     */
+    @Parameter(alias = Config.STATE_DIR, property = Config.STATE_DIR,
+            defaultValue = "${project.build.directory}/freelib-maven")
+    protected File myStateDir;
+
+    /**
+     * The ID of the goal's execution, which keeps the state of each execution separate from the others'.
+     */
+    @Parameter(defaultValue = "${mojoExecution.executionId}", readonly = true)
+    protected String myExecutionId;
+
+    /**
+     * The state of everything, other than a message file itself, that can change what's generated from a message file.
+     * It's digested once per execution and copied into the fingerprint of each message file.
+     */
+    private BuildState myGeneratorState;
+
     @Override
-    @SuppressWarnings({ PMD.PRESERVE_STACK_TRACE, PMD.CYCLOMATIC_COMPLEXITY })
+    @SuppressWarnings({ PMD.PRESERVE_STACK_TRACE, PMD.CYCLOMATIC_COMPLEXITY, PMD.COGNITIVE_COMPLEXITY })
     public void execute() throws MojoExecutionException, MojoFailureException {
         LOGGER.info(MessageCodes.MVN_127);
 
+        if (!TEXT_GENERATOR.equals(myGenerator) && !ROASTER_GENERATOR.equals(myGenerator)) {
+            throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_171, myGenerator));
+        }
+
         try {
+            myGeneratorState = getGeneratorState();
+
+            final BundleState state = new BundleState(myStateDir.toPath().resolve(getStateFileName()));
+
             if (myPropertyFiles != null && !myPropertyFiles.isEmpty()) {
-                generateMessageCodes(myPropertyFiles);
+                generateMessageCodes(myPropertyFiles, state);
 
-                if (isTranscodingNeeded) {
+                if (isTranscodingNeeded || isBinaryBundleNeeded) {
                     LOGGER.info(MessageCodes.MVN_128);
-                    writePropertiesFiles(getPropertyFiles());
+                    writeTranscodedFiles(myPropertyFiles, state);
                 }
+
+                checkLocales(myPropertyFiles);
             } else {
                 final List<String> fileList = Arrays.stream(FileUtils.listFiles(RESOURCES_DIR, DEFAULT_MESSAGE_FILTER))
                         .map(File::getAbsolutePath).collect(Collectors.toList());
 
-                generateMessageCodes(fileList);
+                generateMessageCodes(fileList, state);
 
-                if (isTranscodingNeeded) {
+                if (isTranscodingNeeded || isBinaryBundleNeeded) {
                     LOGGER.info(MessageCodes.MVN_129);
-                    writePropertiesFiles(fileList);
+                    writeTranscodedFiles(fileList, state);
                 }
+
+                checkLocales(fileList);
             }
+
+            // Clean up after message files that have been removed (or that no longer generate the same outputs)
+            deleteStaleOutputs(state);
+            state.save();
         } catch (final FileNotFoundException | NoSuchFileException details) {
             if (!isIgnoringMissingFiles) {
                 LOGGER.warn(MessageCodes.MVN_001);
@@ -149,147 +289,695 @@ public class I18nCodesMojo extends AbstractMojo {
     }
 
     /**
-     * Generates the message codes class.
+     * Generates the message codes classes and, if they're needed, the files they're transcoded into. Each message file
+     * is read once, on its own, for all of them. A locale variant of a message file (e.g., <code>foo_messages_fr.xml
+     * </code> next to <code>foo_messages.xml</code>) shares its base file's class, so only its transcoded files are
+     * generated. Message files are read and generated on a pool of threads that's bounded by the number of available
+     * processors. Message files that haven't changed since the last build, and whose outputs still exist, aren't read
+     * or generated again. All the message files are read, and checked to make sure no two of them generate the same
+     * class, before any of their outputs is written.
      *
      * @param aFilesList A list of message files
+     * @param aState The state of the message files from the last build, in which this build's state is recorded
+     * @throws MojoExecutionException If two message files generate the same class, or a class can't be generated
      */
-    @SuppressWarnings({ PMD.AVOID_FILE_STREAM, PMD.CYCLOMATIC_COMPLEXITY, PMD.COGNITIVE_COMPLEXITY })
-    private void generateMessageCodes(final List<String> aFilesList) {
-        final Properties properties = new Properties();
-
-        aFilesList.stream().map(File::new).filter(File::exists).forEach((ThrowingConsumer<File>) file -> {
-            LOGGER.debug("Generating message codes for: {}", file);
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY })
+    private void generateMessageCodes(final List<String> aFilesList, final BundleState aState)
+            throws MojoExecutionException {
+        final List<File> files = aFilesList.stream().map(File::new).filter(File::exists).collect(Collectors.toList());
+        final int threadCount = Math.max(1, Math.min(files.size(), Runtime.getRuntime().availableProcessors()));
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount); // NOPMD - CloseResource, shut down
 
-            try (FileInputStream inStream = new FileInputStream(file)) {
-                properties.loadFromXML(inStream);
+        try {
+            final Map<File, Future<MessageBundle>> loads = new LinkedHashMap<>();
+            final Map<Path, File> outputs = new HashMap<>();
+            final List<MessageBundle> bundles = new ArrayList<>(files.size());
+            final Map<MessageBundle, Future<MessageBundle>> writes = new LinkedHashMap<>();
 
-                final String fullClassName = properties.getProperty(MESSAGE_CLASS_NAME);
-                final String srcFolder = myGeneratedSrcDir == null ? myProject.getBuild().getSourceDirectory()
-                        : myGeneratedSrcDir.getAbsolutePath();
+            for (final File file : files) {
+                loads.put(file, executor.submit(() -> loadMessages(file, aState)));
+            }
 
-                if (fullClassName != null) {
-                    final String[] nameParts = fullClassName.split("\\.");
-                    final int classNameIndex = nameParts.length - 1;
-                    final String className = nameParts[classNameIndex];
-                    final String[] packageParts = Arrays.copyOfRange(nameParts, 0, classNameIndex);
-                    final String pkgName = StringUtils.join(packageParts, ".");
-                    final JavaClassSource source = Roaster.create(JavaClassSource.class);
-                    final File pkgDir = Path.of(srcFolder, pkgName.replace('.', File.separatorChar)).toFile();
+            // Every message file is loaded and checked before any of them is written
+            for (final Map.Entry<File, Future<MessageBundle>> load : loads.entrySet()) {
+                final File file = load.getKey();
+                final MessageBundle bundle = await(load.getValue(), file);
 
-                    source.setFinal(true).setPublic();
+                // A message file that couldn't be read has already been logged, and keeps its last outputs
+                if (bundle == null) {
+                    keep(file, aState);
+                    continue;
+                }
 
-                    // Make sure the package directory already exists
-                    if (!pkgDir.exists() && !pkgDir.mkdirs()) {
-                        throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_003, pkgDir, className));
+                if (bundle.myOutput == null) {
+                    if (getBaseFile(file) == null) {
+                        LOGGER.warn(MessageCodes.MVN_002, MESSAGE_CLASS_NAME);
                     }
+                } else if (outputs.putIfAbsent(bundle.myOutput, file) != null) {
+                    final File otherFile = outputs.get(bundle.myOutput);
 
-                    // Cycle through all the entries in the supplied messages file, creating fields
-                    for (final String key : properties.stringPropertyNames()) {
-                        // Create a field that contains the name of the bundle file
-                        if (MESSAGE_CLASS_NAME.equals(key)) {
-                            final FieldSource<JavaClassSource> field = source.addField();
-                            final String bundleName = FileUtils.stripExt(file.getName());
-
-                            field.setName("BUNDLE").setStringInitializer(bundleName);
-                            field.setType(String.class.getSimpleName()).setPublic().setStatic(true).setFinal(true);
-                            field.getJavaDoc().setFullText("Message bundle name.");
-                        }
-
-                        // Create a field in our new message codes class for the message
-                        if (!MESSAGE_CLASS_NAME.equals(key)) {
-                            final String normalizedKey = key.replaceAll("[\\.-]", BUNDLE_DELIM);
-                            final String value = properties.getProperty(key);
-                            final FieldSource<JavaClassSource> field = source.addField();
-
-                            field.setName(normalizedKey).setStringInitializer(key);
-                            field.setType(String.class.getSimpleName()).setPublic().setStatic(true).setFinal(true);
-                            field.getJavaDoc().setFullText("Message: " + value);
-                        }
-                    }
+                    // Two bundles that generate the same class would overwrite each other, so fail before either does
+                    throw new MojoExecutionException(
+                            LOGGER.getMessage(MessageCodes.MVN_167, otherFile, file, bundle.myOutput));
+                }
 
-                    // Add private constructor
-                    source.addMethod().setPrivate().setConstructor(true).setBody("super();");
+                bundles.add(bundle);
+            }
 
-                    // Create our new message codes class in the requested package directory
-                    try (FileWriter javaWriter = new FileWriter(new File(pkgDir, className + ".java"))) {
-                        // Let's tell Checkstyle to ignore the generated code (if it's so configured)
-                        source.getJavaDoc().setFullText(LOGGER.getMessage(MessageCodes.MVN_008));
+            for (final MessageBundle bundle : bundles) {
+                if (bundle.myMessages == null) {
+                    LOGGER.debug(MessageCodes.MVN_168, bundle.myFile);
+                    record(bundle, aState);
+                } else {
+                    writes.put(bundle, executor.submit(() -> writeBundle(bundle)));
+                }
+            }
 
-                        // Name our Java file and add a constructor
-                        source.setPackage(pkgName).setName(className);
+            recordWrites(writes, aState);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
 
-                        // Lastly, write our generated Java class out to the file system
-                        javaWriter.write(source.toString());
+    /**
+     * Waits for the message bundles' outputs to be written, recording the state of each bundle whose outputs were and
+     * keeping the last state of each bundle whose outputs weren't.
+     *
+     * @param aWriteMap The message bundles whose outputs are being written, and the tasks that are writing them
+     * @param aState The state in which this build's state is recorded
+     * @throws MojoExecutionException If a bundle's outputs can't be generated
+     */
+    private void recordWrites(final Map<MessageBundle, Future<MessageBundle>> aWriteMap, final BundleState aState)
+            throws MojoExecutionException {
+        for (final Map.Entry<MessageBundle, Future<MessageBundle>> write : aWriteMap.entrySet()) {
+            // A bundle that couldn't be written has already been logged, and will be generated again next time
+            if (await(write.getValue(), write.getKey().myFile) != null) {
+                record(write.getKey(), aState);
+            } else {
+                keep(write.getKey().myFile, aState);
+            }
+        }
+    }
+
+    /**
+     * Keeps the outputs the last build recorded for a message file that couldn't be generated, so they aren't deleted
+     * as stale.
+     *
+     * @param aFile A message file
+     * @param aState The state in which this build's state is recorded
+     */
+    private void keep(final File aFile, final BundleState aState) {
+        aState.keep(aFile.getAbsolutePath());
+
+        for (final Path transcodedFile : getTranscodedFiles(aFile.getPath())) {
+            aState.keep(transcodedFile.toString());
+        }
+    }
+
+    /**
+     * Records the outputs a message bundle generated.
+     *
+     * @param aBundle A message bundle
+     * @param aState The state in which this build's state is recorded
+     */
+    private void record(final MessageBundle aBundle, final BundleState aState) {
+        if (aBundle.myOutput != null) {
+            aState.record(aBundle.myFile.getAbsolutePath(), aBundle.myFingerprint, aBundle.myOutput);
+        }
+
+        for (final Path transcodedFile : aBundle.myTranscodedFiles) {
+            aState.record(transcodedFile.toString(), aBundle.myFingerprint, transcodedFile);
+        }
+    }
+
+    /**
+     * Waits for a message file's task to finish. I/O errors are logged, so that one unreadable message file doesn't
+     * stop the others from being generated.
+     *
+     * @param <T> The type of the task's result
+     * @param aFuture The task's future
+     * @param aFile The message file, if it's known, for logging
+     * @return The task's result, or null if it failed with an I/O error
+     * @throws MojoExecutionException If the task failed for some other reason or the wait was interrupted
+     */
+    @SuppressWarnings(PMD.PRESERVE_STACK_TRACE)
+    private <T> T await(final Future<T> aFuture, final File aFile) throws MojoExecutionException {
+        try {
+            return aFuture.get();
+        } catch (final InterruptedException details) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException(details.getMessage(), details);
+        } catch (final ExecutionException details) {
+            final Throwable cause = details.getCause();
+
+            if (cause instanceof MojoExecutionException) {
+                throw (MojoExecutionException) cause;
+            }
+
+            if (cause instanceof IOException) {
+                LOGGER.error(cause.getMessage(), cause);
+                return null;
+            }
+
+            throw new MojoExecutionException(aFile == null ? cause.getMessage() : aFile.getPath(), cause);
+        }
+    }
+
+    /**
+     * Reads a message file, unless it hasn't changed since its outputs were last generated.
+     *
+     * @param aFile A message file
+     * @param aState The state of the message files from the last build
+     * @return The message bundle
+     * @throws IOException If the message file cannot be read
+     */
+    private MessageBundle loadMessages(final File aFile, final BundleState aState) throws IOException {
+        final byte[] bytes = Files.readAllBytes(aFile.toPath());
+        final String fingerprint = getFingerprint(bytes);
+        final Optional<Path> output = aState.getUnchangedOutput(aFile.getAbsolutePath(), fingerprint);
+        final List<Path> transcodedFiles = getTranscodedFiles(aFile.getPath());
+        final boolean isVariant = getBaseFile(aFile) != null;
+
+        if ((isVariant || output.isPresent()) && transcodedFiles.stream()
+                .allMatch(file -> aState.getUnchangedOutput(file.toString(), fingerprint).isPresent())) {
+            return new MessageBundle(aFile, fingerprint, null, output.orElse(null), transcodedFiles);
+        }
+
+        LOGGER.debug("Generating message codes for: {}", aFile);
+
+        final Map<String, String> messages = MessageFile.read(bytes);
+
+        // A locale variant's codes are in its base file's class
+        final String fullClassName = isVariant ? null : messages.get(MESSAGE_CLASS_NAME);
+
+        return new MessageBundle(aFile, fingerprint, messages,
+                fullClassName == null ? null : getSourceFile(fullClassName), transcodedFiles);
+    }
+
+    /**
+     * Checks the locale variants of the supplied message files against their base files, in parallel, for keys that are
+     * missing or extra and for messages with a different number of placeholders. The results are written to the locale
+     * report, and each variant that has problems is logged.
+     *
+     * @param aFilesList A list of message files
+     * @throws MojoExecutionException If a check cannot be finished or the report cannot be written
+     * @throws MojoFailureException If a variant has problems and the build is configured to fail when one does
+     */
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY, PMD.COGNITIVE_COMPLEXITY, PMD.N_PATH_COMPLEXITY })
+    private void checkLocales(final List<String> aFilesList) throws MojoExecutionException, MojoFailureException {
+        final Map<File, List<File>> variants = new LinkedHashMap<>();
+
+        for (final String filePath : aFilesList) {
+            final File file = new File(filePath);
+            final File baseFile = file.exists() ? getBaseFile(file) : null;
+
+            if (baseFile != null) {
+                variants.computeIfAbsent(baseFile, key -> new ArrayList<>()).add(file);
+            }
+        }
+
+        if (variants.isEmpty()) {
+            return;
+        }
+
+        final int threadCount = Math.max(1, Math.min(variants.size(), Runtime.getRuntime().availableProcessors()));
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount); // NOPMD - CloseResource, shut down
+
+        try {
+            final Map<File, Future<Map<String, String>>> bases = new LinkedHashMap<>();
+            final Map<File, Future<LocaleReport.Check>> checks = new LinkedHashMap<>();
+            final LocaleReport report = new LocaleReport();
+
+            for (final File baseFile : variants.keySet()) {
+                bases.put(baseFile, executor.submit(() -> MessageFile.read(Files.readAllBytes(baseFile.toPath()))));
+            }
+
+            // Each base file is only read once, however many variants it has
+            for (final Map.Entry<File, List<File>> bundle : variants.entrySet()) {
+                final Map<String, String> baseMessages = await(bases.get(bundle.getKey()), bundle.getKey());
+
+                if (baseMessages != null) {
+                    for (final File variant : bundle.getValue()) {
+                        checks.put(variant, executor.submit(() -> checkLocale(variant, baseMessages)));
                     }
-                } else {
-                    LOGGER.warn(MessageCodes.MVN_002, MESSAGE_CLASS_NAME);
                 }
-            } catch (final IOException details) {
-                LOGGER.error(details.getMessage(), details);
             }
-        });
+
+            for (final Map.Entry<File, Future<LocaleReport.Check>> check : checks.entrySet()) {
+                final LocaleReport.Check result = await(check.getValue(), check.getKey());
+
+                if (result != null) {
+                    report.add(getBaseFile(check.getKey()), result);
+                }
+            }
+
+            writeLocaleReport(report, checks.size());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Checks a locale variant of a message file against its base file's messages.
+     *
+     * @param aVariant A locale variant of a message file
+     * @param aBaseMap The messages in the variant's base file
+     * @return The check of the variant
+     * @throws IOException If the variant cannot be read
+     */
+    private LocaleReport.Check checkLocale(final File aVariant, final Map<String, String> aBaseMap) throws IOException {
+        final Map<String, String> messages = MessageFile.read(Files.readAllBytes(aVariant.toPath()));
+        final String locale = LOCALE_VARIANT.matcher(aVariant.getName()).replaceFirst("$2");
+        final LocaleReport.Check check = LocaleReport.check(locale, aVariant, aBaseMap, messages, MESSAGE_CLASS_NAME);
+
+        if (check.hasProblems()) {
+            LOGGER.warn(MessageCodes.MVN_172, locale, aVariant, check.getMissingKeys().size(),
+                    check.getExtraKeys().size(), check.getPlaceholderKeys().size());
+        }
+
+        return check;
+    }
+
+    /**
+     * Writes the locale report, if it's changed, and fails the build if it's configured to fail when a locale variant
+     * has problems.
+     *
+     * @param aReport The locale report
+     * @param aVariantCount The number of locale variants that were checked
+     * @throws MojoExecutionException If the report cannot be written
+     * @throws MojoFailureException If a variant has problems and the build is configured to fail when one does
+     */
+    private void writeLocaleReport(final LocaleReport aReport, final int aVariantCount)
+            throws MojoExecutionException, MojoFailureException {
+        final int problemCount = aReport.getProblemCount();
+
+        try {
+            Files.createDirectories(myLocaleReport.toPath().toAbsolutePath().getParent());
+            BuildState.write(myLocaleReport.toPath(), aReport.toJson());
+        } catch (final IOException details) {
+            throw new MojoExecutionException(details.getMessage(), details);
+        }
+
+        LOGGER.info(MessageCodes.MVN_173, aVariantCount, myLocaleReport);
+
+        if (problemCount > 0 && isFailingOnLocaleErrors) {
+            throw new MojoFailureException(LOGGER.getMessage(MessageCodes.MVN_174, problemCount, myLocaleReport));
+        }
+    }
+
+    /**
+     * Gets the base file of a locale variant of a message file, which is the file in the same directory whose name is
+     * the variant's name without its locale.
+     *
+     * @param aFile A message file
+     * @return The variant's base file, or null if the file isn't a locale variant of a message file that exists
+     */
+    private static File getBaseFile(final File aFile) {
+        final Matcher matcher = LOCALE_VARIANT.matcher(aFile.getName());
+
+        if (matcher.matches()) {
+            final File baseFile = new File(aFile.getAbsoluteFile().getParentFile(), matcher.group(1) + XML_EXT);
+
+            if (baseFile.exists()) {
+                return baseFile;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Gets the name of the file that holds the state of this execution of the goal. Each execution has its own, so the
+     * message files of one execution aren't mistaken for stale inputs by another.
+     *
+     * @return The name of this execution's state file
+     */
+    private String getStateFileName() {
+        if (myExecutionId == null) {
+            return MojoNames.GENERATE_CODES + STATE_EXT;
+        }
+
+        return MojoNames.GENERATE_CODES + '-' + UNSAFE_CHARS.matcher(myExecutionId).replaceAll("-") + STATE_EXT;
+    }
+
+    /**
+     * Gets the state of the generator: the classes and templates that generate the outputs, and the configuration that
+     * changes them.
+     *
+     * @return The state of the generator
+     */
+    private BuildState getGeneratorState() {
+        final BuildState state = new BuildState().update(getClass()).update(JavaSourceWriter.class);
+
+        state.update(MessageAccessors.class).update(MessageAccessors.FORMATS).update(MessageAccessors.XML_CONTROL);
+        state.update(BinaryBundle.class).update(BinaryBundle.getReaderSource());
+        state.update(getSourceFolder()).update(myGenerator);
+        return state.update(Boolean.toString(isGeneratingAccessors)).update(Boolean.toString(isBinaryBundleNeeded));
+    }
+
+    /**
+     * Gets the fingerprint of a message file, which includes everything that can change what's generated from it.
+     *
+     * @param aBytes The contents of a message file
+     * @return The fingerprint of the message file
+     */
+    private String getFingerprint(final byte[] aBytes) {
+        return myGeneratorState.copy().update(aBytes).getFingerprint();
+    }
+
+    /**
+     * Gets the files into which a message file is transcoded: a properties file, a binary bundle, both, or neither.
+     *
+     * @param aXmlFilePath The path of a message file
+     * @return The transcoded files
+     */
+    private List<Path> getTranscodedFiles(final String aXmlFilePath) {
+        final List<Path> transcodedFiles = new ArrayList<>(2);
+
+        if (isTranscodingNeeded) {
+            transcodedFiles.add(getTranscodedFile(aXmlFilePath, PROPERTIES_EXT));
+        }
+
+        if (isBinaryBundleNeeded) {
+            transcodedFiles.add(getTranscodedFile(aXmlFilePath, BinaryBundle.BUNDLE_EXT));
+        }
+
+        return transcodedFiles;
+    }
+
+    /**
+     * Gets a file into which a message file is transcoded.
+     *
+     * @param aXmlFilePath The path of a message file
+     * @param aExt The file extension of the transcoded file
+     * @return The transcoded file
+     */
+    private Path getTranscodedFile(final String aXmlFilePath, final String aExt) {
+        final Path fileName = Path.of(aXmlFilePath.replace(XML_EXT, aExt)).getFileName();
+
+        return Path.of(myProject.getBasedir().getAbsolutePath(), "target/classes", fileName.toString());
+    }
+
+    /**
+     * Gets the folder into which message codes classes are generated.
+     *
+     * @return The generated sources folder
+     */
+    private String getSourceFolder() {
+        return myGeneratedSrcDir == null ? myProject.getBuild().getSourceDirectory()
+                : myGeneratedSrcDir.getAbsolutePath();
+    }
+
+    /**
+     * Gets the source file of a message codes class.
+     *
+     * @param aFullClassName The fully qualified name of a message codes class
+     * @return The class' source file
+     */
+    private Path getSourceFile(final String aFullClassName) {
+        return Path.of(getSourceFolder(), aFullClassName.replace('.', File.separatorChar) + ".java");
     }
 
     /**
-     * Load the user supplied property files from a combination of file and Jar sources.
+     * Writes the outputs of a message bundle that's been read: its message codes class, if it names one, and the files
+     * it's transcoded into, if any are needed. Outputs are only written if they're different from what's already there.
      *
-     * @return An array of accessible property files
-     * @throws IOException If there is trouble reading the property files
+     * @param aBundle A message bundle that's been read
+     * @return The message bundle
+     * @throws MojoExecutionException If the package directory cannot be created
+     * @throws IOException If an output cannot be written
      */
-    private List<String> getPropertyFiles() throws IOException {
-        final List<String> files = new ArrayList<>();
+    private MessageBundle writeBundle(final MessageBundle aBundle) throws MojoExecutionException, IOException {
+        if (aBundle.myOutput != null) {
+            writeMessageCodes(aBundle);
+        }
+
+        for (final Path transcodedFile : aBundle.myTranscodedFiles) {
+            writeTranscodedFile(aBundle.myFile.getPath(), transcodedFile, aBundle.myMessages);
+        }
+
+        return aBundle;
+    }
 
-        myPropertyFiles.stream().forEach((ThrowingConsumer<String>) file -> {
-            if (new File(file).exists()) {
-                files.add(file);
+    /**
+     * Generates and writes the message codes class for a message bundle. The class' fields are in the same order as the
+     * messages in the message file.
+     *
+     * @param aBundle A message bundle that's been read
+     * @throws MojoExecutionException If the package directory cannot be created
+     * @throws IOException If the message codes class cannot be written
+     */
+    private void writeMessageCodes(final MessageBundle aBundle) throws MojoExecutionException, IOException {
+        final String fullClassName = aBundle.myMessages.get(MESSAGE_CLASS_NAME);
+        final int classNameIndex = fullClassName.lastIndexOf('.');
+        final String className = fullClassName.substring(classNameIndex + 1);
+        final String pkgName = classNameIndex == -1 ? "" : fullClassName.substring(0, classNameIndex);
+        final Path pkgDir = aBundle.myOutput.getParent();
+        final byte[] source;
+
+        // Make sure the package directory already exists; other bundles may be creating it at the same time
+        try {
+            Files.createDirectories(pkgDir);
+        } catch (final IOException details) {
+            throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_003, pkgDir, className), details);
+        }
+
+        if (ROASTER_GENERATOR.equals(myGenerator)) {
+            source = getRoasterSource(aBundle, pkgName, className).getBytes(StandardCharsets.UTF_8);
+        } else {
+            source = getTextSource(aBundle, pkgName, className);
+        }
+
+        // Lastly, write our generated Java class out to the file system, if it's changed
+        if (!BuildState.write(aBundle.myOutput, source)) {
+            LOGGER.debug(MessageCodes.MVN_158, aBundle.myOutput);
+        }
+    }
+
+    /**
+     * Gets the source of a message bundle's codes class by writing it straight out as text.
+     *
+     * @param aBundle A message bundle that's been read
+     * @param aPkgName The package of the message codes class
+     * @param aClassName The simple name of the message codes class
+     * @return The UTF-8 bytes of the class' source
+     */
+    private byte[] getTextSource(final MessageBundle aBundle, final String aPkgName, final String aClassName) {
+        final JavaSourceWriter writer = new JavaSourceWriter().writePackage(aPkgName);
+        final Map<String, String> accessors = new LinkedHashMap<>();
+
+        // Let's tell Checkstyle to ignore the generated code (if it's so configured)
+        writer.startType(LOGGER.getMessage(MessageCodes.MVN_008), "public final class " + aClassName);
+
+        // Cycle through all the entries in the supplied messages file, writing fields
+        for (final Map.Entry<String, String> message : aBundle.myMessages.entrySet()) {
+            final String key = message.getKey();
+
+            if (MESSAGE_CLASS_NAME.equals(key)) {
+                writer.writeConstant(BUNDLE_JAVADOC, PUBLIC, BUNDLE_FIELD,
+                        FileUtils.stripExt(aBundle.myFile.getName()));
             } else {
-                final Stream<String> classpathStream = myProject.getCompileClasspathElements().stream();
-                final Predicate<String> isJar = element -> element.endsWith(".jar");
+                final String normalizedKey = KEY_DELIMS.matcher(key).replaceAll(BUNDLE_DELIM);
+
+                writer.writeConstant(MESSAGE_JAVADOC + message.getValue(), PUBLIC, normalizedKey, key);
+                accessors.put(normalizedKey, message.getValue());
+            }
+        }
+
+        writer.writeConstructor("private", aClassName, SUPER_CALL);
+
+        if (isGeneratingAccessors) {
+            new MessageAccessors(accessors).writeTo(writer);
+        }
 
-                LOGGER.debug(MessageCodes.MVN_131, file);
+        if (isBinaryBundleNeeded) {
+            writer.writeMember(null, BinaryBundle.getReaderSource());
+        }
+
+        return writer.endType().toBytes();
+    }
 
-                classpathStream.filter(isJar).forEach((ThrowingConsumer<String>) jar -> {
-                    final JarFile jarFile = new JarFile(jar);
+    /**
+     * Gets the source of a message bundle's codes class by building it with Roaster.
+     *
+     * @param aBundle A message bundle that's been read
+     * @param aPkgName The package of the message codes class
+     * @param aClassName The simple name of the message codes class
+     * @return The class' source
+     */
+    private String getRoasterSource(final MessageBundle aBundle, final String aPkgName, final String aClassName) {
+        final JavaClassSource source = Roaster.create(JavaClassSource.class);
+        final Map<String, String> accessors = new LinkedHashMap<>();
 
-                    if (JarUtils.contains(jarFile, file)) {
-                        final File tmpDir = Files.createTempDirectory(UUID.randomUUID().toString() + DASH).toFile();
+        source.setFinal(true).setPublic();
 
-                        LOGGER.debug(MessageCodes.MVN_130, jar);
+        // Cycle through all the entries in the supplied messages file, creating fields
+        for (final Map.Entry<String, String> message : aBundle.myMessages.entrySet()) {
+            final String key = message.getKey();
 
-                        JarUtils.extract(jarFile, file, tmpDir);
-                        files.add(Path.of(tmpDir.toString(), file).toString());
+            // Create a field that contains the name of the bundle file
+            if (MESSAGE_CLASS_NAME.equals(key)) {
+                final FieldSource<JavaClassSource> field = source.addField();
+                final String bundleName = FileUtils.stripExt(aBundle.myFile.getName());
+
+                field.setName(BUNDLE_FIELD).setStringInitializer(bundleName);
+                field.setType(String.class.getSimpleName()).setPublic().setStatic(true).setFinal(true);
+                field.getJavaDoc().setFullText(BUNDLE_JAVADOC);
+            }
+
+            // Create a field in our new message codes class for the message
+            if (!MESSAGE_CLASS_NAME.equals(key)) {
+                final String normalizedKey = KEY_DELIMS.matcher(key).replaceAll(BUNDLE_DELIM);
+                final FieldSource<JavaClassSource> field = source.addField();
+
+                field.setName(normalizedKey).setStringInitializer(key);
+                field.setType(String.class.getSimpleName()).setPublic().setStatic(true).setFinal(true);
+                field.getJavaDoc().setFullText(MESSAGE_JAVADOC + message.getValue());
+                accessors.put(normalizedKey, message.getValue());
+            }
+        }
+
+        // Add private constructor
+        source.addMethod().setPrivate().setConstructor(true).setBody(SUPER_CALL);
+
+        if (isGeneratingAccessors) {
+            new MessageAccessors(accessors).addTo(source);
+        }
+
+        if (isBinaryBundleNeeded) {
+            source.addNestedType(BinaryBundle.getReaderSource());
+        }
+
+        // Let's tell Checkstyle to ignore the generated code (if it's so configured)
+        source.getJavaDoc().setFullText(LOGGER.getMessage(MessageCodes.MVN_008));
+
+        // Name our Java file and add a constructor
+        source.setPackage(aPkgName).setName(aClassName);
+
+        return source.toString();
+    }
+
+    /**
+     * Writes the files that the supplied XML files are transcoded into, if they haven't already been written while the
+     * XML files' message codes were generated. XML files that aren't on disk are read straight out of the first jar on
+     * the compile classpath that has them, using an index of the classpath's jars that's only built if it's needed.
+     * Transcoded files whose XML files haven't changed since they were last written are skipped.
+     *
+     * @param aFilesList A list of XML resource files, on disk or in jars
+     * @param aState The state of the message files from the last build, in which this build's state is recorded
+     * @throws MojoExecutionException If the compile classpath hasn't been resolved
+     * @throws IOException If an XML file cannot be read or a transcoded file cannot be written
+     */
+    @SuppressWarnings({ PMD.COGNITIVE_COMPLEXITY })
+    private void writeTranscodedFiles(final List<String> aFilesList, final BundleState aState)
+            throws MojoExecutionException, IOException {
+        JarIndex jarIndex = null;
+
+        for (final String xmlFilePath : aFilesList) {
+            final List<Path> filePaths = getTranscodedFiles(xmlFilePath);
+            Map<String, String> messages = null;
+            final byte[] bytes;
+
+            // Transcoded files are tracked by their output, since a message file from a jar has no path of its own
+            filePaths.removeIf(filePath -> aState.isRecorded(filePath.toString()));
+
+            if (filePaths.isEmpty()) {
+                continue;
+            }
+
+            if (new File(xmlFilePath).exists()) {
+                bytes = Files.readAllBytes(Path.of(xmlFilePath));
+            } else {
+                LOGGER.debug(MessageCodes.MVN_131, xmlFilePath);
+
+                if (jarIndex == null) {
+                    jarIndex = getJarIndex();
+                }
+
+                if (jarIndex.getJar(xmlFilePath) == null) {
+                    continue;
+                }
+
+                LOGGER.debug(MessageCodes.MVN_130, jarIndex.getJar(xmlFilePath));
+                bytes = jarIndex.read(xmlFilePath);
+            }
+
+            final String fingerprint = getFingerprint(bytes);
+
+            for (final Path filePath : filePaths) {
+                if (aState.getUnchangedOutput(filePath.toString(), fingerprint).isPresent()) {
+                    LOGGER.debug(MessageCodes.MVN_168, xmlFilePath);
+                } else {
+                    // The message file is only read if one of its transcoded files has to be written
+                    if (messages == null) {
+                        messages = MessageFile.read(bytes);
                     }
-                });
+
+                    writeTranscodedFile(xmlFilePath, filePath, messages);
+                }
+
+                aState.record(filePath.toString(), fingerprint, filePath);
             }
-        });
+        }
+    }
 
-        return files;
+    /**
+     * Gets an index of the jars on the project's compile classpath.
+     *
+     * @return An index of the compile classpath's jars
+     * @throws MojoExecutionException If the compile classpath hasn't been resolved
+     * @throws IOException If a jar cannot be read
+     */
+    private JarIndex getJarIndex() throws MojoExecutionException, IOException {
+        try {
+            return new JarIndex(myProject.getCompileClasspathElements());
+        } catch (final DependencyResolutionRequiredException details) {
+            throw new MojoExecutionException(details.getMessage(), details);
+        }
     }
 
     /**
-     * Writes corresponding properties files from the supplied XML files.
+     * Writes a file that a message file is transcoded into: a binary bundle, or a properties file with the messages in
+     * the order in which they're found in their message file. The file is only written if it's different from what's
+     * already there.
      *
-     * @param aFilesList A list of XML resource files
+     * @param aXmlFilePath The path of the message file
+     * @param aFilePath The transcoded file to write
+     * @param aMessageMap The messages in the message file
+     * @throws IOException If the transcoded file cannot be written
      */
-    private void writePropertiesFiles(final List<String> aFilesList) {
-        aFilesList.stream().forEach((ThrowingConsumer<String>) xmlFilePath -> {
-            final Path fileName = Path.of(xmlFilePath.replace(".xml", ".properties")).getFileName();
-            final String projectDir = myProject.getBasedir().getAbsolutePath();
-            final Path filePath = Path.of(projectDir, "target/classes", fileName.toString());
-            final Path sourceFilePath = Path.of(xmlFilePath);
-            final Properties properties = new Properties();
+    private void writeTranscodedFile(final String aXmlFilePath, final Path aFilePath,
+            final Map<String, String> aMessageMap) throws IOException {
+        final byte[] bytes;
 
-            LOGGER.debug(MessageCodes.MVN_125, xmlFilePath, filePath);
+        LOGGER.debug(MessageCodes.MVN_125, aXmlFilePath, aFilePath);
 
-            // Make sure out output directory exists before trying to write to it
-            Files.createDirectories(filePath.getParent());
+        // Make sure out output directory exists before trying to write to it
+        Files.createDirectories(aFilePath.getParent());
 
-            try (InputStream xmlFileStream = Files.newInputStream(sourceFilePath);
-                    BufferedWriter fileWriter = Files.newBufferedWriter(filePath, StandardCharsets.UTF_8)) {
-                properties.loadFromXML(xmlFileStream);
-                properties.store(fileWriter, LOGGER.getMessage(MessageCodes.MVN_126));
+        if (aFilePath.toString().endsWith(BinaryBundle.BUNDLE_EXT)) {
+            bytes = BinaryBundle.toBytes(aMessageMap);
+        } else {
+            bytes = MessageFile.toProperties(aMessageMap, LOGGER.getMessage(MessageCodes.MVN_126));
+        }
+
+        if (!BuildState.write(aFilePath, bytes)) {
+            LOGGER.debug(MessageCodes.MVN_158, aFilePath);
+        }
+    }
+
+    /**
+     * Deletes the outputs of message files that were generated by the last build, but that aren't any longer.
+     *
+     * @param aState The state of the message files
+     * @throws IOException If a stale output cannot be deleted
+     */
+    private void deleteStaleOutputs(final BundleState aState) throws IOException {
+        for (final Path output : aState.getStaleOutputs()) {
+            if (Files.deleteIfExists(output)) {
+                LOGGER.info(MessageCodes.MVN_169, output);
             }
-        });
+        }
     }
 
     /**
@@ -297,26 +985,56 @@ public class I18nCodesMojo extends AbstractMojo {
      */
     final class Config {
 
+        /**
+         * Constant for whether to generate a method that formats each message.
+         */
+        static final String ACCESSORS = "generateAccessors";
+
+        /**
+         * Constant for whether to fail the build when a locale variant doesn't match its base message file.
+         */
+        static final String FAIL_ON_LOCALE_ERRORS = "failOnLocaleErrors";
+
         /**
          * Constant for the generated sources directory property.
          */
         static final String GEN_SRC_DIR = "generatedSourcesDirectory";
 
+        /**
+         * Constant for the property that picks how message codes classes are generated.
+         */
+        static final String GENERATOR = "codesGenerator";
+
         /**
          * Constant for whether to ignore possibly missing message files.
          */
         static final String IGNORE_MISSING_MESSAGE_FILES = "ignoreMissing";
 
+        /**
+         * Constant for the binary bundle needed property.
+         */
+        static final String IS_BINARY_BUNDLE_NEEDED = "createBinaryBundle";
+
         /**
          * Constant for the transcoding needed property.
          */
         static final String IS_TRANSCODING_NEEDED = "createPropertiesFile";
 
+        /**
+         * Constant for the locale report property.
+         */
+        static final String LOCALE_REPORT = "localeReport";
+
         /**
          * Constant for the message files property.
          */
         static final String MESSAGE_FILES = "messageFiles";
 
+        /**
+         * Constant for the directory in which build state is kept between builds.
+         */
+        static final String STATE_DIR = "buildStateDirectory";
+
         /**
          * A private constructor for a constants class.
          */
@@ -324,4 +1042,54 @@ public class I18nCodesMojo extends AbstractMojo {
             // This is intentionally left empty.
         }
     }
+
+    /**
+     * A message file that's been read, or that's unchanged since its outputs were last generated.
+     */
+    private static final class MessageBundle {
+
+        /**
+         * The message file.
+         */
+        private final File myFile;
+
+        /**
+         * The fingerprint of the message file.
+         */
+        private final String myFingerprint;
+
+        /**
+         * The messages in the file, in the order in which they're written, or null if the file is unchanged and wasn't
+         * read.
+         */
+        private final Map<String, String> myMessages;
+
+        /**
+         * The source file of the message codes class, or null if the file doesn't name a class.
+         */
+        private final Path myOutput;
+
+        /**
+         * The files into which the message file is transcoded, which is empty if none are needed.
+         */
+        private final List<Path> myTranscodedFiles;
+
+        /**
+         * Creates a new message bundle.
+         *
+         * @param aFile The message file
+         * @param aFingerprint The fingerprint of the message file
+         * @param aMessageMap The messages in the file, or null if the file wasn't read
+         * @param aOutput The source file of the message codes class, or null if the file doesn't name a class
+         * @param aTranscodedFileList The files into which the message file is transcoded
+         */
+        private MessageBundle(final File aFile, final String aFingerprint, final Map<String, String> aMessageMap,
+                final Path aOutput, final List<Path> aTranscodedFileList) {
+            myFile = aFile;
+            myFingerprint = aFingerprint;
+            myMessages = aMessageMap;
+            myOutput = aOutput;
+            myTranscodedFiles = aTranscodedFileList;
+        }
+    }
 }
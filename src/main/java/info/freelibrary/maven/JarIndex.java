@@ -0,0 +1,180 @@
+
+package info.freelibrary.maven;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+
+/**
+ * An index of the entries in the jars on a classpath, from which the {@link I18nCodesMojo} reads the message files that
+ * aren't on disk. The index is built once, when it's created, so finding a message file doesn't mean opening every jar.
+ * The entry names of each jar are also cached, by the jar's path and modification time, for as long as the plugin is
+ * loaded, so the modules of a reactor build that share a jar only read its entries once.
+ */
+final class JarIndex {
+
+    /**
+     * The file extension of the classpath elements that are indexed.
+     */
+    private static final String JAR_EXT = ".jar";
+
+    /**
+     * The entry names of the jars that have been read, keyed by the jars' absolute paths.
+     */
+    private static final Map<Path, JarEntries> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * The first jar on the classpath with each entry, keyed by the entry's name.
+     */
+    private final Map<String, Path> myJars = new HashMap<>();
+
+    /**
+     * Creates an index of the entries in the jars on the supplied classpath. Classpath elements that aren't jars, or
+     * that don't exist, are skipped.
+     *
+     * @param aClasspath The elements of a classpath, in order
+     * @throws IOException If a jar cannot be read
+     */
+    JarIndex(final List<String> aClasspath) throws IOException {
+        for (final String element : aClasspath) {
+            final Path jar = Path.of(element).toAbsolutePath();
+
+            if (element.endsWith(JAR_EXT) && Files.isRegularFile(jar)) {
+                for (final String name : getEntries(jar)) {
+                    myJars.putIfAbsent(name, jar);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the first jar on the classpath that has the supplied entry.
+     *
+     * @param aEntryName The name of a jar entry; a leading slash is ignored
+     * @return The jar, or null if no jar on the classpath has the entry
+     */
+    Path getJar(final String aEntryName) {
+        return myJars.get(normalize(aEntryName));
+    }
+
+    /**
+     * Reads the supplied entry straight out of the first jar on the classpath that has it.
+     *
+     * @param aEntryName The name of a jar entry; a leading slash is ignored
+     * @return The entry's contents
+     * @throws FileNotFoundException If no jar on the classpath has the entry
+     * @throws IOException If the entry cannot be read
+     */
+    byte[] read(final String aEntryName) throws IOException {
+        final String name = normalize(aEntryName);
+        final Path jar = myJars.get(name);
+
+        if (jar == null) {
+            throw new FileNotFoundException(aEntryName);
+        }
+
+        try (JarFile jarFile = new JarFile(jar.toFile()); InputStream input = getInputStream(jarFile, name)) {
+            return input.readAllBytes();
+        }
+    }
+
+    /**
+     * Gets the names of a jar's entries, reading them only if the jar has changed since they were last read.
+     *
+     * @param aJar The absolute path of a jar
+     * @return The names of the jar's entries
+     * @throws IOException If the jar cannot be read
+     */
+    private static Set<String> getEntries(final Path aJar) throws IOException {
+        final FileTime modified = Files.getLastModifiedTime(aJar);
+        final JarEntries cached = CACHE.get(aJar);
+
+        if (cached != null && cached.myModified.equals(modified)) {
+            return cached.myNames;
+        }
+
+        try (JarFile jarFile = new JarFile(aJar.toFile())) {
+            final Enumeration<JarEntry> entries = jarFile.entries();
+            final Set<String> names = new HashSet<>();
+
+            while (entries.hasMoreElements()) {
+                final JarEntry entry = entries.nextElement();
+
+                if (!entry.isDirectory()) {
+                    names.add(entry.getName());
+                }
+            }
+
+            CACHE.put(aJar, new JarEntries(modified, names));
+            return names;
+        }
+    }
+
+    /**
+     * Gets an input stream for an entry in an open jar.
+     *
+     * @param aJarFile An open jar
+     * @param aEntryName The name of the entry
+     * @return An input stream for the entry
+     * @throws FileNotFoundException If the jar no longer has the entry
+     * @throws IOException If the entry cannot be read
+     */
+    private static InputStream getInputStream(final JarFile aJarFile, final String aEntryName) throws IOException {
+        final JarEntry entry = aJarFile.getJarEntry(aEntryName);
+
+        if (entry == null) {
+            throw new FileNotFoundException(aJarFile.getName() + "!/" + aEntryName);
+        }
+
+        return aJarFile.getInputStream(entry);
+    }
+
+    /**
+     * Normalizes an entry name so that it matches the names in a jar.
+     *
+     * @param aEntryName The name of a jar entry
+     * @return The name without a leading slash
+     */
+    private static String normalize(final String aEntryName) {
+        return aEntryName.startsWith("/") ? aEntryName.substring(1) : aEntryName;
+    }
+
+    /**
+     * The names of a jar's entries, as of the time the jar was last modified.
+     */
+    private static final class JarEntries {
+
+        /**
+         * The time the jar was last modified when its entries were read.
+         */
+        private final FileTime myModified;
+
+        /**
+         * The names of the jar's entries.
+         */
+        private final Set<String> myNames;
+
+        /**
+         * Creates a record of a jar's entries.
+         *
+         * @param aModified The time the jar was last modified
+         * @param aNameSet The names of the jar's entries
+         */
+        private JarEntries(final FileTime aModified, final Set<String> aNameSet) {
+            myModified = aModified;
+            myNames = aNameSet;
+        }
+    }
+}
@@ -0,0 +1,278 @@
+
+package info.freelibrary.maven;
+
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.regex.Pattern;
+
+/**
+ * A writer of generated Java sources that streams their text straight to a buffered UTF-8 writer, instead of building a
+ * Roaster AST and pretty-printing it. It only knows how to write what the mojos generate: a package, a type with its
+ * Javadoc, string constants, constructors, and members whose source is already written out.
+ */
+final class JavaSourceWriter {
+
+    /** The length past which a line of Javadoc is wrapped. */
+    private static final int LINE_LENGTH = 120;
+
+    /** The indentation of a type's members. */
+    private static final String INDENT = "    ";
+
+    /** The start of a line of Javadoc. */
+    private static final String JAVADOC_LINE = " * ";
+
+    /** A line break in a generated source. */
+    private static final char EOL = '\n';
+
+    /** A pattern that matches the line breaks in Javadoc text. */
+    private static final Pattern LINE_BREAK = Pattern.compile("\\R");
+
+    /** A pattern that matches runs of whitespace in a line of Javadoc text. */
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    /** The bytes of the generated source. */
+    private final ByteArrayOutputStream myBytes = new ByteArrayOutputStream();
+
+    /** The writer of the generated source. */
+    private final Writer myWriter = new BufferedWriter(new OutputStreamWriter(myBytes, StandardCharsets.UTF_8));
+
+    /**
+     * Writes the package declaration.
+     *
+     * @param aPackage A package name, or an empty string for the default package
+     * @return This source writer
+     */
+    JavaSourceWriter writePackage(final String aPackage) {
+        if (!aPackage.isEmpty()) {
+            write("package ").write(aPackage).write(';').write(EOL).write(EOL);
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes the start of a type: its Javadoc, its declaration, and its opening brace.
+     *
+     * @param aJavadoc The type's Javadoc text
+     * @param aDeclaration The type's declaration (e.g., <code>public final class MessageCodes</code>)
+     * @return This source writer
+     */
+    JavaSourceWriter startType(final String aJavadoc, final String aDeclaration) {
+        return writeJavadoc(aJavadoc, "").write(aDeclaration).write(" {").write(EOL);
+    }
+
+    /**
+     * Writes a string constant, with its Javadoc, as a member of the type.
+     *
+     * @param aJavadoc The constant's Javadoc text
+     * @param aModifiers The constant's access modifier (e.g., <code>public</code>)
+     * @param aName The constant's name
+     * @param aValue The constant's value
+     * @return This source writer
+     */
+    JavaSourceWriter writeConstant(final String aJavadoc, final String aModifiers, final String aName,
+            final String aValue) {
+        write(EOL).writeJavadoc(aJavadoc, INDENT).write(INDENT).write(aModifiers).write(" static final String ");
+        return write(aName).write(" = ").writeString(aValue).write(';').write(EOL);
+    }
+
+    /**
+     * Writes a constructor, without any Javadoc, as a member of the type.
+     *
+     * @param aModifiers The constructor's access modifier (e.g., <code>private</code>)
+     * @param aName The name of the type
+     * @param aStatement The single statement in the constructor's body
+     * @return This source writer
+     */
+    JavaSourceWriter writeConstructor(final String aModifiers, final String aName, final String aStatement) {
+        write(EOL).write(INDENT).write(aModifiers).write(' ').write(aName).write("() {").write(EOL);
+        return write(INDENT).write(INDENT).write(aStatement).write(EOL).write(INDENT).write('}').write(EOL);
+    }
+
+    /**
+     * Writes a member of the type whose source is already written out, indenting each of its lines.
+     *
+     * @param aJavadoc The member's Javadoc text, or null if it's included in the source
+     * @param aSource The member's source, without any indentation of its own
+     * @return This source writer
+     */
+    JavaSourceWriter writeMember(final String aJavadoc, final String aSource) {
+        write(EOL);
+
+        if (aJavadoc != null) {
+            writeJavadoc(aJavadoc, INDENT);
+        }
+
+        for (final String line : LINE_BREAK.split(aSource.strip())) {
+            if (!line.isBlank()) {
+                write(INDENT).write(line);
+            }
+
+            write(EOL);
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes source text that's already been laid out, just as it is.
+     *
+     * @param aSource Java source text
+     * @return This source writer
+     */
+    JavaSourceWriter writeSource(final String aSource) {
+        return write(aSource);
+    }
+
+    /**
+     * Writes the end of a type.
+     *
+     * @return This source writer
+     */
+    JavaSourceWriter endType() {
+        return write('}').write(EOL);
+    }
+
+    /**
+     * Gets the generated source, flushing whatever is still buffered.
+     *
+     * @return The UTF-8 bytes of the generated source
+     * @throws UncheckedIOException If the source can't be flushed, which a byte array stream doesn't do
+     */
+    byte[] toBytes() {
+        try {
+            myWriter.flush();
+        } catch (final IOException details) {
+            // A ByteArrayOutputStream doesn't throw I/O exceptions
+            throw new UncheckedIOException(details);
+        }
+
+        return myBytes.toByteArray();
+    }
+
+    /**
+     * Gets the supplied value as a Java string literal.
+     *
+     * @param aValue A string value
+     * @return The string literal, quotes and all
+     */
+    static String toLiteral(final String aValue) {
+        final StringBuilder literal = new StringBuilder(aValue.length() + 2).append('"');
+
+        for (int index = 0; index < aValue.length(); index++) {
+            final char character = aValue.charAt(index);
+
+            switch (character) {
+                case '"' -> literal.append("\\\"");
+                case '\\' -> literal.append("\\\\");
+                case '\n' -> literal.append("\\n");
+                case '\r' -> literal.append("\\r");
+                case '\t' -> literal.append("\\t");
+                default -> {
+                    if (Character.isISOControl(character)) {
+                        literal.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        literal.append(character);
+                    }
+                }
+            }
+        }
+
+        return literal.append('"').toString();
+    }
+
+    /**
+     * Writes a Javadoc comment. Each line of the text is trimmed and wrapped at the line length, and a blank line is
+     * kept as an empty line of the comment. Anything that would end the comment early, or that the compiler would read
+     * as a Unicode escape, is written as an HTML entity.
+     *
+     * @param aJavadoc The Javadoc text
+     * @param aIndent The indentation of the comment
+     * @return This source writer
+     */
+    private JavaSourceWriter writeJavadoc(final String aJavadoc, final String aIndent) {
+        final int width = LINE_LENGTH - aIndent.length() - JAVADOC_LINE.length();
+        final String javadoc = aJavadoc.strip().replace("*/", "*&#47;").replace("\\u", "&#92;u");
+
+        write(aIndent).write("/**").write(EOL);
+
+        for (final String line : LINE_BREAK.split(javadoc)) {
+            final String[] words = WHITESPACE.split(line.trim());
+            int length = 0;
+
+            // A blank line has a single, empty word
+            if (words[0].isEmpty()) {
+                write(aIndent).write(" *").write(EOL);
+                continue;
+            }
+
+            for (final String word : words) {
+                if (length == 0) {
+                    write(aIndent).write(JAVADOC_LINE).write(word);
+                    length = word.length();
+                } else if (length + 1 + word.length() > width) {
+                    write(EOL).write(aIndent).write(JAVADOC_LINE).write(word);
+                    length = word.length();
+                } else {
+                    write(' ').write(word);
+                    length += 1 + word.length();
+                }
+            }
+
+            write(EOL);
+        }
+
+        return write(aIndent).write(" */").write(EOL);
+    }
+
+    /**
+     * Writes a string as a Java string literal.
+     *
+     * @param aValue A string value
+     * @return This source writer
+     */
+    private JavaSourceWriter writeString(final String aValue) {
+        return write(toLiteral(aValue));
+    }
+
+    /**
+     * Writes some text.
+     *
+     * @param aText Some text
+     * @return This source writer
+     * @throws UncheckedIOException If the text can't be written, which a byte array stream doesn't do
+     */
+    private JavaSourceWriter write(final String aText) {
+        try {
+            myWriter.write(aText);
+        } catch (final IOException details) {
+            // A ByteArrayOutputStream doesn't throw I/O exceptions
+            throw new UncheckedIOException(details);
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes a character.
+     *
+     * @param aChar A character
+     * @return This source writer
+     * @throws UncheckedIOException If the character can't be written, which a byte array stream doesn't do
+     */
+    private JavaSourceWriter write(final char aChar) {
+        try {
+            myWriter.write(aChar);
+        } catch (final IOException details) {
+            // A ByteArrayOutputStream doesn't throw I/O exceptions
+            throw new UncheckedIOException(details);
+        }
+
+        return this;
+    }
+}
@@ -3,10 +3,26 @@ package info.freelibrary.maven;
 
 import static info.freelibrary.util.Constants.EMPTY;
 
+import java.io.File;
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import javax.inject.Inject;
+
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
 import org.apache.maven.plugin.MojoFailureException;
@@ -14,26 +30,46 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.project.MavenProject;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.SessionData;
 
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
 import info.freelibrary.util.StringUtils;
-
-import nu.xom.Builder;
-import nu.xom.Document;
-import nu.xom.Nodes;
-import nu.xom.ParsingException;
+import info.freelibrary.util.warnings.PMD;
 
 /**
  * Sets the URL of a Maven artifact's latest snapshot version to a build property.
  */
 @Mojo(name = MojoNames.SET_SNAPSHOT_URL, defaultPhase = LifecyclePhase.VALIDATE)
+@SuppressWarnings({ PMD.EXCESSIVE_IMPORTS, PMD.COUPLING_BETWEEN_OBJECTS, PMD.GOD_CLASS, PMD.TOO_MANY_FIELDS })
 public class LatestSnapshotURLMojo extends AbstractMojo {
 
     /**
-     * A pattern for the URL to be returned as a system property.
+     * A pattern for the URL to be returned as a system property (i.e.
+     * {repo}/{group}/{artifact}/{version}/{artifact}-{snapshot}{-classifier}.{extension}).
+     */
+    private static final String FILE_URL_PATTERN = "{}/{}/{}/{}/{}-{}{}.{}";
+
+    /**
+     * The number of coordinates that identify a snapshot artifact: a group, an artifact, and a version.
+     */
+    private static final int COORDINATE_COUNT = 3;
+
+    /**
+     * The separator of a snapshot artifact's coordinates, or of a type's classifier and extension.
+     */
+    private static final String COORDINATE_DELIM = ":";
+
+    /**
+     * The resolution that fetches and parses a snapshot's metadata itself.
      */
-    private static final String JAR_URL_PATTERN = "{}/{}/{}/{}/{}-{}-{}-{}.jar";
+    private static final String HTTP_RESOLUTION = "http";
+
+    /**
+     * The resolution that goes through the Maven resolver.
+     */
+    private static final String RESOLVER_RESOLUTION = "resolver";
 
     /**
      * The Mojo's logger.
@@ -51,29 +87,172 @@ public class LatestSnapshotURLMojo extends AbstractMojo {
      */
     private static final String REPO_URL_PATTERN = "{}/{}/{}/{}";
 
+    /**
+     * The key of the session data in which a build session's snapshot resolutions are kept.
+     */
+    private static final String RESOLUTIONS = LatestSnapshotURLMojo.class.getName() + ".resolutions";
+
+    /**
+     * The default extension of a snapshot file.
+     */
+    private static final String JAR_EXT = "jar";
+
+    /**
+     * The prefix of the key by which the staging of a snapshot file is shared by a build session.
+     */
+    private static final String STAGE_KEY = "stage ";
+
     /**
      * A standard URL component path separator.
      */
     private static final char SLASH = '/';
 
+    /**
+     * The classifier of the snapshot file whose URL is set (e.g., <code>sources</code>). The default is no classifier.
+     */
+    @Parameter(alias = Config.SNAPSHOT_CLASSIFIER, property = Config.SNAPSHOT_CLASSIFIER)
+    protected String myClassifier;
+
+    /**
+     * The extension of the snapshot file whose URL is set (e.g., <code>war</code>).
+     */
+    @Parameter(alias = Config.SNAPSHOT_EXTENSION, property = Config.SNAPSHOT_EXTENSION, defaultValue = JAR_EXT)
+    protected String myExtension;
+
+    /**
+     * The other files of each snapshot whose URLs are set, each as <code>extension</code> or
+     * <code>classifier:extension</code>. Each file's URL is set to the snapshot's property followed by the file's
+     * classifier, if it has one, and its extension (e.g., <code>snapshot.url.sources.jar</code>).
+     */
+    @Parameter(alias = Config.SNAPSHOT_TYPES, property = Config.SNAPSHOT_TYPES)
+    protected List<String> myTypes;
+
+    /**
+     * Whether to check each snapshot file against the SHA-1 checksum that's published next to it. It's done by the
+     * "http" resolution and for staged files, but not when working offline.
+     */
+    @Parameter(alias = Config.VERIFY_CHECKSUM, property = Config.VERIFY_CHECKSUM, defaultValue = "false")
+    protected boolean isVerifyingChecksum;
+
+    /**
+     * Whether to download each snapshot file into a local staging area, which the builds on a host share, and set its
+     * path to a property: the file's URL property with <code>snapshot.file</code> in place of
+     * <code>snapshot.url</code>.
+     */
+    @Parameter(alias = Config.STAGE, property = Config.STAGE, defaultValue = "false")
+    protected boolean isStaging;
+
+    /**
+     * The most parts of a staged file that are downloaded at the same time, with ranged requests.
+     */
+    @Parameter(alias = Config.STAGE_CONNECTIONS, property = Config.STAGE_CONNECTIONS, defaultValue = "4")
+    protected int myStageConnections;
+
+    /**
+     * The directory in which snapshot files are staged. The default is a directory in the local Maven repository, so
+     * that all the builds on a host share it.
+     */
+    @Parameter(alias = Config.STAGE_DIR, property = Config.STAGE_DIR,
+            defaultValue = "${settings.localRepository}/.cache/freelib-maven/snapshot-files")
+    protected File myStageDir;
+
+    /**
+     * The smallest part, in bytes, that a staged file is split into; a file smaller than two parts is downloaded with a
+     * single request.
+     */
+    @Parameter(alias = Config.STAGE_PART_SIZE, property = Config.STAGE_PART_SIZE, defaultValue = "16777216")
+    protected long myStagePartSize;
+
+    /**
+     * Whether a staged file's download that failed is picked up where it left off, rather than started over.
+     */
+    @Parameter(alias = Config.STAGE_RESUME, property = Config.STAGE_RESUME, defaultValue = "true")
+    protected boolean isResumingStage;
+
     /**
      * The name of the snapshot artifact.
      */
-    @Parameter(alias = Config.SNAPSHOT_ARTIFACT, property = Config.SNAPSHOT_ARTIFACT, required = true)
+    @Parameter(alias = Config.SNAPSHOT_ARTIFACT, property = Config.SNAPSHOT_ARTIFACT)
     protected String myArtifact;
 
     /**
      * The name of the snapshot group.
      */
-    @Parameter(alias = Config.SNAPSHOT_GROUP, property = Config.SNAPSHOT_GROUP, required = true)
+    @Parameter(alias = Config.SNAPSHOT_GROUP, property = Config.SNAPSHOT_GROUP)
     protected String myGroup;
 
+    /**
+     * The directory in which snapshot metadata is cached between builds. The default is a directory in the local Maven
+     * repository, so that all the builds on a host share it.
+     */
+    @Parameter(alias = Config.CACHE_DIR, property = Config.CACHE_DIR,
+            defaultValue = "${settings.localRepository}/.cache/freelib-maven/snapshot-metadata")
+    protected File myCacheDir;
+
+    /**
+     * How long, in seconds, cached snapshot metadata is used before it's revalidated with the repository.
+     */
+    @Parameter(alias = Config.CACHE_TTL, property = Config.CACHE_TTL, defaultValue = "300")
+    protected long myCacheTTL;
+
+    /**
+     * The most snapshot artifacts that are resolved at the same time.
+     */
+    @Parameter(alias = Config.CONCURRENCY, property = Config.CONCURRENCY, defaultValue = "4")
+    protected int myConcurrency;
+
+    /**
+     * How long, in milliseconds, to wait for a connection to the snapshot repository.
+     */
+    @Parameter(alias = Config.CONNECT_TIMEOUT, property = Config.CONNECT_TIMEOUT, defaultValue = "10000")
+    protected long myConnectTimeout;
+
+    /**
+     * Whether to only use cached snapshot metadata, whatever its age, instead of contacting the repository. This is on
+     * whenever Maven is run offline.
+     */
+    @Parameter(alias = Config.OFFLINE, property = Config.OFFLINE, defaultValue = "${settings.offline}")
+    protected boolean isOffline;
+
+    /**
+     * How long, in milliseconds, to wait for the snapshot repository to respond to a request.
+     */
+    @Parameter(alias = Config.READ_TIMEOUT, property = Config.READ_TIMEOUT, defaultValue = "30000")
+    protected long myReadTimeout;
+
     /**
      * The Maven project directory.
      */
     @Parameter(defaultValue = "${project}")
     protected MavenProject myProject;
 
+    /**
+     * The Maven build session.
+     */
+    @Parameter(defaultValue = "${session}", readonly = true)
+    protected MavenSession mySession;
+
+    /**
+     * The ID of the snapshot repository, by which the build's settings find its mirror and its authentication. It's
+     * only used by the "resolver" resolution, and only if none of the project's repositories has the repository's URL.
+     */
+    @Parameter(alias = Config.SNAPSHOT_REPO_ID, property = Config.SNAPSHOT_REPO_ID, defaultValue = "snapshots")
+    protected String myRepoID;
+
+    /**
+     * The Maven resolver.
+     */
+    @Inject
+    protected RepositorySystem myRepositorySystem;
+
+    /**
+     * How snapshots are resolved: "http" fetches and parses their metadata itself, through an on-disk cache, and
+     * "resolver" goes through the Maven resolver, which applies the build's mirrors, proxies, authentication, update
+     * policies, and offline mode, and keeps the metadata in the local repository.
+     */
+    @Parameter(alias = Config.RESOLUTION, property = Config.RESOLUTION, defaultValue = HTTP_RESOLUTION)
+    protected String myResolution;
+
     /**
      * The base URL of the snapshot repository. The default value is:
      * https://s01.oss.sonatype.org/content/repositories/snapshots.
@@ -82,25 +261,364 @@ public class LatestSnapshotURLMojo extends AbstractMojo {
             defaultValue = "https://s01.oss.sonatype.org/content/repositories/snapshots")
     protected String myRepoURL;
 
+    /**
+     * The snapshot artifacts to resolve in a batch, each as <code>groupId:artifactId:version</code>. Each artifact's
+     * URL is set to its own property: <code>snapshot.url.</code> followed by the artifact's ID, so no two of them can
+     * have the same artifact ID.
+     */
+    @Parameter(alias = Config.SNAPSHOTS, property = Config.SNAPSHOTS)
+    protected List<String> mySnapshots;
+
     /**
      * The name of the snapshot version.
      */
-    @Parameter(alias = Config.SNAPSHOT_VERSION, property = Config.SNAPSHOT_VERSION, required = true)
+    @Parameter(alias = Config.SNAPSHOT_VERSION, property = Config.SNAPSHOT_VERSION)
     protected String myVersion;
 
     @Override
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY, PMD.COGNITIVE_COMPLEXITY, PMD.N_PATH_COMPLEXITY })
     public void execute() throws MojoExecutionException, MojoFailureException {
-        final Properties properties = myProject.getProperties();
-        final MavenURL url;
+        final Map<String, MavenURL> urls = new LinkedHashMap<>();
+        final Map<String, String> jarURLs;
+        final SnapshotTask<MavenURL> lookup;
+
+        if (HTTP_RESOLUTION.equals(myResolution)) {
+            final SnapshotMetadataCache cache = getMetadataCache();
+
+            // A file that's staged is verified once it's been downloaded, instead of being downloaded twice
+            lookup = url -> isStaging ? url.getJarURL(cache) : verify(url.getJarURL(cache), cache);
+        } else if (RESOLVER_RESOLUTION.equals(myResolution)) {
+            final SnapshotVersionResolver resolver = new SnapshotVersionResolver(myRepositorySystem,
+                    mySession.getRepositorySession(), myProject.getRemoteProjectRepositories(), myRepoID, myRepoURL);
+
+            lookup = url -> resolver.getJarURL(url.myGroupId.replace(SLASH, '.'), url.myArtifactId, url.myVersion,
+                    url.myClassifier, url.myExtension);
+        } else {
+            throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_185, myResolution));
+        }
+
+        if (myGroup != null || myArtifact != null || myVersion != null) {
+            Objects.requireNonNull(myArtifact);
+            Objects.requireNonNull(myVersion);
+            Objects.requireNonNull(myGroup);
+
+            addURLs(urls, Config.SNAPSHOT_URL, new MavenURL(trim(myGroup).replace('.', SLASH), trim(myArtifact),
+                    trim(myVersion), trim(myRepoURL)));
+        }
+
+        if (mySnapshots != null) {
+            final Map<String, String> batch = new HashMap<>();
+
+            for (final String snapshot : mySnapshots) {
+                final String[] coordinates = snapshot.trim().split(COORDINATE_DELIM);
+                final String property;
+                final String other;
+
+                if (coordinates.length != COORDINATE_COUNT || Arrays.stream(coordinates).anyMatch(String::isBlank)) {
+                    throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_181, snapshot));
+                }
+
+                property = Config.SNAPSHOT_URL + '.' + trim(coordinates[1]);
+                other = batch.putIfAbsent(property, snapshot.trim());
+
+                // Snapshots with the same artifact ID, in different groups, would overwrite each other's properties
+                if (other != null) {
+                    throw new MojoExecutionException(
+                            LOGGER.getMessage(MessageCodes.MVN_200, other, snapshot.trim(), property));
+                }
+
+                addURLs(urls, property, new MavenURL(trim(coordinates[0]).replace('.', SLASH), trim(coordinates[1]),
+                        trim(coordinates[2]), trim(myRepoURL)));
+            }
+        }
+
+        if (urls.isEmpty()) {
+            throw new MojoExecutionException(
+                    LOGGER.getMessage(MessageCodes.MVN_182, Config.SNAPSHOT_ARTIFACT, Config.SNAPSHOTS));
+        }
+
+        jarURLs = resolve(urls, url -> getJarURL(url, lookup));
+        jarURLs.forEach(this::setProperty);
+
+        if (isStaging) {
+            final SnapshotFileStager stager = getFileStager();
+            final SnapshotMetadataCache cache = getMetadataCache();
+
+            resolve(jarURLs, jarURL -> share(STAGE_KEY + jarURL, jarURL, url -> stage(url, stager, cache), jarURL))
+                    .forEach((property, file) -> setProperty(
+                            Config.SNAPSHOT_FILE + property.substring(Config.SNAPSHOT_URL.length()), file));
+        }
+    }
+
+    /**
+     * Adds the files of a snapshot artifact whose URLs are set: the configured file, which is set to the artifact's
+     * property, and each of the other configured types, which are set to properties of their own.
+     *
+     * @param aURLMap The files to resolve, keyed by the properties their URLs are set to
+     * @param aProperty The artifact's property
+     * @param aURL The artifact
+     * @throws MojoExecutionException If one of the configured types isn't valid
+     */
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY, PMD.COGNITIVE_COMPLEXITY })
+    private void addURLs(final Map<String, MavenURL> aURLMap, final String aProperty, final MavenURL aURL)
+            throws MojoExecutionException {
+        aURLMap.put(aProperty, aURL.withType(myClassifier == null ? EMPTY : myClassifier.trim(), myExtension.trim()));
+
+        if (myTypes != null) {
+            for (final String type : myTypes) {
+                final String[] parts = type.trim().split(COORDINATE_DELIM, -1);
+                final String classifier = parts.length > 1 ? parts[0].trim() : EMPTY;
+                final String extension = parts[parts.length - 1].trim();
+
+                if (parts.length > 2 || extension.isEmpty() || parts.length > 1 && classifier.isEmpty()) {
+                    throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_189, type));
+                }
+
+                aURLMap.put(aProperty + '.' + (classifier.isEmpty() ? EMPTY : classifier + '.') + extension,
+                        aURL.withType(classifier, extension));
+            }
+        }
+    }
+
+    /**
+     * Stages a snapshot file in the local staging area, unless it's already there. If checksums are being verified, a
+     * downloaded file is verified before it's staged, so a file that doesn't match its checksum is discarded rather
+     * than shared with later builds. A file that's already staged was verified when it was staged, if it needed to be.
+     *
+     * @param aFileURL The URL of a snapshot file
+     * @param aStager The local staging area
+     * @param aCache The cache whose HTTP client fetches the file's checksum
+     * @return The path of the staged file
+     * @throws MojoFailureException If the file doesn't match its checksum
+     * @throws MojoExecutionException If the file cannot be staged
+     */
+    private String stage(final String aFileURL, final SnapshotFileStager aStager, final SnapshotMetadataCache aCache)
+            throws MojoFailureException, MojoExecutionException {
+        final Path file;
+
+        if (isVerifyingChecksum && isOffline) {
+            LOGGER.debug(MessageCodes.MVN_188, aFileURL);
+        }
+
+        try {
+            file = aStager.stage(aFileURL, isVerifyingChecksum && !isOffline ? aCache::isChecksumValid : null);
+        } catch (final IOException details) {
+            throw new MojoExecutionException(details.getMessage(), details);
+        }
+
+        if (file == null) {
+            throw new MojoFailureException(LOGGER.getMessage(MessageCodes.MVN_187, aFileURL));
+        }
 
-        Objects.requireNonNull(myArtifact);
-        Objects.requireNonNull(myVersion);
-        Objects.requireNonNull(myGroup);
+        return file.toString();
+    }
 
-        url = new MavenURL(trim(myGroup).replace('.', SLASH), trim(myArtifact), trim(myVersion), trim(myRepoURL));
+    /**
+     * Checks a snapshot file against its published SHA-1 checksum, if checksums are being verified. Checksums can't be
+     * verified when working offline, so the check is skipped then. The file is streamed from its repository through the
+     * digest, rather than kept.
+     *
+     * @param aFileURL The URL of a snapshot file
+     * @param aCache The cache whose HTTP client fetches the file and its checksum
+     * @return The URL of the snapshot file
+     * @throws MojoFailureException If the file doesn't match its checksum
+     * @throws MojoExecutionException If the file or its checksum cannot be fetched
+     */
+    private String verify(final String aFileURL, final SnapshotMetadataCache aCache)
+            throws MojoFailureException, MojoExecutionException {
+        if (isVerifyingChecksum) {
+            if (isOffline) {
+                LOGGER.debug(MessageCodes.MVN_188, aFileURL);
+            } else {
+                try {
+                    if (!aCache.isChecksumValid(aFileURL, null)) {
+                        throw new MojoFailureException(LOGGER.getMessage(MessageCodes.MVN_187, aFileURL));
+                    }
+                } catch (final IOException details) {
+                    throw new MojoExecutionException(details.getMessage(), details);
+                }
+            }
+        }
 
-        properties.setProperty(Config.SNAPSHOT_URL, url.getJarURL());
-        LOGGER.info(MessageCodes.MVN_014, Config.SNAPSHOT_URL, properties.getProperty(Config.SNAPSHOT_URL));
+        return aFileURL;
+    }
+
+    /**
+     * Resolves a batch of snapshot artifacts concurrently, no more than the configured number at a time; a single
+     * artifact is resolved on the build's own thread. The artifacts' metadata is fetched with a single HTTP client,
+     * which multiplexes the requests over a shared HTTP/2 connection when the repository supports it.
+     *
+     * @param <T> The type of what's resolved
+     * @param aInputMap What's resolved, keyed by the properties the results are set to
+     * @param aTask How each is resolved
+     * @return The results, keyed by the properties they're set to, in the same order
+     * @throws MojoFailureException If an artifact's metadata isn't what's expected
+     * @throws MojoExecutionException If an artifact's metadata cannot be fetched
+     */
+    private <T> Map<String, String> resolve(final Map<String, T> aInputMap, final SnapshotTask<T> aTask)
+            throws MojoFailureException, MojoExecutionException {
+        final int threadCount = Math.max(1, Math.min(aInputMap.size(), myConcurrency));
+        final Map<String, String> results = new LinkedHashMap<>();
+
+        if (aInputMap.size() == 1) { // NOPMD - AvoidLiteralsInIfCondition, one input doesn't need a pool of threads
+            final Map.Entry<String, T> input = aInputMap.entrySet().iterator().next();
+
+            results.put(input.getKey(), aTask.run(input.getValue()));
+            return results;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount); // NOPMD - CloseResource, shut down
+        final Map<String, Future<String>> futures = new LinkedHashMap<>();
+
+        try {
+            for (final Map.Entry<String, T> input : aInputMap.entrySet()) {
+                futures.put(input.getKey(), executor.submit(() -> aTask.run(input.getValue())));
+            }
+
+            for (final Map.Entry<String, Future<String>> future : futures.entrySet()) {
+                results.put(future.getKey(), await(future.getValue()));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        return results;
+    }
+
+    /**
+     * Gets the URL of a snapshot artifact, resolving it only once per build session. Modules of a reactor build that
+     * ask for the same artifact from the same repository, even at the same time, share one resolution: the first asks
+     * the repository and the rest wait for its answer. A resolution that fails isn't kept, so it can be tried again.
+     *
+     * @param aURL The artifact to resolve
+     * @param aLookup How the artifact is resolved
+     * @return The URL of the artifact's latest snapshot
+     * @throws MojoFailureException If the artifact's metadata isn't what's expected
+     * @throws MojoExecutionException If the artifact's metadata cannot be fetched
+     */
+    private String getJarURL(final MavenURL aURL, final SnapshotTask<MavenURL> aLookup)
+            throws MojoFailureException, MojoExecutionException {
+        final boolean isVerified = isVerifyingChecksum && !isStaging;
+
+        return share(myResolution + (isVerified ? " verified " : " ") + aURL.getMetadataURL() + ' ' +
+                aURL.myClassifier + ':' + aURL.myExtension, aURL.getMetadataURL(), aLookup, aURL);
+    }
+
+    /**
+     * Runs a task only once per build session. Modules of a reactor build that run the same task, even at the same
+     * time, share its result: the first runs it and the rest wait for its answer. A task that fails isn't kept, so it
+     * can be tried again.
+     *
+     * @param <T> The type of the task's input
+     * @param aKey The key by which the task is shared
+     * @param aName What the task is for, to be logged
+     * @param aTask The task
+     * @param aInput The task's input
+     * @return The task's result
+     * @throws MojoFailureException If the task fails
+     * @throws MojoExecutionException If the task cannot be run
+     */
+    @SuppressWarnings({ PMD.AVOID_CATCHING_GENERIC_EXCEPTION })
+    private <T> String share(final String aKey, final String aName, final SnapshotTask<T> aTask, final T aInput)
+            throws MojoFailureException, MojoExecutionException {
+        final Map<String, CompletableFuture<String>> resolutions = getResolutions();
+        final CompletableFuture<String> resolution = new CompletableFuture<>();
+        final CompletableFuture<String> sharedResolution = resolutions.putIfAbsent(aKey, resolution);
+
+        if (sharedResolution != null) {
+            LOGGER.debug(MessageCodes.MVN_183, aName);
+            return await(sharedResolution);
+        }
+
+        try {
+            final String result = aTask.run(aInput);
+
+            resolution.complete(result);
+            return result;
+        } catch (final MojoFailureException | MojoExecutionException | RuntimeException details) {
+            resolutions.remove(aKey, resolution);
+            resolution.completeExceptionally(details);
+            throw details;
+        }
+    }
+
+    /**
+     * Gets the build session's snapshot resolutions, which are kept in the session data of the repository session that
+     * all the modules of a reactor build share.
+     *
+     * @return The snapshot resolutions, keyed by how they're resolved and the URLs of the artifacts' metadata
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, CompletableFuture<String>> getResolutions() {
+        final SessionData data = mySession.getRepositorySession().getData();
+
+        // Another module may be setting the resolutions at the same time, so only set them if they aren't already
+        if (data.get(RESOLUTIONS) == null) {
+            data.set(RESOLUTIONS, null, new ConcurrentHashMap<>());
+        }
+
+        return (Map<String, CompletableFuture<String>>) data.get(RESOLUTIONS);
+    }
+
+    /**
+     * Waits for a snapshot artifact's URL to be resolved.
+     *
+     * @param aFuture The resolution of a snapshot artifact's URL
+     * @return The URL of the artifact's latest snapshot
+     * @throws MojoFailureException If the artifact's metadata isn't what's expected
+     * @throws MojoExecutionException If the artifact's metadata cannot be fetched or the wait was interrupted
+     */
+    @SuppressWarnings(PMD.PRESERVE_STACK_TRACE)
+    private String await(final Future<String> aFuture) throws MojoFailureException, MojoExecutionException {
+        try {
+            return aFuture.get();
+        } catch (final InterruptedException details) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException(details.getMessage(), details);
+        } catch (final ExecutionException details) {
+            final Throwable cause = details.getCause();
+
+            if (cause instanceof MojoFailureException) {
+                throw (MojoFailureException) cause;
+            }
+
+            if (cause instanceof MojoExecutionException) {
+                throw (MojoExecutionException) cause;
+            }
+
+            throw new MojoExecutionException(cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * Sets a build property to a snapshot artifact's URL.
+     *
+     * @param aProperty The name of a build property
+     * @param aJarURL The URL of a snapshot artifact
+     */
+    private void setProperty(final String aProperty, final String aJarURL) {
+        myProject.getProperties().setProperty(aProperty, aJarURL);
+        LOGGER.info(MessageCodes.MVN_014, aProperty, aJarURL);
+    }
+
+    /**
+     * Gets the local staging area into which snapshot files are downloaded.
+     *
+     * @return A snapshot file stager
+     */
+    private SnapshotFileStager getFileStager() {
+        return new SnapshotFileStager(myStageDir.toPath(), myStageConnections, myStagePartSize, isResumingStage,
+                Duration.ofMillis(myConnectTimeout), Duration.ofMillis(myReadTimeout), isOffline);
+    }
+
+    /**
+     * Gets the cache through which snapshot metadata is fetched.
+     *
+     * @return A snapshot metadata cache
+     */
+    private SnapshotMetadataCache getMetadataCache() {
+        return new SnapshotMetadataCache(myCacheDir.toPath(), Duration.ofSeconds(myCacheTTL),
+                Duration.ofMillis(myConnectTimeout), Duration.ofMillis(myReadTimeout), isOffline);
     }
 
     /**
@@ -136,16 +654,76 @@ public class LatestSnapshotURLMojo extends AbstractMojo {
      */
     final class Config {
 
+        /**
+         * A constant for the directory in which snapshot metadata is cached.
+         */
+        static final String CACHE_DIR = "snapshot.cache.dir";
+
+        /**
+         * A constant for how long, in seconds, cached snapshot metadata is used before it's revalidated.
+         */
+        static final String CACHE_TTL = "snapshot.cache.ttl";
+
+        /**
+         * A constant for the most snapshot artifacts that are resolved at the same time.
+         */
+        static final String CONCURRENCY = "snapshot.concurrency";
+
+        /**
+         * A constant for how long, in milliseconds, to wait for a connection to the snapshot repository.
+         */
+        static final String CONNECT_TIMEOUT = "snapshot.connect.timeout";
+
+        /**
+         * A constant for whether to only use cached snapshot metadata.
+         */
+        static final String OFFLINE = "snapshot.offline";
+
+        /**
+         * A constant for how long, in milliseconds, to wait for the snapshot repository to respond.
+         */
+        static final String READ_TIMEOUT = "snapshot.read.timeout";
+
         /**
          * A constant for the snapshot artifact.
          */
         static final String SNAPSHOT_ARTIFACT = "snapshot.artifact";
 
+        /**
+         * A constant for the snapshot artifacts that are resolved in a batch.
+         */
+        static final String SNAPSHOTS = "snapshots";
+
+        /**
+         * A constant for the classifier of the snapshot file.
+         */
+        static final String SNAPSHOT_CLASSIFIER = "snapshot.classifier";
+
+        /**
+         * A constant for the extension of the snapshot file.
+         */
+        static final String SNAPSHOT_EXTENSION = "snapshot.extension";
+
+        /**
+         * A constant for the staged snapshot file build property.
+         */
+        static final String SNAPSHOT_FILE = "snapshot.file";
+
         /**
          * A constant for the snapshot group.
          */
         static final String SNAPSHOT_GROUP = "snapshot.group";
 
+        /**
+         * A constant for how snapshots are resolved.
+         */
+        static final String RESOLUTION = "snapshot.resolution";
+
+        /**
+         * A constant for the snapshot repository ID.
+         */
+        static final String SNAPSHOT_REPO_ID = "snapshot.repo.id";
+
         /**
          * A constant for the snapshot repository URL.
          */
@@ -156,11 +734,46 @@ public class LatestSnapshotURLMojo extends AbstractMojo {
          */
         static final String SNAPSHOT_URL = "snapshot.url";
 
+        /**
+         * A constant for whether snapshot files are staged locally.
+         */
+        static final String STAGE = "snapshot.stage";
+
+        /**
+         * A constant for the most parts of a staged file that are downloaded at the same time.
+         */
+        static final String STAGE_CONNECTIONS = "snapshot.stage.connections";
+
+        /**
+         * A constant for the directory in which snapshot files are staged.
+         */
+        static final String STAGE_DIR = "snapshot.stage.dir";
+
+        /**
+         * A constant for the smallest part that a staged file is split into.
+         */
+        static final String STAGE_PART_SIZE = "snapshot.stage.part.size";
+
+        /**
+         * A constant for whether a staged file's download that failed is resumed.
+         */
+        static final String STAGE_RESUME = "snapshot.stage.resume";
+
+        /**
+         * A constant for the other files of each snapshot whose URLs are set.
+         */
+        static final String SNAPSHOT_TYPES = "snapshot.types";
+
         /**
          * A constant for the snapshot version.
          */
         static final String SNAPSHOT_VERSION = "snapshot.version";
 
+        /**
+         * A constant for whether snapshot files are checked against their SHA-1 checksums.
+         */
+        static final String VERIFY_CHECKSUM = "snapshot.verify.checksum";
+
         /**
          * A private constructor for a constants class.
          */
@@ -169,6 +782,26 @@ public class LatestSnapshotURLMojo extends AbstractMojo {
         }
     }
 
+    /**
+     * A step in resolving a snapshot artifact, such as looking up the URL of its latest snapshot or staging the file at
+     * that URL.
+     *
+     * @param <T> The type of the step's input
+     */
+    @FunctionalInterface
+    private interface SnapshotTask<T> {
+
+        /**
+         * Runs the step.
+         *
+         * @param aInput The step's input
+         * @return The step's result (e.g., the URL of an artifact's latest snapshot jar)
+         * @throws MojoFailureException If the artifact's metadata or file isn't what's expected
+         * @throws MojoExecutionException If the artifact's metadata or file cannot be fetched
+         */
+        String run(T aInput) throws MojoFailureException, MojoExecutionException;
+    }
+
     /**
      * A URL representing a Maven repository.
      */
@@ -195,7 +828,17 @@ public class LatestSnapshotURLMojo extends AbstractMojo {
         private final String myVersion;
 
         /**
-         * Creates a new Maven URL.
+         * The classifier of the artifact's file, or an empty string if it doesn't have one.
+         */
+        private final String myClassifier;
+
+        /**
+         * The extension of the artifact's file.
+         */
+        private final String myExtension;
+
+        /**
+         * Creates a new Maven URL for an artifact's jar file.
          *
          * @param aGroupId An artifact's group ID
          * @param aArtifactId An artifact's ID
@@ -204,61 +847,74 @@ public class LatestSnapshotURLMojo extends AbstractMojo {
          */
         private MavenURL(final String aGroupId, final String aArtifactId, final String aVersion,
                 final String aBaseURL) {
+            this(aGroupId, aArtifactId, aVersion, aBaseURL, EMPTY, JAR_EXT);
+        }
+
+        /**
+         * Creates a new Maven URL for one of an artifact's files.
+         *
+         * @param aGroupId An artifact's group ID
+         * @param aArtifactId An artifact's ID
+         * @param aVersion An artifact's version
+         * @param aBaseURL A base Maven URL
+         * @param aClassifier The classifier of the artifact's file, or an empty string if it doesn't have one
+         * @param aExtension The extension of the artifact's file
+         */
+        private MavenURL(final String aGroupId, final String aArtifactId, final String aVersion, final String aBaseURL,
+                final String aClassifier, final String aExtension) {
             myGroupId = aGroupId;
             myArtifactId = aArtifactId;
             myVersion = aVersion;
             myBaseURL = aBaseURL;
+            myClassifier = aClassifier;
+            myExtension = aExtension;
         }
 
         /**
-         * Returns a URL for the artifact's latest snapshot Jar file.
+         * Returns a Maven URL for another of the artifact's files.
          *
-         * @return A URL for the artifact's latest snapshot Jar file
-         * @throws MojoFailureException If the mojo fails to execute successfully
-         * @throws MojoExecutionException If the execution of the mojo throws an exception
+         * @param aClassifier The classifier of the file, or an empty string if it doesn't have one
+         * @param aExtension The extension of the file
+         * @return A Maven URL for the file
          */
-        private String getJarURL() throws MojoFailureException, MojoExecutionException {
-            final Metadata metadata;
-
-            try {
-                final Builder parser = new Builder();
-                final Document doc = parser.build(getMetadataURL());
-                final Nodes nodes = doc.query("/metadata/versioning/snapshot");
-
-                if (nodes.size() <= 0) {
-                    throw new MojoFailureException(LOGGER.getMessage(MessageCodes.MVN_122, doc.toXML()));
-                }
-
-                metadata = getLatestSnapshot(nodes);
-            } catch (final ParsingException details) {
-                throw new MojoFailureException(LOGGER.getMessage(MessageCodes.MVN_121, details.getMessage()), details);
-            } catch (final IOException details) {
-                throw new MojoExecutionException(details.getMessage(), details);
-            }
-
-            return StringUtils.format(JAR_URL_PATTERN, myBaseURL, myGroupId, myArtifactId, myVersion, myArtifactId,
-                    myVersion.replace("-SNAPSHOT", EMPTY), metadata.mySnapshotVersion, metadata.myBuildNumber);
+        private MavenURL withType(final String aClassifier, final String aExtension) {
+            return new MavenURL(myGroupId, myArtifactId, myVersion, myBaseURL, aClassifier, aExtension);
         }
 
         /**
-         * Extracts the snapshot version and build number metadata from the supplied node array.
+         * Returns a URL for the latest snapshot of the artifact's file. The file's snapshot version is looked up by its
+         * classifier and extension when the metadata lists its files' versions.
          *
-         * @param aMetadataNodes An array of nodes containing the metadata we want
-         * @return The extracted metadata
-         * @throws MojoFailureException If the supplied nodes do not contain the expected metadata
+         * @param aCache The cache through which the artifact's metadata is fetched
+         * @return A URL for the latest snapshot of the artifact's file
+         * @throws MojoFailureException If the metadata cannot be parsed or doesn't have the file's snapshot version
+         * @throws MojoExecutionException If the metadata cannot be fetched
          */
-        private Metadata getLatestSnapshot(final Nodes aMetadataNodes) throws MojoFailureException {
-            final Nodes buildNumberNodes = aMetadataNodes.get(0).query("buildNumber");
-            final Nodes versionNodes = aMetadataNodes.get(0).query("timestamp");
+        private String getJarURL(final SnapshotMetadataCache aCache)
+                throws MojoFailureException, MojoExecutionException {
+            final String metadataURL = getMetadataURL();
+            final String snapshotVersion;
+            final byte[] metadata;
 
-            if (buildNumberNodes.size() > 0 && versionNodes.size() > 0) {
-                final String snapshotVersion = versionNodes.get(0).getValue();
-                final String buildNumber = buildNumberNodes.get(0).getValue();
+            try {
+                metadata = aCache.get(metadataURL);
+            } catch (final IOException details) {
+                throw new MojoExecutionException(details.getMessage(), details);
+            }
+
+            try {
+                snapshotVersion = SnapshotMetadata.read(metadata).getVersion(myVersion, myClassifier, myExtension);
+            } catch (final IOException details) {
+                throw new MojoFailureException(LOGGER.getMessage(MessageCodes.MVN_121, details.getMessage()), details);
+            }
 
-                return new Metadata().setBuildNumber(buildNumber).setSnapshotVersion(snapshotVersion);
+            if (snapshotVersion == null) {
+                throw new MojoFailureException(
+                        LOGGER.getMessage(MessageCodes.MVN_186, myClassifier, myExtension, metadataURL));
             }
 
-            throw new MojoFailureException(LOGGER.getMessage(MessageCodes.MVN_122, aMetadataNodes.toString()));
+            return StringUtils.format(FILE_URL_PATTERN, myBaseURL, myGroupId, myArtifactId, myVersion, myArtifactId,
+                    snapshotVersion, myClassifier.isEmpty() ? EMPTY : "-" + myClassifier, myExtension);
         }
 
         /**
@@ -270,42 +926,4 @@ public class LatestSnapshotURLMojo extends AbstractMojo {
             return StringUtils.format(REPO_URL_PATTERN + METADATA, myBaseURL, myGroupId, myArtifactId, myVersion);
         }
     }
-
-    /**
-     * Metadata about the latest snapshot version of a Maven artifact.
-     */
-    private static final class Metadata {
-
-        /**
-         * The latest build number.
-         */
-        private String myBuildNumber;
-
-        /**
-         * The latest snapshot version.
-         */
-        private String mySnapshotVersion;
-
-        /**
-         * Sets the latest build number.
-         *
-         * @param aBuildNumber The latest build number
-         * @return This metadata
-         */
-        private Metadata setBuildNumber(final String aBuildNumber) {
-            myBuildNumber = aBuildNumber;
-            return this;
-        }
-
-        /**
-         * Sets the latest snapshot version.
-         *
-         * @param aVersion A latest snapshot version
-         * @return This metadata
-         */
-        private Metadata setSnapshotVersion(final String aVersion) {
-            mySnapshotVersion = aVersion;
-            return this;
-        }
-    }
 }
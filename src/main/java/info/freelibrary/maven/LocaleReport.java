@@ -0,0 +1,306 @@
+
+package info.freelibrary.maven;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import info.freelibrary.util.warnings.PMD;
+
+/**
+ * A report of how consistent the locale variants of message files (e.g., <code>foo_messages_fr.xml</code>) are with
+ * their base message files (e.g., <code>foo_messages.xml</code>). A variant is checked for keys that its base has but
+ * it doesn't, for keys that it has but its base doesn't, and for messages whose number of placeholders is different
+ * from the base's. The report is written as JSON, so that other tools can read it.
+ */
+final class LocaleReport {
+
+    /**
+     * The initial size of the builder of a report.
+     */
+    private static final int REPORT_SIZE = 1024;
+
+    /**
+     * The delimiter that starts the first item in a multi-line array.
+     */
+    private static final String FIRST_LINE = "\n";
+
+    /**
+     * The delimiter that starts each of the other items in a multi-line array.
+     */
+    private static final String NEXT_LINE = ",\n";
+
+    /**
+     * The delimiter between the items in a single-line array.
+     */
+    private static final String ITEM_DELIM = ", ";
+
+    /**
+     * The checks of each base message file's variants, keyed by the base file's path.
+     */
+    private final Map<String, List<Check>> myChecks = new TreeMap<>();
+
+    /**
+     * Adds the check of a locale variant to the report.
+     *
+     * @param aBaseFile The base message file
+     * @param aCheck The check of one of its locale variants
+     */
+    void add(final File aBaseFile, final Check aCheck) {
+        myChecks.computeIfAbsent(aBaseFile.getPath(), key -> new ArrayList<>()).add(aCheck);
+    }
+
+    /**
+     * Gets the number of locale variants that have problems.
+     *
+     * @return The number of locale variants with problems
+     */
+    int getProblemCount() {
+        return (int) myChecks.values().stream().flatMap(List::stream).filter(Check::hasProblems).count();
+    }
+
+    /**
+     * Gets the report as JSON. Base files, and their variants' locales, are in sorted order.
+     *
+     * @return The UTF-8 bytes of the report
+     */
+    byte[] toJson() {
+        final StringBuilder json = new StringBuilder(REPORT_SIZE).append("{\n  \"bundles\": [");
+        String bundleDelim = FIRST_LINE;
+
+        for (final Map.Entry<String, List<Check>> bundle : myChecks.entrySet()) {
+            final List<Check> checks = new ArrayList<>(bundle.getValue());
+            String localeDelim = FIRST_LINE;
+
+            checks.sort((aFirst, aSecond) -> aFirst.myLocale.compareTo(aSecond.myLocale));
+            json.append(bundleDelim).append("    {\n      \"file\": ");
+            appendString(json, bundle.getKey()).append(",\n      \"locales\": [");
+
+            for (final Check check : checks) {
+                json.append(localeDelim).append("        {\n          \"locale\": ");
+                appendString(json, check.myLocale).append(",\n          \"file\": ");
+                appendString(json, check.myFile.getPath()).append(",\n          \"missing\": ");
+                appendStrings(json, check.myMissingKeys).append(",\n          \"extra\": ");
+                appendStrings(json, check.myExtraKeys).append(",\n          \"placeholders\": [");
+                appendPlaceholders(json, check.myPlaceholders).append("]\n        }");
+                localeDelim = NEXT_LINE;
+            }
+
+            json.append("\n      ]\n    }");
+            bundleDelim = NEXT_LINE;
+        }
+
+        return json.append("\n  ]\n}\n").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks a locale variant's messages against its base messages.
+     *
+     * @param aLocale The variant's locale (e.g., <code>fr_CA</code>)
+     * @param aFile The variant's message file
+     * @param aBaseMap The messages of the base message file
+     * @param aVariantMap The messages of the variant
+     * @param aIgnoredKey A key that isn't a message, which isn't checked
+     * @return The check of the variant
+     */
+    @SuppressWarnings({ PMD.COGNITIVE_COMPLEXITY })
+    static Check check(final String aLocale, final File aFile, final Map<String, String> aBaseMap,
+            final Map<String, String> aVariantMap, final String aIgnoredKey) {
+        final Check check = new Check(aLocale, aFile);
+
+        for (final Map.Entry<String, String> message : aBaseMap.entrySet()) {
+            final String key = message.getKey();
+
+            if (!key.equals(aIgnoredKey)) {
+                final String variant = aVariantMap.get(key);
+
+                if (variant == null) {
+                    check.myMissingKeys.add(key);
+                } else {
+                    final int expected = MessageFile.getArgCount(message.getValue());
+                    final int found = MessageFile.getArgCount(variant);
+
+                    if (expected != found) {
+                        check.myPlaceholders.put(key, new int[] { expected, found });
+                    }
+                }
+            }
+        }
+
+        for (final String key : aVariantMap.keySet()) {
+            if (!key.equals(aIgnoredKey) && !aBaseMap.containsKey(key)) {
+                check.myExtraKeys.add(key);
+            }
+        }
+
+        Collections.sort(check.myMissingKeys);
+        Collections.sort(check.myExtraKeys);
+
+        return check;
+    }
+
+    /**
+     * Appends the placeholder mismatches of a locale variant to a JSON report.
+     *
+     * @param aJson A JSON report
+     * @param aPlaceholderMap The expected and found number of placeholders, keyed by message key
+     * @return The JSON report
+     */
+    private static StringBuilder appendPlaceholders(final StringBuilder aJson,
+            final Map<String, int[]> aPlaceholderMap) {
+        String delim = "";
+
+        for (final Map.Entry<String, int[]> placeholders : aPlaceholderMap.entrySet()) {
+            aJson.append(delim).append("{ \"key\": ");
+            appendString(aJson, placeholders.getKey()).append(", \"expected\": ").append(placeholders.getValue()[0])
+                    .append(", \"found\": ").append(placeholders.getValue()[1]).append(" }");
+            delim = ITEM_DELIM;
+        }
+
+        return aJson;
+    }
+
+    /**
+     * Appends an array of strings to a JSON report.
+     *
+     * @param aJson A JSON report
+     * @param aStringList Strings
+     * @return The JSON report
+     */
+    private static StringBuilder appendStrings(final StringBuilder aJson, final List<String> aStringList) {
+        aJson.append('[');
+
+        for (int index = 0; index < aStringList.size(); index++) {
+            if (index > 0) {
+                aJson.append(ITEM_DELIM);
+            }
+
+            appendString(aJson, aStringList.get(index));
+        }
+
+        return aJson.append(']');
+    }
+
+    /**
+     * Appends a string to a JSON report, quoting and escaping it.
+     *
+     * @param aJson A JSON report
+     * @param aString A string
+     * @return The JSON report
+     */
+    private static StringBuilder appendString(final StringBuilder aJson, final String aString) {
+        aJson.append('"');
+
+        for (int index = 0; index < aString.length(); index++) {
+            final char character = aString.charAt(index);
+
+            switch (character) {
+                case '"' -> aJson.append("\\\"");
+                case '\\' -> aJson.append("\\\\");
+                case '\n' -> aJson.append("\\n");
+                case '\r' -> aJson.append("\\r");
+                case '\t' -> aJson.append("\\t");
+                default -> {
+                    if (character < ' ') { // NOPMD - AvoidLiteralsInIfCondition, control characters are escaped
+                        aJson.append(String.format("\\u%04x", (int) character));
+                    } else {
+                        aJson.append(character);
+                    }
+                }
+            }
+        }
+
+        return aJson.append('"');
+    }
+
+    /**
+     * The check of a locale variant against its base message file.
+     */
+    static final class Check {
+
+        /**
+         * The variant's locale.
+         */
+        private final String myLocale;
+
+        /**
+         * The variant's message file.
+         */
+        private final File myFile;
+
+        /**
+         * The keys that the base has, but the variant doesn't.
+         */
+        private final List<String> myMissingKeys = new ArrayList<>();
+
+        /**
+         * The keys that the variant has, but the base doesn't.
+         */
+        private final List<String> myExtraKeys = new ArrayList<>();
+
+        /**
+         * The expected and found number of placeholders of the messages whose numbers differ, keyed by message key.
+         */
+        private final Map<String, int[]> myPlaceholders = new TreeMap<>();
+
+        /**
+         * Creates a check of a locale variant.
+         *
+         * @param aLocale The variant's locale
+         * @param aFile The variant's message file
+         */
+        private Check(final String aLocale, final File aFile) {
+            myLocale = aLocale;
+            myFile = aFile;
+        }
+
+        /**
+         * Gets the variant's locale.
+         *
+         * @return The variant's locale
+         */
+        String getLocale() {
+            return myLocale;
+        }
+
+        /**
+         * Gets the keys that the base has, but the variant doesn't.
+         *
+         * @return The missing keys, sorted
+         */
+        List<String> getMissingKeys() {
+            return myMissingKeys;
+        }
+
+        /**
+         * Gets the keys that the variant has, but the base doesn't.
+         *
+         * @return The extra keys, sorted
+         */
+        List<String> getExtraKeys() {
+            return myExtraKeys;
+        }
+
+        /**
+         * Gets the keys of the messages whose number of placeholders differs from the base's.
+         *
+         * @return The keys of the mismatched messages, sorted
+         */
+        List<String> getPlaceholderKeys() {
+            return new ArrayList<>(myPlaceholders.keySet());
+        }
+
+        /**
+         * Checks whether the variant has any problems.
+         *
+         * @return True if the variant has missing or extra keys, or mismatched placeholders
+         */
+        boolean hasProblems() {
+            return !myMissingKeys.isEmpty() || !myExtraKeys.isEmpty() || !myPlaceholders.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,343 @@
+
+package info.freelibrary.maven;
+
+import static info.freelibrary.util.Constants.EOL;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+import org.jboss.forge.roaster.model.source.JavaClassSource;
+import org.jboss.forge.roaster.model.source.JavaDocSource;
+import org.jboss.forge.roaster.model.source.JavaEnumSource;
+import org.jboss.forge.roaster.model.source.MethodSource;
+
+import info.freelibrary.util.StringUtils;
+
+/**
+ * A generator of <code>MediaType</code> lookups that keep their indexes in holder classes, one set for each top-level
+ * class of media type (e.g., "image"). The JVM initializes a nested class the first time it's used, so a lookup only
+ * builds the indexes of the class it searches, and initializing the enum itself builds none at all.
+ */
+final class MediaTypeHolders {
+
+    /**
+     * The suffix of the holders of each class's extension index. Every class's holder has a suffix, so none can have
+     * the name of the holder of the extension index of all the media types, <code>ExtIndex</code>.
+     */
+    private static final String EXTS_HOLDER = "Exts";
+
+    /** The suffix of the holders of each class's type index. */
+    private static final String NAMES_HOLDER = "Names";
+
+    /** The suffix of the holders of each class's media types. */
+    private static final String TYPES_HOLDER = "Types";
+
+    /** A rough length of a generated case, used to size the switches' builders. */
+    private static final int CASE_LENGTH = 64;
+
+    /** The end of a case that returns a holder's types. */
+    private static final String TYPES_FIELD = ".TYPES;";
+
+    /** The name given to a class whose name doesn't start with a letter. */
+    private static final String CLASS_PREFIX = "Class";
+
+    /** The Javadoc tag for a generated method's class parameter. */
+    private static final String CLASS_TAG = "aClass A lower-cased class of media type (e.g., \"image\")";
+
+    /** A {@code param} constant. */
+    private static final String PARAM_TAG = "@param";
+
+    /** A {@code return} constant. */
+    private static final String RETURN_TAG = "@return";
+
+    /** The names of the media types of each lower-cased top-level class, in the order in which they're declared. */
+    private final Map<String, List<String>> myClasses = new LinkedHashMap<>();
+
+    /** The base name of each class's holders. */
+    private final Map<String, String> myHolders = new LinkedHashMap<>();
+
+    /**
+     * Creates a generator of holder lookups for the supplied media types.
+     *
+     * @param aEntryList The media types in the order in which they're declared
+     */
+    MediaTypeHolders(final List<MediaTypeMojo.MediaTypeEntry> aEntryList) {
+        final Set<String> holderNames = new HashSet<>();
+
+        for (final MediaTypeMojo.MediaTypeEntry entry : aEntryList) {
+            myClasses.computeIfAbsent(getTypeClass(entry.getType()), key -> new ArrayList<>()).add(entry.getName());
+        }
+
+        for (final String typeClass : myClasses.keySet()) {
+            final String holderName = getHolderName(typeClass);
+            String uniqueName = holderName;
+
+            for (int count = 2; !holderNames.add(uniqueName); count++) {
+                uniqueName = holderName + count;
+            }
+
+            myHolders.put(typeClass, uniqueName);
+        }
+    }
+
+    /**
+     * Adds the holders, and the lookups that use them, to the supplied Java source. The source must already have the
+     * methods that build and probe indexes.
+     *
+     * @param aSource A Java source object
+     */
+    void addTo(final JavaEnumSource aSource) {
+        final int caseSize = myHolders.size() * CASE_LENGTH;
+        final StringBuilder typesSwitch = new StringBuilder(caseSize);
+        final StringBuilder namesSwitch = new StringBuilder(caseSize);
+        final StringBuilder extsSwitch = new StringBuilder(caseSize * 2);
+        final String hintMethod = """
+            private boolean hasHint(final String aHint) {
+                return myType.regionMatches(true, 0, aHint, 0, aHint.length());
+            }
+            """;
+        final String findExtMethod = """
+            private static MediaType findExt(final CharSequence aExt, final int aStart, final int aEnd,
+                    final String aHint) {
+                final MediaType[] mediaTypes;
+
+                // A hint that names a class is looked for in just that class's index
+                if (aHint != null) {
+                    final int slashIndex = aHint.indexOf('/');
+                    final String hintClass = slashIndex == -1 ? aHint : aHint.substring(0, slashIndex);
+                    final MediaType[] classTypes = findClassExt(hintClass.toLowerCase(Locale.ROOT), aExt, aStart, aEnd);
+
+                    if (classTypes != null) {
+                        for (final MediaType mediaType : classTypes) {
+                            if (mediaType.hasHint(aHint)) {
+                                return mediaType;
+                            }
+                        }
+                    }
+                }
+
+                mediaTypes = ExtIndex.TYPES[findExtSlot(ExtIndex.KEYS, aExt, aStart, aEnd)];
+
+                if (mediaTypes == null) {
+                    return null;
+                }
+
+                if (aHint != null) {
+                    for (final MediaType mediaType : mediaTypes) {
+                        if (mediaType.hasHint(aHint)) {
+                            return mediaType;
+                        }
+                    }
+                }
+
+                return mediaTypes[0];
+            }
+            """;
+        final String findTypeMethod = """
+            private static MediaType findType(final String aType) {
+                final int slashIndex = aType.indexOf('/');
+                final String typeClass = slashIndex == -1 ? "" : aType.substring(0, slashIndex);
+
+                return findClassNames(typeClass.toLowerCase(Locale.ROOT)).get(aType.toLowerCase(Locale.ROOT));
+            }
+            """;
+        final String allExtsHolder = """
+            private static final class ExtIndex {
+
+                /** All the media types, in the order in which they're declared. */
+                private static final List<MediaType> ALL = List.of(values());
+
+                /** Lower-cased extensions, in an open addressing table that's probed by findExtSlot(). */
+                static final String[] KEYS = indexExtKeys(ALL);
+
+                /** The media types of the extensions, in the same slots as their keys. */
+                static final MediaType[][] TYPES = indexExtTypes(ALL, KEYS);
+            }
+            """;
+        final JavaDocSource<MethodSource<JavaEnumSource>> findExtJavadoc;
+        final JavaDocSource<MethodSource<JavaEnumSource>> findClassExtJavadoc;
+
+        for (final Map.Entry<String, String> entry : myHolders.entrySet()) {
+            final String typeClass = entry.getKey();
+            final String holder = entry.getValue();
+            final String label = StringUtils.format("case {}: return ", MediaTypeSwitch.quote(typeClass));
+
+            addHolders(aSource, typeClass, holder);
+            namesSwitch.append(label).append(holder).append(NAMES_HOLDER).append(TYPES_FIELD).append(EOL);
+
+            // Types without a class aren't found by class, as there's no class to ask for
+            if (!typeClass.isEmpty()) {
+                typesSwitch.append(label).append(holder).append(TYPES_HOLDER).append(TYPES_FIELD).append(EOL);
+            }
+
+            // A hint can't be limited to a class that's the start of another class's name, since it fits both
+            if (!typeClass.isEmpty() && !isPrefix(typeClass)) {
+                extsSwitch.append(label).append(holder).append(EXTS_HOLDER).append(".TYPES[findExtSlot(").append(holder)
+                        .append(EXTS_HOLDER).append(".KEYS, aExt, aStart, aEnd)];").append(EOL);
+            }
+        }
+
+        ((JavaClassSource) aSource.addNestedType(allExtsHolder)).getJavaDoc()
+                .setText("The holder of the extension index of all the media types.");
+        aSource.addMethod(hintMethod).getJavaDoc().setText("Checks whether this media type fits the supplied hint.")
+                .addTagValue(PARAM_TAG, "aHint A class of media type (e.g., \"audio\")")
+                .addTagValue(RETURN_TAG, "True if this media type's type starts with the hint");
+
+        aSource.addMethod(getSwitch("List<MediaType> findTypes(final String aClass)", typesSwitch, "List.of()"))
+                .getJavaDoc().setText("Finds the media types of a top-level class.").addTagValue(PARAM_TAG, CLASS_TAG)
+                .addTagValue(RETURN_TAG, "The media types of the class, or an empty list if there are none");
+        aSource.addMethod(
+                getSwitch("Map<String, MediaType> findClassNames(final String aClass)", namesSwitch, "Map.of()"))
+                .getJavaDoc().setText("Finds the type index of a top-level class.").addTagValue(PARAM_TAG, CLASS_TAG)
+                .addTagValue(RETURN_TAG, "The media types of the class indexed by their lower-cased type");
+        findClassExtJavadoc = aSource.addMethod(getSwitch("MediaType[] findClassExt(final String aClass, " +
+                "final CharSequence aExt, final int aStart, final int aEnd)", extsSwitch, "null")).getJavaDoc();
+        findClassExtJavadoc
+                .setText("Finds the media types, of a top-level class, with the extension in a range of characters.");
+        findClassExtJavadoc.addTagValue(PARAM_TAG, CLASS_TAG);
+        addRangeTags(findClassExtJavadoc).addTagValue(RETURN_TAG,
+                "The class's media types with the extension, or null if the class has none or can't be searched alone");
+
+        findExtJavadoc = aSource.addMethod(findExtMethod).getJavaDoc();
+        findExtJavadoc.setText("Finds the media type of the extension in a range of characters.");
+        addRangeTags(findExtJavadoc).addTagValue(PARAM_TAG, "aHint A hint as to what class of media type we want");
+        findExtJavadoc.addTagValue(RETURN_TAG, "The media type of the extension, or null if it's not known");
+        aSource.addMethod(findTypeMethod).getJavaDoc().setText("Finds the media type with the supplied type.")
+                .addTagValue(PARAM_TAG, "aType A media type")
+                .addTagValue(RETURN_TAG, "The media type, or null if it's not known");
+    }
+
+    /**
+     * Adds the holders of a class's media types, type index, and extension index to the supplied Java source. Each
+     * index has a holder of its own so that using one doesn't build the other.
+     *
+     * @param aSource A Java source object
+     * @param aClass A lower-cased top-level class of media type
+     * @param aHolder The base name of the class's holders
+     */
+    private void addHolders(final JavaEnumSource aSource, final String aClass, final String aHolder) {
+        final String typesHolder = """
+            private static final class {}Types {
+
+                /** The media types of the class, in the order in which they're declared. */
+                static final List<MediaType> TYPES = List.of({});
+            }
+            """;
+        final String namesHolder = """
+            private static final class {}Names {
+
+                /** The media types of the class, indexed by their lower-cased type. */
+                static final Map<String, MediaType> TYPES = indexTypes({}Types.TYPES);
+            }
+            """;
+        final String extsHolder = """
+            private static final class {}Exts {
+
+                /** The lower-cased extensions of the class, in an open addressing table probed by findExtSlot(). */
+                static final String[] KEYS = indexExtKeys({}Types.TYPES);
+
+                /** The media types of the extensions, in the same slots as their keys. */
+                static final MediaType[][] TYPES = indexExtTypes({}Types.TYPES, KEYS);
+            }
+            """;
+        final String className = aClass.isEmpty() ? "media types without a class" : "\"" + aClass + "\" media types";
+
+        ((JavaClassSource) aSource
+                .addNestedType(StringUtils.format(typesHolder, aHolder, String.join(", ", myClasses.get(aClass)))))
+                .getJavaDoc().setText(StringUtils.format("The holder of the {}.", className));
+        ((JavaClassSource) aSource.addNestedType(StringUtils.format(namesHolder, aHolder, aHolder))).getJavaDoc()
+                .setText(StringUtils.format("The holder of the type index of the {}.", className));
+        ((JavaClassSource) aSource.addNestedType(StringUtils.format(extsHolder, aHolder, aHolder, aHolder)))
+                .getJavaDoc().setText(StringUtils.format("The holder of the extension index of the {}.", className));
+    }
+
+    /**
+     * Checks whether a class's name is the start of another class's name.
+     *
+     * @param aClass A lower-cased top-level class of media type
+     * @return True if another class's name starts with the supplied class's
+     */
+    private boolean isPrefix(final String aClass) {
+        for (final String typeClass : myClasses.keySet()) {
+            if (!typeClass.equals(aClass) && typeClass.startsWith(aClass)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Adds the parameter tags of a generated method that takes an extension as a range of characters.
+     *
+     * @param aJavadoc The Javadoc of a method that takes an extension as a range of characters
+     * @return The supplied Javadoc
+     */
+    private static JavaDocSource<MethodSource<JavaEnumSource>>
+            addRangeTags(final JavaDocSource<MethodSource<JavaEnumSource>> aJavadoc) {
+        aJavadoc.addTagValue(PARAM_TAG, "aExt A sequence of characters that contains an extension");
+        aJavadoc.addTagValue(PARAM_TAG, "aStart The index at which the extension starts");
+        aJavadoc.addTagValue(PARAM_TAG, "aEnd The index at which the extension ends");
+
+        return aJavadoc;
+    }
+
+    /**
+     * Gets the lower-cased top-level class of a media type.
+     *
+     * @param aType A media type
+     * @return The lower-cased top-level class of the media type, or an empty string if it doesn't have one
+     */
+    private static String getTypeClass(final String aType) {
+        final int slashIndex = aType.indexOf('/');
+
+        return slashIndex == -1 ? "" : aType.substring(0, slashIndex).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Gets the base name of a class's holders (e.g., "Image" for "image" or "XEpoc" for "x-epoc").
+     *
+     * @param aClass A lower-cased top-level class of media type
+     * @return The base name of the class's holders
+     */
+    private static String getHolderName(final String aClass) {
+        final StringBuilder name = new StringBuilder(aClass.length());
+        boolean isWordStart = true;
+
+        for (int index = 0; index < aClass.length(); index++) {
+            final char character = aClass.charAt(index);
+
+            if (character < 0x80 && Character.isLetterOrDigit(character)) {
+                name.append(isWordStart ? Character.toUpperCase(character) : character);
+                isWordStart = false;
+            } else {
+                isWordStart = true;
+            }
+        }
+
+        if (name.length() == 0 || !Character.isLetter(name.charAt(0))) {
+            name.insert(0, CLASS_PREFIX);
+        }
+
+        return name.toString();
+    }
+
+    /**
+     * Gets a method that switches on a class.
+     *
+     * @param aSignature The method's return type, name, and parameters
+     * @param aCases The cases of the switch
+     * @param aDefault What the method returns for a class that's not one of the cases
+     * @return The source of the method
+     */
+    private static String getSwitch(final String aSignature, final CharSequence aCases, final String aDefault) {
+        return new StringBuilder("private static ").append(aSignature).append(" {").append(EOL)
+                .append("switch (aClass) {").append(EOL).append(aCases).append("default: return ").append(aDefault)
+                .append(';').append(EOL).append('}').append(EOL).append('}').toString();
+    }
+}
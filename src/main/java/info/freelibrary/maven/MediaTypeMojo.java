@@ -2,28 +2,27 @@
 package info.freelibrary.maven;
 
 import static info.freelibrary.util.Constants.EOL;
-import static info.freelibrary.util.Constants.HASH;
 import static info.freelibrary.util.Constants.PERIOD;
 import static info.freelibrary.util.Constants.QUOTE;
 import static info.freelibrary.util.Constants.SLASH;
-import static info.freelibrary.util.Constants.SPACE;
 
-import java.io.BufferedWriter;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.LineNumberReader;
 import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
-import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -38,8 +37,6 @@ import org.jboss.forge.roaster.model.source.JavaDocSource;
 import org.jboss.forge.roaster.model.source.JavaEnumSource;
 import org.jboss.forge.roaster.model.source.MethodSource;
 
-import info.freelibrary.util.FileUtils;
-import info.freelibrary.util.I18nRuntimeException;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
 import info.freelibrary.util.StringUtils;
@@ -48,11 +45,12 @@ import info.freelibrary.util.warnings.PMD;
 
 /**
  * A Maven mojo that generates an enum of pre-configured mime-types, adding any addition ones (with extensions) found in
- * the system's <code>/etc/mime.types</code> file.
+ * the configured media type sources (by default, the system's <code>/etc/mime.types</code> file).
  */
 @Mojo(name = MojoNames.GENERATE_MEDIATYPE, defaultPhase = LifecyclePhase.GENERATE_SOURCES)
 @SuppressWarnings({ PMD.EXCESSIVE_IMPORTS, Checkstyle.MULTIPLE_STRING_LITERALS, PMD.AVOID_DUPLICATE_LITERALS,
-    PMD.CONSECUTIVE_LITERAL_APPENDS, PMD.GOD_CLASS, PMD.TOO_MANY_STATIC_IMPORTS })
+    PMD.CONSECUTIVE_LITERAL_APPENDS, PMD.GOD_CLASS, PMD.TOO_MANY_METHODS, PMD.TOO_MANY_STATIC_IMPORTS,
+    PMD.CYCLOMATIC_COMPLEXITY })
 public class MediaTypeMojo extends AbstractMojo {
 
     /** A static value for the enumeration's class name. */
@@ -61,15 +59,43 @@ public class MediaTypeMojo extends AbstractMojo {
     /** The mojo's logger. */
     private static final Logger LOGGER = LoggerFactory.getLogger(MediaTypeMojo.class, MessageCodes.BUNDLE);
 
+    /** The media type sources that are read when none are configured; only the bundled types are required. */
+    private static final List<String> DEFAULT_SOURCES =
+            List.of(MediaTypeSource.CLASSPATH_PREFIX + "mime.types", "/etc/mime.types", "~/.mime.types");
+
+    /** The output that generates an enum of the media types. */
+    private static final String ENUM_OUTPUT = "enum";
+
+    /** The lookup that resolves extensions and types with indexes that are built when the enum is initialized. */
+    private static final String INDEX_LOOKUP = "index";
+
+    /** A Java source file extension. */
+    private static final String JAVA_EXT = ".java";
+
+    /** The lookup that resolves extensions and types with per-class indexes that are each built when first used. */
+    private static final String LAZY_LOOKUP = "lazy";
+
+    /** The Javadoc tag for a generated method's list of media types parameter. */
+    private static final String MEDIA_TYPES_TAG = "aMediaTypes The media types to index, in the order they're declared";
+
     /** A {@code param} constant. */
     private static final String PARAM_TAG = "@param";
 
+    /** The output that writes a binary registry of the media types, and generates a class that reads it. */
+    private static final String REGISTRY_OUTPUT = "registry";
+
     /** A {@code return} constant. */
     private static final String RETURN_TAG = "@return";
 
     /** A constant for an asterisk. */
     private static final String STAR = "*";
 
+    /** The lookup that resolves extensions and types with switches that are generated at build time. */
+    private static final String SWITCH_LOOKUP = "switch";
+
+    /** The file, in the build state directory, that holds the fingerprint of the last generation's inputs. */
+    private static final String STATE_FILE = MojoNames.GENERATE_MEDIATYPE + ".sha256";
+
     /**
      * A configuration option for the generated sources directory.
      */
@@ -83,34 +109,152 @@ public class MediaTypeMojo extends AbstractMojo {
     @Parameter(alias = Config.PACKAGE, property = Config.PACKAGE, defaultValue = "${project.groupId}")
     protected String myPackagePath;
 
+    /**
+     * A configuration option for how the generated enum resolves extensions and types: "index" builds lookup tables
+     * when the enum is initialized, "switch" generates hashed switches that need no initialization at all, and "lazy"
+     * builds a table for each top-level class of media type (e.g., "image") the first time it's used.
+     */
+    @Parameter(alias = Config.LOOKUP, property = Config.LOOKUP, defaultValue = INDEX_LOOKUP)
+    protected String myLookup;
+
+    /**
+     * A configuration option for what's generated: "enum" generates an enum of the media types, and "registry" writes
+     * them to a compact, binary registry that a generated <code>MediaType</code> class searches in place.
+     */
+    @Parameter(alias = Config.OUTPUT, property = Config.OUTPUT, defaultValue = ENUM_OUTPUT)
+    protected String myOutput;
+
+    /**
+     * A configuration option for the directory into which a binary registry is written, under its package path.
+     */
+    @Parameter(alias = Config.REGISTRY_DIR, property = Config.REGISTRY_DIR,
+            defaultValue = "${project.build.outputDirectory}")
+    protected File myRegistryDir;
+
+    /**
+     * A configuration option for the files, directories of <code>.types</code> files, classpath resources (e.g.,
+     * <code>classpath:mime.types</code>), or jar entries that media types are read from. Later sources add to earlier
+     * ones. When none are configured, the bundled types, <code>/etc/mime.types</code>, and <code>~/.mime.types</code>
+     * are read.
+     */
+    @Parameter(alias = Config.SOURCES, property = Config.SOURCES)
+    protected List<String> mySources;
+
+    /**
+     * A configuration option for the directory in which parsed media type sources are cached between builds.
+     */
+    @Parameter(alias = Config.CACHE_DIR, property = Config.CACHE_DIR,
+            defaultValue = "${settings.localRepository}/.cache/freelib-maven/media-types")
+    protected File myCacheDir;
+
     /**
      * The Maven project directory.
      */
     @Parameter(defaultValue = "${project}")
     protected MavenProject myProject;
 
+    /**
+     * A configuration option for the directory in which the fingerprint of the last generation's inputs is kept.
+     */
+    @Parameter(alias = Config.STATE_DIR, property = Config.STATE_DIR,
+            defaultValue = "${project.build.directory}/freelib-maven")
+    protected File myStateDir;
+
     /**
      * The method that runs the MimeTypesMojo.
      */
     @Override
     public void execute() throws MojoExecutionException, MojoFailureException {
         final File srcDir = new File(myGenSrcDir, myPackagePath.replace(PERIOD, SLASH));
-        final List<MediaTypeEntry> mediaTypes = readDefaultMediaTypes();
+        final Path srcFile = srcDir.toPath().resolve(CLASS_NAME + JAVA_EXT);
+        final BuildState state = new BuildState(myStateDir.toPath().resolve(STATE_FILE));
+        final Path registryFile = getRegistryFile();
+        final List<MediaTypeSource> sources;
 
-        // Create generated sources directory if it doesn't already exist
-        if (!myGenSrcDir.exists() && !myGenSrcDir.mkdirs()) {
-            throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_116, myGenSrcDir));
-        }
+        checkLookup();
+        checkOutput();
 
-        // Create a directory into which to write the generated java source file
-        if (!srcDir.exists() && !srcDir.mkdirs()) {
-            throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_118, srcDir));
+        try {
+            sources = getSources();
+
+            if (fingerprint(state, srcFile, sources).isUnchanged() && isGenerated(srcFile, registryFile)) {
+                LOGGER.info(MessageCodes.MVN_157, srcFile);
+                return;
+            }
+
+            final MediaTypeParser parser = new MediaTypeParser(myCacheDir == null ? null : myCacheDir.toPath());
+            final Map<String, MediaTypeEntry> mediaTypes = new LinkedHashMap<>();
+
+            createSourceDirs(srcDir);
+
+            for (final MediaTypeSource mediaTypeSource : sources) {
+                for (final List<String> tokens : parser.parse(mediaTypeSource)) {
+                    addMediaType(tokens, mediaTypes);
+                }
+            }
+
+            writeOutput(new ArrayList<>(mediaTypes.values()), srcFile, registryFile);
+
+            state.save();
+        } catch (final IOException details) {
+            throw new MojoExecutionException(details.getMessage(), details);
         }
+    }
+
+    /**
+     * Adds an index of the media types by their top-level class, and the method that builds it, to the supplied Java
+     * source.
+     *
+     * @param aSource A Java source object
+     */
+    private void addClassIndex(final JavaEnumSource aSource) {
+        final String classesMethod = """
+            private static Map<String, List<MediaType>> indexClasses() {
+                final Map<String, List<MediaType>> index = new HashMap<>();
+                final Map<String, List<MediaType>> classes = new HashMap<>();
+
+                for (final MediaType mediaType : values()) {
+                    final int slashIndex = mediaType.myType.indexOf('/');
 
-        readUserMediaTypes(Paths.get("/etc/mime.types"), mediaTypes);
-        readUserMediaTypes(Paths.get(System.getProperty("user.home"), ".mime.types"), mediaTypes);
+                    if (slashIndex != -1) {
+                        final String key = mediaType.myType.substring(0, slashIndex);
+                        final List<MediaType> mediaTypes = index.get(key);
 
-        writeSource(mediaTypes, srcDir);
+                        if (mediaTypes == null) {
+                            index.put(key, new ArrayList<>(List.of(mediaType)));
+                        } else {
+                            mediaTypes.add(mediaType);
+                        }
+                    }
+                }
+
+                for (final Map.Entry<String, List<MediaType>> entry : index.entrySet()) {
+                    classes.put(entry.getKey(), List.copyOf(entry.getValue()));
+                }
+
+                return Map.copyOf(classes);
+            }
+            """;
+        final String findTypesMethod = """
+            private static List<MediaType> findTypes(final String aClass) {
+                return CLASSES.getOrDefault(aClass, List.of());
+            }
+            """;
+
+        // Add imports for the classes used by the index
+        for (final Class<?> importClass : List.of(ArrayList.class, HashMap.class, List.class, Map.class)) {
+            if (!aSource.hasImport(importClass)) {
+                aSource.addImport(importClass);
+            }
+        }
+
+        aSource.addField("private static final Map<String, List<MediaType>> CLASSES = indexClasses();").getJavaDoc()
+                .setText("Media types indexed by their top-level class (e.g., \"image\").");
+        aSource.addMethod(classesMethod).getJavaDoc().setText("Indexes the media types by their top-level class.")
+                .addTagValue(RETURN_TAG, "Media types indexed by their top-level class");
+        aSource.addMethod(findTypesMethod).getJavaDoc().setText("Finds the media types of a top-level class.")
+                .addTagValue(PARAM_TAG, "aClass A lower-cased class of media type (e.g., \"image\")")
+                .addTagValue(RETURN_TAG, "The media types of the class, or an empty list if there are none");
     }
 
     /**
@@ -135,7 +279,7 @@ public class MediaTypeMojo extends AbstractMojo {
         final JavaDocSource<MethodSource<JavaEnumSource>> javadoc;
 
         final String method = """
-            public static Optional<MediaType> fromExt(final String aExt) {
+            public static Optional<MediaType> fromExt(final CharSequence aExt) {
                 return fromExt(aExt, null);
             }
             """;
@@ -155,25 +299,25 @@ public class MediaTypeMojo extends AbstractMojo {
         final JavaDocSource<MethodSource<JavaEnumSource>> javadoc;
 
         final String method = """
-            public static Optional<MediaType> fromExt(final String aExt, final String aHint) {
-                final String hint = aHint != null ? aHint.toLowerCase() : null;
-                MediaType chosenMediaType = null;
-
-                for (final MediaType mediaType : values()) {
-                    for (final String ext : mediaType.getExts()) {
-                        if (ext.equalsIgnoreCase(aExt)) {
-                            if (hint != null && mediaType.toString().startsWith(hint)) {
-                                return Optional.of(mediaType);
-                            }
-
-                            if (chosenMediaType == null) { chosenMediaType = mediaType; }
-                        }
-                    }
+            public static Optional<MediaType> fromExt(final CharSequence aExt, final String aHint) {
+                if (aExt == null) {
+                    return Optional.empty();
                 }
 
-                return Optional.ofNullable(chosenMediaType);
+                return fromExt(aExt, 0, aExt.length(), aHint);
             }
             """;
+        final String rangeMethod = """
+            private static Optional<MediaType> fromExt(final CharSequence aExt, final int aStart, final int aEnd,
+                    final String aHint) {
+                return Optional.ofNullable(findExt(aExt, aStart, aEnd, aHint));
+            }
+            """;
+        final JavaDocSource<MethodSource<JavaEnumSource>> rangeJavadoc = aSource.addMethod(rangeMethod).getJavaDoc();
+
+        rangeJavadoc.setText("Gets a media type from the extension found in a range of the supplied characters.");
+        addRangeTags(rangeJavadoc).addTagValue(PARAM_TAG, LOGGER.getMessage(MessageCodes.MVN_141));
+        rangeJavadoc.addTagValue(RETURN_TAG, LOGGER.getMessage(MessageCodes.MVN_139));
 
         if (!aSource.hasImport(Optional.class)) {
             aSource.addImport(Optional.class);
@@ -196,13 +340,11 @@ public class MediaTypeMojo extends AbstractMojo {
 
         final String method = """
             public static Optional<MediaType> fromString(final String aType) {
-                for (final MediaType mediaType : values()) {
-                    if (mediaType.myType.equalsIgnoreCase(aType)) {
-                        return Optional.of(mediaType);
-                    }
+                if (aType == null) {
+                    return Optional.empty();
                 }
 
-                return Optional.empty();
+                return Optional.ofNullable(findType(aType));
             }
             """;
 
@@ -254,14 +396,7 @@ public class MediaTypeMojo extends AbstractMojo {
 
         final String method = """
             public static List<MediaType> getTypes(final String aClass) {
-                final List<MediaType> types = new ArrayList<>();
-                for (final MediaType mediaType : values()) {
-                    if (mediaType.myType.startsWith(aClass.toLowerCase() + \"/\")) {
-                        types.add(mediaType);
-                    }
-                }
-
-                return types;
+                return findTypes(aClass.toLowerCase());
             }
             """;
 
@@ -270,10 +405,6 @@ public class MediaTypeMojo extends AbstractMojo {
             aSource.addImport(List.class);
         }
 
-        if (!aSource.hasImport(ArrayList.class)) {
-            aSource.addImport(ArrayList.class);
-        }
-
         // Add Javadocs for this method
         javadoc = aSource.addMethod(method).getJavaDoc();
         javadoc.addTagValue(PARAM_TAG, LOGGER.getMessage(MessageCodes.MVN_153));
@@ -281,6 +412,223 @@ public class MediaTypeMojo extends AbstractMojo {
         javadoc.setText(LOGGER.getMessage(MessageCodes.MVN_155) + EOL + STAR);
     }
 
+    /**
+     * Adds the static lookup indexes, and the methods that search them, to the supplied Java source. The indexes are
+     * built once, when the enum is initialized, so that lookups don't have to scan every media type.
+     *
+     * @param aSource A Java source object
+     */
+    private void addIndexes(final JavaEnumSource aSource) {
+        final JavaDocSource<MethodSource<JavaEnumSource>> findExtJavadoc;
+        final JavaDocSource<MethodSource<JavaEnumSource>> findTypeJavadoc;
+        final String findExtMethod = """
+            private static MediaType findExt(final CharSequence aExt, final int aStart, final int aEnd,
+                    final String aHint) {
+                final MediaType[] mediaTypes = EXT_TYPES[findExtSlot(EXT_KEYS, aExt, aStart, aEnd)];
+
+                if (mediaTypes == null) {
+                    return null;
+                }
+
+                if (aHint != null) {
+                    for (final MediaType mediaType : mediaTypes) {
+                        if (mediaType.myType.regionMatches(true, 0, aHint, 0, aHint.length())) {
+                            return mediaType;
+                        }
+                    }
+                }
+
+                return mediaTypes[0];
+            }
+            """;
+        final String findTypeMethod = """
+            private static MediaType findType(final String aType) {
+                return TYPES.get(aType.toLowerCase(Locale.ROOT));
+            }
+            """;
+
+        addIndexMethods(aSource);
+
+        aSource.addField("private static final String[] EXT_KEYS = indexExtKeys(List.of(values()));").getJavaDoc()
+                .setText("Lower-cased extensions, in an open addressing table that's probed by findExtSlot().");
+        aSource.addField("private static final MediaType[][] EXT_TYPES = indexExtTypes(List.of(values()), EXT_KEYS);")
+                .getJavaDoc().setText("The media types of the extensions, in the same slots as their keys.");
+        aSource.addField("private static final Map<String, MediaType> TYPES = indexTypes(List.of(values()));")
+                .getJavaDoc().setText("Media types indexed by their lower-cased type.");
+
+        findExtJavadoc = aSource.addMethod(findExtMethod).getJavaDoc();
+        findExtJavadoc.setText("Finds the media type of the extension in a range of characters.");
+        addRangeTags(findExtJavadoc).addTagValue(PARAM_TAG, LOGGER.getMessage(MessageCodes.MVN_141));
+        findExtJavadoc.addTagValue(RETURN_TAG, "The media type of the extension, or null if it's not known");
+
+        findTypeJavadoc = aSource.addMethod(findTypeMethod).getJavaDoc();
+        findTypeJavadoc.setText("Finds the media type with the supplied type.");
+        findTypeJavadoc.addTagValue(PARAM_TAG, LOGGER.getMessage(MessageCodes.MVN_146));
+        findTypeJavadoc.addTagValue(RETURN_TAG, "The media type, or null if it's not known");
+    }
+
+    /**
+     * Adds the methods that build and probe lookup indexes, of any list of media types, to the supplied Java source.
+     * They're shared by the indexes that are built when the enum is initialized and those that are built on demand.
+     *
+     * @param aSource A Java source object
+     */
+    private void addIndexMethods(final JavaEnumSource aSource) {
+        final JavaDocSource<MethodSource<JavaEnumSource>> findJavadoc;
+        final String extKeysMethod = """
+            private static String[] indexExtKeys(final List<MediaType> aMediaTypes) {
+                int count = 0;
+                int size = 2;
+
+                for (final MediaType mediaType : aMediaTypes) {
+                    count += mediaType.myExts.length;
+                }
+
+                // Keep the table at most half full so that probe sequences stay short
+                while (size < count * 2) {
+                    size <<= 1;
+                }
+
+                final String[] keys = new String[size];
+
+                for (final MediaType mediaType : aMediaTypes) {
+                    for (final String ext : mediaType.myExts) {
+                        final int slot = findExtSlot(keys, ext, 0, ext.length());
+
+                        if (keys[slot] == null) {
+                            keys[slot] = ext.toLowerCase(Locale.ROOT);
+                        }
+                    }
+                }
+
+                return keys;
+            }
+            """;
+        final String extTypesMethod = """
+            private static MediaType[][] indexExtTypes(final List<MediaType> aMediaTypes, final String[] aKeys) {
+                final MediaType[][] types = new MediaType[aKeys.length][];
+
+                for (final MediaType mediaType : aMediaTypes) {
+                    for (final String ext : mediaType.myExts) {
+                        final int slot = findExtSlot(aKeys, ext, 0, ext.length());
+                        final MediaType[] slotTypes = types[slot];
+
+                        if (slotTypes == null) {
+                            types[slot] = new MediaType[] { mediaType };
+                        } else if (slotTypes[slotTypes.length - 1] != mediaType) {
+                            types[slot] = Arrays.copyOf(slotTypes, slotTypes.length + 1);
+                            types[slot][slotTypes.length] = mediaType;
+                        }
+                    }
+                }
+
+                return types;
+            }
+            """;
+        final String findSlotMethod = """
+            private static int findExtSlot(final String[] aKeys, final CharSequence aExt, final int aStart,
+                    final int aEnd) {
+                final int mask = aKeys.length - 1;
+                int hash = 0;
+                int slot;
+                String key;
+
+                for (int index = aStart; index < aEnd; index++) {
+                    hash = 31 * hash + Character.toLowerCase(aExt.charAt(index));
+                }
+
+                slot = (hash ^ hash >>> 16) & mask;
+
+                while ((key = aKeys[slot]) != null && !matches(key, aExt, aStart, aEnd)) {
+                    slot = slot + 1 & mask;
+                }
+
+                return slot;
+            }
+            """;
+        final String typesMethod = """
+            private static Map<String, MediaType> indexTypes(final List<MediaType> aMediaTypes) {
+                final Map<String, MediaType> types = new HashMap<>();
+
+                for (final MediaType mediaType : aMediaTypes) {
+                    types.putIfAbsent(mediaType.myType.toLowerCase(Locale.ROOT), mediaType);
+                }
+
+                return Map.copyOf(types);
+            }
+            """;
+
+        // Add imports for the classes used by the indexes
+        for (final Class<?> importClass : List.of(Arrays.class, HashMap.class, List.class, Locale.class, Map.class)) {
+            if (!aSource.hasImport(importClass)) {
+                aSource.addImport(importClass);
+            }
+        }
+
+        aSource.addMethod(extKeysMethod).getJavaDoc().setText("Indexes the media types' extensions.")
+                .addTagValue(PARAM_TAG, MEDIA_TYPES_TAG).addTagValue(RETURN_TAG, "A table of lower-cased extensions");
+        aSource.addMethod(extTypesMethod).getJavaDoc().setText("Indexes the media types by their extensions.")
+                .addTagValue(PARAM_TAG, MEDIA_TYPES_TAG)
+                .addTagValue(PARAM_TAG, "aKeys The table of the media types' lower-cased extensions")
+                .addTagValue(RETURN_TAG, "A table of the media types that have each extension");
+        findJavadoc = aSource.addMethod(findSlotMethod).getJavaDoc();
+        findJavadoc.setText("Finds the slot that holds, or would hold, the extension in a range of characters.");
+        findJavadoc.addTagValue(PARAM_TAG, "aKeys A table of extension keys");
+        addRangeTags(findJavadoc).addTagValue(RETURN_TAG, "The index of the extension's slot");
+        aSource.addMethod(typesMethod).getJavaDoc().setText("Indexes the media types by their type.")
+                .addTagValue(PARAM_TAG, MEDIA_TYPES_TAG)
+                .addTagValue(RETURN_TAG, "Media types indexed by their lower-cased type");
+    }
+
+    /**
+     * Adds a method that compares, without regard to case, a lower-cased key with a range of characters. It's used by
+     * both kinds of generated lookup to confirm that a hash has found the key it was looking for.
+     *
+     * @param aSource A Java source object
+     */
+    private void addMatchesMethod(final JavaEnumSource aSource) {
+        final JavaDocSource<MethodSource<JavaEnumSource>> javadoc;
+        final String method = """
+            private static boolean matches(final String aKey, final CharSequence aChars, final int aStart,
+                    final int aEnd) {
+                if (aKey.length() != aEnd - aStart) {
+                    return false;
+                }
+
+                for (int index = 0; index < aKey.length(); index++) {
+                    if (aKey.charAt(index) != Character.toLowerCase(aChars.charAt(aStart + index))) {
+                        return false;
+                    }
+                }
+
+                return true;
+            }
+            """;
+
+        javadoc = aSource.addMethod(method).getJavaDoc();
+        javadoc.setText("Checks, without regard to case, whether a key matches a range of characters.");
+        javadoc.addTagValue(PARAM_TAG, "aKey A lower-cased key");
+        javadoc.addTagValue(PARAM_TAG, "aChars A sequence of characters");
+        javadoc.addTagValue(PARAM_TAG, "aStart The index at which the range starts");
+        javadoc.addTagValue(PARAM_TAG, "aEnd The index at which the range ends");
+        javadoc.addTagValue(RETURN_TAG, "True if the key matches the range of characters");
+    }
+
+    /**
+     * Adds the parameter tags of a generated method that takes an extension as a range of characters.
+     *
+     * @param aJavadoc The Javadoc of a method that takes an extension as a range of characters
+     * @return The supplied Javadoc
+     */
+    private JavaDocSource<MethodSource<JavaEnumSource>>
+            addRangeTags(final JavaDocSource<MethodSource<JavaEnumSource>> aJavadoc) {
+        aJavadoc.addTagValue(PARAM_TAG, "aExt A sequence of characters that contains an extension");
+        aJavadoc.addTagValue(PARAM_TAG, "aStart The index at which the extension starts");
+        aJavadoc.addTagValue(PARAM_TAG, "aEnd The index at which the extension ends");
+
+        return aJavadoc;
+    }
+
     /**
      * Adds an additional parse method to the supplied Java source.
      *
@@ -368,36 +716,38 @@ public class MediaTypeMojo extends AbstractMojo {
     private void addParseUriMethodWithHint(final JavaEnumSource aSource) {
         final JavaDocSource<MethodSource<JavaEnumSource>> javadoc;
 
-        final String method = StringUtils.format("""
+        final String method = """
             public static Optional<MediaType> parse(final URI aURI, final String aHint) {
-                final String fragment = '{}' + aURI.getFragment();
-                final String ext;
-                final int index;
+                final String path = aURI.getRawPath();
 
-                String uri = aURI.toString();
+                // Find the extension of the path's last segment without creating any new strings
+                if (path != null) {
+                    final int end = path.length();
 
-                if ((index = uri.indexOf(fragment)) != -1) {
-                    uri = uri.substring(0, index);
-                }
+                    for (int index = end - 1; index >= 0; index--) {
+                        final char character = path.charAt(index);
 
-                ext = StringUtils.trimToNull(FileUtils.getExt(uri));
+                        if (character == '.') {
+                            if (index + 1 < end) {
+                                return fromExt(path, index + 1, end, aHint);
+                            }
 
-                if (ext != null) {
-                    return fromExt(ext, aHint);
-                }
+                            break;
+                        }
 
-                return fromString(uri);
-            }
-            """, HASH);
+                        if (character == '/') {
+                            break;
+                        }
+                    }
+                }
 
-        // Add necessary imports
-        if (!aSource.hasImport(StringUtils.class)) {
-            aSource.addImport(StringUtils.class);
-        }
+                // Without an extension, see if the URI is itself a media type
+                final String uri = aURI.toString();
+                final int index = aURI.getRawFragment() != null ? uri.lastIndexOf('#') : -1;
 
-        if (!aSource.hasImport(FileUtils.class)) {
-            aSource.addImport(FileUtils.class);
-        }
+                return fromString(index != -1 ? uri.substring(0, index) : uri);
+            }
+            """;
 
         if (!aSource.hasImport(URI.class)) {
             aSource.addImport(URI.class);
@@ -411,6 +761,46 @@ public class MediaTypeMojo extends AbstractMojo {
         javadoc.setText(LOGGER.getMessage(MessageCodes.MVN_144) + EOL + STAR);
     }
 
+    /**
+     * Checks that the configured lookup is one that can be generated.
+     *
+     * @throws MojoExecutionException If the configured lookup isn't supported
+     */
+    private void checkLookup() throws MojoExecutionException {
+        if (!INDEX_LOOKUP.equals(myLookup) && !SWITCH_LOOKUP.equals(myLookup) && !LAZY_LOOKUP.equals(myLookup)) {
+            throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_159, myLookup));
+        }
+    }
+
+    /**
+     * Checks that the configured output is one that can be generated.
+     *
+     * @throws MojoExecutionException If the configured output isn't supported
+     */
+    private void checkOutput() throws MojoExecutionException {
+        if (!ENUM_OUTPUT.equals(myOutput) && !REGISTRY_OUTPUT.equals(myOutput)) {
+            throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_166, myOutput));
+        }
+    }
+
+    /**
+     * Creates the directories into which the generated source file is written.
+     *
+     * @param aSrcDir The package directory of the generated source file
+     * @throws MojoExecutionException If a directory cannot be created
+     */
+    private void createSourceDirs(final File aSrcDir) throws MojoExecutionException {
+        // Create generated sources directory if it doesn't already exist
+        if (!myGenSrcDir.exists() && !myGenSrcDir.mkdirs()) {
+            throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_116, myGenSrcDir));
+        }
+
+        // Create a directory into which to write the generated java source file
+        if (!aSrcDir.exists() && !aSrcDir.mkdirs()) {
+            throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_118, aSrcDir));
+        }
+    }
+
     /**
      * Gets the constructor's body.
      *
@@ -430,97 +820,96 @@ public class MediaTypeMojo extends AbstractMojo {
     }
 
     /**
-     * Gets the media types from the supplied stream.
+     * Adds a media type, from the tokens of a line of a media types file, to the supplied map. A media type that's
+     * already in the map has any new extensions merged into its existing ones.
      *
-     * @param aInStream An input stream for the media types
-     * @return An array of media types to be used as values in the enum
+     * @param aTokenList The tokens of a line of a media types file: a type followed by at least one extension
+     * @param aEntryMap Media type entries keyed by their lower-cased type
      */
-    private List<MediaTypeEntry> getMediaTypes(final InputStream aInStream) {
-        return getMediaTypes(aInStream, null);
+    private void addMediaType(final List<String> aTokenList, final Map<String, MediaTypeEntry> aEntryMap) {
+        final String type = aTokenList.get(0);
+        final List<String> exts = aTokenList.subList(1, aTokenList.size());
+        final MediaTypeEntry entry = aEntryMap.get(type.toLowerCase(Locale.ROOT));
+
+        if (entry == null) {
+            aEntryMap.put(type.toLowerCase(Locale.ROOT), new MediaTypeEntry(type, exts));
+        } else {
+            entry.addExts(exts);
+        }
     }
 
     /**
-     * Gets the media types from the supplied stream and puts them in the supplied list.
+     * Fingerprints everything that can change the generated source.
      *
-     * @param aInStream An input stream for the media types
-     * @param aEntryList A list of media type entries
-     * @return An array of media types to be used as values in the enum
-     */
-    private List<MediaTypeEntry> getMediaTypes(final InputStream aInStream, final List<MediaTypeEntry> aEntryList) {
-        final LineNumberReader reader = new LineNumberReader(new InputStreamReader(aInStream));
-        final List<MediaTypeEntry> entries = aEntryList == null ? new ArrayList<>() : aEntryList;
-
-        reader.lines().map(String::trim).forEach(line -> {
-            // We only care about the media types that have extensions and skip those that are commented out
-            if (line.contains(SPACE) && line.charAt(0) != '#') {
-                final String[] parts = line.split("\\s+");
-                final String[] exts = Arrays.copyOfRange(parts, 1, parts.length);
-                final MediaTypeEntry entry = new MediaTypeEntry(parts[0], exts);
-
-                if (!entries.contains(entry)) {
-                    entries.add(entry);
-                }
-            } // ignore everything else...
-        });
+     * @param aState The build state to update
+     * @param aSrcFile The generated source file
+     * @param aSourceList The media type sources
+     * @return The updated build state
+     */
+    private BuildState fingerprint(final BuildState aState, final Path aSrcFile,
+            final List<MediaTypeSource> aSourceList) {
+        aState.update(getClass()).update(MediaTypeSwitch.class).update(MediaTypeHolders.class);
+        aState.update(MediaTypeParser.class).update(MediaTypeRegistry.class).update(MediaTypeRegistry.READER);
+        aState.update(JavaSourceWriter.class);
+        aState.update(myPackagePath).update(aSrcFile.toString()).update(myLookup).update(myOutput);
+
+        if (REGISTRY_OUTPUT.equals(myOutput)) {
+            aState.update(getRegistryFile().toString());
+        }
 
-        return entries;
+        for (final MediaTypeSource source : aSourceList) {
+            aState.update(source.getDigest());
+        }
+
+        return aState;
     }
 
     /**
-     * Read the default (mojo supplied) media types.
+     * Gets the file into which the binary registry is written.
      *
-     * @return A list of media type entries
-     * @throws MojoExecutionException If there is trouble reading the default media types
+     * @return The registry file, or null if a registry isn't being written
      */
-    private List<MediaTypeEntry> readDefaultMediaTypes() throws MojoExecutionException {
-        try (InputStream resourceStream = getClass().getResourceAsStream("/mime.types")) {
-            if (resourceStream != null) {
-                return getMediaTypes(resourceStream);
-            }
-
-            // If mime.types file can't be found in jar, see if we're running from a Maven project
-            try (InputStream fileStream = Files.newInputStream(Paths.get("src/main/resources/mime.types"))) {
-                if (fileStream == null) {
-                    throw new I18nRuntimeException(MessageCodes.BUNDLE, MessageCodes.MVN_120);
-                }
-
-                return getMediaTypes(fileStream);
-            }
-        } catch (final IOException details) {
-            throw new MojoExecutionException(details.getMessage(), details);
+    private Path getRegistryFile() {
+        if (!REGISTRY_OUTPUT.equals(myOutput)) {
+            return null;
         }
+
+        return myRegistryDir.toPath().resolve(myPackagePath.replace(PERIOD, SLASH))
+                .resolve(MediaTypeRegistry.REGISTRY_FILE);
     }
 
     /**
-     * Read media types from a file system file.
+     * Gets the media type sources to read, in the order in which they should be merged. Configured sources must exist;
+     * of the default sources, only the bundled types must.
      *
-     * @param aFilePath A file path from which to read some media type definitions
-     * @param aMediaTypeList A list of media types
-     * @throws MojoExecutionException If there is trouble reading media types from the file
+     * @return The media type sources
+     * @throws IOException If a source cannot be read or a required one doesn't exist
      */
-    private void readUserMediaTypes(final Path aFilePath, final List<MediaTypeEntry> aMediaTypeList)
-            throws MojoExecutionException {
-        try (InputStream inStream = Files.newInputStream(aFilePath)) {
-            if (inStream != null) {
-                getMediaTypes(inStream, aMediaTypeList);
+    private List<MediaTypeSource> getSources() throws IOException {
+        final Path baseDir =
+                myProject == null || myProject.getBasedir() == null ? Paths.get("") : myProject.getBasedir().toPath();
+        final List<MediaTypeSource> sources = new ArrayList<>();
+
+        if (mySources == null || mySources.isEmpty()) {
+            for (final String source : DEFAULT_SOURCES) {
+                sources.addAll(MediaTypeSource.resolve(source, baseDir, source.equals(DEFAULT_SOURCES.get(0))));
+            }
+        } else {
+            for (final String source : mySources) {
+                sources.addAll(MediaTypeSource.resolve(source.trim(), baseDir, true));
             }
-        } catch (final NoSuchFileException details) {
-            // We can ignore this... it's okay if it's not there
-            LOGGER.trace(details.getMessage(), details);
-        } catch (final IOException details) {
-            throw new MojoExecutionException(details.getMessage(), details);
         }
+
+        return sources;
     }
 
     /**
-     * Writes the Java source to a file.
+     * Gets the Java source of the media type enumeration.
      *
      * @param aMediaTypeList A list of media types
-     * @param aSrcDir A source direction
-     * @throws MojoExecutionException If there is trouble writing the Java source file
+     * @return The Java source of the media type enumeration
      */
-    private void writeSource(final List<MediaTypeEntry> aMediaTypeList, final File aSrcDir)
-            throws MojoExecutionException {
+    private String getSource(final List<MediaTypeEntry> aMediaTypeList) {
         final JavaEnumSource source = Roaster.create(JavaEnumSource.class);
 
         // Set the package and class name
@@ -552,27 +941,77 @@ public class MediaTypeMojo extends AbstractMojo {
         addParseStringMethodWithHint(source);
         addParseUriMethod(source);
         addParseUriMethodWithHint(source);
+        addMatchesMethod(source);
+
+        // Lookups use switches generated now, indexes built at initialization, or per-class indexes built on demand
+        if (SWITCH_LOOKUP.equals(myLookup)) {
+            new MediaTypeSwitch(aMediaTypeList).addTo(source);
+        } else if (LAZY_LOOKUP.equals(myLookup)) {
+            addIndexMethods(source);
+            new MediaTypeHolders(aMediaTypeList).addTo(source);
+        } else {
+            addClassIndex(source);
+            addIndexes(source);
+        }
+
+        // Let's tell Checkstyle to ignore the generated code (if it's so configured)
+        source.getJavaDoc().setFullText(LOGGER.getMessage(MessageCodes.MVN_119));
 
-        // Create our new message codes class in the requested package directory
-        try (BufferedWriter javaWriter = Files.newBufferedWriter(Paths.get(aSrcDir.getPath(), CLASS_NAME + ".java"))) {
+        // Name our Java file and put it in a Java package
+        source.setPackage(myPackagePath).setName(CLASS_NAME);
 
-            // Let's tell Checkstyle to ignore the generated code (if it's so configured)
-            source.getJavaDoc().setFullText(LOGGER.getMessage(MessageCodes.MVN_119));
+        // Define the enum fields
+        source.addField("private String myType;").getJavaDoc().setText("Sets the media type's identifier.");
+        source.addField("private String[] myExts;").getJavaDoc().setText("Sets the media type's extensions.");
 
-            // Name our Java file and put it in a Java package
-            source.setPackage(myPackagePath).setName(CLASS_NAME);
+        // Create a constructor
+        addConstructor(source).setParameters(getConstructorParams()).setBody(getConstructorBody());
 
-            // Define the enum fields
-            source.addField("private String myType;").getJavaDoc().setText("Sets the media type's identifier.");
-            source.addField("private String[] myExts;").getJavaDoc().setText("Sets the media type's extensions.");
+        // Lastly, return our generated Java class so it can be written out to the file system
+        return source.toString();
+    }
 
-            // Create a constructor
-            addConstructor(source).setParameters(getConstructorParams()).setBody(getConstructorBody());
+    /**
+     * Checks whether the files that are generated already exist.
+     *
+     * @param aSrcFile The generated source file
+     * @param aRegistryFile The registry file, or null if a registry isn't being written
+     * @return True if the generated files exist
+     */
+    private boolean isGenerated(final Path aSrcFile, final Path aRegistryFile) {
+        return Files.exists(aSrcFile) && (aRegistryFile == null || Files.exists(aRegistryFile));
+    }
 
-            // Lastly, write our generated Java class out to the file system
-            javaWriter.write(source.toString());
-        } catch (final IOException details) {
-            throw new MojoExecutionException(details.getMessage(), details);
+    /**
+     * Writes the configured output: an enum of the media types, or a registry of them and the class that reads it.
+     * Generated files are only touched if what was generated is different from what's already there.
+     *
+     * @param aMediaTypeList A list of media types
+     * @param aSrcFile The generated source file
+     * @param aRegistryFile The registry file, or null if a registry isn't being written
+     * @throws IOException If a generated file cannot be written
+     */
+    private void writeOutput(final List<MediaTypeEntry> aMediaTypeList, final Path aSrcFile, final Path aRegistryFile)
+            throws IOException {
+        if (aRegistryFile == null) {
+            write(aSrcFile, getSource(aMediaTypeList).getBytes(StandardCharsets.UTF_8));
+        } else {
+            Files.createDirectories(aRegistryFile.getParent());
+            write(aRegistryFile, new MediaTypeRegistry(aMediaTypeList).toBytes());
+            write(aSrcFile, MediaTypeRegistry.getReaderSource(myPackagePath, LOGGER.getMessage(MessageCodes.MVN_119)));
+        }
+    }
+
+    /**
+     * Writes a generated file, if what was generated is different from what's already there.
+     *
+     * @param aFile A generated file
+     * @param aBytes The generated contents
+     * @throws IOException If the file cannot be written
+     */
+    private void write(final Path aFile, final byte[] aBytes) throws IOException {
+        if (!BuildState.write(aFile, aBytes)) {
+            LOGGER.debug(MessageCodes.MVN_158, aFile);
         }
     }
 
@@ -581,16 +1020,46 @@ public class MediaTypeMojo extends AbstractMojo {
      */
     final class Config {
 
+        /**
+         * A property value for the directory in which parsed media type sources are cached.
+         */
+        static final String CACHE_DIR = "mediaTypeCacheDirectory";
+
         /**
          * A property value for the generated sources directory.
          */
         static final String GEN_SRC = "generatedSourcesDirectory";
 
+        /**
+         * A property value for how the generated enum resolves extensions and types.
+         */
+        static final String LOOKUP = "mediaTypeLookup";
+
+        /**
+         * A property value for what's generated: an enum or a binary registry.
+         */
+        static final String OUTPUT = "mediaTypeOutput";
+
         /**
          * A property value for the package path.
          */
         static final String PACKAGE = "mediaTypePackage";
 
+        /**
+         * A property value for the directory into which a binary registry is written.
+         */
+        static final String REGISTRY_DIR = "mediaTypeRegistryDirectory";
+
+        /**
+         * A property value for the media type sources.
+         */
+        static final String SOURCES = "mediaTypeSources";
+
+        /**
+         * A property value for the directory in which build state is kept between builds.
+         */
+        static final String STATE_DIR = "buildStateDirectory";
+
         /**
          * A private constructor for a constants class.
          */
@@ -605,9 +1074,9 @@ public class MediaTypeMojo extends AbstractMojo {
     class MediaTypeEntry {
 
         /**
-         * The extensions for my media type.
+         * The extensions for my media type, in the order in which they were found.
          */
-        private final String[] myExts;
+        private final Set<String> myExts = new LinkedHashSet<>();
 
         /**
          * My media type name.
@@ -618,13 +1087,22 @@ public class MediaTypeMojo extends AbstractMojo {
          * Creates a new media type.
          *
          * @param aType A media type name
-         * @param aExtArray An array of acceptable extensions, with the preferred one first
+         * @param aExtList A list of acceptable extensions, with the preferred one first
          */
-        MediaTypeEntry(final String aType, final String... aExtArray) {
-            myExts = aExtArray.clone();
+        MediaTypeEntry(final String aType, final List<String> aExtList) {
+            myExts.addAll(aExtList);
             myType = aType;
         }
 
+        /**
+         * Adds extensions to this media type; extensions that it already has are ignored.
+         *
+         * @param aExtList A list of acceptable extensions
+         */
+        void addExts(final List<String> aExtList) {
+            myExts.addAll(aExtList);
+        }
+
         @Override
         public boolean equals(final Object aObject) {
             return aObject instanceof MediaTypeEntry && ((MediaTypeEntry) aObject).myType.equalsIgnoreCase(myType);
@@ -641,7 +1119,7 @@ public class MediaTypeMojo extends AbstractMojo {
          * @return The known extensions for this media type
          */
         String[] getExts() {
-            return myExts.clone();
+            return myExts.toArray(new String[0]);
         }
 
         /**
@@ -0,0 +1,268 @@
+
+package info.freelibrary.maven;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+/**
+ * A parser of <code>mime.types</code> formatted sources. Parsed sources can be cached in a directory that's shared
+ * between builds (e.g., one in the local Maven repository). Cache entries are keyed by a digest of a source's contents,
+ * so builds that read the same contents share a parse, wherever the contents came from.
+ */
+final class MediaTypeParser {
+
+    /** The character that starts a comment line in a media types file. */
+    private static final byte COMMENT = '#';
+
+    /** The character that ends a line in a media types file. */
+    private static final byte NEWLINE = '\n';
+
+    /** The version of the cache file format; it's part of the cache file's name. */
+    private static final String CACHE_VERSION = ".v1";
+
+    /** The logger for the media type parser. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MediaTypeParser.class, MessageCodes.BUNDLE);
+
+    /** The directory in which parsed sources are cached; this is null if they're not cached. */
+    private final Path myCacheDir;
+
+    /**
+     * Creates a new media type parser.
+     *
+     * @param aCacheDir A directory in which to cache parsed sources, or null if they shouldn't be cached
+     */
+    MediaTypeParser(final Path aCacheDir) {
+        myCacheDir = aCacheDir;
+    }
+
+    /**
+     * Parses the supplied source, using a cached parse of the same contents if there is one.
+     *
+     * @param aSource A media type source
+     * @return The source's lines that have a type and at least one extension, each as a list of tokens
+     */
+    List<List<String>> parse(final MediaTypeSource aSource) {
+        final Path cacheFile;
+        final Optional<List<List<String>>> cachedLines;
+        final List<List<String>> lines;
+
+        if (myCacheDir == null) {
+            return tokenize(aSource.getContents());
+        }
+
+        cacheFile = myCacheDir.resolve(aSource.getDigest() + CACHE_VERSION);
+        cachedLines = readCache(cacheFile);
+
+        if (cachedLines.isPresent()) {
+            LOGGER.debug(MessageCodes.MVN_162, aSource);
+            return cachedLines.get();
+        }
+
+        lines = tokenize(aSource.getContents());
+        writeCache(cacheFile, lines);
+        return lines;
+    }
+
+    /**
+     * Tokenizes the supplied contents in a single pass. Lines are tokenized on any whitespace, and lines that start
+     * with a <code>#</code> are skipped as comments.
+     *
+     * @param aContents The UTF-8 encoded contents of a media types file
+     * @return The lines that have a type and at least one extension, each as a list of tokens
+     */
+    static List<List<String>> tokenize(final ByteBuffer aContents) {
+        final List<List<String>> lines = new ArrayList<>();
+        final int limit = aContents.limit();
+        List<String> tokens = new ArrayList<>();
+        int index = aContents.position();
+
+        while (index < limit) {
+            final byte character = aContents.get(index);
+
+            if (character == NEWLINE) {
+                tokens = endLine(lines, tokens);
+                index += 1;
+            } else if (isWhitespace(character)) {
+                index += 1;
+            } else if (character == COMMENT && tokens.isEmpty()) {
+                index = skipLine(aContents, index);
+            } else {
+                final int start = index;
+
+                // UTF-8 multi-byte characters never contain ASCII bytes, so a token can be found a byte at a time
+                while (index < limit && !isWhitespace(aContents.get(index))) {
+                    index += 1;
+                }
+
+                tokens.add(decode(aContents, start, index));
+            }
+        }
+
+        endLine(lines, tokens);
+        return lines;
+    }
+
+    /**
+     * Decodes a token from the supplied contents.
+     *
+     * @param aContents The contents of a media types file
+     * @param aStart The index at which the token starts
+     * @param aEnd The index at which the token ends
+     * @return The token
+     */
+    private static String decode(final ByteBuffer aContents, final int aStart, final int aEnd) {
+        final byte[] bytes = new byte[aEnd - aStart];
+
+        aContents.get(aStart, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ends a line, keeping its tokens if they're a type and at least one extension.
+     *
+     * @param aLineList The lines that have been kept so far
+     * @param aTokenList The tokens of the line that's ending
+     * @return A list for the tokens of the next line
+     */
+    private static List<String> endLine(final List<List<String>> aLineList, final List<String> aTokenList) {
+        // We only care about the media types that have extensions
+        if (aTokenList.size() > 1) { // NOPMD - AvoidLiteralsInIfCondition, a type and at least one extension
+            aLineList.add(aTokenList);
+            return new ArrayList<>();
+        }
+
+        aTokenList.clear();
+        return aTokenList;
+    }
+
+    /**
+     * Checks whether a byte of a media types file is whitespace.
+     *
+     * @param aByte A byte of a media types file
+     * @return True if the byte is whitespace
+     */
+    private static boolean isWhitespace(final byte aByte) {
+        return aByte == ' ' || aByte == '\t' || aByte == NEWLINE || aByte == '\r' || aByte == '\f';
+    }
+
+    /**
+     * Reads a cached parse.
+     *
+     * @param aCacheFile A cache file
+     * @return The cached lines, or an empty optional if they aren't cached or can't be read
+     */
+    private static Optional<List<List<String>>> readCache(final Path aCacheFile) {
+        try (DataInputStream input = new DataInputStream(new BufferedInputStream(Files.newInputStream(aCacheFile)))) {
+            final int lineCount = input.readInt();
+            final List<List<String>> lines = new ArrayList<>();
+
+            // The counts aren't used to size the lists, since a corrupt cache file could hold anything
+
+            for (int lineIndex = 0; lineIndex < lineCount; lineIndex++) {
+                final int tokenCount = input.readInt();
+                final List<String> tokens = new ArrayList<>();
+
+                for (int tokenIndex = 0; tokenIndex < tokenCount; tokenIndex++) {
+                    tokens.add(input.readUTF());
+                }
+
+                lines.add(tokens);
+            }
+
+            return Optional.of(lines);
+        } catch (final NoSuchFileException details) {
+            return Optional.empty();
+        } catch (final IOException details) {
+            LOGGER.debug(MessageCodes.MVN_164, aCacheFile);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Finds the end of the line that contains the supplied index.
+     *
+     * @param aContents The contents of a media types file
+     * @param aIndex An index in the contents
+     * @return The index of the line's newline, or the end of the contents if there isn't one
+     */
+    private static int skipLine(final ByteBuffer aContents, final int aIndex) {
+        int index = aIndex;
+
+        while (index < aContents.limit() && aContents.get(index) != NEWLINE) {
+            index += 1;
+        }
+
+        return index;
+    }
+
+    /**
+     * Caches a parse. The cache file is written under a temporary name and then moved into place, so builds that share
+     * the cache never see a partly written file. A cache that can't be written doesn't fail the build.
+     *
+     * @param aCacheFile A cache file
+     * @param aLineList The parsed lines
+     */
+    private static void writeCache(final Path aCacheFile, final List<List<String>> aLineList) {
+        Path tmpFile = null;
+
+        try {
+            tmpFile = Files.createTempFile(Files.createDirectories(aCacheFile.getParent()),
+                    aCacheFile.getFileName().toString(), null);
+
+            try (DataOutputStream output =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmpFile)))) {
+                output.writeInt(aLineList.size());
+
+                for (final List<String> tokens : aLineList) {
+                    output.writeInt(tokens.size());
+
+                    for (final String token : tokens) {
+                        output.writeUTF(token);
+                    }
+                }
+            }
+
+            try {
+                Files.move(tmpFile, aCacheFile, StandardCopyOption.ATOMIC_MOVE);
+            } catch (final AtomicMoveNotSupportedException details) {
+                Files.move(tmpFile, aCacheFile, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (final IOException details) {
+            LOGGER.warn(MessageCodes.MVN_163, aCacheFile);
+            LOGGER.debug(details.getMessage(), details);
+
+            deleteQuietly(tmpFile);
+        }
+    }
+
+    /**
+     * Deletes a temporary file, if there is one, without complaint.
+     *
+     * @param aFile A temporary file, or null
+     */
+    private static void deleteQuietly(final Path aFile) {
+        if (aFile != null) {
+            try {
+                Files.deleteIfExists(aFile);
+            } catch (final IOException details) {
+                LOGGER.trace(details.getMessage(), details);
+            }
+        }
+    }
+}
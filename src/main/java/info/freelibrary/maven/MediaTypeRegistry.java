@@ -0,0 +1,230 @@
+
+package info.freelibrary.maven;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A generator of a compact, binary registry of media types and of the <code>MediaType</code> class that reads it. The
+ * reader has the same lookups as the generated enum, but it keeps the media types in a single buffer that it searches
+ * in place, rather than in an enum constant (and the lookup tables) for each one. The reader's source is kept in a
+ * template, with the {@link MessageAccessors} templates, in the plugin's resources.
+ * <p>
+ * A registry is a header of six ints (a magic number and the counts of the sections that follow), then:
+ * </p>
+ * <ol>
+ * <li>a record for each media type, in the order they're declared: its type, its lower-cased type, and the start and
+ * count of its extensions;</li>
+ * <li>the indexes of the media types, sorted by their lower-cased types;</li>
+ * <li>a record for each lower-cased extension, sorted: the extension, and the start and count of its media types;</li>
+ * <li>the extensions of each media type;</li>
+ * <li>the indexes of each extension's media types, in the order they're declared; and,</li>
+ * <li>the characters of all the strings, which the records refer to by offset and length.</li>
+ * </ol>
+ */
+final class MediaTypeRegistry {
+
+    /** The name of the registry resource, which is found next to the reader class. */
+    static final String REGISTRY_FILE = "media-types.bin";
+
+    /** The reader of the registry; its package and registry name are set when it's generated. */
+    static final String READER = MessageAccessors.getTemplate("MediaType");
+
+    /** The magic number at the start of a registry: "MTR1". */
+    private static final int MAGIC = 0x4D54_5231;
+
+    /** The declaration of the reader class. */
+    private static final String READER_CLASS = "public final class MediaType";
+
+    /** The reader's declaration of the registry's name, which is filled in when the reader is generated. */
+    private static final String REGISTRY_DECLARATION = "String REGISTRY = \"\";";
+
+    /** The media types, in the order in which they're declared. */
+    private final List<MediaTypeMojo.MediaTypeEntry> myEntries;
+
+    /** The indexes of the media types with each lower-cased extension, in the order in which they're declared. */
+    private final Map<String, List<Integer>> myExts = new LinkedHashMap<>();
+
+    /**
+     * Creates a generator of a registry of the supplied media types.
+     *
+     * @param aEntryList The media types in the order in which they're declared
+     */
+    MediaTypeRegistry(final List<MediaTypeMojo.MediaTypeEntry> aEntryList) {
+        myEntries = aEntryList;
+
+        for (int index = 0; index < aEntryList.size(); index++) {
+            for (final String ext : aEntryList.get(index).getExts()) {
+                final List<Integer> indexes =
+                        myExts.computeIfAbsent(MediaTypeSwitch.toLowerCase(ext), key -> new ArrayList<>());
+
+                if (indexes.isEmpty() || indexes.get(indexes.size() - 1) != index) {
+                    indexes.add(index);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the source of the class that reads the registry.
+     *
+     * @param aPackage The package of the reader
+     * @param aJavadoc The reader's Javadoc
+     * @return The UTF-8 bytes of the reader's source
+     */
+    static byte[] getReaderSource(final String aPackage, final String aJavadoc) {
+        final int importsStart = READER.indexOf("import ");
+        final int classStart = READER.indexOf(READER_CLASS);
+        final String body = READER.substring(READER.indexOf('{', classStart) + 1).replace(REGISTRY_DECLARATION,
+                "String REGISTRY = " + JavaSourceWriter.toLiteral(REGISTRY_FILE) + ";");
+
+        return new JavaSourceWriter().writePackage(aPackage).writeSource(READER.substring(importsStart, classStart))
+                .startType(aJavadoc, READER_CLASS).writeSource(body.substring(body.indexOf('\n') + 1)).toBytes();
+    }
+
+    /**
+     * Gets the registry.
+     *
+     * @return The bytes of the registry
+     * @throws UncheckedIOException If the registry cannot be written, which an in-memory stream never does
+     */
+    byte[] toBytes() {
+        final ByteArrayOutputStream sections = new ByteArrayOutputStream();
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final Map<String, Integer> offsets = new HashMap<>();
+        final StringBuilder chars = new StringBuilder();
+        final int typeExtCount;
+        final int extTypeCount;
+
+        try (DataOutputStream output = new DataOutputStream(sections)) {
+            typeExtCount = writeTypes(output, offsets, chars);
+            extTypeCount = writeExts(output, offsets, chars);
+        } catch (final IOException details) {
+            // A ByteArrayOutputStream doesn't throw I/O exceptions
+            throw new UncheckedIOException(details);
+        }
+
+        // The header is written last, since the number of characters isn't known until the strings have been added
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(MAGIC);
+            output.writeInt(myEntries.size());
+            output.writeInt(myExts.size());
+            output.writeInt(typeExtCount);
+            output.writeInt(extTypeCount);
+            output.writeInt(chars.length());
+            sections.writeTo(output);
+            output.writeChars(chars.toString());
+        } catch (final IOException details) {
+            // A ByteArrayOutputStream doesn't throw I/O exceptions
+            throw new UncheckedIOException(details);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Writes the extension records, the extensions of each media type, and the media types of each extension.
+     *
+     * @param aOutput The registry's output
+     * @param aOffsetMap The offsets of the strings that have already been added
+     * @param aChars The registry's characters
+     * @return The number of extensions' media types that were written
+     * @throws IOException If the sections cannot be written
+     */
+    private int writeExts(final DataOutputStream aOutput, final Map<String, Integer> aOffsetMap,
+            final StringBuilder aChars) throws IOException {
+        final List<String> sortedExts = new ArrayList<>(myExts.keySet());
+        int start = 0;
+
+        sortedExts.sort(Comparator.naturalOrder());
+
+        for (final String ext : sortedExts) {
+            final int typeCount = myExts.get(ext).size();
+
+            writeString(aOutput, ext, aOffsetMap, aChars);
+            aOutput.writeInt(start);
+            aOutput.writeInt(typeCount);
+            start += typeCount;
+        }
+
+        for (final MediaTypeMojo.MediaTypeEntry entry : myEntries) {
+            for (final String ext : entry.getExts()) {
+                writeString(aOutput, ext, aOffsetMap, aChars);
+            }
+        }
+
+        for (final String ext : sortedExts) {
+            for (final int index : myExts.get(ext)) {
+                aOutput.writeInt(index);
+            }
+        }
+
+        return start;
+    }
+
+    /**
+     * Writes the media type records and the indexes of the media types, sorted by their lower-cased types.
+     *
+     * @param aOutput The registry's output
+     * @param aOffsetMap The offsets of the strings that have already been added
+     * @param aChars The registry's characters
+     * @return The number of media types' extensions that the records refer to
+     * @throws IOException If the sections cannot be written
+     */
+    private int writeTypes(final DataOutputStream aOutput, final Map<String, Integer> aOffsetMap,
+            final StringBuilder aChars) throws IOException {
+        final List<Integer> sortedTypes = new ArrayList<>();
+        int start = 0;
+
+        for (final MediaTypeMojo.MediaTypeEntry entry : myEntries) {
+            final int extCount = entry.getExts().length;
+
+            sortedTypes.add(sortedTypes.size());
+            writeString(aOutput, entry.getType(), aOffsetMap, aChars);
+            writeString(aOutput, MediaTypeSwitch.toLowerCase(entry.getType()), aOffsetMap, aChars);
+            aOutput.writeInt(start);
+            aOutput.writeInt(extCount);
+            start += extCount;
+        }
+
+        sortedTypes.sort(Comparator.comparing(index -> MediaTypeSwitch.toLowerCase(myEntries.get(index).getType())));
+
+        for (final int index : sortedTypes) {
+            aOutput.writeInt(index);
+        }
+
+        return start;
+    }
+
+    /**
+     * Writes a reference to a string, adding the string to the registry's characters if it's not already there.
+     *
+     * @param aOutput The registry's output
+     * @param aString A string
+     * @param aOffsetMap The offsets of the strings that have already been added
+     * @param aChars The registry's characters
+     * @throws IOException If the reference cannot be written
+     */
+    private static void writeString(final DataOutputStream aOutput, final String aString,
+            final Map<String, Integer> aOffsetMap, final StringBuilder aChars) throws IOException {
+        final Integer offset = aOffsetMap.get(aString);
+
+        if (offset == null) {
+            aOffsetMap.put(aString, aChars.length());
+            aOutput.writeInt(aChars.length());
+            aChars.append(aString);
+        } else {
+            aOutput.writeInt(offset);
+        }
+
+        aOutput.writeInt(aString.length());
+    }
+}
@@ -0,0 +1,281 @@
+
+package info.freelibrary.maven;
+
+import static info.freelibrary.util.Constants.SLASH;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.stream.Stream;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+/**
+ * The contents of a <code>mime.types</code> formatted file that the {@link MediaTypeMojo} reads media types from.
+ * Sources can be files, directories of <code>.types</code> files, classpath resources (e.g.,
+ * <code>classpath:mime.types</code>), or jar entries (e.g., <code>jar:file:/path/to/types.jar!/mime.types</code>).
+ * Files are memory-mapped rather than copied onto the heap; jar entries are usually compressed, so they're read.
+ */
+final class MediaTypeSource {
+
+    /** The prefix of a classpath resource source. */
+    static final String CLASSPATH_PREFIX = "classpath:";
+
+    /** The file extension of the files that are read from a directory source. */
+    private static final String TYPES_EXT = ".types";
+
+    /** The prefix of a source that's relative to the user's home directory. */
+    private static final String HOME_PREFIX = "~/";
+
+    /** The protocol of a file URL. */
+    private static final String FILE_PROTOCOL = "file";
+
+    /** The protocol of a jar URL. */
+    private static final String JAR_PROTOCOL = "jar";
+
+    /** The prefix of a jar entry source. */
+    private static final String JAR_PREFIX = JAR_PROTOCOL + ':';
+
+    /** The separator between a jar file and the entry in it. */
+    private static final String JAR_SEPARATOR = "!/";
+
+    /** The logger for media type sources. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MediaTypeSource.class, MessageCodes.BUNDLE);
+
+    /** The contents of the source. */
+    private final ByteBuffer myContents;
+
+    /** A hex encoded digest of the source's contents. */
+    private final String myDigest;
+
+    /** The name of the source. */
+    private final String myName;
+
+    /**
+     * Creates a new media type source.
+     *
+     * @param aName The name of the source
+     * @param aContents The contents of the source
+     */
+    private MediaTypeSource(final String aName, final ByteBuffer aContents) {
+        myName = aName;
+        myContents = aContents;
+        myDigest = BuildState.digest(aContents);
+    }
+
+    /**
+     * Gets the contents of the source. The returned buffer is a view of the contents, so reading it doesn't affect
+     * later reads.
+     *
+     * @return The contents of the source
+     */
+    ByteBuffer getContents() {
+        return myContents.duplicate();
+    }
+
+    /**
+     * Gets a hex encoded digest of the source's contents.
+     *
+     * @return A digest of the source's contents
+     */
+    String getDigest() {
+        return myDigest;
+    }
+
+    /**
+     * Gets the name of the source.
+     *
+     * @return The name of the source
+     */
+    String getName() {
+        return myName;
+    }
+
+    @Override
+    public String toString() {
+        return myName;
+    }
+
+    /**
+     * Resolves the supplied source into the media type sources it refers to. A directory can hold more than one source,
+     * which are returned in the order of their file names.
+     *
+     * @param aSource A file, directory, classpath resource, or jar entry
+     * @param aBaseDir The directory against which a relative file or directory is resolved
+     * @param aRequired Whether it's an error for the source not to exist
+     * @return The media type sources the supplied source refers to
+     * @throws FileNotFoundException If a required source doesn't exist
+     * @throws IOException If a source cannot be read
+     */
+    static List<MediaTypeSource> resolve(final String aSource, final Path aBaseDir, final boolean aRequired)
+            throws IOException {
+        final List<MediaTypeSource> sources = new ArrayList<>();
+
+        if (aSource.startsWith(CLASSPATH_PREFIX)) {
+            final String resource = aSource.substring(CLASSPATH_PREFIX.length());
+            final URL url = MediaTypeSource.class.getResource(resource.startsWith(SLASH) ? resource : SLASH + resource);
+
+            if (url != null) {
+                addSource(sources, aSource, read(url));
+            }
+        } else if (aSource.startsWith(JAR_PREFIX)) {
+            addSource(sources, aSource, readJarEntry(aSource));
+        } else {
+            addFileSources(sources, toPath(aSource, aBaseDir));
+        }
+
+        if (sources.isEmpty() && aRequired) {
+            throw new FileNotFoundException(LOGGER.getMessage(MessageCodes.MVN_161, aSource));
+        }
+
+        return sources;
+    }
+
+    /**
+     * Adds a source to the supplied list if it has contents.
+     *
+     * @param aSourceList A list of media type sources
+     * @param aName The name of the source
+     * @param aContents The contents of the source, or null if it doesn't exist
+     */
+    private static void addSource(final List<MediaTypeSource> aSourceList, final String aName,
+            final ByteBuffer aContents) {
+        if (aContents != null) {
+            aSourceList.add(new MediaTypeSource(aName, aContents));
+        }
+    }
+
+    /**
+     * Adds the sources at the supplied path: the file itself, or a directory's <code>.types</code> files in the order
+     * of their names. Nothing is added if the path doesn't exist.
+     *
+     * @param aSourceList A list of media type sources
+     * @param aPath A file or directory
+     * @throws IOException If a file cannot be read
+     */
+    private static void addFileSources(final List<MediaTypeSource> aSourceList, final Path aPath) throws IOException {
+        if (Files.isDirectory(aPath)) {
+            try (Stream<Path> files = Files.list(aPath)) {
+                for (final Path file : files.filter(MediaTypeSource::isTypesFile).sorted().toList()) {
+                    addSource(aSourceList, file.toString(), map(file));
+                }
+            }
+        } else if (Files.isRegularFile(aPath)) {
+            addSource(aSourceList, aPath.toString(), map(aPath));
+        }
+    }
+
+    /**
+     * Checks whether a file in a directory source is a media types file.
+     *
+     * @param aPath A path in a directory source
+     * @return True if the path is a regular file with a <code>.types</code> extension
+     */
+    private static boolean isTypesFile(final Path aPath) {
+        return Files.isRegularFile(aPath) && aPath.getFileName().toString().endsWith(TYPES_EXT);
+    }
+
+    /**
+     * Memory-maps the supplied file.
+     *
+     * @param aPath A file
+     * @return A read-only buffer of the file's contents
+     * @throws IOException If the file cannot be mapped
+     */
+    private static ByteBuffer map(final Path aPath) throws IOException {
+        try (FileChannel channel = FileChannel.open(aPath, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * Reads the resource at the supplied URL, mapping it if it's a file.
+     *
+     * @param aURL The URL of a classpath resource
+     * @return The contents of the resource, or null if it doesn't exist
+     * @throws IOException If the resource cannot be read
+     */
+    private static ByteBuffer read(final URL aURL) throws IOException {
+        final String protocol = aURL.getProtocol();
+
+        if (FILE_PROTOCOL.equals(protocol)) {
+            try {
+                return map(Paths.get(aURL.toURI()));
+            } catch (final URISyntaxException details) {
+                throw new IOException(details);
+            }
+        }
+
+        if (JAR_PROTOCOL.equals(protocol)) {
+            return readJarEntry(aURL.toString());
+        }
+
+        try (InputStream resourceStream = aURL.openStream()) {
+            return ByteBuffer.wrap(resourceStream.readAllBytes());
+        }
+    }
+
+    /**
+     * Reads an entry from a jar file.
+     *
+     * @param aJarURL A jar URL (e.g., <code>jar:file:/path/to/types.jar!/mime.types</code>)
+     * @return The contents of the jar entry, or null if it doesn't exist
+     * @throws FileNotFoundException If the jar URL doesn't name an entry
+     * @throws IOException If the jar entry cannot be read
+     */
+    private static ByteBuffer readJarEntry(final String aJarURL) throws IOException {
+        final int separatorIndex = aJarURL.indexOf(JAR_SEPARATOR);
+        final Path jarPath;
+
+        if (separatorIndex == -1) {
+            throw new FileNotFoundException(LOGGER.getMessage(MessageCodes.MVN_161, aJarURL));
+        }
+
+        jarPath = Paths.get(URI.create(aJarURL.substring(JAR_PREFIX.length(), separatorIndex)));
+
+        if (!Files.isRegularFile(jarPath)) {
+            return null;
+        }
+
+        try (JarFile jarFile = new JarFile(jarPath.toFile())) {
+            final JarEntry entry = jarFile.getJarEntry(aJarURL.substring(separatorIndex + JAR_SEPARATOR.length()));
+
+            if (entry == null) {
+                return null;
+            }
+
+            try (InputStream entryStream = jarFile.getInputStream(entry)) {
+                return ByteBuffer.wrap(entryStream.readAllBytes());
+            }
+        }
+    }
+
+    /**
+     * Converts a file or directory source into a path.
+     *
+     * @param aSource A file or directory, which may start with <code>~/</code> for the user's home directory
+     * @param aBaseDir The directory against which a relative path is resolved
+     * @return The path of the source
+     */
+    private static Path toPath(final String aSource, final Path aBaseDir) {
+        if (aSource.startsWith(HOME_PREFIX)) {
+            return Paths.get(System.getProperty("user.home"), aSource.substring(HOME_PREFIX.length()));
+        }
+
+        return aBaseDir.resolve(aSource);
+    }
+}
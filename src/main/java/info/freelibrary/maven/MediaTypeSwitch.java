@@ -0,0 +1,522 @@
+
+package info.freelibrary.maven;
+
+import static info.freelibrary.util.Constants.EOL;
+import static info.freelibrary.util.Constants.QUOTE;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.jboss.forge.roaster.model.source.JavaDocSource;
+import org.jboss.forge.roaster.model.source.JavaEnumSource;
+import org.jboss.forge.roaster.model.source.MethodSource;
+
+import info.freelibrary.util.I18nRuntimeException;
+import info.freelibrary.util.StringUtils;
+
+/**
+ * A generator of <code>MediaType</code> lookups that resolve extensions and types with <code>switch</code> statements.
+ * Each key is hashed at build time, with a multiplier that's chosen so that no two keys share a hash, so every case of
+ * a generated switch has exactly one key to confirm. The media types of each top-level class are found with a switch
+ * too, so the generated enum needs no lookup tables, and does no work to build them when it's initialized.
+ */
+final class MediaTypeSwitch {
+
+    /**
+     * The most cases put in a single generated switch. This keeps each generated method well under the 8000 bytes of
+     * bytecode that HotSpot's JIT compiler will compile.
+     */
+    private static final int MAX_CASES = 128;
+
+    /** A rough length of a generated case, used to size the switches' builders. */
+    private static final int CASE_LENGTH = 64;
+
+    /** The largest hash multiplier that's tried before giving up. */
+    private static final int MAX_MULTIPLIER = 0xFFFF;
+
+    /** The hash multiplier that's tried first; it's the one that <code>String.hashCode()</code> uses. */
+    private static final int MULTIPLIER = 31;
+
+    /** The last case of every generated switch. */
+    private static final String DEFAULT_CASE = "default: return null;";
+
+    /** The Javadoc tag for a generated method's hint parameter. */
+    private static final String HINT_TAG = "aHint A hint as to what class of media type we want";
+
+    /** The Javadoc tag for a generated method's class parameter. */
+    private static final String CLASS_TAG = "aClass A lower-cased class of media type (e.g., \"image\")";
+
+    /** The Javadoc tag for a generated method's type parameter. */
+    private static final String TYPE_TAG = "aType A media type";
+
+    /** The Javadoc text for what a generated method that finds an extension returns. */
+    private static final String EXT_RETURN = "The media type of the extension, or null if it's not known";
+
+    /** The Javadoc text for what a generated method that finds a type returns. */
+    private static final String TYPE_RETURN = "The media type, or null if it's not known";
+
+    /** The start of a case of a generated switch. */
+    private static final String CASE = "case ";
+
+    /** The delimiter between the items of a generated list. */
+    private static final String LIST_DELIM = ", ";
+
+    /** A {@code throws} constant. */
+    private static final String THROWS_TAG = "@throws";
+
+    /** A {@code param} constant. */
+    private static final String PARAM_TAG = "@param";
+
+    /** A {@code return} constant. */
+    private static final String RETURN_TAG = "@return";
+
+    /** The parameters of the generated methods that find an extension. */
+    private static final String EXT_PARAMS =
+            "final CharSequence aExt, final int aStart, final int aEnd, final String aHint";
+
+    /** The parameters of the generated methods that find a type. */
+    private static final String TYPE_PARAMS = "final String aType";
+
+    /** The Javadoc tags for the parameters of the generated methods that find an extension. */
+    private static final List<String> EXT_TAGS = List.of("aExt A sequence of characters that contains an extension",
+            "aStart The index at which the extension starts", "aEnd The index at which the extension ends", HINT_TAG);
+
+    /** The Javadoc tags for the parameters of the generated methods that find a type. */
+    private static final List<String> TYPE_TAGS = List.of(TYPE_TAG);
+
+    /** The names of the media types with each lower-cased extension, in the order in which they're declared. */
+    private final Map<String, List<String>> myExts = new LinkedHashMap<>();
+
+    /** The names of the media types of each lower-cased top-level class, in the order in which they're declared. */
+    private final Map<String, List<String>> myClasses = new LinkedHashMap<>();
+
+    /** The name of the first media type with each lower-cased type. */
+    private final Map<String, String> myTypes = new LinkedHashMap<>();
+
+    /** The hash multiplier that gives each extension, and each type, a unique hash. */
+    private final int myMultiplier;
+
+    /**
+     * Creates a generator of switch lookups for the supplied media types.
+     *
+     * @param aEntryList The media types in the order in which they're declared
+     * @throws I18nRuntimeException If no multiplier gives each of the media types' keys a unique hash
+     */
+    MediaTypeSwitch(final List<MediaTypeMojo.MediaTypeEntry> aEntryList) {
+        for (final MediaTypeMojo.MediaTypeEntry entry : aEntryList) {
+            final String name = entry.getName();
+            final int slashIndex = entry.getType().indexOf('/');
+
+            for (final String ext : entry.getExts()) {
+                final List<String> names = myExts.computeIfAbsent(toLowerCase(ext), key -> new ArrayList<>());
+
+                if (!names.contains(name)) {
+                    names.add(name);
+                }
+            }
+
+            if (slashIndex != -1) {
+                myClasses.computeIfAbsent(toLowerCase(entry.getType().substring(0, slashIndex)),
+                        key -> new ArrayList<>()).add(name);
+            }
+
+            myTypes.putIfAbsent(toLowerCase(entry.getType()), name);
+        }
+
+        myMultiplier = findMultiplier();
+    }
+
+    /**
+     * Adds the switch lookups, and a self-check that compares them with a scan of all the media types, to the supplied
+     * Java source.
+     *
+     * @param aSource A Java source object
+     */
+    void addTo(final JavaEnumSource aSource) {
+        final List<Map<Integer, String>> extCases = newCases(myExts.size());
+        final List<Map<Integer, String>> typeCases = newCases(myTypes.size());
+        final JavaDocSource<MethodSource<JavaEnumSource>> hashJavadoc;
+        final String hashMethod = """
+            private static int hash(final CharSequence aChars, final int aStart, final int aEnd) {
+                int hash = 0;
+
+                for (int index = aStart; index < aEnd; index++) {
+                    hash = {} * hash + Character.toLowerCase(aChars.charAt(index));
+                }
+
+                return hash;
+            }
+            """;
+        final String hintMethod = """
+            private boolean hasHint(final String aHint) {
+                return myType.regionMatches(true, 0, aHint, 0, aHint.length());
+            }
+            """;
+
+        for (final Map.Entry<String, List<String>> entry : myExts.entrySet()) {
+            final int hash = hash(entry.getKey(), myMultiplier);
+
+            extCases.get(hash & extCases.size() - 1).put(hash, getExtCase(entry.getKey(), entry.getValue()));
+        }
+
+        for (final Map.Entry<String, String> entry : myTypes.entrySet()) {
+            final int hash = hash(entry.getKey(), myMultiplier);
+
+            typeCases.get(hash & typeCases.size() - 1).put(hash,
+                    StringUtils.format("return matches({}, aType, 0, aType.length()) ? {} : null;",
+                            quote(entry.getKey()), entry.getValue()));
+        }
+
+        hashJavadoc = aSource.addMethod(StringUtils.format(hashMethod, Integer.toString(myMultiplier))).getJavaDoc();
+        hashJavadoc.setText("Hashes, without regard to case, a range of characters.");
+        hashJavadoc.addTagValue(PARAM_TAG, "aChars A sequence of characters");
+        hashJavadoc.addTagValue(PARAM_TAG, "aStart The index at which the range starts");
+        hashJavadoc.addTagValue(PARAM_TAG, "aEnd The index at which the range ends");
+        hashJavadoc.addTagValue(RETURN_TAG, "The hash of the range of characters");
+        aSource.addMethod(hintMethod).getJavaDoc().setText("Checks whether this media type fits the supplied hint.")
+                .addTagValue(PARAM_TAG, "aHint A class of media type (e.g., \"audio\")")
+                .addTagValue(RETURN_TAG, "True if this media type's type starts with the hint");
+
+        addSwitches(aSource, "findExt", EXT_PARAMS, "aExt, aStart, aEnd", extCases, EXT_TAGS)
+                .setText("Finds the media type of the extension in a range of characters.")
+                .addTagValue(RETURN_TAG, EXT_RETURN);
+        addSwitches(aSource, "findType", TYPE_PARAMS, "aType, 0, aType.length()", typeCases, TYPE_TAGS)
+                .setText("Finds the media type with the supplied type.").addTagValue(RETURN_TAG, TYPE_RETURN);
+
+        addClassSwitch(aSource);
+        addSelfCheck(aSource);
+    }
+
+    /**
+     * Adds a <code>findTypes()</code> method that switches on a top-level class, along with a method for each class
+     * that lists its media types.
+     *
+     * @param aSource A Java source object
+     */
+    private void addClassSwitch(final JavaEnumSource aSource) {
+        final StringBuilder dispatch = new StringBuilder((myClasses.size() + 2) * CASE_LENGTH);
+        int index = 0;
+
+        dispatch.append("private static List<MediaType> findTypes(final String aClass) {").append(EOL)
+                .append("switch (aClass) {").append(EOL);
+
+        // Each class's list is built in a method of its own, so that no one method holds all the media types
+        for (final Map.Entry<String, List<String>> entry : myClasses.entrySet()) {
+            final String method = "findTypes" + index++;
+
+            dispatch.append(CASE).append(quote(entry.getKey())).append(": return ").append(method).append("();")
+                    .append(EOL);
+            aSource.addMethod(StringUtils.format("private static List<MediaType> {}() { return List.of({}); }", method,
+                    String.join(LIST_DELIM, entry.getValue()))).getJavaDoc()
+                    .setText(StringUtils.format("Lists the \"{}\" media types.", entry.getKey()))
+                    .addTagValue(RETURN_TAG, "The media types of the class, in the order in which they're declared");
+        }
+
+        dispatch.append("default: return List.of();").append(EOL).append('}').append(EOL).append('}');
+
+        aSource.addMethod(dispatch.toString()).getJavaDoc().setText("Finds the media types of a top-level class.")
+                .addTagValue(PARAM_TAG, CLASS_TAG)
+                .addTagValue(RETURN_TAG, "The media types of the class, or an empty list if there are none");
+    }
+
+    /**
+     * Adds a method that finds a key by dispatching on its hash to one of a number of switches, along with the methods
+     * that hold those switches.
+     *
+     * @param aSource A Java source object
+     * @param aName The name of the method that finds a key
+     * @param aParams The parameters of the method that finds a key
+     * @param aHashArgs The arguments that pass the key to the hash method
+     * @param aCases The cases of each switch, by the hash that selects them
+     * @param aParamTags The Javadoc tags for the method's parameters
+     * @return The Javadoc of the method that finds a key
+     */
+    private JavaDocSource<MethodSource<JavaEnumSource>> addSwitches(final JavaEnumSource aSource, final String aName,
+            final String aParams, final String aHashArgs, final List<Map<Integer, String>> aCases,
+            final List<String> aParamTags) {
+        final String args = aParams.replaceAll("final [A-Za-z]+ ", "");
+        final StringBuilder dispatch =
+                new StringBuilder(StringUtils.format("private static MediaType {}({}) {", aName, aParams));
+        final JavaDocSource<MethodSource<JavaEnumSource>> javadoc;
+
+        dispatch.append(EOL).append(StringUtils.format("final int hash = hash({});", aHashArgs)).append(EOL)
+                .append(StringUtils.format("switch (hash & {}) {", Integer.toString(aCases.size() - 1))).append(EOL);
+
+        for (int index = 0; index < aCases.size(); index++) {
+            final Map<Integer, String> cases = aCases.get(index);
+            final StringBuilder method;
+            final JavaDocSource<MethodSource<JavaEnumSource>> switchJavadoc;
+
+            // Keys that don't hash to any of the cases fall through to the dispatch's default
+            if (cases.isEmpty()) {
+                continue;
+            }
+
+            dispatch.append(StringUtils.format("case {}: return {}{}(hash, {});", Integer.toString(index), aName,
+                    Integer.toString(index), args)).append(EOL);
+
+            method = new StringBuilder(StringUtils.format("private static MediaType {}{}(final int aHash, {}) {", aName,
+                    Integer.toString(index), aParams)).append(EOL).append("switch (aHash) {").append(EOL);
+
+            for (final Map.Entry<Integer, String> entry : cases.entrySet()) {
+                method.append(CASE).append(entry.getKey()).append(':').append(EOL).append(entry.getValue()).append(EOL);
+            }
+
+            method.append(DEFAULT_CASE).append(EOL).append('}').append(EOL).append('}');
+
+            switchJavadoc = aSource.addMethod(method.toString()).getJavaDoc();
+            switchJavadoc.setText("Finds a key whose hash selects the switch at index " + index + ".");
+            switchJavadoc.addTagValue(PARAM_TAG, "aHash The hash of the key");
+            aParamTags.forEach(tag -> switchJavadoc.addTagValue(PARAM_TAG, tag));
+            switchJavadoc.addTagValue(RETURN_TAG, "The media type with the key, or null if it's not known");
+        }
+
+        dispatch.append(DEFAULT_CASE).append(EOL).append('}').append(EOL).append('}');
+
+        javadoc = aSource.addMethod(dispatch.toString()).getJavaDoc();
+        aParamTags.forEach(tag -> javadoc.addTagValue(PARAM_TAG, tag));
+
+        return javadoc;
+    }
+
+    /**
+     * Adds a package-private <code>checkLookups()</code> method that confirms that every extension and type resolves to
+     * what a scan of all the media types, the way lookups used to be done, would find.
+     *
+     * @param aSource A Java source object
+     */
+    private void addSelfCheck(final JavaEnumSource aSource) {
+        final String checkLookupsMethod = """
+            static void checkLookups() {
+                final List<String> hints = new ArrayList<>(List.of({}));
+
+                hints.add(null);
+
+                for (final MediaType mediaType : values()) {
+                    final String type = mediaType.myType.toUpperCase(Locale.ROOT);
+
+                    checkLookup(type, fromString(type), scanType(type));
+
+                    for (final String ext : mediaType.myExts) {
+                        for (final String hint : hints) {
+                            checkLookup(ext, fromExt(ext.toUpperCase(Locale.ROOT), hint), scanExt(ext, hint));
+                        }
+                    }
+                }
+            }
+            """;
+        final String checkLookupMethod = """
+            private static void checkLookup(final String aKey, final Optional<MediaType> aFound,
+                    final MediaType aExpected) {
+                if (aFound.orElse(null) != aExpected) {
+                    throw new IllegalStateException("'" + aKey + "' resolved to " + aFound.orElse(null) +
+                            " rather than " + aExpected);
+                }
+            }
+            """;
+        final String scanExtMethod = """
+            private static MediaType scanExt(final String aExt, final String aHint) {
+                final String hint = aHint != null ? aHint.toLowerCase(Locale.ROOT) : null;
+                MediaType chosenMediaType = null;
+
+                for (final MediaType mediaType : values()) {
+                    for (final String ext : mediaType.myExts) {
+                        if (ext.equalsIgnoreCase(aExt)) {
+                            if (hint != null && mediaType.myType.startsWith(hint)) {
+                                return mediaType;
+                            }
+
+                            if (chosenMediaType == null) {
+                                chosenMediaType = mediaType;
+                            }
+                        }
+                    }
+                }
+
+                return chosenMediaType;
+            }
+            """;
+        final String scanTypeMethod = """
+            private static MediaType scanType(final String aType) {
+                for (final MediaType mediaType : values()) {
+                    if (mediaType.myType.equalsIgnoreCase(aType)) {
+                        return mediaType;
+                    }
+                }
+
+                return null;
+            }
+            """;
+        final JavaDocSource<MethodSource<JavaEnumSource>> checkJavadoc;
+
+        for (final Class<?> importClass : List.of(ArrayList.class, List.class, Locale.class, Optional.class)) {
+            if (!aSource.hasImport(importClass)) {
+                aSource.addImport(importClass);
+            }
+        }
+
+        aSource.addMethod(StringUtils.format(checkLookupsMethod, getClassList())).setPackagePrivate().getJavaDoc()
+                .setText("Checks that every extension and type resolves to the media type that a scan of all the " +
+                        "media types would find.")
+                .addTagValue(THROWS_TAG, "IllegalStateException If a lookup doesn't match");
+        checkJavadoc = aSource.addMethod(checkLookupMethod).getJavaDoc();
+        checkJavadoc.setText("Checks that a lookup found the expected media type.");
+        checkJavadoc.addTagValue(PARAM_TAG, "aKey The key that was looked up");
+        checkJavadoc.addTagValue(PARAM_TAG, "aFound The media type the lookup found");
+        checkJavadoc.addTagValue(PARAM_TAG, "aExpected The media type the lookup should have found");
+        checkJavadoc.addTagValue(THROWS_TAG, "IllegalStateException If the lookup didn't find the expected media type");
+        aSource.addMethod(scanExtMethod).getJavaDoc()
+                .setText("Finds a media type by scanning all the media types' extensions.")
+                .addTagValue(PARAM_TAG, "aExt An extension").addTagValue(PARAM_TAG, HINT_TAG)
+                .addTagValue(RETURN_TAG, EXT_RETURN);
+        aSource.addMethod(scanTypeMethod).getJavaDoc().setText("Finds a media type by scanning all the media types.")
+                .addTagValue(PARAM_TAG, TYPE_TAG).addTagValue(RETURN_TAG, TYPE_RETURN);
+    }
+
+    /**
+     * Finds a hash multiplier that gives each extension, and each type, a unique hash.
+     *
+     * @return A hash multiplier
+     * @throws I18nRuntimeException If no multiplier gives each of the keys a unique hash
+     */
+    private int findMultiplier() {
+        for (int multiplier = MULTIPLIER; multiplier <= MAX_MULTIPLIER; multiplier += 2) {
+            if (isUnique(myExts.keySet(), multiplier) && isUnique(myTypes.keySet(), multiplier)) {
+                return multiplier;
+            }
+        }
+
+        throw new I18nRuntimeException(MessageCodes.BUNDLE, MessageCodes.MVN_160);
+    }
+
+    /**
+     * Gets the top-level classes of the media types, as a list of Java string literals.
+     *
+     * @return The quoted top-level classes, separated by commas
+     */
+    private String getClassList() {
+        final List<String> classes = new ArrayList<>(myClasses.size());
+
+        myClasses.keySet().forEach(typeClass -> classes.add(quote(typeClass)));
+
+        return String.join(LIST_DELIM, classes);
+    }
+
+    /**
+     * Gets the body of the case that confirms an extension and chooses between the media types that have it.
+     *
+     * @param aExt A lower-cased extension
+     * @param aNameList The names of the media types with the extension, in the order in which they're declared
+     * @return The body of the extension's case
+     */
+    private String getExtCase(final String aExt, final List<String> aNameList) {
+        final String first = aNameList.get(0);
+        final StringBuilder body;
+
+        if (aNameList.size() == 1) { // NOPMD - AvoidLiteralsInIfCondition, there is no choice to make
+            return StringUtils.format("return matches({}, aExt, aStart, aEnd) ? {} : null;", quote(aExt), first);
+        }
+
+        body = new StringBuilder(
+                StringUtils.format("if (!matches({}, aExt, aStart, aEnd)) { return null; }", quote(aExt)));
+
+        // Without a hint, or with one that fits the first media type, the first media type is the one that's chosen
+        body.append(EOL)
+                .append(StringUtils.format("if (aHint == null || {}.hasHint(aHint)) { return {}; }", first, first));
+
+        for (final String name : aNameList.subList(1, aNameList.size())) {
+            body.append(EOL).append(StringUtils.format("if ({}.hasHint(aHint)) { return {}; }", name, name));
+        }
+
+        return body.append(EOL).append("return ").append(first).append(';').toString();
+    }
+
+    /**
+     * Hashes a key the same way the generated <code>hash()</code> method does.
+     *
+     * @param aKey A key
+     * @param aMultiplier A hash multiplier
+     * @return The hash of the key
+     */
+    private static int hash(final String aKey, final int aMultiplier) {
+        int hash = 0;
+
+        for (int index = 0; index < aKey.length(); index++) {
+            hash = aMultiplier * hash + Character.toLowerCase(aKey.charAt(index));
+        }
+
+        return hash;
+    }
+
+    /**
+     * Checks whether each of the supplied keys has a unique hash.
+     *
+     * @param aKeySet A set of keys
+     * @param aMultiplier A hash multiplier
+     * @return True if no two keys share a hash
+     */
+    private static boolean isUnique(final Set<String> aKeySet, final int aMultiplier) {
+        final Set<Integer> hashes = new HashSet<>();
+
+        for (final String key : aKeySet) {
+            if (!hashes.add(hash(key, aMultiplier))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Creates the case maps for enough switches that none has more than the maximum number of cases.
+     *
+     * @param aKeyCount The number of keys the switches hold
+     * @return A power of two number of empty case maps
+     */
+    private static List<Map<Integer, String>> newCases(final int aKeyCount) {
+        final List<Map<Integer, String>> cases = new ArrayList<>();
+        int count = 1;
+
+        while (count * MAX_CASES < aKeyCount) {
+            count <<= 1;
+        }
+
+        for (int index = 0; index < count; index++) {
+            cases.add(new LinkedHashMap<>());
+        }
+
+        return cases;
+    }
+
+    /**
+     * Quotes a key as a Java string literal.
+     *
+     * @param aKey A key
+     * @return The key as a Java string literal
+     */
+    static String quote(final String aKey) {
+        return QUOTE + aKey.replace("\\", "\\\\").replace(QUOTE, "\\\"") + QUOTE;
+    }
+
+    /**
+     * Lower-cases a key a character at a time, the way the generated <code>matches()</code> method compares them.
+     *
+     * @param aKey A key
+     * @return The lower-cased key
+     */
+    static String toLowerCase(final String aKey) {
+        final StringBuilder builder = new StringBuilder(aKey.length());
+
+        for (int index = 0; index < aKey.length(); index++) {
+            builder.append(Character.toLowerCase(aKey.charAt(index)));
+        }
+
+        return builder.toString();
+    }
+}
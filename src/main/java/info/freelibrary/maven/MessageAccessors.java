@@ -0,0 +1,209 @@
+
+package info.freelibrary.maven;
+
+import static info.freelibrary.util.Constants.EOL;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import org.jboss.forge.roaster.model.source.JavaClassSource;
+import org.jboss.forge.roaster.model.source.JavaDocSource;
+import org.jboss.forge.roaster.model.source.MethodSource;
+
+import info.freelibrary.util.I18nRuntimeException;
+
+/**
+ * A generator of typed accessors for the messages of a message codes class. Each message gets a static method that
+ * takes as many arguments as the message has placeholders and returns the formatted message. Behind the accessors is a
+ * nested class that loads the bundle the first time a message is formatted, and that parses each message into a
+ * {@link java.text.MessageFormat} the first time it's used, so formatting a message again doesn't re-tokenize it.
+ * <p>
+ * The generated code only uses the JDK, so it doesn't matter what the project that uses it depends on. Bundles are
+ * loaded from their XML message files, or from the properties files they're transcoded into. The source of the nested
+ * classes is kept in templates, next to this class, in the plugin's resources.
+ * </p>
+ */
+final class MessageAccessors {
+
+    /**
+     * The class that caches the bundle's parsed messages.
+     */
+    static final String FORMATS = getTemplate("Formats");
+
+    /**
+     * The control that loads a bundle from its XML message file.
+     */
+    static final String XML_CONTROL = getTemplate("XmlControl");
+
+    /**
+     * The prefix of an accessor's name.
+     */
+    private static final String ACCESSOR_PREFIX = "format";
+
+    /**
+     * The prefix of an accessor's parameters.
+     */
+    private static final String ARG_PREFIX = "aArg";
+
+    /**
+     * The Javadoc of an accessor's parameters.
+     */
+    private static final String ARG_JAVADOC = " An argument for the message's placeholder #";
+
+    /**
+     * The delimiter between an accessor's parameters, or the arguments it passes on.
+     */
+    private static final String ARG_DELIM = ", ";
+
+    /**
+     * The start of an accessor's Javadoc.
+     */
+    private static final String ACCESSOR_JAVADOC = "Formats the message: ";
+
+    /**
+     * The Javadoc of an accessor's return value.
+     */
+    private static final String RETURN_JAVADOC = "The formatted message";
+
+    /**
+     * A {@code param} constant.
+     */
+    private static final String PARAM_TAG = "@param";
+
+    /**
+     * A {@code return} constant.
+     */
+    private static final String RETURN_TAG = "@return";
+
+    /**
+     * The directory of the templates of the nested classes, relative to this class.
+     */
+    private static final String TEMPLATE_DIR = "templates/";
+
+    /**
+     * The file extension of a template of a nested class.
+     */
+    private static final String TEMPLATE_EXT = ".java.txt";
+
+    /**
+     * The messages, keyed by the names of their codes' fields.
+     */
+    private final Map<String, String> myMessages;
+
+    /**
+     * Creates a generator of accessors for the supplied messages.
+     *
+     * @param aMessageMap The messages, keyed by the names of their codes' fields, in the order they're declared
+     */
+    MessageAccessors(final Map<String, String> aMessageMap) {
+        myMessages = aMessageMap;
+    }
+
+    /**
+     * Writes the accessors, and the classes behind them, to the supplied source writer. The source must already have
+     * the class' <code>BUNDLE</code> field and the fields of the messages' codes.
+     *
+     * @param aWriter A source writer that's in the middle of writing a message codes class
+     */
+    void writeTo(final JavaSourceWriter aWriter) {
+        for (final Map.Entry<String, String> message : myMessages.entrySet()) {
+            final int argCount = MessageFile.getArgCount(message.getValue());
+            final StringBuilder javadoc =
+                    new StringBuilder(ACCESSOR_JAVADOC).append(message.getValue()).append(EOL).append(EOL);
+
+            for (int index = 1; index <= argCount; index++) {
+                javadoc.append(PARAM_TAG).append(' ').append(ARG_PREFIX).append(index).append(ARG_JAVADOC).append(index)
+                        .append(EOL);
+            }
+
+            javadoc.append(RETURN_TAG).append(' ').append(RETURN_JAVADOC);
+            aWriter.writeMember(javadoc.toString(), getAccessor(message.getKey(), argCount));
+        }
+
+        aWriter.writeMember(null, FORMATS).writeMember(null, XML_CONTROL);
+    }
+
+    /**
+     * Adds the accessors, and the classes behind them, to the supplied Java source. The source must already have the
+     * class' <code>BUNDLE</code> field and the fields of the messages' codes.
+     *
+     * @param aSource A message codes class' Java source object
+     */
+    void addTo(final JavaClassSource aSource) {
+        for (final Map.Entry<String, String> message : myMessages.entrySet()) {
+            final int argCount = MessageFile.getArgCount(message.getValue());
+            final JavaDocSource<MethodSource<JavaClassSource>> javadoc =
+                    aSource.addMethod(getAccessor(message.getKey(), argCount)).getJavaDoc();
+
+            javadoc.setText(ACCESSOR_JAVADOC + message.getValue());
+
+            for (int index = 1; index <= argCount; index++) {
+                javadoc.addTagValue(PARAM_TAG, ARG_PREFIX + index + ARG_JAVADOC + index);
+            }
+
+            javadoc.addTagValue(RETURN_TAG, RETURN_JAVADOC);
+        }
+
+        aSource.addNestedType(FORMATS);
+        aSource.addNestedType(XML_CONTROL);
+    }
+
+    /**
+     * Gets the source of a message's accessor.
+     *
+     * @param aFieldName The name of the field of the message's code
+     * @param aArgCount The number of arguments the message takes
+     * @return The accessor's source
+     */
+    private static String getAccessor(final String aFieldName, final int aArgCount) {
+        final StringBuilder params = new StringBuilder();
+        final StringBuilder args = new StringBuilder(aFieldName);
+
+        for (int index = 1; index <= aArgCount; index++) {
+            if (!params.isEmpty()) {
+                params.append(ARG_DELIM);
+            }
+
+            params.append("final Object ").append(ARG_PREFIX).append(index);
+            args.append(ARG_DELIM).append(ARG_PREFIX).append(index);
+        }
+
+        return new StringBuilder("public static String ").append(getAccessorName(aFieldName)).append('(').append(params)
+                .append(") {\n    return Formats.format(").append(args).append(");\n}\n").toString();
+    }
+
+    /**
+     * Gets the name of a message's accessor.
+     *
+     * @param aFieldName The name of the field of the message's code
+     * @return The accessor's name
+     */
+    private static String getAccessorName(final String aFieldName) {
+        return ACCESSOR_PREFIX + Character.toUpperCase(aFieldName.charAt(0)) + aFieldName.substring(1);
+    }
+
+    /**
+     * Gets the source of one of the generated classes that are kept in templates, like the nested classes behind the
+     * accessors.
+     *
+     * @param aName The name of the generated class
+     * @return The generated class' source
+     * @throws I18nRuntimeException If the template of the generated class cannot be read
+     */
+    static String getTemplate(final String aName) {
+        final String path = TEMPLATE_DIR + aName + TEMPLATE_EXT;
+
+        try (InputStream template = MessageAccessors.class.getResourceAsStream(path)) {
+            if (template == null) {
+                throw new I18nRuntimeException(new FileNotFoundException(path));
+            }
+
+            return new String(template.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (final IOException details) {
+            throw new I18nRuntimeException(details);
+        }
+    }
+}
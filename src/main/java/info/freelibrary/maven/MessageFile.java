@@ -0,0 +1,200 @@
+
+package info.freelibrary.maven;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
+/**
+ * The XML message files that the {@link I18nCodesMojo} reads, and the properties files it transcodes them into. Message
+ * files are read with a streaming parser, rather than loaded into a {@link java.util.Properties}, so that a large file
+ * isn't validated against the properties DTD and its messages keep the order in which they're written.
+ */
+final class MessageFile {
+
+    /**
+     * The element that holds a message.
+     */
+    private static final String ENTRY = "entry";
+
+    /**
+     * The attribute that holds a message's key.
+     */
+    private static final String KEY = "key";
+
+    /**
+     * The character that escapes a special character in a properties file.
+     */
+    private static final char BACKSLASH = '\\';
+
+    /**
+     * The control characters that are escaped in a properties file.
+     */
+    private static final String CONTROL_CHARS = "\t\n\r\f";
+
+    /**
+     * The escapes of the control characters, in the same order.
+     */
+    private static final String CONTROL_ESCAPES = "tnrf";
+
+    /**
+     * The characters that are escaped with a backslash in a properties file, besides spaces.
+     */
+    private static final String SPECIAL_CHARS = "=:#!\\";
+
+    /**
+     * A pattern that matches a message's placeholders: <code>{}</code>, or an indexed one like <code>{0}</code>.
+     */
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\{(\\d{0,9})\\}");
+
+    /**
+     * The logger for message files.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MessageFile.class, MessageCodes.BUNDLE);
+
+    /**
+     * The factory for the parsers of message files. It doesn't read DTDs, so the properties DTD is never fetched.
+     */
+    private static final XMLInputFactory FACTORY = newFactory();
+
+    /**
+     * A private constructor for a utilities class.
+     */
+    private MessageFile() {
+        // This is intentionally left empty.
+    }
+
+    /**
+     * Reads the messages in a message file.
+     *
+     * @param aBytes The contents of a message file
+     * @return The messages, keyed by their keys, in the order in which they're written; if a key is repeated, the last
+     *         of its messages is used
+     * @throws IOException If the message file cannot be parsed
+     */
+    static Map<String, String> read(final byte[] aBytes) throws IOException {
+        final Map<String, String> messages = new LinkedHashMap<>();
+
+        try {
+            final XMLStreamReader reader = FACTORY.createXMLStreamReader(new ByteArrayInputStream(aBytes));
+
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT && ENTRY.equals(reader.getLocalName())) {
+                        final String key = reader.getAttributeValue(null, KEY);
+                        final String message = reader.getElementText();
+
+                        if (key == null) {
+                            throw new IOException(
+                                    LOGGER.getMessage(MessageCodes.MVN_170, reader.getLocation().getLineNumber()));
+                        }
+
+                        messages.put(key, message);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException details) {
+            throw new IOException(details.getMessage(), details);
+        }
+
+        return messages;
+    }
+
+    /**
+     * Gets the contents of a properties file with the supplied messages, in the order in which they're supplied. Keys
+     * and messages are escaped the way {@link java.util.Properties#store(java.io.Writer, String)} escapes them, but the
+     * date it adds isn't included, so the same messages are always stored the same way.
+     *
+     * @param aMessageMap The messages to store, keyed by their keys
+     * @param aComment A comment for the top of the file
+     * @return The contents of the properties file
+     */
+    static byte[] toProperties(final Map<String, String> aMessageMap, final String aComment) {
+        final String eol = System.lineSeparator();
+        final StringBuilder builder = new StringBuilder(aMessageMap.size() * 64);
+
+        builder.append('#').append(aComment).append(eol);
+
+        for (final Map.Entry<String, String> message : aMessageMap.entrySet()) {
+            escape(builder, message.getKey(), true);
+            builder.append('=');
+            escape(builder, message.getValue(), false);
+            builder.append(eol);
+        }
+
+        return builder.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Gets the number of arguments a message takes: one for each <code>{}</code> placeholder, or one more than the
+     * highest index of its indexed placeholders, whichever is greater.
+     *
+     * @param aMessage A message
+     * @return The number of arguments the message takes
+     */
+    static int getArgCount(final String aMessage) {
+        final Matcher matcher = PLACEHOLDER.matcher(aMessage);
+        int sequentialCount = 0;
+        int indexedCount = 0;
+
+        while (matcher.find()) {
+            if (matcher.group(1).isEmpty()) {
+                sequentialCount += 1;
+            } else {
+                indexedCount = Math.max(indexedCount, Integer.parseInt(matcher.group(1)) + 1);
+            }
+        }
+
+        return Math.max(sequentialCount, indexedCount);
+    }
+
+    /**
+     * Escapes a key or message for a properties file.
+     *
+     * @param aBuilder The builder to which the escaped string is added
+     * @param aString A key or message
+     * @param aKey Whether the string is a key, in which all spaces are escaped, rather than just leading ones
+     */
+    private static void escape(final StringBuilder aBuilder, final String aString, final boolean aKey) {
+        for (int index = 0; index < aString.length(); index++) {
+            final char character = aString.charAt(index);
+            final int controlIndex = CONTROL_CHARS.indexOf(character);
+
+            if (controlIndex != -1) {
+                aBuilder.append(BACKSLASH).append(CONTROL_ESCAPES.charAt(controlIndex));
+            } else if (SPECIAL_CHARS.indexOf(character) != -1 || character == ' ' && (index == 0 || aKey)) {
+                aBuilder.append(BACKSLASH).append(character);
+            } else {
+                aBuilder.append(character);
+            }
+        }
+    }
+
+    /**
+     * Creates the factory for the parsers of message files.
+     *
+     * @return A factory that doesn't read DTDs or external entities
+     */
+    private static XMLInputFactory newFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return factory;
+    }
+}
@@ -0,0 +1,547 @@
+
+package info.freelibrary.maven;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+import info.freelibrary.util.warnings.PMD;
+
+/**
+ * A patcher of the text of a POM file's elements, which leaves the rest of the file as it was. The POM is read with a
+ * streaming parser, in step with a scan of its markup, to find where each element's text is in the file; a patch only
+ * replaces that text, so the file's formatting, comments, and attribute order are kept. Elements that are missing are
+ * added at the end of their parents, indented like their siblings. A file whose patched bytes are the same as its
+ * original bytes isn't written.
+ * <p>
+ * Elements are found by their paths from the POM's root element (e.g., <code>properties</code> and
+ * <code>module.group</code>); if there's more than one element with a path, the first is patched.
+ * </p>
+ */
+@SuppressWarnings({ PMD.GOD_CLASS })
+final class POMPatcher {
+
+    /** The indentation that's used if it can't be found from the POM. */
+    private static final String DEFAULT_INDENT = "  ";
+
+    /** The line separator that's used on Windows. */
+    private static final String CRLF = "\r\n";
+
+    /** The start of an end tag. */
+    private static final String END_TAG_START = "</";
+
+    /** The separator of the steps in an element's path. */
+    private static final char PATH_SEPARATOR = '/';
+
+    /** The logger for the POM patcher. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(POMPatcher.class, MessageCodes.BUNDLE);
+
+    /** The factory for the parsers of POM files. It doesn't read DTDs or external entities. */
+    private static final XMLInputFactory FACTORY = newFactory();
+
+    /** The POM file. */
+    private final Path myFile;
+
+    /** The POM file's character encoding. */
+    private final Charset myCharset;
+
+    /** The POM file's contents. */
+    private final String myPOM;
+
+    /** The POM file's line separator. */
+    private final String myLineSeparator;
+
+    /** The POM's elements, keyed by their paths; the root element's path is empty. */
+    private final Map<String, List<Span>> myElements = new HashMap<>();
+
+    /** The replacements of the text of existing elements, keyed by the elements' paths. */
+    private final Map<String, String> myValues = new LinkedHashMap<>();
+
+    /** The elements to add, keyed by the paths of the existing elements they're added to. */
+    private final Map<String, NewElement> myNewElements = new LinkedHashMap<>();
+
+    /** The POM's indentation, as found from the root element's first child. */
+    private String myIndent = DEFAULT_INDENT;
+
+    /** Where the scan of the POM's markup is; it's only used while the POM is read. */
+    private int myPosition;
+
+    /**
+     * Creates a new patcher of a POM file, reading the POM.
+     *
+     * @param aFile A POM file
+     * @throws IOException If the POM file cannot be read or parsed
+     */
+    POMPatcher(final Path aFile) throws IOException {
+        final byte[] bytes = Files.readAllBytes(aFile);
+
+        myFile = aFile;
+
+        try {
+            final XMLStreamReader reader = FACTORY.createXMLStreamReader(new ByteArrayInputStream(bytes));
+
+            try {
+                final String encoding = reader.getEncoding();
+
+                myCharset = encoding == null ? StandardCharsets.UTF_8 : Charset.forName(encoding);
+                myPOM = new String(bytes, myCharset);
+                myLineSeparator = myPOM.contains(CRLF) ? CRLF : "\n";
+
+                read(reader);
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException details) {
+            throw new IOException(details.getMessage(), details);
+        }
+    }
+
+    /**
+     * Gets the text of the elements with a path.
+     *
+     * @param aPath The steps of the elements' path from the POM's root element
+     * @return The text of each element with the path, in the order they're in the POM
+     */
+    List<String> getValues(final String... aPath) {
+        final List<String> values = new ArrayList<>();
+
+        for (final Span span : myElements.getOrDefault(getPath(aPath, aPath.length), List.of())) {
+            values.add(span.myText.toString());
+        }
+
+        return values;
+    }
+
+    /**
+     * Sets the text of an element, adding the element, and any of its parents, if it's missing.
+     *
+     * @param aValue The element's text
+     * @param aPath The steps of the element's path from the POM's root element
+     * @return This patcher
+     */
+    POMPatcher set(final String aValue, final String... aPath) {
+        final String path = getPath(aPath, aPath.length);
+
+        if (myElements.containsKey(path)) {
+            if (myElements.get(path).get(0).myText.toString().equals(aValue)) {
+                myValues.remove(path);
+            } else {
+                myValues.put(path, aValue);
+            }
+        } else {
+            int existing = aPath.length - 1;
+            NewElement element;
+
+            // Find the closest of the element's parents that's in the POM
+            while (existing > 0 && !myElements.containsKey(getPath(aPath, existing))) {
+                existing -= 1;
+            }
+
+            element = myNewElements.computeIfAbsent(getPath(aPath, existing), key -> new NewElement(null));
+
+            for (int index = existing; index < aPath.length; index++) {
+                element = element.myChildren.computeIfAbsent(aPath[index], NewElement::new);
+            }
+
+            element.myValue = aValue;
+        }
+
+        return this;
+    }
+
+    /**
+     * Writes the patched POM, unless its bytes are the same as the POM file's.
+     *
+     * @return True if the POM file was written; else, false
+     * @throws IOException If the POM file cannot be written
+     */
+    boolean write() throws IOException {
+        final List<Edit> edits = new ArrayList<>();
+        final StringBuilder pom = new StringBuilder(myPOM);
+
+        for (final Map.Entry<String, String> value : myValues.entrySet()) {
+            final Span span = myElements.get(value.getKey()).get(0);
+            final String text = escape(value.getValue());
+
+            if (span.isEmpty) {
+                edits.add(getEndTagInsertion(span, text));
+            } else {
+                edits.add(new Edit(span.myContentStart, span.myContentEnd, text));
+            }
+        }
+
+        for (final Map.Entry<String, NewElement> element : myNewElements.entrySet()) {
+            edits.add(getInsertion(myElements.get(element.getKey()).get(0), element.getValue()));
+        }
+
+        // Edits are made from the end of the POM, so the positions of the ones before them don't change
+        edits.sort((aFirst, aSecond) -> Integer.compare(aSecond.myStart, aFirst.myStart));
+
+        for (final Edit edit : edits) {
+            pom.replace(edit.myStart, edit.myEnd, edit.myText);
+        }
+
+        if (BuildState.write(myFile, pom.toString().getBytes(myCharset))) {
+            return true;
+        }
+
+        LOGGER.debug(MessageCodes.MVN_195, myFile);
+        return false;
+    }
+
+    /**
+     * Reads the POM's elements, scanning its markup in step with the parser to find where each element is.
+     *
+     * @param aReader A reader of the POM
+     * @throws XMLStreamException If the POM cannot be parsed
+     * @throws IOException If an element's markup cannot be found
+     */
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY, PMD.COGNITIVE_COMPLEXITY })
+    private void read(final XMLStreamReader aReader) throws XMLStreamException, IOException {
+        final Deque<Span> parents = new ArrayDeque<>();
+
+        while (aReader.hasNext()) {
+            switch (aReader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> {
+                    final Span parent = parents.peek();
+                    final Span span = new Span(nextTag(), myPosition, parent == null ? "" : parent.myPath.isEmpty()
+                            ? aReader.getLocalName() : parent.myPath + PATH_SEPARATOR + aReader.getLocalName());
+
+                    if (parent != null) {
+                        // The root element's first child shows how the POM is indented
+                        if (parent.myPath.isEmpty() && parent.myLastChild == null && !span.myIndent.isEmpty()) {
+                            myIndent = span.myIndent;
+                        }
+
+                        parent.myLastChild = span;
+                    }
+
+                    myElements.computeIfAbsent(span.myPath, key -> new ArrayList<>()).add(span);
+                    parents.push(span);
+                }
+                case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA, XMLStreamConstants.SPACE -> {
+                    if (!parents.isEmpty()) {
+                        parents.peek().myText.append(aReader.getText());
+                    }
+                }
+                case XMLStreamConstants.END_ELEMENT -> {
+                    final Span span = parents.pop();
+
+                    span.myContentEnd = span.isEmpty ? span.myContentStart : nextTag();
+                }
+                default -> {
+                    // Comments, processing instructions, and the like are left as they are
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the edit that adds new elements to an existing element, after its other children.
+     *
+     * @param aParent An existing element
+     * @param aElement The new elements to add to it
+     * @return The edit that adds the new elements
+     */
+    private Edit getInsertion(final Span aParent, final NewElement aElement) {
+        final String indent = aParent.myLastChild != null ? aParent.myLastChild.myIndent : aParent.myIndent + myIndent;
+        final StringBuilder text = new StringBuilder();
+        int position = aParent.myContentEnd;
+
+        for (final NewElement child : aElement.myChildren.values()) {
+            text.append(myLineSeparator).append(indent);
+            render(child, indent, text);
+        }
+
+        if (aParent.isEmpty) {
+            return getEndTagInsertion(aParent, text + myLineSeparator + aParent.myIndent);
+        }
+
+        // New elements go before the whitespace that indents the parent's end tag
+        while (position > aParent.myContentStart && Character.isWhitespace(myPOM.charAt(position - 1))) {
+            position -= 1;
+        }
+
+        if (position == aParent.myContentEnd) {
+            text.append(myLineSeparator).append(aParent.myIndent);
+        }
+
+        return new Edit(position, position, text.toString());
+    }
+
+    /**
+     * Renders a new element, and its children.
+     *
+     * @param aElement A new element
+     * @param aIndent The element's indentation
+     * @param aText The text to which the element is rendered
+     */
+    private void render(final NewElement aElement, final String aIndent, final StringBuilder aText) {
+        aText.append('<').append(aElement.myName).append('>');
+
+        if (aElement.myChildren.isEmpty()) {
+            aText.append(escape(aElement.myValue == null ? "" : aElement.myValue));
+        } else {
+            for (final NewElement child : aElement.myChildren.values()) {
+                aText.append(myLineSeparator).append(aIndent).append(myIndent);
+                render(child, aIndent + myIndent, aText);
+            }
+
+            aText.append(myLineSeparator).append(aIndent);
+        }
+
+        aText.append(END_TAG_START).append(aElement.myName).append('>');
+    }
+
+    /**
+     * Gets an edit that gives an empty-element tag content. The tag's "/&gt;" is replaced with the rest of a start tag,
+     * the content, and an end tag.
+     *
+     * @param aSpan An empty element
+     * @param aContent The element's new content
+     * @return The edit
+     */
+    private static Edit getEndTagInsertion(final Span aSpan, final String aContent) {
+        return new Edit(aSpan.myContentStart - 2, aSpan.myContentStart,
+                '>' + aContent + END_TAG_START + aSpan.myName + '>');
+    }
+
+    /**
+     * Scans the POM's markup for the next start or end tag, skipping comments, CDATA sections, processing instructions,
+     * and declarations.
+     *
+     * @return Where the tag starts; the scan is left just after the tag's end
+     * @throws IOException If there isn't another tag
+     */
+    private int nextTag() throws IOException {
+        while (true) {
+            final int start = myPOM.indexOf('<', myPosition);
+
+            if (start < 0) {
+                throw new IOException(LOGGER.getMessage(MessageCodes.MVN_196, myFile));
+            }
+
+            if (myPOM.startsWith("<!--", start)) {
+                myPosition = skip(start, "-->");
+            } else if (myPOM.startsWith("<![CDATA[", start)) {
+                myPosition = skip(start, "]]>");
+            } else if (myPOM.startsWith("<?", start)) {
+                myPosition = skip(start, "?>");
+            } else {
+                myPosition = skipTag(start);
+
+                if (myPOM.charAt(start + 1) != '!') { // NOPMD - AvoidLiteralsInIfCondition, a declaration isn't a tag
+                    return start;
+                }
+            }
+        }
+    }
+
+    /**
+     * Skips markup that ends with a delimiter.
+     *
+     * @param aStart Where the markup starts
+     * @param aEnd The markup's end delimiter
+     * @return Where the markup ends
+     * @throws IOException If the markup doesn't end
+     */
+    private int skip(final int aStart, final String aEnd) throws IOException {
+        final int end = myPOM.indexOf(aEnd, aStart);
+
+        if (end < 0) {
+            throw new IOException(LOGGER.getMessage(MessageCodes.MVN_196, myFile));
+        }
+
+        return end + aEnd.length();
+    }
+
+    /**
+     * Skips a tag or a declaration, whose attributes or internal subset may have a <code>&gt;</code> in them.
+     *
+     * @param aStart Where the tag starts
+     * @return Where the tag ends
+     * @throws IOException If the tag doesn't end
+     */
+    @SuppressWarnings({ PMD.AVOID_LITERALS_IN_IF_CONDITION, PMD.CYCLOMATIC_COMPLEXITY })
+    private int skipTag(final int aStart) throws IOException {
+        char quote = 0;
+        int depth = 0;
+
+        for (int index = aStart + 1; index < myPOM.length(); index++) {
+            final char character = myPOM.charAt(index);
+
+            if (quote != 0) {
+                if (character == quote) {
+                    quote = 0;
+                }
+            } else if (character == '"' || character == '\'') {
+                quote = character;
+            } else if (character == '[') {
+                depth += 1;
+            } else if (character == ']') {
+                depth -= 1;
+            } else if (character == '>' && depth == 0) {
+                return index + 1;
+            }
+        }
+
+        throw new IOException(LOGGER.getMessage(MessageCodes.MVN_196, myFile));
+    }
+
+    /**
+     * Gets the path of an element from the first steps of a path.
+     *
+     * @param aPath The steps of a path from the POM's root element
+     * @param aLength The number of steps to use
+     * @return The element's path
+     */
+    private static String getPath(final String[] aPath, final int aLength) {
+        return String.join(String.valueOf(PATH_SEPARATOR), List.of(aPath).subList(0, aLength));
+    }
+
+    /**
+     * Escapes the characters of an element's text that can't be written as they are.
+     *
+     * @param aText An element's text
+     * @return The escaped text
+     */
+    private static String escape(final String aText) {
+        return aText.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+    /**
+     * Creates the factory for the parsers of POM files.
+     *
+     * @return An XML input factory
+     */
+    private static XMLInputFactory newFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return factory;
+    }
+
+    /**
+     * Where an element of the POM is in the POM file.
+     */
+    private final class Span {
+
+        /** The element's path. */
+        private final String myPath;
+
+        /** The element's qualified name, as it's written in the POM. */
+        private final String myName;
+
+        /** Where the element's content starts, just after its start tag. */
+        private final int myContentStart;
+
+        /** The indentation of the element's start tag, or an empty string if it isn't on a line of its own. */
+        private final String myIndent;
+
+        /** Whether the element's an empty-element tag (e.g., <code>&lt;version/&gt;</code>). */
+        private final boolean isEmpty;
+
+        /** The element's text. */
+        private final StringBuilder myText = new StringBuilder(); // NOPMD - AvoidStringBufferField, a span isn't kept
+
+        /** Where the element's content ends, just before its end tag. */
+        private int myContentEnd;
+
+        /** The element's last child element that's been read, or null if it has none. */
+        private Span myLastChild;
+
+        /**
+         * Creates a new span from an element's start tag.
+         *
+         * @param aTagStart Where the element's start tag starts
+         * @param aTagEnd Where the element's start tag ends
+         * @param aPath The element's path
+         */
+        private Span(final int aTagStart, final int aTagEnd, final String aPath) {
+            final int lineStart = myPOM.lastIndexOf('\n', aTagStart - 1) + 1;
+            int nameEnd = aTagStart + 1;
+
+            while (nameEnd < aTagEnd && !Character.isWhitespace(myPOM.charAt(nameEnd)) &&
+                    "/>".indexOf(myPOM.charAt(nameEnd)) < 0) {
+                nameEnd += 1;
+            }
+
+            myPath = aPath;
+            myName = myPOM.substring(aTagStart + 1, nameEnd);
+            myContentStart = aTagEnd;
+            myIndent = myPOM.substring(lineStart, aTagStart).isBlank() ? myPOM.substring(lineStart, aTagStart) : "";
+            isEmpty = myPOM.charAt(aTagEnd - 2) == '/';
+        }
+    }
+
+    /**
+     * An element to add to the POM.
+     */
+    private static final class NewElement {
+
+        /** The element's name, or null if it stands for an existing element to which children are added. */
+        private final String myName;
+
+        /** The element's children, keyed by their names. */
+        private final Map<String, NewElement> myChildren = new LinkedHashMap<>();
+
+        /** The element's text, or null if it has children instead. */
+        private String myValue;
+
+        /**
+         * Creates a new element to add to the POM.
+         *
+         * @param aName The element's name
+         */
+        private NewElement(final String aName) {
+            myName = aName;
+        }
+    }
+
+    /**
+     * A replacement of part of the POM file.
+     */
+    private static final class Edit {
+
+        /** Where the replaced part starts. */
+        private final int myStart;
+
+        /** Where the replaced part ends. */
+        private final int myEnd;
+
+        /** The replacement text. */
+        private final String myText;
+
+        /**
+         * Creates a new replacement of part of the POM file.
+         *
+         * @param aStart Where the replaced part starts
+         * @param aEnd Where the replaced part ends
+         * @param aText The replacement text
+         */
+        private Edit(final int aStart, final int aEnd, final String aText) {
+            myStart = aStart;
+            myEnd = aEnd;
+            myText = aText;
+        }
+    }
+}
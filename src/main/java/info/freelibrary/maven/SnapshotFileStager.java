@@ -0,0 +1,595 @@
+
+package info.freelibrary.maven;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import info.freelibrary.util.I18nRuntimeException;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+import info.freelibrary.util.warnings.PMD;
+
+/**
+ * A local staging area for snapshot files, which is meant to be kept under the local Maven repository so that all the
+ * builds on a host share it. A file is downloaded once and then kept by the SHA-256 digest of its contents, with an
+ * index from its URL to its contents. A timestamped snapshot's files never change, so a file that's been staged is used
+ * without asking its repository about it again.
+ * <p>
+ * A large file is downloaded in parts, with ranged GETs that run at the same time, when its repository supports them.
+ * The parts are fetched over HTTP/1.1, so that each has a connection of its own instead of sharing one HTTP/2
+ * connection. Each part is appended to a partial file of its own, so a download that fails can pick up where it left
+ * off the next time it's tried.
+ * </p>
+ */
+@SuppressWarnings({ PMD.EXCESSIVE_IMPORTS, PMD.COUPLING_BETWEEN_OBJECTS, PMD.GOD_CLASS })
+final class SnapshotFileStager {
+
+    /** The directory in which staged files are kept by the digests of their contents. */
+    private static final String CONTENT_DIR = "content";
+
+    /** The directory in which the URLs of staged files are indexed. */
+    private static final String INDEX_DIR = "index";
+
+    /** The directory in which files are downloaded before they're staged. */
+    private static final String PARTIAL_DIR = "partial";
+
+    /** The file extension of an index entry, and of the state of a partial download. */
+    private static final String PROPERTIES_EXT = ".properties";
+
+    /** The file extension of a part of a partial download. */
+    private static final String PART_EXT = ".part";
+
+    /** The file extension of the lock that keeps builds from downloading the same file at the same time. */
+    private static final String LOCK_EXT = ".lock";
+
+    /** The algorithm of the digests by which files are staged. */
+    private static final String SHA256 = "SHA-256";
+
+    /** The name of the header with which a repository says it supports ranged requests. */
+    private static final String ACCEPT_RANGES = "Accept-Ranges";
+
+    /** The unit of a ranged request. */
+    private static final String BYTES = "bytes";
+
+    /** The name of the ETag header, and of the property that holds a partial download's ETag. */
+    private static final String ETAG = "ETag";
+
+    /** The name of the property that holds a file's length. */
+    private static final String LENGTH = "length";
+
+    /** The name of the property that holds the number of parts a file is downloaded in. */
+    private static final String PARTS = "parts";
+
+    /** The name of the property that holds a staged file's digest. */
+    private static final String DIGEST = "sha256";
+
+    /** The name of the property that holds a staged file's path, relative to the staging directory. */
+    private static final String PATH = "path";
+
+    /** The name of the property that holds a file's URL. */
+    private static final String URL = "url";
+
+    /** The logger for the snapshot file stager. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotFileStager.class, MessageCodes.BUNDLE);
+
+    /** The directory in which files are staged. */
+    private final Path myStageDir;
+
+    /** The most parts of a file that are downloaded at the same time. */
+    private final int myConnections;
+
+    /** The smallest part a file is split into; a file smaller than two parts is downloaded whole. */
+    private final long myMinPartSize;
+
+    /** Whether a download that failed is picked up where it left off, rather than started over. */
+    private final boolean isResuming;
+
+    /** How long to wait for a response to a request. */
+    private final Duration myReadTimeout;
+
+    /** Whether only files that are already staged are used. */
+    private final boolean isOffline;
+
+    /** The client that downloads files; it's safe to share between threads. */
+    private final HttpClient myClient;
+
+    /**
+     * Creates a new snapshot file stager.
+     *
+     * @param aStageDir The directory in which files are staged
+     * @param aConnections The most parts of a file that are downloaded at the same time
+     * @param aMinPartSize The smallest part, in bytes, that a file is split into
+     * @param aResuming Whether a download that failed is picked up where it left off
+     * @param aConnectTimeout How long to wait for a connection to a repository
+     * @param aReadTimeout How long to wait for a response to a request
+     * @param aOffline Whether only files that are already staged are used
+     */
+    SnapshotFileStager(final Path aStageDir, final int aConnections, final long aMinPartSize, final boolean aResuming,
+            final Duration aConnectTimeout, final Duration aReadTimeout, final boolean aOffline) {
+        myStageDir = aStageDir;
+        myConnections = Math.max(1, aConnections);
+        myMinPartSize = Math.max(1, aMinPartSize);
+        isResuming = aResuming;
+        myReadTimeout = aReadTimeout;
+        isOffline = aOffline;
+        myClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).connectTimeout(aConnectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL).build();
+    }
+
+    /**
+     * Stages a file, unless it's already staged. Builds on the same host that stage the same file at the same time take
+     * turns, so the file is only downloaded once. When there's a check, a downloaded file is only staged if it passes
+     * it, so a file that's corrupt is never shared with other builds.
+     *
+     * @param aURL The URL of a file
+     * @param aCheck A check of a file that's downloaded, or null if it isn't checked
+     * @return The staged file, or null if the downloaded file didn't pass the check and was discarded
+     * @throws IOException If the file isn't staged and cannot be downloaded, or cannot be checked
+     */
+    @SuppressWarnings({ PMD.UNUSED_LOCAL_VARIABLE })
+    Path stage(final String aURL, final FileCheck aCheck) throws IOException {
+        final String key = BuildState.digest(ByteBuffer.wrap(aURL.getBytes(StandardCharsets.UTF_8)));
+        final Path indexFile = myStageDir.resolve(INDEX_DIR).resolve(key + PROPERTIES_EXT);
+        final Path partialDir = myStageDir.resolve(PARTIAL_DIR);
+        final Optional<Path> stagedFile = getStagedFile(indexFile);
+
+        if (stagedFile.isPresent()) {
+            LOGGER.debug(MessageCodes.MVN_191, aURL, stagedFile.get());
+            return stagedFile.get();
+        }
+
+        if (isOffline) {
+            throw new IOException(LOGGER.getMessage(MessageCodes.MVN_193, aURL));
+        }
+
+        Files.createDirectories(partialDir);
+
+        try (FileChannel channel = FileChannel.open(partialDir.resolve(key + LOCK_EXT), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE); FileLock lock = channel.lock()) {
+            // Another build may have staged the file while this one waited for its turn
+            final Optional<Path> otherFile = getStagedFile(indexFile);
+
+            if (otherFile.isPresent()) {
+                LOGGER.debug(MessageCodes.MVN_191, aURL, otherFile.get());
+                return otherFile.get();
+            }
+
+            return download(aURL, key, partialDir, indexFile, aCheck);
+        }
+    }
+
+    /**
+     * Downloads a file into the partial directory, in parts if it's large enough and its repository supports ranged
+     * requests, and then stages it.
+     *
+     * @param aURL The URL of a file
+     * @param aKey The key of the file's partial download and index entry
+     * @param aPartialDir The directory in which the file is downloaded
+     * @param aIndexFile The file's index entry
+     * @param aCheck A check of the downloaded file, or null if it isn't checked
+     * @return The staged file, or null if the downloaded file didn't pass the check
+     * @throws IOException If the file cannot be downloaded, checked, or staged
+     */
+    private Path download(final String aURL, final String aKey, final Path aPartialDir, final Path aIndexFile,
+            final FileCheck aCheck) throws IOException {
+        final HttpResponse<Void> head =
+                send(newRequest(aURL).method("HEAD", HttpRequest.BodyPublishers.noBody()).build(),
+                        HttpResponse.BodyHandlers.discarding());
+        final long length = head.headers().firstValueAsLong("Content-Length").orElse(-1);
+        final boolean ranged = length > 0 && head.headers().allValues(ACCEPT_RANGES).contains(BYTES);
+        final List<long[]> ranges = getRanges(ranged ? length : -1);
+        final List<Path> partFiles = new ArrayList<>();
+        final Path stateFile = aPartialDir.resolve(aKey + PROPERTIES_EXT);
+        final Properties state = new Properties();
+
+        checkStatus(head.statusCode(), HttpURLConnection.HTTP_OK, aURL);
+
+        for (int index = 0; index < ranges.size(); index++) {
+            partFiles.add(aPartialDir.resolve(aKey + '.' + index + PART_EXT));
+        }
+
+        state.setProperty(URL, aURL);
+        state.setProperty(ETAG, head.headers().firstValue(ETAG).orElse(""));
+        state.setProperty(LENGTH, Long.toString(length));
+        state.setProperty(PARTS, Integer.toString(ranges.size()));
+
+        // What's been downloaded is only picked up if it's of the same file, split into the same parts
+        if (!ranged || !isResuming || !state.equals(readProperties(stateFile).orElse(null))) {
+            deleteParts(aPartialDir, aKey);
+            writeProperties(stateFile, state);
+        }
+
+        downloadParts(aURL, ranges, partFiles, ranged);
+        return commit(aURL, partFiles, length, aIndexFile, stateFile, aCheck);
+    }
+
+    /**
+     * Downloads the parts of a file at the same time, no more than the configured number at a time. When a part fails,
+     * the others are still finished, so there's less to download when the file's download is resumed.
+     *
+     * @param aURL The URL of a file
+     * @param aRangeList The first and last bytes of each part, or a single part with a last byte of -1 if the file is
+     *        downloaded whole without a ranged request
+     * @param aPartFileList The partial file of each part
+     * @param aRanged Whether the parts are downloaded with ranged requests
+     * @throws IOException If a part cannot be downloaded
+     */
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY, PMD.COGNITIVE_COMPLEXITY })
+    private void downloadParts(final String aURL, final List<long[]> aRangeList, final List<Path> aPartFileList,
+            final boolean aRanged) throws IOException {
+        final int threadCount = Math.min(aRangeList.size(), myConnections);
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount); // NOPMD - CloseResource, shut down
+        final List<Future<Void>> parts = new ArrayList<>();
+        IOException failure = null;
+
+        try {
+            for (int index = 0; index < aRangeList.size(); index++) {
+                final long[] range = aRangeList.get(index);
+                final Path partFile = aPartFileList.get(index);
+
+                parts.add(executor.submit(() -> {
+                    downloadPart(aURL, range[0], range[1], partFile, aRanged);
+                    return null;
+                }));
+            }
+
+            for (final Future<Void> part : parts) {
+                try {
+                    part.get();
+                } catch (final ExecutionException details) {
+                    if (failure == null) {
+                        failure = details.getCause() instanceof IOException ? (IOException) details.getCause()
+                                : new IOException(details.getCause().getMessage(), details.getCause());
+                    }
+                }
+            }
+        } catch (final InterruptedException details) {
+            Thread.currentThread().interrupt();
+            failure = (InterruptedIOException) new InterruptedIOException(aURL).initCause(details);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        if (failure != null) {
+            // Without resuming, a download that fails leaves nothing behind
+            if (!isResuming) {
+                for (final Path partFile : aPartFileList) {
+                    Files.deleteIfExists(partFile);
+                }
+            }
+
+            throw failure;
+        }
+    }
+
+    /**
+     * Downloads a part of a file, appending to what's already been downloaded of it.
+     *
+     * @param aURL The URL of a file
+     * @param aStart The first byte of the part
+     * @param aEnd The last byte of the part, or -1 if the file is downloaded whole without a ranged request
+     * @param aPartFile The part's partial file
+     * @param aRanged Whether the part is downloaded with a ranged request
+     * @throws IOException If the part cannot be downloaded
+     */
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY, PMD.N_PATH_COMPLEXITY })
+    private void downloadPart(final String aURL, final long aStart, final long aEnd, final Path aPartFile,
+            final boolean aRanged) throws IOException {
+        final long partLength = aEnd - aStart + 1;
+        long downloaded = Files.exists(aPartFile) ? Files.size(aPartFile) : 0;
+        final HttpRequest.Builder request = newRequest(aURL).GET();
+        final HttpResponse<InputStream> response;
+
+        // A part that's longer than it should be can't be trusted, so it's started over
+        if (aRanged && downloaded > partLength || !aRanged && downloaded > 0) {
+            Files.delete(aPartFile);
+            downloaded = 0;
+        }
+
+        if (aRanged && downloaded == partLength) {
+            return;
+        }
+
+        if (downloaded > 0) {
+            LOGGER.info(MessageCodes.MVN_192, aURL, aStart + downloaded, aEnd);
+        }
+
+        if (aRanged) {
+            request.header("Range", BYTES + '=' + (aStart + downloaded) + '-' + aEnd);
+        }
+
+        response = send(request.build(), HttpResponse.BodyHandlers.ofInputStream());
+
+        try (InputStream input = response.body(); OutputStream output =
+                Files.newOutputStream(aPartFile, StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            checkStatus(response.statusCode(), aRanged ? HttpURLConnection.HTTP_PARTIAL : HttpURLConnection.HTTP_OK,
+                    aURL);
+            input.transferTo(output);
+        }
+    }
+
+    /**
+     * Stages a downloaded file: its parts are joined, it's checked, it's moved to where it's kept by the digest of its
+     * contents, and its URL is indexed. A file that doesn't pass the check is deleted, along with the state of its
+     * download, so it's downloaded from the start the next time it's staged.
+     *
+     * @param aURL The URL of the file
+     * @param aPartFileList The partial files of the file's parts
+     * @param aLength The file's length, or -1 if its repository didn't say
+     * @param aIndexFile The file's index entry
+     * @param aStateFile The state of the file's partial download
+     * @param aCheck A check of the file, or null if it isn't checked
+     * @return The staged file, or null if the file didn't pass the check
+     * @throws IOException If the file is incomplete or cannot be checked or staged
+     */
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY, PMD.N_PATH_COMPLEXITY })
+    private Path commit(final String aURL, final List<Path> aPartFileList, final long aLength, final Path aIndexFile,
+            final Path aStateFile, final FileCheck aCheck) throws IOException {
+        final Path file = aPartFileList.get(0);
+        final Properties index = new Properties();
+        final MessageDigest digest = newDigest();
+        final Path contentDir;
+        final Path stagedFile;
+        final String hash;
+
+        try (FileChannel output = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            for (final Path partFile : aPartFileList.subList(1, aPartFileList.size())) {
+                try (FileChannel input = FileChannel.open(partFile, StandardOpenOption.READ)) {
+                    final long size = input.size();
+                    long position = 0;
+
+                    while (position < size) {
+                        position += input.transferTo(position, size - position, output);
+                    }
+                }
+
+                // The part's now in the first one, so it can't be picked up again
+                Files.delete(partFile);
+            }
+        }
+
+        if (aLength >= 0 && Files.size(file) != aLength) {
+            final long size = Files.size(file);
+
+            Files.delete(file);
+            throw new IOException(LOGGER.getMessage(MessageCodes.MVN_194, aURL, size, aLength));
+        }
+
+        if (aCheck != null && !aCheck.isValid(aURL, file)) {
+            Files.delete(file);
+            Files.deleteIfExists(aStateFile);
+            return null;
+        }
+
+        try (InputStream input = new DigestInputStream(Files.newInputStream(file), digest)) {
+            input.transferTo(OutputStream.nullOutputStream());
+        }
+
+        hash = HexFormat.of().formatHex(digest.digest());
+        contentDir = myStageDir.resolve(CONTENT_DIR).resolve(hash.substring(0, 2)).resolve(hash);
+        stagedFile = contentDir.resolve(aURL.substring(aURL.lastIndexOf('/') + 1));
+
+        // Another URL may have had the same contents, in which case they're already staged
+        if (Files.exists(stagedFile) && Files.size(stagedFile) == Files.size(file)) {
+            Files.delete(file);
+        } else {
+            Files.createDirectories(contentDir);
+            BuildState.move(file, stagedFile);
+        }
+
+        index.setProperty(URL, aURL);
+        index.setProperty(DIGEST, hash);
+        index.setProperty(LENGTH, Long.toString(Files.size(stagedFile)));
+        index.setProperty(PATH, myStageDir.relativize(stagedFile).toString().replace('\\', '/'));
+        writeProperties(aIndexFile, index);
+        Files.deleteIfExists(aStateFile);
+
+        LOGGER.info(MessageCodes.MVN_190, aURL, stagedFile);
+        return stagedFile;
+    }
+
+    /**
+     * Gets the first and last bytes of the parts a file is downloaded in.
+     *
+     * @param aLength The file's length, or -1 if it's downloaded whole without a ranged request
+     * @return The first and last bytes of each part
+     */
+    private List<long[]> getRanges(final long aLength) {
+        final List<long[]> ranges = new ArrayList<>();
+
+        if (aLength < 0) {
+            ranges.add(new long[] { 0, -1 });
+        } else {
+            final long partCount = Math.max(1, Math.min(myConnections, aLength / myMinPartSize));
+            final long partSize = (aLength + partCount - 1) / partCount;
+
+            for (long start = 0; start < aLength; start += partSize) {
+                ranges.add(new long[] { start, Math.min(start + partSize, aLength) - 1 });
+            }
+        }
+
+        return ranges;
+    }
+
+    /**
+     * Gets a file that's already staged.
+     *
+     * @param aIndexFile The file's index entry
+     * @return The staged file, or an empty optional if it isn't staged or its staged copy is missing or incomplete
+     */
+    private Optional<Path> getStagedFile(final Path aIndexFile) {
+        final Optional<Properties> index = readProperties(aIndexFile);
+
+        if (index.isPresent()) {
+            final Path file = myStageDir.resolve(index.get().getProperty(PATH, ""));
+
+            try {
+                if (Files.isRegularFile(file) && Files.size(file) == Long.parseLong(index.get().getProperty(LENGTH))) {
+                    return Optional.of(file);
+                }
+            } catch (final IOException | NumberFormatException details) {
+                LOGGER.debug(details.getMessage(), details);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Deletes what's been downloaded of a file.
+     *
+     * @param aPartialDir The directory in which the file is downloaded
+     * @param aKey The key of the file's partial download
+     * @throws IOException If a part cannot be deleted
+     */
+    private static void deleteParts(final Path aPartialDir, final String aKey) throws IOException {
+        try (DirectoryStream<Path> partFiles = Files.newDirectoryStream(aPartialDir, aKey + ".*" + PART_EXT)) {
+            for (final Path partFile : partFiles) {
+                Files.deleteIfExists(partFile);
+            }
+        }
+    }
+
+    /**
+     * Creates a request for a file.
+     *
+     * @param aURL The URL of a file
+     * @return A request builder
+     */
+    private HttpRequest.Builder newRequest(final String aURL) {
+        return HttpRequest.newBuilder(URI.create(aURL)).timeout(myReadTimeout);
+    }
+
+    /**
+     * Sends a request to a repository.
+     *
+     * @param <T> The type of the response's body
+     * @param aRequest A request
+     * @param aHandler A handler of the response's body
+     * @return The response
+     * @throws IOException If the request cannot be sent or its response cannot be received
+     */
+    private <T> HttpResponse<T> send(final HttpRequest aRequest, final HttpResponse.BodyHandler<T> aHandler)
+            throws IOException {
+        try {
+            return myClient.send(aRequest, aHandler);
+        } catch (final InterruptedException details) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException(aRequest.uri().toString()).initCause(details);
+        }
+    }
+
+    /**
+     * Checks that a response has the expected status.
+     *
+     * @param aStatus The response's status
+     * @param aExpected The expected status
+     * @param aURL The URL that was requested
+     * @throws IOException If the response doesn't have the expected status
+     */
+    private static void checkStatus(final int aStatus, final int aExpected, final String aURL) throws IOException {
+        if (aStatus != aExpected) {
+            throw new IOException(LOGGER.getMessage(MessageCodes.MVN_179, aStatus, aURL));
+        }
+    }
+
+    /**
+     * Reads a properties file.
+     *
+     * @param aFile A properties file
+     * @return The properties, or an empty optional if the file doesn't exist or can't be read
+     */
+    private static Optional<Properties> readProperties(final Path aFile) {
+        try (InputStream input = Files.newInputStream(aFile)) {
+            final Properties properties = new Properties();
+
+            properties.load(input);
+            return Optional.of(properties);
+        } catch (final NoSuchFileException details) {
+            return Optional.empty();
+        } catch (final IOException details) {
+            LOGGER.debug(details.getMessage(), details);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Writes a properties file, under a temporary name that's then moved into place.
+     *
+     * @param aFile A properties file
+     * @param aProperties The properties
+     * @throws IOException If the file cannot be written
+     */
+    private static void writeProperties(final Path aFile, final Properties aProperties) throws IOException {
+        final Path tmpFile;
+
+        Files.createDirectories(aFile.getParent());
+        tmpFile = Files.createTempFile(aFile.getParent(), aFile.getFileName().toString(), null);
+
+        try (OutputStream output = Files.newOutputStream(tmpFile)) {
+            aProperties.store(output, null);
+        }
+
+        BuildState.move(tmpFile, aFile);
+    }
+
+    /**
+     * Creates a new digest of the contents of staged files.
+     *
+     * @return A message digest
+     * @throws I18nRuntimeException If the JVM doesn't support the digest algorithm
+     */
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(SHA256);
+        } catch (final NoSuchAlgorithmException details) {
+            throw new I18nRuntimeException(details);
+        }
+    }
+
+    /**
+     * A check of a downloaded file, before it's staged.
+     */
+    @FunctionalInterface
+    interface FileCheck {
+
+        /**
+         * Checks a downloaded file.
+         *
+         * @param aURL The URL of the file
+         * @param aFile The downloaded file
+         * @return True if the file can be staged; else, false
+         * @throws IOException If the file cannot be checked
+         */
+        boolean isValid(String aURL, Path aFile) throws IOException;
+    }
+}
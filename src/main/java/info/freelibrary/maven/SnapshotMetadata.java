@@ -0,0 +1,191 @@
+
+package info.freelibrary.maven;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import info.freelibrary.util.warnings.PMD;
+
+/**
+ * The snapshot versions in an artifact's <code>maven-metadata.xml</code>. The metadata is read with a streaming parser
+ * that only keeps the elements it needs, so it doesn't build a DOM of the whole file or run XPath queries over it.
+ * <p>
+ * Metadata written by Maven 3 lists the version of each of a snapshot's files, by classifier and extension, in its
+ * <code>snapshotVersions</code>. Older metadata only has the <code>snapshot</code>'s timestamp and build number, which
+ * all of its files share.
+ * </p>
+ */
+final class SnapshotMetadata {
+
+    /** The element that holds a snapshot's timestamp. */
+    private static final String TIMESTAMP = "timestamp";
+
+    /** The element that holds a snapshot's build number. */
+    private static final String BUILD_NUMBER = "buildNumber";
+
+    /** The element that holds the version of one of a snapshot's files. */
+    private static final String SNAPSHOT_VERSION = "snapshotVersion";
+
+    /** The element that holds a snapshot file's classifier. */
+    private static final String CLASSIFIER = "classifier";
+
+    /** The element that holds a snapshot file's extension. */
+    private static final String EXTENSION = "extension";
+
+    /** The element that holds a snapshot file's version. */
+    private static final String VALUE = "value";
+
+    /** The factory for the parsers of metadata files. It doesn't read DTDs or external entities. */
+    private static final XMLInputFactory FACTORY = newFactory();
+
+    /** The versions of the snapshot's files, keyed by their classifiers and extensions. */
+    private final Map<String, String> myVersions = new HashMap<>();
+
+    /** The snapshot's timestamp, or null if it doesn't have one. */
+    private String myTimestamp;
+
+    /** The snapshot's build number, or null if it doesn't have one. */
+    private String myBuildNumber;
+
+    /**
+     * Creates new snapshot metadata; metadata is created by reading it.
+     */
+    private SnapshotMetadata() {
+        // This is intentionally left empty.
+    }
+
+    /**
+     * Reads the snapshot versions in an artifact's metadata.
+     *
+     * @param aBytes The contents of a <code>maven-metadata.xml</code> file
+     * @return The snapshot metadata
+     * @throws IOException If the metadata cannot be parsed
+     */
+    static SnapshotMetadata read(final byte[] aBytes) throws IOException {
+        final SnapshotMetadata metadata = new SnapshotMetadata();
+
+        try {
+            final XMLStreamReader reader = FACTORY.createXMLStreamReader(new ByteArrayInputStream(aBytes));
+
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+                        metadata.readElement(reader);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (final XMLStreamException details) {
+            throw new IOException(details.getMessage(), details);
+        }
+
+        return metadata;
+    }
+
+    /**
+     * Gets the version of one of the snapshot's files. If the metadata lists the versions of the snapshot's files, the
+     * file's must be one of them; otherwise, the version is built from the snapshot's timestamp and build number.
+     *
+     * @param aBaseVersion The snapshot's base version (e.g., <code>1.0.0-SNAPSHOT</code>)
+     * @param aClassifier The file's classifier, or an empty string if it doesn't have one
+     * @param aExtension The file's extension
+     * @return The file's version (e.g., <code>1.0.0-20240101.120000-3</code>), or null if the metadata doesn't have it
+     */
+    String getVersion(final String aBaseVersion, final String aClassifier, final String aExtension) {
+        if (!myVersions.isEmpty()) {
+            return myVersions.get(getKey(aClassifier, aExtension));
+        }
+
+        if (myTimestamp == null || myBuildNumber == null) {
+            return null;
+        }
+
+        return aBaseVersion.replace("SNAPSHOT", myTimestamp + '-' + myBuildNumber);
+    }
+
+    /**
+     * Reads an element the metadata needs, if the reader is at one.
+     *
+     * @param aReader A reader at the start of an element
+     * @throws XMLStreamException If the element cannot be read
+     */
+    private void readElement(final XMLStreamReader aReader) throws XMLStreamException {
+        switch (aReader.getLocalName()) {
+            case TIMESTAMP -> myTimestamp = aReader.getElementText().trim();
+            case BUILD_NUMBER -> myBuildNumber = aReader.getElementText().trim();
+            case SNAPSHOT_VERSION -> readSnapshotVersion(aReader);
+            default -> {
+                // Every other element is skipped, though its children are still read
+            }
+        }
+    }
+
+    /**
+     * Reads the version of one of the snapshot's files.
+     *
+     * @param aReader A reader at the start of a <code>snapshotVersion</code> element
+     * @throws XMLStreamException If the element cannot be read
+     */
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY })
+    private void readSnapshotVersion(final XMLStreamReader aReader) throws XMLStreamException {
+        String classifier = "";
+        String extension = null;
+        String value = null;
+
+        while (aReader.hasNext()) {
+            final int event = aReader.next();
+
+            if (event == XMLStreamConstants.END_ELEMENT && SNAPSHOT_VERSION.equals(aReader.getLocalName())) {
+                break;
+            }
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (aReader.getLocalName()) {
+                    case CLASSIFIER -> classifier = aReader.getElementText().trim();
+                    case EXTENSION -> extension = aReader.getElementText().trim();
+                    case VALUE -> value = aReader.getElementText().trim();
+                    default -> {
+                        // The time the file was updated isn't needed
+                    }
+                }
+            }
+        }
+
+        if (extension != null && value != null) {
+            myVersions.put(getKey(classifier, extension), value);
+        }
+    }
+
+    /**
+     * Gets the key of a snapshot file's version.
+     *
+     * @param aClassifier The file's classifier, or an empty string if it doesn't have one
+     * @param aExtension The file's extension
+     * @return The key of the file's version
+     */
+    private static String getKey(final String aClassifier, final String aExtension) {
+        return aClassifier + ':' + aExtension;
+    }
+
+    /**
+     * Creates the factory for the parsers of metadata files.
+     *
+     * @return An XML input factory
+     */
+    private static XMLInputFactory newFactory() {
+        final XMLInputFactory factory = XMLInputFactory.newFactory();
+
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        return factory;
+    }
+}
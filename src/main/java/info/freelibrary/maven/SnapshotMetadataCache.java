@@ -0,0 +1,390 @@
+
+package info.freelibrary.maven;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Properties;
+
+import info.freelibrary.util.I18nRuntimeException;
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+import info.freelibrary.util.warnings.PMD;
+
+/**
+ * An on-disk cache of Maven repository metadata files (e.g., <code>maven-metadata.xml</code>), which is meant to be
+ * kept under the local Maven repository so that all the builds on a host share it. A cached file is used as is until
+ * it's older than the cache's time-to-live; after that, it's revalidated with a conditional GET, using the ETag and
+ * Last-Modified headers it was served with, so an unchanged file isn't downloaded again. When the cache is offline, or
+ * a revalidation fails, whatever is cached is used.
+ * <p>
+ * A metadata file and its headers are cached together, in a single file, so builds that share the cache always see a
+ * metadata file with the headers it was served with.
+ * </p>
+ * <p>
+ * The cache is also what checks a snapshot's files against their published checksums, with the same HTTP client.
+ * </p>
+ */
+final class SnapshotMetadataCache {
+
+    /** The file extension of a cache entry, which holds a metadata file and its headers. */
+    private static final String ENTRY_EXT = ".properties";
+
+    /** The file extension of a SHA-1 checksum file. */
+    private static final String SHA1_EXT = ".sha1";
+
+    /** The algorithm of a SHA-1 checksum. */
+    private static final String SHA1 = "SHA-1";
+
+    /** The size of the buffer through which a file is checksummed. */
+    private static final int BUFFER_SIZE = 65_536;
+
+    /** The name of the cached ETag header. */
+    private static final String ETAG = "ETag";
+
+    /** The name of the cached Last-Modified header. */
+    private static final String LAST_MODIFIED = "Last-Modified";
+
+    /** The name of the property that holds the time, in milliseconds, when a cached file was last validated. */
+    private static final String VALIDATED = "validated";
+
+    /** The name of the property that holds a cached file's URL. */
+    private static final String URL = "url";
+
+    /** The name of the property that holds a cached file's contents, Base64 encoded. */
+    private static final String METADATA = "metadata";
+
+    /** The logger for the snapshot metadata cache. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotMetadataCache.class, MessageCodes.BUNDLE);
+
+    /** The directory in which metadata files are cached. */
+    private final Path myCacheDir;
+
+    /** How long a cached file is used before it's revalidated. */
+    private final Duration myTTL;
+
+    /** How long to wait for a response to a request. */
+    private final Duration myReadTimeout;
+
+    /** Whether the cache only uses what it already has. */
+    private final boolean isOffline;
+
+    /** The client that fetches metadata files; it's safe to share between threads, whose requests it multiplexes. */
+    private final HttpClient myClient;
+
+    /**
+     * Creates a new snapshot metadata cache.
+     *
+     * @param aCacheDir The directory in which metadata files are cached
+     * @param aTTL How long a cached file is used before it's revalidated
+     * @param aConnectTimeout How long to wait for a connection to a repository
+     * @param aReadTimeout How long to wait for a response to a request
+     * @param aOffline Whether the cache should only use what it already has
+     */
+    SnapshotMetadataCache(final Path aCacheDir, final Duration aTTL, final Duration aConnectTimeout,
+            final Duration aReadTimeout, final boolean aOffline) {
+        myCacheDir = aCacheDir;
+        myTTL = aTTL;
+        myReadTimeout = aReadTimeout;
+        isOffline = aOffline;
+        myClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_2).connectTimeout(aConnectTimeout)
+                .followRedirects(HttpClient.Redirect.NORMAL).build();
+    }
+
+    /**
+     * Gets a metadata file, from the cache if it's fresh enough, or else from its repository.
+     *
+     * @param aURL The URL of a metadata file
+     * @return The contents of the metadata file
+     * @throws IOException If the metadata file isn't cached and cannot be fetched
+     */
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY, "PMD.AvoidRethrowingException" })
+    byte[] get(final String aURL) throws IOException {
+        final String key = BuildState.digest(ByteBuffer.wrap(aURL.getBytes(StandardCharsets.UTF_8)));
+        final Path entryFile = myCacheDir.resolve(key + ENTRY_EXT);
+        final Optional<Properties> headers = readEntry(entryFile);
+        final byte[] metadata = headers.map(SnapshotMetadataCache::getMetadata).orElse(null);
+
+        if (metadata != null && (isOffline || isFresh(headers.get()))) {
+            LOGGER.debug(MessageCodes.MVN_175, aURL);
+            return metadata;
+        }
+
+        if (isOffline) {
+            throw new IOException(LOGGER.getMessage(MessageCodes.MVN_178, aURL));
+        }
+
+        try {
+            return fetch(aURL, metadata == null ? new Properties() : headers.get(), metadata, entryFile);
+        } catch (final InterruptedIOException details) {
+            throw details;
+        } catch (final IOException details) {
+            // A repository that can't be reached shouldn't fail the build if we already know what it had
+            if (metadata != null) {
+                LOGGER.warn(MessageCodes.MVN_177, aURL);
+                LOGGER.debug(details.getMessage(), details);
+                return metadata;
+            }
+
+            throw details;
+        }
+    }
+
+    /**
+     * Fetches a metadata file, conditionally if there's a cached copy, and caches what's fetched.
+     *
+     * @param aURL The URL of a metadata file
+     * @param aHeaders The headers of the cached copy, which are empty if there isn't one
+     * @param aMetadata The cached copy of the metadata file, or null if there isn't one
+     * @param aEntryFile The file in which the metadata file and its headers are cached
+     * @return The contents of the metadata file
+     * @throws IOException If the metadata file cannot be fetched
+     */
+    private byte[] fetch(final String aURL, final Properties aHeaders, final byte[] aMetadata, final Path aEntryFile)
+            throws IOException {
+        final HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(aURL)).timeout(myReadTimeout).GET();
+        final HttpResponse<byte[]> response;
+        final Properties headers = new Properties();
+
+        if (aMetadata != null && aHeaders.getProperty(ETAG) != null) {
+            request.header("If-None-Match", aHeaders.getProperty(ETAG));
+        }
+
+        if (aMetadata != null && aHeaders.getProperty(LAST_MODIFIED) != null) {
+            request.header("If-Modified-Since", aHeaders.getProperty(LAST_MODIFIED));
+        }
+
+        response = send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+
+        if (response.statusCode() == HttpURLConnection.HTTP_NOT_MODIFIED && aMetadata != null) {
+            LOGGER.debug(MessageCodes.MVN_176, aURL);
+            aHeaders.setProperty(VALIDATED, Long.toString(System.currentTimeMillis()));
+            writeEntry(aEntryFile, aHeaders);
+            return aMetadata;
+        }
+
+        checkStatus(response, aURL);
+
+        response.headers().firstValue(ETAG).ifPresent(etag -> headers.setProperty(ETAG, etag));
+        response.headers().firstValue(LAST_MODIFIED).ifPresent(date -> headers.setProperty(LAST_MODIFIED, date));
+        headers.setProperty(VALIDATED, Long.toString(System.currentTimeMillis()));
+        headers.setProperty(URL, aURL);
+        headers.setProperty(METADATA, Base64.getEncoder().encodeToString(response.body()));
+
+        writeEntry(aEntryFile, headers);
+        return response.body();
+    }
+
+    /**
+     * Checks a repository file against the SHA-1 checksum that's published next to it. Unless there's a local copy of
+     * the file to check, the file is streamed through the digest, rather than kept; neither the file nor its checksum
+     * is cached.
+     *
+     * @param aURL The URL of a repository file
+     * @param aFile A local copy of the file, or null if the file should be streamed from its repository
+     * @return True if the file's SHA-1 digest matches its published checksum
+     * @throws IOException If the file or its checksum cannot be fetched
+     * @throws I18nRuntimeException If the JVM doesn't support the SHA-1 digest algorithm
+     */
+    boolean isChecksumValid(final String aURL, final Path aFile) throws IOException {
+        final HttpResponse<byte[]> checksum =
+                send(HttpRequest.newBuilder(URI.create(aURL + SHA1_EXT)).timeout(myReadTimeout).GET().build(),
+                        HttpResponse.BodyHandlers.ofByteArray());
+        final MessageDigest digest;
+
+        checkStatus(checksum, aURL + SHA1_EXT);
+
+        try (InputStream input = aFile != null ? Files.newInputStream(aFile) : getFile(aURL)) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            int count;
+
+            digest = MessageDigest.getInstance(SHA1);
+
+            while ((count = input.read(buffer)) != -1) {
+                digest.update(buffer, 0, count);
+            }
+        } catch (final NoSuchAlgorithmException details) {
+            throw new I18nRuntimeException(details);
+        }
+
+        // A checksum file may also have the file's name after the checksum
+        return new String(checksum.body(), StandardCharsets.UTF_8).trim().split("\\s+")[0]
+                .equalsIgnoreCase(HexFormat.of().formatHex(digest.digest()));
+    }
+
+    /**
+     * Gets a repository file as a stream.
+     *
+     * @param aURL The URL of a repository file
+     * @return The file's contents
+     * @throws IOException If the file cannot be fetched
+     */
+    private InputStream getFile(final String aURL) throws IOException {
+        final HttpResponse<InputStream> file =
+                send(HttpRequest.newBuilder(URI.create(aURL)).timeout(myReadTimeout).GET().build(),
+                        HttpResponse.BodyHandlers.ofInputStream());
+
+        if (file.statusCode() != HttpURLConnection.HTTP_OK) {
+            file.body().close();
+            checkStatus(file, aURL);
+        }
+
+        return file.body();
+    }
+
+    /**
+     * Sends a request to a repository.
+     *
+     * @param <T> The type of the response's body
+     * @param aRequest A request
+     * @param aHandler A handler of the response's body
+     * @return The response
+     * @throws IOException If the request cannot be sent or its response cannot be received
+     */
+    private <T> HttpResponse<T> send(final HttpRequest aRequest, final HttpResponse.BodyHandler<T> aHandler)
+            throws IOException {
+        try {
+            return myClient.send(aRequest, aHandler);
+        } catch (final InterruptedException details) {
+            Thread.currentThread().interrupt();
+            throw (InterruptedIOException) new InterruptedIOException(aRequest.uri().toString()).initCause(details);
+        }
+    }
+
+    /**
+     * Checks that a response is successful.
+     *
+     * @param aResponse A response
+     * @param aURL The URL that was requested
+     * @throws IOException If the response isn't successful
+     */
+    private static void checkStatus(final HttpResponse<?> aResponse, final String aURL) throws IOException {
+        if (aResponse.statusCode() != HttpURLConnection.HTTP_OK) {
+            throw new IOException(LOGGER.getMessage(MessageCodes.MVN_179, aResponse.statusCode(), aURL));
+        }
+    }
+
+    /**
+     * Checks whether a cached metadata file was validated recently enough to be used without revalidating it.
+     *
+     * @param aHeaders The cached headers of a metadata file
+     * @return True if the cached metadata file can be used as is
+     */
+    private boolean isFresh(final Properties aHeaders) {
+        try {
+            final long validated = Long.parseLong(aHeaders.getProperty(VALIDATED, "0"));
+
+            return System.currentTimeMillis() - validated < myTTL.toMillis();
+        } catch (final NumberFormatException details) {
+            return false;
+        }
+    }
+
+    /**
+     * Reads a cache entry.
+     *
+     * @param aEntryFile The file in which a metadata file and its headers are cached
+     * @return The cached headers, with the metadata file, or an empty optional if they aren't cached or can't be read
+     */
+    private static Optional<Properties> readEntry(final Path aEntryFile) {
+        try (InputStream input = Files.newInputStream(aEntryFile)) {
+            final Properties headers = new Properties();
+
+            headers.load(input);
+            return Optional.of(headers);
+        } catch (final NoSuchFileException details) {
+            return Optional.empty();
+        } catch (final IOException details) {
+            LOGGER.debug(details.getMessage(), details);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Gets the metadata file in a cache entry.
+     *
+     * @param aHeaders The cached headers, with the metadata file
+     * @return The cached metadata file, or null if the entry doesn't have one or it can't be decoded
+     */
+    private static byte[] getMetadata(final Properties aHeaders) {
+        final String metadata = aHeaders.getProperty(METADATA);
+
+        try {
+            return metadata == null ? null : Base64.getDecoder().decode(metadata);
+        } catch (final IllegalArgumentException details) {
+            LOGGER.debug(details.getMessage(), details);
+            return null; // NOPMD - ReturnEmptyCollectionRatherThanNull, null means there's no cached file
+        }
+    }
+
+    /**
+     * Caches a metadata file and its headers. The entry is written under a temporary name and then moved into place, so
+     * builds that share the cache never see a partly written entry, or a metadata file with another response's headers.
+     * A cache that can't be written doesn't fail the build.
+     *
+     * @param aEntryFile The file in which the metadata file and its headers are cached
+     * @param aHeaders The metadata file's headers, with the metadata file
+     */
+    private static void writeEntry(final Path aEntryFile, final Properties aHeaders) {
+        try {
+            Files.createDirectories(aEntryFile.getParent());
+            BuildState.move(write(aEntryFile, output -> aHeaders.store(output, null)), aEntryFile);
+        } catch (final IOException details) {
+            LOGGER.warn(MessageCodes.MVN_180, aEntryFile.getParent());
+            LOGGER.debug(details.getMessage(), details);
+        }
+    }
+
+    /**
+     * Writes a temporary file next to a cache file.
+     *
+     * @param aCacheFile A cache file
+     * @param aWriter What writes the file's contents
+     * @return The temporary file
+     * @throws IOException If the temporary file cannot be written
+     */
+    private static Path write(final Path aCacheFile, final CacheWriter aWriter) throws IOException {
+        final Path tmpFile = Files.createTempFile(aCacheFile.getParent(), aCacheFile.getFileName().toString(), null);
+
+        try (OutputStream output = Files.newOutputStream(tmpFile)) {
+            aWriter.write(output);
+        } catch (final IOException details) {
+            Files.deleteIfExists(tmpFile);
+            throw details;
+        }
+
+        return tmpFile;
+    }
+
+    /**
+     * Something that writes the contents of a cache file.
+     */
+    @FunctionalInterface
+    private interface CacheWriter {
+
+        /**
+         * Writes the contents of a cache file.
+         *
+         * @param aOutput The cache file's output
+         * @throws IOException If the contents cannot be written
+         */
+        void write(OutputStream aOutput) throws IOException;
+    }
+}
@@ -0,0 +1,132 @@
+
+package info.freelibrary.maven;
+
+import java.util.List;
+
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.eclipse.aether.RepositorySystem;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.repository.RepositoryPolicy;
+import org.eclipse.aether.resolution.VersionRequest;
+import org.eclipse.aether.resolution.VersionResolutionException;
+import org.eclipse.aether.resolution.VersionResult;
+
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+import info.freelibrary.util.StringUtils;
+
+/**
+ * A resolver of snapshot versions that goes through the Maven resolver, instead of fetching a snapshot's metadata
+ * itself. The resolver applies the build's mirrors, proxies, and authentication, keeps the metadata it fetches in the
+ * local repository, and only checks for newer metadata when the repository's update policy says to; when Maven is
+ * offline, it only uses what's in the local repository.
+ */
+final class SnapshotVersionResolver {
+
+    /**
+     * A pattern for the URL of a snapshot file (i.e.
+     * {repo}/{group}/{artifact}/{version}/{artifact}-{version}{-classifier}.{extension}).
+     */
+    private static final String FILE_URL_PATTERN = "{}/{}/{}/{}/{}-{}{}.{}";
+
+    /** The layout of the repositories that snapshots are resolved from. */
+    private static final String DEFAULT_LAYOUT = "default";
+
+    /** The logger for the snapshot version resolver. */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotVersionResolver.class, MessageCodes.BUNDLE);
+
+    /** The Maven resolver. */
+    private final RepositorySystem mySystem;
+
+    /** The build's repository session. */
+    private final RepositorySystemSession mySession;
+
+    /** The repository from which snapshots are resolved. */
+    private final RemoteRepository myRepository;
+
+    /**
+     * Creates a new snapshot version resolver for a repository. If one of the project's repositories has the supplied
+     * URL, it's used as is; otherwise, a snapshot repository with the supplied ID and URL is used, with the build's
+     * mirrors, proxies, and authentication applied to it.
+     *
+     * @param aSystem The Maven resolver
+     * @param aSession The build's repository session
+     * @param aProjectRepoList The project's remote repositories
+     * @param aRepoID The ID of the snapshot repository, which its authentication is found by
+     * @param aRepoURL The URL of the snapshot repository
+     */
+    SnapshotVersionResolver(final RepositorySystem aSystem, final RepositorySystemSession aSession,
+            final List<RemoteRepository> aProjectRepoList, final String aRepoID, final String aRepoURL) {
+        mySystem = aSystem;
+        mySession = aSession;
+        myRepository = aProjectRepoList.stream().filter(repo -> trim(repo.getUrl()).equals(trim(aRepoURL))).findFirst()
+                .orElseGet(() -> newRepository(aRepoID, aRepoURL));
+    }
+
+    /**
+     * Returns a URL for the latest snapshot of one of an artifact's files.
+     *
+     * @param aGroupId An artifact's group ID
+     * @param aArtifactId An artifact's ID
+     * @param aVersion An artifact's snapshot version
+     * @param aClassifier The file's classifier, or an empty string if it doesn't have one
+     * @param aExtension The file's extension
+     * @return A URL for the latest snapshot of the artifact's file
+     * @throws MojoFailureException If the repository doesn't have a timestamped snapshot of the file
+     * @throws MojoExecutionException If the file's version cannot be resolved
+     */
+    String getJarURL(final String aGroupId, final String aArtifactId, final String aVersion, final String aClassifier,
+            final String aExtension) throws MojoFailureException, MojoExecutionException {
+        final Artifact artifact = new DefaultArtifact(aGroupId, aArtifactId, aClassifier, aExtension, aVersion);
+        final VersionResult result;
+
+        try {
+            result = mySystem.resolveVersion(mySession, new VersionRequest(artifact, List.of(myRepository), null));
+        } catch (final VersionResolutionException details) {
+            throw new MojoExecutionException(details.getMessage(), details);
+        }
+
+        // A version that's still the base version wasn't found in the repository's metadata
+        if (!artifact.isSnapshot() || !(result.getRepository() instanceof RemoteRepository) ||
+                result.getVersion().equals(artifact.getBaseVersion())) {
+            throw new MojoFailureException(LOGGER.getMessage(MessageCodes.MVN_184, artifact, myRepository.getUrl()));
+        }
+
+        return StringUtils.format(FILE_URL_PATTERN, trim(((RemoteRepository) result.getRepository()).getUrl()),
+                aGroupId.replace('.', '/'), aArtifactId, artifact.getBaseVersion(), aArtifactId, result.getVersion(),
+                aClassifier.isEmpty() ? "" : "-" + aClassifier, aExtension);
+    }
+
+    /**
+     * Creates a snapshot repository, with the build's mirrors, proxies, and authentication applied to it. Its snapshot
+     * metadata is checked for updates daily, unless the build says otherwise (e.g., with <code>-U</code>).
+     *
+     * @param aRepoID The ID of the snapshot repository
+     * @param aRepoURL The URL of the snapshot repository
+     * @return The snapshot repository
+     */
+    private RemoteRepository newRepository(final String aRepoID, final String aRepoURL) {
+        final RepositoryPolicy releasePolicy = new RepositoryPolicy(false, RepositoryPolicy.UPDATE_POLICY_NEVER,
+                RepositoryPolicy.CHECKSUM_POLICY_WARN);
+        final RepositoryPolicy snapshotPolicy =
+                new RepositoryPolicy(true, RepositoryPolicy.UPDATE_POLICY_DAILY, RepositoryPolicy.CHECKSUM_POLICY_WARN);
+        final RemoteRepository repository = new RemoteRepository.Builder(aRepoID, DEFAULT_LAYOUT, aRepoURL)
+                .setReleasePolicy(releasePolicy).setSnapshotPolicy(snapshotPolicy).build();
+
+        return mySystem.newResolutionRepositories(mySession, List.of(repository)).get(0);
+    }
+
+    /**
+     * Trims a trailing slash from a repository URL.
+     *
+     * @param aURL A repository URL
+     * @return The URL without a trailing slash
+     */
+    private static String trim(final String aURL) {
+        return aURL.endsWith("/") ? aURL.substring(0, aURL.length() - 1) : aURL;
+    }
+}
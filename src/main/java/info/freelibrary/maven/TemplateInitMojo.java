@@ -1,12 +1,19 @@
 
 package info.freelibrary.maven;
 
-import java.io.File;
 import java.io.IOException;
-import java.io.OutputStream;
-import java.nio.charset.StandardCharsets;
-import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.apache.maven.plugin.AbstractMojo;
 import org.apache.maven.plugin.MojoExecutionException;
@@ -19,16 +26,13 @@ import org.apache.maven.project.MavenProject;
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
 import info.freelibrary.util.StringUtils;
-
-import nu.xom.Builder;
-import nu.xom.Document;
-import nu.xom.Element;
-import nu.xom.Elements;
-import nu.xom.ParsingException;
-import nu.xom.Serializer;
+import info.freelibrary.util.warnings.PMD;
 
 /**
- * A Maven mojo that initializes a project template.
+ * A Maven mojo that initializes a project template. The POMs are patched in place, so only the text of the elements
+ * that change is rewritten, and a POM that doesn't change isn't written at all. Any number of modules can be templated
+ * in one run: the parent POM is read and written once, and the modules' POMs are updated in parallel. Every POM is read
+ * and patched before any of them is written, so a module POM that's missing or malformed leaves them all as they were.
  */
 @Mojo(name = MojoNames.TEMPLATE_INIT, defaultPhase = LifecyclePhase.INITIALIZE)
 public class TemplateInitMojo extends AbstractMojo {
@@ -53,6 +57,11 @@ public class TemplateInitMojo extends AbstractMojo {
      */
     static final String MODULE_GROUP = "module.group";
 
+    /**
+     * A property name for a batch of modules.
+     */
+    static final String MODULE_LIST = "module.list";
+
     /**
      * A property name for a function's module.
      */
@@ -63,6 +72,16 @@ public class TemplateInitMojo extends AbstractMojo {
      */
     static final String MODULE_VERSION = "module.version";
 
+    /**
+     * A module element name.
+     */
+    static final String MODULE = "module";
+
+    /**
+     * A modules element name.
+     */
+    static final String MODULES = "modules";
+
     /**
      * A properties element name.
      */
@@ -106,6 +125,13 @@ public class TemplateInitMojo extends AbstractMojo {
     @Parameter(alias = MODULE_GROUP, property = MODULE_GROUP)
     protected String myModuleGroup;
 
+    /**
+     * A batch of modules to template, each as <code>name:groupId:artifactId</code> or
+     * <code>name:groupId:artifactId:version</code>. A module without a version is given the module version.
+     */
+    @Parameter(alias = MODULE_LIST, property = MODULE_LIST)
+    protected List<String> myModuleList;
+
     /**
      * The name of an optional module.
      */
@@ -128,57 +154,89 @@ public class TemplateInitMojo extends AbstractMojo {
     public void execute() throws MojoExecutionException, MojoFailureException {
         if (!myExecutionShouldBeSkipped) {
             try {
-                final File pomFile = myProject.getFile();
-                final Document pom = new Builder().build(pomFile);
-                final Element root = pom.getRootElement();
-                final Element properties = getProperties(root);
-                final Elements modules = root.getChildElements("modules", XMLNS);
+                final POMPatcher pom = new POMPatcher(myProject.getFile().toPath());
 
                 // Check if we're working with a stand-alone (i.e., not a multi-module) project
-                if (modules.size() == 0) {
-                    throw new UnsupportedOperationException("Simple project templates not yet implemented");
+                if (pom.getValues(MODULES).isEmpty()) {
+                    throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_201, myProject.getFile()));
                 }
 
-                checkModuleParameters();
-                checkModuleConsistency(modules);
+                final List<Module> modules = getModules();
 
-                // Else, we have a multi-module project; in our case, used for functions
-                updateProperty(properties, MODULE_ARTIFACT, myModuleArtifact);
-                updateProperty(properties, MODULE_GROUP, myModuleGroup);
-                updateProperty(properties, MODULE_VERSION, myModuleVersion);
+                checkModuleConsistency(modules, pom.getValues(MODULES, MODULE));
 
-                // Write project POM to disk
-                writePOM(pom, pomFile);
+                // Else, we have a multi-module project; in our case, used for functions
+                if (StringUtils.trimToNull(myModuleName) != null) {
+                    updateProperty(pom, MODULE_ARTIFACT, myModuleArtifact);
+                    updateProperty(pom, MODULE_GROUP, myModuleGroup);
+                    updateProperty(pom, MODULE_VERSION, myModuleVersion);
+                }
 
-                // Update the child POM too
-                updateChildPOM();
-            } catch (ParsingException | IOException details) {
+                // Write the project POM and the child POMs, once they've all been read
+                updatePOMs(pom, modules);
+            } catch (final IOException details) {
                 throw new MojoExecutionException(details);
             }
         }
     }
 
     /**
-     * Checks the module name for consistency with the defined modules.
+     * Checks the module names for consistency with the defined modules.
      *
+     * @param aModules The modules to template
      * @param aModuleList A list of modules defined in the POM
-     * @throws MojoExecutionException If the expected module cannot be found
+     * @throws MojoExecutionException If an expected module cannot be found
+     */
+    private void checkModuleConsistency(final List<Module> aModules, final List<String> aModuleList)
+            throws MojoExecutionException {
+        for (final Module module : aModules) {
+            if (!aModuleList.contains(module.myName)) {
+                throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_137, module.myName));
+            }
+        }
+    }
+
+    /**
+     * Gets the modules to template: the one named by the module parameters, if there is one, and those in the batch.
+     * When there's no batch, the module parameters are required.
+     *
+     * @return The modules to template
+     * @throws MojoExecutionException If required parameters are missing or invalid, or a module is listed twice
      */
-    private void checkModuleConsistency(final Elements aModuleList) throws MojoExecutionException {
-        final Elements modules = aModuleList.get(0).getChildElements("module", XMLNS);
-        boolean hasModule = false;
+    @SuppressWarnings({ PMD.CYCLOMATIC_COMPLEXITY, PMD.COGNITIVE_COMPLEXITY })
+    private List<Module> getModules() throws MojoExecutionException {
+        final boolean hasBatch = myModuleList != null && !myModuleList.isEmpty();
+        final List<Module> modules = new ArrayList<>();
+        final Set<String> names = new HashSet<>();
+
+        if (!hasBatch || StringUtils.trimToNull(myModuleName) != null) {
+            checkModuleParameters();
+            modules.add(new Module(myModuleName, myModuleGroup, myModuleArtifact, myModuleVersion));
+        }
+
+        if (hasBatch) {
+            for (final String entry : myModuleList) {
+                final String[] parts = entry.trim().split(":", -1);
 
-        for (int index = 0; index < modules.size(); index++) {
-            final Element module = modules.get(index);
+                if (parts.length < 3 || parts.length > 4 || Arrays.stream(parts).anyMatch(String::isBlank)) {
+                    throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_197, entry));
+                }
 
-            if (module != null && myModuleName.equals(module.getValue())) {
-                hasModule = true;
+                modules.add(new Module(parts[0].trim(), parts[1].trim(), parts[2].trim(),
+                        parts.length == 4 ? parts[3].trim() : myModuleVersion));
             }
+
+            LOGGER.debug(MessageCodes.MVN_199, modules.size());
         }
 
-        if (!hasModule) {
-            throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_137, myModuleName));
+        // Two updates of the same module's POM would race each other
+        for (final Module module : modules) {
+            if (!names.add(module.myName)) {
+                throw new MojoExecutionException(LOGGER.getMessage(MessageCodes.MVN_198, module.myName));
+            }
         }
+
+        return modules;
     }
 
     /**
@@ -201,113 +259,137 @@ public class TemplateInitMojo extends AbstractMojo {
     }
 
     /**
-     * Create an XML element in our namespace using the supplied name and value.
+     * Updates the project POM and the child projects' (modules') POMs, if necessary. The modules' POMs are read and
+     * patched, and then written, on a pool of threads that's bounded by the number of available processors. None of the
+     * POMs is written until all of the modules' POMs have been read.
      *
-     * @param aName An XML element name
-     * @param aValue An element value
-     * @return A newly created XML element
+     * @param aPOM The project POM
+     * @param aModules The modules to template
+     * @throws MojoExecutionException If a POM file cannot be read, parsed, or written
+     * @throws IOException If the project POM file cannot be written
      */
-    private Element createElement(final String aName, final String aValue) {
-        final Element element = new Element(aName, XMLNS);
+    private void updatePOMs(final POMPatcher aPOM, final List<Module> aModules)
+            throws MojoExecutionException, IOException {
+        final int threadCount = Math.max(1, Math.min(aModules.size(), Runtime.getRuntime().availableProcessors()));
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount); // NOPMD - CloseResource, shut down
+
+        try {
+            final Map<Module, Future<POMPatcher>> patches = new LinkedHashMap<>();
+            final Map<Module, Future<Boolean>> writes = new LinkedHashMap<>();
+
+            for (final Module module : aModules) {
+                patches.put(module, executor.submit(() -> patchChildPOM(module)));
+            }
 
-        element.appendChild(aValue);
-        return element;
+            final Map<Module, POMPatcher> childPOMs = awaitAll(patches);
+
+            aPOM.write();
+
+            for (final Map.Entry<Module, POMPatcher> childPOM : childPOMs.entrySet()) {
+                writes.put(childPOM.getKey(), executor.submit(childPOM.getValue()::write));
+            }
+
+            awaitAll(writes);
+        } finally {
+            executor.shutdownNow();
+        }
     }
 
     /**
-     * Gets the POM's properties.
+     * Reads a child project's (module's) POM and patches it with the module's coordinates, without writing it.
      *
-     * @param aRoot The root element of the POM
-     * @return The properties element
+     * @param aModule A module to template
+     * @return The module's patched POM
+     * @throws IOException If the template POM file cannot be read or parsed
      */
-    private Element getProperties(final Element aRoot) {
-        final Elements propertiesList = aRoot.getChildElements(PROPERTIES, XMLNS);
-        final Element properties;
-
-        if (propertiesList.size() == 0) {
-            properties = new Element(PROPERTIES, XMLNS);
-            aRoot.appendChild(properties);
-        } else {
-            properties = propertiesList.get(0);
-        }
+    private POMPatcher patchChildPOM(final Module aModule) throws IOException {
+        final POMPatcher pom = new POMPatcher(Path.of(myProject.getBasedir().toString(), aModule.myName, "pom.xml"));
 
-        return properties;
+        return pom.set(aModule.myArtifact, ARTIFACT_ID).set(aModule.myGroup, GROUP_ID).set(aModule.myVersion, VERSION);
     }
 
     /**
-     * Updates the child project (module), if necessary.
+     * Waits for a task of each module to finish. Every task is waited for, so none is still running when the first
+     * failure is reported.
      *
-     * @throws ParsingException If the template POM file cannot be parsed
-     * @throws IOException If the template POM file cannot be read
+     * @param <T> The type of the tasks' results
+     * @param aTaskMap The modules' tasks
+     * @return The tasks' results, keyed by their modules, in the same order
+     * @throws MojoExecutionException If a task failed or the wait was interrupted
      */
-    private void updateChildPOM() throws ParsingException, IOException {
-        final File pomFile = Path.of(myProject.getBasedir().toString(), myModuleName, "pom.xml").toFile();
-        final Document pom = new Builder().build(pomFile);
-        final Element root = pom.getRootElement();
-        final Element artifactId = root.getFirstChildElement(ARTIFACT_ID, XMLNS);
-        final Element groupId = root.getFirstChildElement(GROUP_ID, XMLNS);
-        final Element version = root.getFirstChildElement(VERSION, XMLNS);
-
-        if (artifactId != null) {
-            artifactId.removeChildren();
-            artifactId.appendChild(myModuleArtifact);
-        } else {
-            root.appendChild(createElement(ARTIFACT_ID, myModuleArtifact));
-        }
+    private static <T> Map<Module, T> awaitAll(final Map<Module, Future<T>> aTaskMap) throws MojoExecutionException {
+        final Map<Module, T> results = new LinkedHashMap<>();
+        MojoExecutionException failure = null;
 
-        if (groupId != null) {
-            groupId.removeChildren();
-            groupId.appendChild(myModuleGroup);
-        } else {
-            root.appendChild(createElement(GROUP_ID, myModuleGroup));
+        for (final Map.Entry<Module, Future<T>> task : aTaskMap.entrySet()) {
+            try {
+                results.put(task.getKey(), task.getValue().get());
+            } catch (final InterruptedException details) {
+                Thread.currentThread().interrupt();
+                throw new MojoExecutionException(details.getMessage(), details);
+            } catch (final ExecutionException details) {
+                if (failure == null) {
+                    failure = new MojoExecutionException(task.getKey().myName, details.getCause());
+                }
+            }
         }
 
-        if (version != null) {
-            version.removeChildren();
-            version.appendChild(myModuleVersion);
-        } else {
-            root.appendChild(createElement(VERSION, myModuleVersion));
+        if (failure != null) {
+            throw failure;
         }
 
-        writePOM(pom, pomFile);
+        return results;
     }
 
     /**
      * Updates a property in the POM file.
      *
-     * @param aPropertyList A list of properties
+     * @param aPOM A POM
      * @param aName A property name
      * @param aValue A property value
      */
-    private void updateProperty(final Element aPropertyList, final String aName, final String aValue) {
+    private void updateProperty(final POMPatcher aPOM, final String aName, final String aValue) {
         if (StringUtils.trimToNull(aValue) != null) {
-            Element property;
-
-            if ((property = aPropertyList.getFirstChildElement(aName, XMLNS)) != null) {
-                property.removeChildren();
-                LOGGER.debug(MessageCodes.MVN_132, aName, aValue);
-                property.appendChild(aValue);
-            } else {
-                property = createElement(aName, aValue);
+            if (aPOM.getValues(PROPERTIES, aName).isEmpty()) {
                 LOGGER.debug(MessageCodes.MVN_133, aName, aValue);
-                aPropertyList.appendChild(property);
+            } else {
+                LOGGER.debug(MessageCodes.MVN_132, aName, aValue);
             }
+
+            aPOM.set(aValue, PROPERTIES, aName);
         }
     }
 
     /**
-     * Write the supplied POM file to disk.
-     *
-     * @param aPOM A POM document
-     * @param aFile A POM file
-     * @throws IOException If there is trouble writing the file to disk
+     * The coordinates a module is templated with.
      */
-    private void writePOM(final Document aPOM, final File aFile) throws IOException {
-        try (OutputStream outputStream = Files.newOutputStream(aFile.toPath())) {
-            final Serializer serializer = new Serializer(outputStream, StandardCharsets.UTF_8.name());
-
-            serializer.setLineSeparator(System.lineSeparator());
-            serializer.write(aPOM);
+    private static final class Module {
+
+        /** The module's name (i.e., its directory). */
+        private final String myName;
+
+        /** The module's group ID. */
+        private final String myGroup;
+
+        /** The module's artifact ID. */
+        private final String myArtifact;
+
+        /** The module's version. */
+        private final String myVersion;
+
+        /**
+         * Creates the coordinates of a module.
+         *
+         * @param aName The module's name
+         * @param aGroup The module's group ID
+         * @param aArtifact The module's artifact ID
+         * @param aVersion The module's version
+         */
+        private Module(final String aName, final String aGroup, final String aArtifact, final String aVersion) {
+            myName = aName;
+            myGroup = aGroup;
+            myArtifact = aArtifact;
+            myVersion = aVersion;
         }
     }
 }
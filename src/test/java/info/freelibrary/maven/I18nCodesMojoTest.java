@@ -1,29 +1,48 @@
 
 package info.freelibrary.maven;
 
+import static info.freelibrary.util.Constants.COMMA;
 import static info.freelibrary.util.Constants.EMPTY;
 import static info.freelibrary.util.Constants.SPACE;
 
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.Arrays;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.ResourceBundle;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
+import javax.tools.ToolProvider;
+
 import org.apache.maven.plugin.Mojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.junit.Test;
 
 import info.freelibrary.util.Logger;
 import info.freelibrary.util.LoggerFactory;
 import info.freelibrary.util.StringUtils;
+import info.freelibrary.util.warnings.Checkstyle;
 
 /**
  * A test of the {@link I18nCodesMojo}.
  */
+@SuppressWarnings({ Checkstyle.MULTIPLE_STRING_LITERALS })
 public class I18nCodesMojoTest extends BetterAbstractMojoTestCase {
 
     /**
@@ -41,6 +60,156 @@ public class I18nCodesMojoTest extends BetterAbstractMojoTestCase {
      */
     private static final File POM = new File("target/test-project/test-pom.xml");
 
+    /**
+     * The directory in which the tests' message files and generated sources are written.
+     */
+    private static final String TEST_DIR = "target/test-project/target/i18n-tests";
+
+    /**
+     * The name of the property that holds a message file's class name.
+     */
+    private static final String MESSAGE_CLASS_NAME = "message-class-name";
+
+    /**
+     * The name of the directory into which the tests' codes classes are generated.
+     */
+    private static final String GEN_SRC_DIR = "generated";
+
+    /**
+     * The code of the first of the tests' messages.
+     */
+    private static final String FIRST_CODE = "first_message";
+
+    /**
+     * The key of the first of the tests' messages.
+     */
+    private static final String FIRST_MESSAGE = "first-message";
+
+    /**
+     * The key of the second of the tests' messages.
+     */
+    private static final String SECOND_MESSAGE = "second-message";
+
+    /**
+     * The class generated by the second of the tests' message files.
+     */
+    private static final String SECOND_CLASS = "info.freelibrary.test.SecondCodes";
+
+    /**
+     * The path of the class generated by the second of the tests' message files.
+     */
+    private static final String SECOND_CLASS_PATH = "info/freelibrary/test/SecondCodes.java";
+
+    /**
+     * A timestamp from well before the tests are run.
+     */
+    private static final long OLD_TIMESTAMP = 1_000_000_000_000L;
+
+    /**
+     * The code of the second of the tests' messages.
+     */
+    private static final String SECOND_CODE = "second_message";
+
+    /**
+     * The class generated by the first of the tests' message files.
+     */
+    private static final String FIRST_CLASS = "info.freelibrary.test.FirstCodes";
+
+    /**
+     * The path of the class generated by the first of the tests' message files.
+     */
+    private static final String FIRST_CLASS_PATH = "info/freelibrary/test/FirstCodes.java";
+
+    /**
+     * The name of the first of the tests' message files.
+     */
+    private static final String FIRST_FILE = "first_messages.xml";
+
+    /**
+     * The name of the second of the tests' message files.
+     */
+    private static final String SECOND_FILE = "second_messages.xml";
+
+    /**
+     * The name of a message file that's neither the first nor the second.
+     */
+    private static final String OTHER_FILE = "other_messages.xml";
+
+    /**
+     * The generator that writes codes classes straight out as text.
+     */
+    private static final String TEXT_GENERATOR = "text";
+
+    /**
+     * The generator that builds codes classes with Roaster.
+     */
+    private static final String ROASTER_GENERATOR = "roaster";
+
+    /**
+     * The key of the third of the tests' messages.
+     */
+    private static final String THIRD_MESSAGE = "third-message";
+
+    /**
+     * A message with quotes in it.
+     */
+    private static final String QUOTED_TEXT = "A \"quoted\" message";
+
+    /**
+     * The key of a message whose key isn't a valid field name.
+     */
+    private static final String GENERATOR_MESSAGE = "generator.message";
+
+    /**
+     * A message without any placeholders.
+     */
+    private static final String NO_ARGS_TEXT = "No arguments";
+
+    /**
+     * The first argument of the tests' formatted messages.
+     */
+    private static final String FIRST_ARG = "one";
+
+    /**
+     * The second argument of the tests' formatted messages.
+     */
+    private static final String SECOND_ARG = "two";
+
+    /**
+     * The directory into which the tests' message files are transcoded.
+     */
+    private static final String CLASSES_DIR = "target/test-project/target/classes";
+
+    /**
+     * The name of the directory in which the tests' build state is kept.
+     */
+    private static final String STATE_DIR = "state";
+
+    /**
+     * The suffix of the name of a codes class' nested binary bundle reader.
+     */
+    private static final String BUNDLE_CLASS = "$Bundle";
+
+    /**
+     * The text of the first of the tests' messages.
+     */
+    private static final String FIRST_TEXT = "The first message";
+
+    /**
+     * The text of the first of the tests' messages, with a placeholder.
+     */
+    private static final String FIRST_TEXT_SLOT = "The first message: {}";
+
+    /**
+     * The text of the second of the tests' messages.
+     */
+    private static final String SECOND_TEXT = "The second message";
+
+    /**
+     * The French text of the first of the tests' messages.
+     */
+    private static final String FRENCH_FIRST_TEXT = "Le premier message";
+
     /**
      * Tests running the {@link I18nCodesMojo}.
      *
@@ -88,4 +257,526 @@ public class I18nCodesMojoTest extends BetterAbstractMojoTestCase {
             fail(details.getMessage());
         }
     }
+
+    /**
+     * Tests that each message file's class only has the codes from that file.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testSeparateBundles() throws Exception {
+        final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File first = writeMessages(new File(dir, FIRST_FILE), FIRST_CLASS, FIRST_MESSAGE);
+        final File second = writeMessages(new File(dir, SECOND_FILE), SECOND_CLASS, SECOND_MESSAGE);
+        final File genSrcDir = new File(dir, GEN_SRC_DIR);
+        final String firstCodes;
+        final String secondCodes;
+
+        generate(dir, first, second);
+
+        firstCodes = Files.readString(new File(genSrcDir, FIRST_CLASS_PATH).toPath());
+        secondCodes = Files.readString(new File(genSrcDir, SECOND_CLASS_PATH).toPath());
+
+        assertTrue(firstCodes.contains(FIRST_CODE));
+        assertFalse(firstCodes.contains(SECOND_CODE));
+        assertTrue(secondCodes.contains(SECOND_CODE));
+        assertFalse(secondCodes.contains(FIRST_CODE));
+    }
+
+    /**
+     * Tests that two message files that generate the same class are rejected before any message file, including one
+     * that's listed before them, is written.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testConflictingBundles() throws Exception {
+        final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File other = writeMessages(new File(dir, OTHER_FILE), SECOND_CLASS, SECOND_MESSAGE);
+        final File first = writeMessages(new File(dir, "one_messages.xml"), FIRST_CLASS, "one-message");
+        final File second = writeMessages(new File(dir, "two_messages.xml"), FIRST_CLASS, "two-message");
+        final File genSrcDir = new File(dir, GEN_SRC_DIR);
+
+        try {
+            generate(dir, other, first, second);
+            fail("Expected message files that generate the same class to be rejected");
+        } catch (final MojoExecutionException details) {
+            assertTrue(details.getMessage().contains("FirstCodes"));
+        }
+
+        assertFalse(new File(genSrcDir, FIRST_CLASS_PATH).exists());
+        assertFalse(new File(genSrcDir, SECOND_CLASS_PATH).exists());
+    }
+
+    /**
+     * Tests that message files that haven't changed aren't generated again, and that the classes of message files that
+     * have been removed are deleted.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testUnchangedBundles() throws Exception {
+        final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File first = writeMessages(new File(dir, "unchanged_messages.xml"), FIRST_CLASS, FIRST_MESSAGE);
+        final File second = writeMessages(new File(dir, "changed_messages.xml"), SECOND_CLASS, SECOND_MESSAGE);
+        final File firstCodes = new File(new File(dir, GEN_SRC_DIR), FIRST_CLASS_PATH);
+        final File secondCodes = new File(new File(dir, GEN_SRC_DIR), SECOND_CLASS_PATH);
+        final File firstProperties = new File("target/test-project/target/classes/unchanged_messages.properties");
+
+        generate(dir, first, second);
+
+        assertTrue(firstCodes.setLastModified(OLD_TIMESTAMP));
+        assertTrue(secondCodes.setLastModified(OLD_TIMESTAMP));
+        assertTrue(firstProperties.setLastModified(OLD_TIMESTAMP));
+
+        // Only the message file that's changed is generated again
+        writeMessages(second, SECOND_CLASS, "changed-message");
+        generate(dir, first, second);
+
+        assertEquals(OLD_TIMESTAMP, firstCodes.lastModified());
+        assertEquals(OLD_TIMESTAMP, firstProperties.lastModified());
+        assertTrue(Files.readString(secondCodes.toPath()).contains("changed_message"));
+
+        // The class of a message file that's been removed is deleted
+        generate(dir, second);
+
+        assertFalse(firstCodes.exists());
+        assertFalse(firstProperties.exists());
+        assertTrue(secondCodes.exists());
+    }
+
+    /**
+     * Tests that executions of the goal that share a build state directory don't delete each other's outputs as stale.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testSeparateExecutions() throws Exception {
+        final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File first = writeMessages(new File(dir, FIRST_FILE), FIRST_CLASS, FIRST_MESSAGE);
+        final File second = writeMessages(new File(dir, SECOND_FILE), SECOND_CLASS, SECOND_MESSAGE);
+        final I18nCodesMojo firstMojo = getMojo(dir, TEXT_GENERATOR, false, first);
+        final I18nCodesMojo secondMojo = getMojo(dir, TEXT_GENERATOR, false, second);
+
+        firstMojo.myExecutionId = "first-execution";
+        secondMojo.myExecutionId = "second-execution";
+
+        firstMojo.execute();
+        secondMojo.execute();
+        firstMojo.execute();
+
+        assertTrue(new File(new File(dir, GEN_SRC_DIR), FIRST_CLASS_PATH).exists());
+        assertTrue(new File(new File(dir, GEN_SRC_DIR), SECOND_CLASS_PATH).exists());
+    }
+
+    /**
+     * Tests that the outputs of a message file that can't be read aren't deleted as stale, and that the message file is
+     * generated again once it's fixed.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testFailedBundles() throws Exception {
+        final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File first = writeMessages(new File(dir, "failed_messages.xml"), FIRST_CLASS, FIRST_MESSAGE);
+        final File firstCodes = new File(new File(dir, GEN_SRC_DIR), FIRST_CLASS_PATH);
+        final File firstProperties = new File("target/test-project/target/classes/failed_messages.properties");
+
+        generate(dir, first);
+
+        // A message file that can't be parsed keeps what it last generated
+        Files.writeString(first.toPath(), "<properties>");
+        generate(dir, first);
+
+        assertTrue(firstCodes.exists());
+        assertTrue(firstProperties.exists());
+
+        // Once it's fixed, it's generated again
+        writeMessages(first, FIRST_CLASS, SECOND_MESSAGE);
+        generate(dir, first);
+
+        assertTrue(Files.readString(firstCodes.toPath()).contains(SECOND_CODE));
+    }
+
+    /**
+     * Tests that a message file's codes and properties keep the order of its messages, and that its messages are
+     * escaped so that they load back unchanged.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testMessageOrder() throws Exception {
+        final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File messages = new File(dir, "ordered_messages.xml");
+        final File propertiesFile = new File("target/test-project/target/classes/ordered_messages.properties");
+        final Properties properties = new Properties();
+        final String last = "zebra";
+        final String first = "apple";
+        final String codes;
+        final String stored;
+
+        Files.createDirectories(dir.toPath());
+        Files.writeString(messages.toPath(), """
+            <?xml version="1.0" encoding="UTF-8"?>
+            <!DOCTYPE properties SYSTEM "http://java.sun.com/dtd/properties.dtd">
+            <properties>
+              <entry key="message-class-name">info.freelibrary.test.OrderedCodes</entry>
+              <entry key="zebra">Last in the alphabet: {} = {}</entry>
+              <entry key="apple"> #First in the alphabet\\ &amp; !more</entry>
+            </properties>
+            """);
+
+        generate(dir, messages);
+
+        codes = Files
+                .readString(new File(new File(dir, GEN_SRC_DIR), "info/freelibrary/test/OrderedCodes.java").toPath());
+        stored = Files.readString(propertiesFile.toPath());
+
+        assertTrue(codes.indexOf(last) < codes.indexOf(first));
+        assertTrue(stored.indexOf(last) < stored.indexOf(first));
+
+        try (InputStream inStream = Files.newInputStream(propertiesFile.toPath())) {
+            properties.load(inStream);
+        }
+
+        assertEquals("Last in the alphabet: {} = {}", properties.getProperty(last));
+        assertEquals(" #First in the alphabet\\ & !more", properties.getProperty(first));
+    }
+
+    /**
+     * Tests that the text generator generates the same constants as the Roaster generator, and that messages that would
+     * break a Javadoc comment don't break the class it generates.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testGenerators() throws Exception {
+        final File textDir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File roasterDir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final String className = "info.freelibrary.test.GeneratorCodes";
+        final String fileName = "generator_messages.xml";
+        final Class<?> textCodes;
+        final Class<?> roasterCodes;
+
+        generate(textDir, TEXT_GENERATOR, false, writeMessages(new File(textDir, fileName), className, FIRST_MESSAGE,
+                QUOTED_TEXT, GENERATOR_MESSAGE, "A message */ that ends a comment \\u0022 early"));
+        generate(roasterDir, ROASTER_GENERATOR, false,
+                writeMessages(new File(roasterDir, fileName), className, FIRST_MESSAGE, QUOTED_TEXT));
+
+        textCodes = compile(new File(textDir, GEN_SRC_DIR), className, textDir);
+        roasterCodes = compile(new File(roasterDir, GEN_SRC_DIR), className, roasterDir);
+
+        for (final Field field : roasterCodes.getFields()) {
+            assertEquals(field.get(null), textCodes.getField(field.getName()).get(null));
+        }
+
+        assertEquals("generator_messages", textCodes.getField("BUNDLE").get(null));
+        assertEquals(GENERATOR_MESSAGE, textCodes.getField("generator_message").get(null));
+    }
+
+    /**
+     * Tests that the accessors both generators generate format their messages, with an argument for each placeholder.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testAccessors() throws Exception {
+        final String className = "info.freelibrary.test.AccessorCodes";
+        final String fileName = "accessor_messages.xml";
+
+        for (final String generator : List.of(TEXT_GENERATOR, ROASTER_GENERATOR)) {
+            final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+            final Class<?> codes;
+
+            generate(dir, generator, true,
+                    writeMessages(new File(dir, fileName), className, FIRST_MESSAGE, "It's {} and {}", SECOND_MESSAGE,
+                            "Indexed {1} before {0} in '{braces}'", THIRD_MESSAGE, NO_ARGS_TEXT));
+
+            codes = compile(new File(dir, GEN_SRC_DIR), className, dir);
+
+            assertEquals("It's one and two", codes.getMethod("formatFirst_message", Object.class, Object.class)
+                    .invoke(null, FIRST_ARG, SECOND_ARG));
+            assertEquals("Indexed two before one in '{braces}'", codes
+                    .getMethod("formatSecond_message", Object.class, Object.class).invoke(null, FIRST_ARG, SECOND_ARG));
+            assertEquals(NO_ARGS_TEXT, codes.getMethod("formatThird_message").invoke(null));
+        }
+    }
+
+    /**
+     * Tests that a message file can be transcoded into a binary bundle, and that the class generated to read it finds
+     * each of the file's messages.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testBinaryBundle() throws Exception {
+        final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File classesDir = new File(CLASSES_DIR);
+        final String className = "info.freelibrary.test.BinaryCodes";
+        final File messages = writeMessages(new File(dir, "binary_messages.xml"), className, SECOND_MESSAGE,
+                SECOND_TEXT, FIRST_MESSAGE, FIRST_TEXT_SLOT, THIRD_MESSAGE, FIRST_TEXT_SLOT);
+        final Properties properties = getProperties(I18nCodesMojo.Config.MESSAGE_FILES, messages.getPath(),
+                I18nCodesMojo.Config.GEN_SRC_DIR, new File(dir, GEN_SRC_DIR).getAbsolutePath(),
+                I18nCodesMojo.Config.STATE_DIR, new File(dir, STATE_DIR).getAbsolutePath(),
+                I18nCodesMojo.Config.IS_BINARY_BUNDLE_NEEDED, Boolean.toString(true));
+        final ResourceBundle bundle;
+
+        lookupConfiguredMojo(POM, properties, MojoNames.GENERATE_CODES).execute();
+
+        assertTrue(new File(classesDir, "binary_messages.bin").exists());
+        assertFalse(new File(classesDir, "binary_messages.properties").exists());
+
+        bundle = (ResourceBundle) compile(new File(dir, GEN_SRC_DIR), className + BUNDLE_CLASS, classesDir)
+                .getDeclaredConstructor().newInstance();
+
+        assertEquals(FIRST_TEXT_SLOT, bundle.getString(FIRST_MESSAGE));
+        assertEquals(SECOND_TEXT, bundle.getString(SECOND_MESSAGE));
+        assertEquals(FIRST_TEXT_SLOT, bundle.getString(THIRD_MESSAGE));
+        assertFalse(bundle.containsKey("missing-message"));
+        assertEquals(4, bundle.keySet().size());
+    }
+
+    /**
+     * Tests that the class generated to read binary bundles finds the binary bundle of a locale variant, and that a
+     * message the variant doesn't have, or a locale without a variant, falls back to the base file's messages.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testBinaryBundleLocales() throws Exception {
+        final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File classesDir = new File(CLASSES_DIR);
+        final String className = "info.freelibrary.test.BinaryLocaleCodes";
+        final File base = writeMessages(new File(dir, "binary_locale_messages.xml"), className, FIRST_MESSAGE,
+                FIRST_TEXT, SECOND_MESSAGE, SECOND_TEXT);
+        final File french = writeMessages(new File(dir, "binary_locale_messages_fr.xml"), className, FIRST_MESSAGE,
+                FRENCH_FIRST_TEXT);
+        final Properties properties =
+                getProperties(I18nCodesMojo.Config.MESSAGE_FILES, base.getPath() + COMMA + french.getPath(),
+                        I18nCodesMojo.Config.GEN_SRC_DIR, new File(dir, GEN_SRC_DIR).getAbsolutePath(),
+                        I18nCodesMojo.Config.STATE_DIR, new File(dir, STATE_DIR).getAbsolutePath(),
+                        I18nCodesMojo.Config.IS_BINARY_BUNDLE_NEEDED, Boolean.toString(true));
+        final Method get;
+        final ResourceBundle bundle;
+
+        lookupConfiguredMojo(POM, properties, MojoNames.GENERATE_CODES).execute();
+
+        assertTrue(new File(classesDir, "binary_locale_messages_fr.bin").exists());
+
+        get = compile(new File(dir, GEN_SRC_DIR), className + BUNDLE_CLASS, classesDir).getMethod("get", Locale.class);
+        bundle = (ResourceBundle) get.invoke(null, Locale.FRENCH);
+
+        assertEquals(Locale.FRENCH, bundle.getLocale());
+        assertEquals(FRENCH_FIRST_TEXT, bundle.getString(FIRST_MESSAGE));
+        assertEquals(SECOND_TEXT, bundle.getString(SECOND_MESSAGE));
+        assertEquals(3, bundle.keySet().size());
+        assertEquals(FRENCH_FIRST_TEXT,
+                ((ResourceBundle) get.invoke(null, Locale.CANADA_FRENCH)).getString(FIRST_MESSAGE));
+        assertEquals(FIRST_TEXT, ((ResourceBundle) get.invoke(null, Locale.ITALIAN)).getString(FIRST_MESSAGE));
+    }
+
+    /**
+     * Tests that a locale variant of a message file shares its base file's class, and that it's reported when it has
+     * missing or extra keys, or messages with a different number of placeholders.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testLocaleVariants() throws Exception {
+        final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File report = new File(dir, "locale-report.json");
+        final String className = "info.freelibrary.test.LocaleCodes";
+        final File base = writeMessages(new File(dir, "locale_messages.xml"), className, FIRST_MESSAGE, FIRST_TEXT_SLOT,
+                SECOND_MESSAGE, SECOND_TEXT, THIRD_MESSAGE, "The third message");
+        final File french = writeMessages(new File(dir, "locale_messages_fr.xml"), className, FIRST_MESSAGE,
+                FRENCH_FIRST_TEXT, SECOND_MESSAGE, "Le deuxieme message", "extra-message", "Un message de trop");
+        final File german = writeMessages(new File(dir, "locale_messages_de_DE.xml"), className, FIRST_MESSAGE,
+                "Die erste Nachricht: {}", SECOND_MESSAGE, "Die zweite Nachricht", THIRD_MESSAGE,
+                "Die dritte Nachricht");
+        final Properties properties = getProperties(I18nCodesMojo.Config.MESSAGE_FILES,
+                base.getPath() + COMMA + french.getPath() + COMMA + german.getPath(), I18nCodesMojo.Config.GEN_SRC_DIR,
+                new File(dir, GEN_SRC_DIR).getAbsolutePath(), I18nCodesMojo.Config.STATE_DIR,
+                new File(dir, STATE_DIR).getAbsolutePath(), I18nCodesMojo.Config.LOCALE_REPORT,
+                report.getAbsolutePath());
+        final String json;
+
+        lookupConfiguredMojo(POM, properties, MojoNames.GENERATE_CODES).execute();
+        json = Files.readString(report.toPath());
+
+        // The variants share the base file's class, instead of each generating the same one
+        assertTrue(new File(dir, GEN_SRC_DIR + "/info/freelibrary/test/LocaleCodes.java").exists());
+        assertTrue(json.contains("\"locale\": \"fr\""));
+        assertTrue(json.contains("\"missing\": [\"third-message\"]"));
+        assertTrue(json.contains("\"extra\": [\"extra-message\"]"));
+        assertTrue(json.contains("{ \"key\": \"first-message\", \"expected\": 1, \"found\": 0 }"));
+        assertTrue(json.contains("\"locale\": \"de_DE\""));
+        assertTrue(json.contains("\"missing\": [],"));
+
+        // A build that's configured to fail on locale errors does
+        properties.setProperty(I18nCodesMojo.Config.FAIL_ON_LOCALE_ERRORS, Boolean.toString(true));
+        try {
+            lookupConfiguredMojo(POM, properties, MojoNames.GENERATE_CODES).execute();
+            fail("Expected a locale variant that doesn't match its base message file to fail the build");
+        } catch (final MojoFailureException details) {
+            assertTrue(details.getMessage().contains(report.getAbsolutePath()));
+        }
+    }
+
+    /**
+     * Tests that message files are found in, and read straight out of, the first jar on a classpath that has them, and
+     * that a jar that's changed is indexed again.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testJarIndex() throws Exception {
+        final File dir = new File(TEST_DIR, UUID.randomUUID().toString());
+        final File firstJar = new File(dir, "first.jar");
+        final File secondJar = new File(dir, "second.jar");
+        final List<String> classpath = List.of(dir.getPath(), firstJar.getPath(), secondJar.getPath());
+        final String entryName = "jar_messages.xml";
+        final String firstContents = "first";
+        final String secondContents = "second";
+
+        Files.createDirectories(dir.toPath());
+        writeJar(firstJar, OTHER_FILE, "other");
+        writeJar(secondJar, entryName, firstContents);
+
+        assertEquals(secondJar.getAbsoluteFile().toPath(), new JarIndex(classpath).getJar("/" + entryName));
+        assertEquals(firstContents, new String(new JarIndex(classpath).read(entryName), StandardCharsets.UTF_8));
+
+        // A jar that's changed is indexed again, even though its entries were cached
+        writeJar(firstJar, entryName, secondContents);
+        assertTrue(firstJar.setLastModified(OLD_TIMESTAMP));
+
+        assertEquals(secondContents, new String(new JarIndex(classpath).read(entryName), StandardCharsets.UTF_8));
+        assertNull(new JarIndex(classpath).getJar("missing_messages.xml"));
+    }
+
+    /**
+     * Writes a jar with a single entry.
+     *
+     * @param aJar The jar to write
+     * @param aEntryName The name of the jar's entry
+     * @param aContents The contents of the jar's entry
+     * @throws IOException If the jar cannot be written
+     */
+    private void writeJar(final File aJar, final String aEntryName, final String aContents) throws IOException {
+        try (JarOutputStream jarStream = new JarOutputStream(Files.newOutputStream(aJar.toPath()))) {
+            jarStream.putNextEntry(new JarEntry(aEntryName));
+            jarStream.write(aContents.getBytes(StandardCharsets.UTF_8));
+            jarStream.closeEntry();
+        }
+    }
+
+    /**
+     * Compiles a generated codes class and loads it.
+     *
+     * @param aGenSrcDir The directory into which the class was generated
+     * @param aClassName The binary name of the class, which may be nested in the generated class
+     * @param aMessagesDir The directory of the class' message file or binary bundle, which is put on its classpath
+     * @return The compiled class
+     * @throws Exception If the class cannot be compiled or loaded
+     */
+    private Class<?> compile(final File aGenSrcDir, final String aClassName, final File aMessagesDir) throws Exception {
+        final File classesDir = new File(aGenSrcDir.getPath() + "-classes");
+        final String outerClassName = aClassName.replaceFirst("\\$.*", "");
+        final File srcFile = new File(aGenSrcDir, outerClassName.replace('.', File.separatorChar) + ".java");
+
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, "-d", classesDir.getAbsolutePath(),
+                srcFile.getAbsolutePath()));
+
+        return new URLClassLoader(new URL[] { classesDir.toURI().toURL(), aMessagesDir.toURI().toURL() },
+                getClass().getClassLoader()).loadClass(aClassName);
+    }
+
+    /**
+     * Runs the {@link I18nCodesMojo} on the supplied message files, with its own generated sources and build state.
+     *
+     * @param aDir The directory in which the codes classes and build state should be written
+     * @param aFileArray The message files
+     * @throws Exception If the mojo fails to run
+     */
+    private void generate(final File aDir, final File... aFileArray) throws Exception {
+        generate(aDir, TEXT_GENERATOR, false, aFileArray);
+    }
+
+    /**
+     * Runs the {@link I18nCodesMojo} on the supplied message files with the supplied generator, with its own generated
+     * sources and build state.
+     *
+     * @param aDir The directory in which the codes classes and build state should be written
+     * @param aGenerator The generator of the codes classes
+     * @param aAccessors Whether to generate methods that format the messages
+     * @param aFileArray The message files
+     * @throws Exception If the mojo fails to run
+     */
+    private void generate(final File aDir, final String aGenerator, final boolean aAccessors, final File... aFileArray)
+            throws Exception {
+        getMojo(aDir, aGenerator, aAccessors, aFileArray).execute();
+    }
+
+    /**
+     * Gets an {@link I18nCodesMojo} that's configured to run on the supplied message files with the supplied generator,
+     * with its own generated sources and build state.
+     *
+     * @param aDir The directory in which the codes classes and build state should be written
+     * @param aGenerator The generator of the codes classes
+     * @param aAccessors Whether to generate methods that format the messages
+     * @param aFileArray The message files
+     * @return The configured mojo
+     * @throws Exception If the mojo cannot be configured
+     */
+    private I18nCodesMojo getMojo(final File aDir, final String aGenerator, final boolean aAccessors,
+            final File... aFileArray) throws Exception {
+        final String files = Arrays.stream(aFileArray).map(File::getPath).reduce((a, b) -> a + COMMA + b).orElseThrow();
+        final Properties properties = getProperties(I18nCodesMojo.Config.MESSAGE_FILES, files,
+                I18nCodesMojo.Config.GEN_SRC_DIR, new File(aDir, GEN_SRC_DIR).getAbsolutePath(),
+                I18nCodesMojo.Config.STATE_DIR, new File(aDir, STATE_DIR).getAbsolutePath(),
+                I18nCodesMojo.Config.IS_TRANSCODING_NEEDED, Boolean.toString(true), I18nCodesMojo.Config.GENERATOR,
+                aGenerator, I18nCodesMojo.Config.ACCESSORS, Boolean.toString(aAccessors));
+
+        return (I18nCodesMojo) lookupConfiguredMojo(POM, properties, MojoNames.GENERATE_CODES);
+    }
+
+    /**
+     * Writes a message file with a single message.
+     *
+     * @param aFile The message file to write
+     * @param aClassName The class the message file generates
+     * @param aKey The key of the file's message
+     * @return The message file
+     * @throws IOException If the message file cannot be written
+     */
+    private File writeMessages(final File aFile, final String aClassName, final String aKey) throws IOException {
+        return writeMessages(aFile, aClassName, new String[] { aKey, "A message" });
+    }
+
+    /**
+     * Writes a message file with the supplied messages.
+     *
+     * @param aFile The message file to write
+     * @param aClassName The class the message file generates
+     * @param aMessageArray The keys and messages of the file's messages, in pairs
+     * @return The message file
+     * @throws IOException If the message file cannot be written
+     */
+    private File writeMessages(final File aFile, final String aClassName, final String... aMessageArray)
+            throws IOException {
+        final Properties properties = new Properties();
+
+        properties.setProperty(MESSAGE_CLASS_NAME, aClassName);
+
+        for (int index = 0; index < aMessageArray.length; index += 2) {
+            properties.setProperty(aMessageArray[index], aMessageArray[index + 1]);
+        }
+
+        Files.createDirectories(aFile.getParentFile().toPath());
+
+        try (OutputStream outStream = Files.newOutputStream(aFile.toPath())) {
+            properties.storeToXML(outStream, null);
+        }
+
+        return aFile;
+    }
 }
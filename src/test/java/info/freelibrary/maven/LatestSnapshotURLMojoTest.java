@@ -1,17 +1,48 @@
 
 package info.freelibrary.maven;
 
+import static info.freelibrary.util.Constants.SLASH;
+import static info.freelibrary.util.Constants.TRUE;
+
 import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
 import java.util.Properties;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
 import org.junit.Test;
 
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import info.freelibrary.util.warnings.Checkstyle;
+
 /**
  * A test of the {@link LatestSnapshotURLMojo}.
  */
+@SuppressWarnings({ Checkstyle.MULTIPLE_STRING_LITERALS })
 public class LatestSnapshotURLMojoTest extends BetterAbstractMojoTestCase {
 
     /**
@@ -24,6 +55,196 @@ public class LatestSnapshotURLMojoTest extends BetterAbstractMojoTestCase {
      */
     private static final File POM = new File("src/test/resources/test-pom.xml");
 
+    /**
+     * The directory in which the tests' snapshot metadata is cached.
+     */
+    private static final String CACHE_DIR = "target/test-project/target/snapshot-tests";
+
+    /**
+     * The directory of the file-based repository that snapshots are resolved from through the Maven resolver.
+     */
+    private static final String REPO_DIR = "target/test-project/target/snapshot-repo";
+
+    /**
+     * The ETag of the stub repository's metadata.
+     */
+    private static final String ETAG = "\"v1\"";
+
+    /**
+     * The metadata that the stub repository serves.
+     */
+    private static final String METADATA = """
+        <metadata>
+          <groupId>info.freelibrary</groupId>
+          <artifactId>test-artifact</artifactId>
+          <version>1.0.0-SNAPSHOT</version>
+          <versioning>
+            <snapshot>
+              <timestamp>20240101.120000</timestamp>
+              <buildNumber>3</buildNumber>
+            </snapshot>
+          </versioning>
+        </metadata>
+        """;
+
+    /**
+     * The metadata of a snapshot whose files have different versions, which the stub repository also serves.
+     */
+    private static final String TYPED_METADATA = """
+        <metadata modelVersion="1.1.0">
+          <groupId>info.freelibrary</groupId>
+          <artifactId>typed-artifact</artifactId>
+          <version>1.0.0-SNAPSHOT</version>
+          <versioning>
+            <snapshot>
+              <timestamp>20240102.090000</timestamp>
+              <buildNumber>5</buildNumber>
+            </snapshot>
+            <snapshotVersions>
+              <snapshotVersion>
+                <extension>jar</extension>
+                <value>1.0.0-20240102.090000-5</value>
+              </snapshotVersion>
+              <snapshotVersion>
+                <classifier>sources</classifier>
+                <extension>jar</extension>
+                <value>1.0.0-20240102.090000-5</value>
+              </snapshotVersion>
+              <snapshotVersion>
+                <extension>war</extension>
+                <value>1.0.0-20240101.170000-4</value>
+              </snapshotVersion>
+              <snapshotVersion>
+                <extension>zip</extension>
+                <value>1.0.0-20240102.090000-5</value>
+              </snapshotVersion>
+            </snapshotVersions>
+          </versioning>
+        </metadata>
+        """;
+
+    /**
+     * The contents of every file of the snapshot whose files have different versions.
+     */
+    private static final String TYPED_FILE = "typed-file";
+
+    /**
+     * The SHA-1 checksum of every file of the snapshot whose files have different versions.
+     */
+    private static final String TYPED_FILE_SHA1 = "0cbe25953848dd6e51858379d8e38f16c27c2b7e";
+
+    /**
+     * The path of the snapshot whose files have different versions, relative to the stub repository.
+     */
+    private static final String TYPED_PATH = "/info/freelibrary/typed-artifact/1.0.0-SNAPSHOT/typed-artifact-";
+
+    /**
+     * The length of the snapshot jar that the stub repository serves to be staged.
+     */
+    private static final int JAR_LENGTH = 1000;
+
+    /**
+     * The first byte of the part of the staged snapshot jar that the stub repository fails to serve, until it's told
+     * not to.
+     */
+    private static final int FAILED_PART = 500;
+
+    /**
+     * The number of modules that resolve the same snapshot at the same time.
+     */
+    private static final int MODULE_COUNT = 8;
+
+    /**
+     * The path of the latest snapshot jar, relative to the stub repository.
+     */
+    private static final String JAR_PATH =
+            "/info/freelibrary/test-artifact/1.0.0-SNAPSHOT/test-artifact-1.0.0-20240101.120000-3.jar";
+
+    /**
+     * The host of the stub repository.
+     */
+    private static final String LOCALHOST = "localhost";
+
+    /**
+     * The URL of the stub repository, without its port.
+     */
+    private static final String LOCAL_URL = "http://localhost:";
+
+    /**
+     * A maximum age, in seconds, that makes cached metadata stale straight away.
+     */
+    private static final String NO_MAX_AGE = "0";
+
+    /**
+     * A maximum age, in seconds, that keeps cached metadata fresh for the length of a test.
+     */
+    private static final String ONE_HOUR = "3600";
+
+    /**
+     * The name of the header that holds the ETag of the stub repository's metadata.
+     */
+    private static final String ETAG_HEADER = "ETag";
+
+    /**
+     * The artifact ID of the snapshot that the stub repository serves.
+     */
+    private static final String TEST_ARTIFACT = "test-artifact";
+
+    /**
+     * The artifact ID of the snapshot that's resolved through the Maven resolver.
+     */
+    private static final String RESOLVER_ARTIFACT = "resolver-artifact";
+
+    /**
+     * The group ID of the tests' snapshots.
+     */
+    private static final String GROUP_ID = "info.freelibrary";
+
+    /**
+     * The version of the tests' snapshots.
+     */
+    private static final String SNAPSHOT_VERSION = "1.0.0-SNAPSHOT";
+
+    /**
+     * The name of a snapshot's metadata file, relative to its directory.
+     */
+    private static final String METADATA_FILE = "/maven-metadata.xml";
+
+    /**
+     * The extension of a snapshot file whose checksum doesn't match.
+     */
+    private static final String ZIP = "zip";
+
+    /**
+     * The file extension of a snapshot file whose checksum doesn't match.
+     */
+    private static final String ZIP_EXT = ".zip";
+
+    /**
+     * The name of the directory into which the tests' snapshots are staged.
+     */
+    private static final String STAGE_DIR = "stage";
+
+    /**
+     * The start of a logged request for part of a file.
+     */
+    private static final String RANGE_REQUEST = "GET bytes=";
+
+    /**
+     * The method of a request for the size of a file.
+     */
+    private static final String HEAD = "HEAD";
+
+    /**
+     * The name of the directory in which a stage's index is kept.
+     */
+    private static final String INDEX_DIR = "index";
+
+    /**
+     * The file extension of a SHA-1 checksum.
+     */
+    private static final String SHA1_EXT = ".sha1";
+
     /**
      * Tests running the {@link LatestSnapshotURLMojo}.
      *
@@ -47,4 +268,536 @@ public class LatestSnapshotURLMojoTest extends BetterAbstractMojoTestCase {
         }
     }
 
+    /**
+     * Tests that snapshot metadata is cached, that stale metadata is revalidated with a conditional request, and that
+     * cached metadata is used when working offline.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testMetadataCache() throws Exception {
+        final File cacheDir = new File(CACHE_DIR, UUID.randomUUID().toString());
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final HttpServer server = HttpServer.create(new InetSocketAddress(LOCALHOST, 0), 0);
+        final Properties entry = new Properties();
+        final File[] entryFiles;
+        final String repoURL;
+
+        server.createContext(SLASH, exchange -> serveMetadata(exchange, requests));
+        server.start();
+        repoURL = LOCAL_URL + server.getAddress().getPort();
+
+        try {
+            // The first build fetches the metadata; the second revalidates it, since it's already stale
+            assertEquals(repoURL + JAR_PATH, resolve(repoURL, cacheDir, NO_MAX_AGE, false));
+            assertEquals(repoURL + JAR_PATH, resolve(repoURL, cacheDir, NO_MAX_AGE, false));
+            assertEquals(List.of("", ETAG), requests);
+
+            // The metadata and the headers it was served with are cached together, in a single entry
+            entryFiles = cacheDir.listFiles();
+            assertEquals(1, entryFiles.length);
+
+            try (InputStream input = Files.newInputStream(entryFiles[0].toPath())) {
+                entry.load(input);
+            }
+
+            assertEquals(ETAG, entry.getProperty(ETAG_HEADER));
+            assertEquals(METADATA,
+                    new String(Base64.getDecoder().decode(entry.getProperty("metadata")), StandardCharsets.UTF_8));
+
+            // Metadata that's still fresh isn't requested at all
+            assertEquals(repoURL + JAR_PATH, resolve(repoURL, cacheDir, ONE_HOUR, false));
+            assertEquals(2, requests.size());
+        } finally {
+            server.stop(0);
+        }
+
+        // Working offline, the cached metadata is used whatever its age
+        assertEquals(repoURL + JAR_PATH, resolve(repoURL, cacheDir, NO_MAX_AGE, true));
+
+        try {
+            resolve(repoURL, new File(cacheDir, "empty"), NO_MAX_AGE, true);
+            fail("Expected offline resolution without cached metadata to fail");
+        } catch (final MojoExecutionException details) {
+            assertTrue(details.getMessage().contains(repoURL));
+        }
+    }
+
+    /**
+     * Tests that a batch of snapshot artifacts is resolved, with each artifact's URL set to its own property.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testBatchResolution() throws Exception {
+        final File cacheDir = new File(CACHE_DIR, UUID.randomUUID().toString());
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final HttpServer server = HttpServer.create(new InetSocketAddress(LOCALHOST, 0), 0);
+        final Properties properties;
+        final String repoURL;
+        final LatestSnapshotURLMojo mojo;
+
+        server.createContext(SLASH, exchange -> serveMetadata(exchange, requests));
+        server.start();
+        repoURL = LOCAL_URL + server.getAddress().getPort();
+        properties = getProperties(LatestSnapshotURLMojo.Config.SNAPSHOTS,
+                "info.freelibrary:test-artifact:1.0.0-SNAPSHOT,info.freelibrary:other-artifact:1.0.0-SNAPSHOT," +
+                        "info.freelibrary:third-artifact:1.0.0-SNAPSHOT",
+                LatestSnapshotURLMojo.Config.SNAPSHOT_REPO_URL, repoURL, LatestSnapshotURLMojo.Config.CACHE_DIR,
+                cacheDir.getAbsolutePath(), LatestSnapshotURLMojo.Config.CONCURRENCY, "2");
+
+        try {
+            mojo = (LatestSnapshotURLMojo) lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL);
+            mojo.execute();
+        } finally {
+            server.stop(0);
+        }
+
+        assertEquals(3, requests.size());
+        assertEquals(repoURL + JAR_PATH, mojo.myProject.getProperties().getProperty("snapshot.url.test-artifact"));
+        assertEquals(repoURL + JAR_PATH.replace(TEST_ARTIFACT, "other-artifact"),
+                mojo.myProject.getProperties().getProperty("snapshot.url.other-artifact"));
+        assertEquals(repoURL + JAR_PATH.replace(TEST_ARTIFACT, "third-artifact"),
+                mojo.myProject.getProperties().getProperty("snapshot.url.third-artifact"));
+    }
+
+    /**
+     * Tests that a batch with two snapshots that have the same artifact ID, in different groups, is rejected before
+     * either is resolved, since both would set the same property.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testDuplicateArtifacts() throws Exception {
+        final Properties properties = getProperties(LatestSnapshotURLMojo.Config.SNAPSHOTS,
+                "info.freelibrary:test-artifact:1.0.0-SNAPSHOT,org.example:test-artifact:1.0.0-SNAPSHOT",
+                LatestSnapshotURLMojo.Config.CACHE_DIR,
+                new File(CACHE_DIR, UUID.randomUUID().toString()).getAbsolutePath());
+
+        try {
+            lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL).execute();
+            fail("Expected snapshots with the same artifact ID to be rejected");
+        } catch (final MojoExecutionException details) {
+            assertTrue(details.getMessage().contains("org.example:test-artifact"));
+        }
+    }
+
+    /**
+     * Tests that the modules of a build that resolve the same snapshot at the same time share one request for it.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testSharedResolution() throws Exception {
+        final File cacheDir = new File(CACHE_DIR, UUID.randomUUID().toString());
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final HttpServer server = HttpServer.create(new InetSocketAddress(LOCALHOST, 0), 0);
+        final ExecutorService executor = Executors.newFixedThreadPool(MODULE_COUNT);
+        final List<LatestSnapshotURLMojo> mojos = new ArrayList<>();
+        final List<Future<?>> builds = new ArrayList<>();
+        final String repoURL;
+
+        server.createContext(SLASH, exchange -> serveMetadata(exchange, requests));
+        server.start();
+        repoURL = LOCAL_URL + server.getAddress().getPort();
+
+        try {
+            for (int index = 0; index < MODULE_COUNT; index++) {
+                final LatestSnapshotURLMojo mojo = (LatestSnapshotURLMojo) lookupConfiguredMojo(POM,
+                        getSnapshotProperties(repoURL, cacheDir, NO_MAX_AGE, false), MojoNames.SET_SNAPSHOT_URL);
+
+                // The modules of a reactor build share a build session
+                if (!mojos.isEmpty()) {
+                    mojo.mySession = mojos.get(0).mySession;
+                }
+
+                mojos.add(mojo);
+            }
+
+            for (final LatestSnapshotURLMojo mojo : mojos) {
+                builds.add(executor.submit(() -> {
+                    mojo.execute();
+                    return null;
+                }));
+            }
+
+            for (final Future<?> build : builds) {
+                build.get();
+            }
+        } finally {
+            executor.shutdownNow();
+            server.stop(0);
+        }
+
+        assertEquals(1, requests.size());
+
+        for (final LatestSnapshotURLMojo mojo : mojos) {
+            assertEquals(repoURL + JAR_PATH,
+                    mojo.myProject.getProperties().getProperty(LatestSnapshotURLMojo.Config.SNAPSHOT_URL));
+        }
+    }
+
+    /**
+     * Tests that a snapshot can be resolved through the Maven resolver, from a file-based repository.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testResolverResolution() throws Exception {
+        final File repoDir = new File(REPO_DIR).getAbsoluteFile();
+        final String artifactPath = "info/freelibrary/resolver-artifact/1.0.0-SNAPSHOT";
+        final String repoURL = repoDir.toURI().toString().replaceFirst("/$", "");
+        final Properties properties = getProperties(LatestSnapshotURLMojo.Config.SNAPSHOT_ARTIFACT, RESOLVER_ARTIFACT,
+                LatestSnapshotURLMojo.Config.SNAPSHOT_GROUP, GROUP_ID, LatestSnapshotURLMojo.Config.SNAPSHOT_VERSION,
+                SNAPSHOT_VERSION, LatestSnapshotURLMojo.Config.SNAPSHOT_REPO_URL, repoURL,
+                LatestSnapshotURLMojo.Config.SNAPSHOT_REPO_ID, "freelib-test-snapshots",
+                LatestSnapshotURLMojo.Config.RESOLUTION, "resolver");
+        final LatestSnapshotURLMojo mojo;
+
+        Files.createDirectories(new File(repoDir, artifactPath).toPath());
+        Files.writeString(new File(repoDir, artifactPath + METADATA_FILE).toPath(),
+                METADATA.replace(TEST_ARTIFACT, RESOLVER_ARTIFACT));
+
+        mojo = (LatestSnapshotURLMojo) lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL);
+        mojo.execute();
+
+        assertEquals(repoURL + JAR_PATH.replace(TEST_ARTIFACT, RESOLVER_ARTIFACT),
+                mojo.myProject.getProperties().getProperty(LatestSnapshotURLMojo.Config.SNAPSHOT_URL));
+    }
+
+    /**
+     * Tests that the files of a snapshot are looked up by their classifiers and extensions, with each file's URL set to
+     * its own property, and that they're checked against their published checksums.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testSnapshotTypes() throws Exception {
+        final File cacheDir = new File(CACHE_DIR, UUID.randomUUID().toString());
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final HttpServer server = HttpServer.create(new InetSocketAddress(LOCALHOST, 0), 0);
+        final Properties properties;
+        final String repoURL;
+        final LatestSnapshotURLMojo mojo;
+
+        server.createContext(SLASH, exchange -> serveTypedSnapshot(exchange, requests));
+        server.start();
+        repoURL = LOCAL_URL + server.getAddress().getPort();
+        properties = getProperties(LatestSnapshotURLMojo.Config.SNAPSHOT_ARTIFACT, "typed-artifact",
+                LatestSnapshotURLMojo.Config.SNAPSHOT_GROUP, GROUP_ID, LatestSnapshotURLMojo.Config.SNAPSHOT_VERSION,
+                SNAPSHOT_VERSION, LatestSnapshotURLMojo.Config.SNAPSHOT_EXTENSION, "war",
+                LatestSnapshotURLMojo.Config.SNAPSHOT_TYPES, "jar,sources:jar",
+                LatestSnapshotURLMojo.Config.VERIFY_CHECKSUM, TRUE, LatestSnapshotURLMojo.Config.SNAPSHOT_REPO_URL,
+                repoURL, LatestSnapshotURLMojo.Config.CACHE_DIR, cacheDir.getAbsolutePath());
+
+        try {
+            mojo = (LatestSnapshotURLMojo) lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL);
+            mojo.execute();
+
+            assertEquals(repoURL + TYPED_PATH + "1.0.0-20240101.170000-4.war",
+                    mojo.myProject.getProperties().getProperty(LatestSnapshotURLMojo.Config.SNAPSHOT_URL));
+            assertEquals(repoURL + TYPED_PATH + "1.0.0-20240102.090000-5.jar",
+                    mojo.myProject.getProperties().getProperty("snapshot.url.jar"));
+            assertEquals(repoURL + TYPED_PATH + "1.0.0-20240102.090000-5-sources.jar",
+                    mojo.myProject.getProperties().getProperty("snapshot.url.sources.jar"));
+            assertTrue(requests.contains(TYPED_PATH + "1.0.0-20240101.170000-4.war.sha1"));
+
+            // A file that the metadata doesn't list can't be resolved
+            properties.setProperty(LatestSnapshotURLMojo.Config.SNAPSHOT_TYPES, "javadoc:jar");
+
+            try {
+                lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL).execute();
+                fail("Expected a file that isn't in the metadata to fail");
+            } catch (final MojoFailureException details) {
+                assertTrue(details.getMessage().contains("javadoc"));
+            }
+
+            // A file that doesn't match its checksum fails the build
+            properties.setProperty(LatestSnapshotURLMojo.Config.SNAPSHOT_TYPES, ZIP);
+            properties.setProperty(LatestSnapshotURLMojo.Config.SNAPSHOT_EXTENSION, ZIP);
+
+            try {
+                lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL).execute();
+                fail("Expected a file that doesn't match its checksum to fail");
+            } catch (final MojoFailureException details) {
+                assertTrue(details.getMessage().contains(ZIP_EXT));
+            }
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Tests that a snapshot jar is staged locally, in parts, that a download that failed is resumed, and that a staged
+     * jar isn't downloaded again.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testStaging() throws Exception {
+        final File cacheDir = new File(CACHE_DIR, UUID.randomUUID().toString());
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final AtomicBoolean failing = new AtomicBoolean(true);
+        final HttpServer server = HttpServer.create(new InetSocketAddress(LOCALHOST, 0), 0);
+        final byte[] jar = new byte[JAR_LENGTH];
+        final Properties properties;
+        final String repoURL;
+        final LatestSnapshotURLMojo mojo;
+        final File stagedFile;
+
+        new Random(JAR_LENGTH).nextBytes(jar);
+        server.createContext(SLASH,
+                exchange -> serveStagedSnapshot(exchange, jar, requests, failing, new AtomicReference<>()));
+        server.start();
+        repoURL = LOCAL_URL + server.getAddress().getPort();
+        properties = getSnapshotProperties(repoURL, cacheDir, ONE_HOUR, false);
+        properties.setProperty(LatestSnapshotURLMojo.Config.STAGE, TRUE);
+        properties.setProperty(LatestSnapshotURLMojo.Config.STAGE_DIR, new File(cacheDir, STAGE_DIR).getAbsolutePath());
+        properties.setProperty(LatestSnapshotURLMojo.Config.STAGE_PART_SIZE, "100");
+        properties.setProperty(LatestSnapshotURLMojo.Config.STAGE_CONNECTIONS, "4");
+
+        try {
+            // The jar is downloaded in four parts, one of which fails
+            try {
+                lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL).execute();
+                fail("Expected a download with a failed part to fail");
+            } catch (final MojoExecutionException details) {
+                assertTrue(details.getMessage().contains(JAR_PATH));
+            }
+
+            assertEquals(4, requests.stream().filter(request -> request.startsWith(RANGE_REQUEST)).count());
+
+            // Only the part that failed is downloaded again
+            requests.clear();
+            failing.set(false);
+            mojo = (LatestSnapshotURLMojo) lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL);
+            mojo.execute();
+            assertEquals(List.of(HEAD, RANGE_REQUEST + FAILED_PART + "-749"), requests);
+
+            // A staged jar isn't downloaded again
+            requests.clear();
+            lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL).execute();
+            assertEquals(List.of(), requests);
+        } finally {
+            server.stop(0);
+        }
+
+        stagedFile = new File(mojo.myProject.getProperties().getProperty(LatestSnapshotURLMojo.Config.SNAPSHOT_FILE));
+        assertEquals(repoURL + JAR_PATH,
+                mojo.myProject.getProperties().getProperty(LatestSnapshotURLMojo.Config.SNAPSHOT_URL));
+        assertTrue(Arrays.equals(jar, Files.readAllBytes(stagedFile.toPath())));
+        assertTrue(stagedFile.getPath().endsWith(JAR_PATH.substring(JAR_PATH.lastIndexOf('/') + 1)));
+    }
+
+    /**
+     * Tests that a staged download that doesn't match its checksum is discarded instead of being staged, so the next
+     * build downloads it again.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testStagingBadChecksum() throws Exception {
+        final File cacheDir = new File(CACHE_DIR, UUID.randomUUID().toString());
+        final File stageDir = new File(cacheDir, STAGE_DIR);
+        final List<String> requests = new CopyOnWriteArrayList<>();
+        final AtomicReference<String> checksum = new AtomicReference<>("0000000000000000000000000000000000000000");
+        final HttpServer server = HttpServer.create(new InetSocketAddress(LOCALHOST, 0), 0);
+        final byte[] jar = new byte[JAR_LENGTH];
+        final Properties properties;
+
+        new Random(JAR_LENGTH).nextBytes(jar);
+        server.createContext(SLASH,
+                exchange -> serveStagedSnapshot(exchange, jar, requests, new AtomicBoolean(), checksum));
+        server.start();
+        properties = getSnapshotProperties(LOCAL_URL + server.getAddress().getPort(), cacheDir, ONE_HOUR, false);
+        properties.setProperty(LatestSnapshotURLMojo.Config.STAGE, TRUE);
+        properties.setProperty(LatestSnapshotURLMojo.Config.STAGE_DIR, stageDir.getAbsolutePath());
+        properties.setProperty(LatestSnapshotURLMojo.Config.VERIFY_CHECKSUM, TRUE);
+
+        try {
+            try {
+                lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL).execute();
+                fail("Expected a download that doesn't match its checksum to fail");
+            } catch (final MojoFailureException details) {
+                assertTrue(details.getMessage().contains(JAR_PATH));
+            }
+
+            // Nothing's staged, and nothing's left of the download
+            assertFalse(new File(stageDir, INDEX_DIR).exists());
+            assertFalse(new File(stageDir, "content").exists());
+            assertEquals(0, new File(stageDir, "partial").list((dir, name) -> !name.endsWith(".lock")).length);
+
+            // Once the repository's checksum matches, the jar is downloaded again and staged
+            requests.clear();
+            checksum.set(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-1").digest(jar)));
+            lookupConfiguredMojo(POM, properties, MojoNames.SET_SNAPSHOT_URL).execute();
+            assertTrue(requests.stream().anyMatch(request -> request.startsWith("GET")));
+            assertEquals(1, new File(stageDir, INDEX_DIR).list().length);
+        } finally {
+            server.stop(0);
+        }
+    }
+
+    /**
+     * Runs the {@link LatestSnapshotURLMojo} against a repository, with its own metadata cache.
+     *
+     * @param aRepoURL The base URL of the repository
+     * @param aCacheDir The directory in which metadata is cached
+     * @param aTTL How long, in seconds, cached metadata is used before it's revalidated
+     * @param aOffline Whether to only use cached metadata
+     * @return The snapshot URL that the mojo set
+     * @throws Exception If the mojo fails to run
+     */
+    private String resolve(final String aRepoURL, final File aCacheDir, final String aTTL, final boolean aOffline)
+            throws Exception {
+        final LatestSnapshotURLMojo mojo = (LatestSnapshotURLMojo) lookupConfiguredMojo(POM,
+                getSnapshotProperties(aRepoURL, aCacheDir, aTTL, aOffline), MojoNames.SET_SNAPSHOT_URL);
+
+        mojo.execute();
+        return mojo.myProject.getProperties().getProperty(LatestSnapshotURLMojo.Config.SNAPSHOT_URL);
+    }
+
+    /**
+     * Gets the properties with which the {@link LatestSnapshotURLMojo} resolves the stub repository's snapshot.
+     *
+     * @param aRepoURL The base URL of the repository
+     * @param aCacheDir The directory in which metadata is cached
+     * @param aTTL How long, in seconds, cached metadata is used before it's revalidated
+     * @param aOffline Whether to only use cached metadata
+     * @return The mojo's properties
+     */
+    private Properties getSnapshotProperties(final String aRepoURL, final File aCacheDir, final String aTTL,
+            final boolean aOffline) {
+        return getProperties(LatestSnapshotURLMojo.Config.SNAPSHOT_ARTIFACT, TEST_ARTIFACT,
+                LatestSnapshotURLMojo.Config.SNAPSHOT_GROUP, GROUP_ID, LatestSnapshotURLMojo.Config.SNAPSHOT_VERSION,
+                SNAPSHOT_VERSION, LatestSnapshotURLMojo.Config.SNAPSHOT_REPO_URL, aRepoURL,
+                LatestSnapshotURLMojo.Config.CACHE_DIR, aCacheDir.getAbsolutePath(),
+                LatestSnapshotURLMojo.Config.CACHE_TTL, aTTL, LatestSnapshotURLMojo.Config.OFFLINE,
+                Boolean.toString(aOffline));
+    }
+
+    /**
+     * Serves the stub repository's metadata, the jar of its latest snapshot in parts, and the jar's checksum. The part
+     * of the jar that starts at {@link #FAILED_PART} fails, while the repository's failing.
+     *
+     * @param aExchange An HTTP exchange
+     * @param aJar The jar of the repository's latest snapshot
+     * @param aRequestList The methods and ranges of the requests for the jar, in order
+     * @param aFailing Whether the repository fails to serve a part of the jar
+     * @param aChecksum The SHA-1 checksum the repository has for the jar, or null if it doesn't have one
+     * @throws IOException If the response cannot be written
+     */
+    private void serveStagedSnapshot(final HttpExchange aExchange, final byte[] aJar, final List<String> aRequestList,
+            final AtomicBoolean aFailing, final AtomicReference<String> aChecksum) throws IOException {
+        final String range = aExchange.getRequestHeaders().getFirst("Range");
+        final String path = aExchange.getRequestURI().getPath();
+
+        if (path.endsWith(METADATA_FILE)) {
+            serveMetadata(aExchange, new ArrayList<>());
+            return;
+        }
+
+        if (path.endsWith(SHA1_EXT)) {
+            final byte[] bytes = aChecksum.get() == null ? null : aChecksum.get().getBytes(StandardCharsets.UTF_8);
+
+            if (bytes == null) {
+                aExchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_FOUND, -1);
+            } else {
+                aExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, bytes.length);
+
+                try (OutputStream output = aExchange.getResponseBody()) {
+                    output.write(bytes);
+                }
+            }
+
+            aExchange.close();
+            return;
+        }
+
+        aRequestList.add(aExchange.getRequestMethod() + (range == null ? "" : " " + range));
+        aExchange.getResponseHeaders().add("Accept-Ranges", "bytes");
+
+        if (HEAD.equals(aExchange.getRequestMethod())) {
+            aExchange.getResponseHeaders().add("Content-Length", Integer.toString(aJar.length));
+            aExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, -1);
+        } else {
+            final String[] bytes = range.substring(range.indexOf('=') + 1).split("-");
+            final int start = Integer.parseInt(bytes[0]);
+            final int end = Integer.parseInt(bytes[1]);
+
+            if (aFailing.get() && start == FAILED_PART) {
+                aExchange.sendResponseHeaders(HttpURLConnection.HTTP_INTERNAL_ERROR, -1);
+            } else {
+                aExchange.getResponseHeaders().add("Content-Range",
+                        "bytes " + range.substring(range.indexOf('=') + 1) + SLASH + aJar.length);
+                aExchange.sendResponseHeaders(HttpURLConnection.HTTP_PARTIAL, end - start + 1);
+
+                try (OutputStream output = aExchange.getResponseBody()) {
+                    output.write(aJar, start, end - start + 1);
+                }
+            }
+        }
+
+        aExchange.close();
+    }
+
+    /**
+     * Serves the metadata, files, and checksums of the snapshot whose files have different versions. Its zip file
+     * doesn't match its checksum.
+     *
+     * @param aExchange An HTTP exchange
+     * @param aRequestList The paths of the requests that have been served, in order
+     * @throws IOException If the response cannot be written
+     */
+    private void serveTypedSnapshot(final HttpExchange aExchange, final List<String> aRequestList) throws IOException {
+        final String path = aExchange.getRequestURI().getPath();
+        final String body;
+        final byte[] bytes;
+
+        aRequestList.add(path);
+
+        if (path.endsWith(METADATA_FILE)) {
+            body = TYPED_METADATA;
+        } else if (path.endsWith(SHA1_EXT)) {
+            body = TYPED_FILE_SHA1 + "  " + path.substring(path.lastIndexOf('/') + 1, path.length() - 5) + "\n";
+        } else {
+            body = path.endsWith(ZIP_EXT) ? TYPED_FILE + " (corrupt)" : TYPED_FILE;
+        }
+
+        bytes = body.getBytes(StandardCharsets.UTF_8);
+        aExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, bytes.length);
+
+        try (OutputStream output = aExchange.getResponseBody()) {
+            output.write(bytes);
+        }
+
+        aExchange.close();
+    }
+
+    /**
+     * Serves the stub repository's metadata, answering a request for it with a matching ETag with a 304.
+     *
+     * @param aExchange An HTTP exchange
+     * @param aRequestList The If-None-Match headers of the requests that have been served, in order
+     * @throws IOException If the response cannot be written
+     */
+    private void serveMetadata(final HttpExchange aExchange, final List<String> aRequestList) throws IOException {
+        final String etag = aExchange.getRequestHeaders().getFirst("If-None-Match");
+        final byte[] bytes = METADATA.getBytes(StandardCharsets.UTF_8);
+
+        aRequestList.add(etag == null ? "" : etag);
+        aExchange.getResponseHeaders().add(ETAG_HEADER, ETAG);
+
+        if (ETAG.equals(etag)) {
+            aExchange.sendResponseHeaders(HttpURLConnection.HTTP_NOT_MODIFIED, -1);
+        } else {
+            aExchange.sendResponseHeaders(HttpURLConnection.HTTP_OK, bytes.length);
+
+            try (OutputStream output = aExchange.getResponseBody()) {
+                output.write(bytes);
+            }
+        }
+
+        aExchange.close();
+    }
 }
@@ -2,10 +2,33 @@
 package info.freelibrary.maven;
 
 import java.io.File;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.UUID;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
 
+import javax.tools.ToolProvider;
+
+import org.apache.maven.plugin.MojoExecutionException;
 import org.junit.Test;
 
+import info.freelibrary.util.Logger;
+import info.freelibrary.util.LoggerFactory;
+
 import info.freelibrary.maven.MediaTypeMojo.Config;
 
 /**
@@ -13,21 +36,176 @@ import info.freelibrary.maven.MediaTypeMojo.Config;
  */
 public class MediaTypeMojoTest extends BetterAbstractMojoTestCase {
 
+    /**
+     * The test's logger.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MediaTypeMojoTest.class, MessageCodes.BUNDLE);
+
+    /**
+     * The report of how long a first lookup took; it's only logged by the tests, so it's not in the plugin's bundle.
+     */
+    private static final String FIRST_LOOKUP_TIME = "First media type lookup took {} ns with the '{}' lookup";
+
+    /**
+     * The name of the generated <code>fromExt</code> methods.
+     */
+    private static final String FROM_EXT = "fromExt";
+
+    /**
+     * The name of the generated <code>fromString</code> method.
+     */
+    private static final String FROM_STRING = "fromString";
+
+    /**
+     * The name of the generated <code>parse</code> methods.
+     */
+    private static final String PARSE = "parse";
+
+    /**
+     * A URI with an extension that belongs to more than one media type.
+     */
+    private static final URI CLIP_URI = URI.create("https://example.com/clip.mp4");
+
+    /**
+     * The lookup that builds a media type class's indexes the first time they're used.
+     */
+    private static final String LAZY_LOOKUP = "lazy";
+
+    /**
+     * The name of the generated <code>getTypes</code> method.
+     */
+    private static final String GET_TYPES = "getTypes";
+
+    /**
+     * An image hint.
+     */
+    private static final String IMAGE = "image";
+
+    /**
+     * An extension that no media type has.
+     */
+    private static final String UNKNOWN_EXT = "not-an-ext";
+
+    /**
+     * A media type that's not known.
+     */
+    private static final String UNKNOWN_TYPE = "not/a-type";
+
+    /**
+     * The output that writes a binary media type registry.
+     */
+    private static final String REGISTRY_OUTPUT = "registry";
+
+    /**
+     * An unsupported media type lookup.
+     */
+    private static final String UNKNOWN_LOOKUP = "tree";
+
+    /**
+     * An unsupported media type output.
+     */
+    private static final String UNKNOWN_OUTPUT = "xml";
+
+    /**
+     * The name of the generated <code>getExts</code> method.
+     */
+    private static final String GET_EXTS = "getExts";
+
+    /**
+     * An extension that's merged into an existing media type.
+     */
+    private static final String MERGED_EXT = "jfif-merged";
+
+    /**
+     * An extension from a tab separated line.
+     */
+    private static final String TABBED_EXT = "tabbed";
+
+    /**
+     * A media type from a tab separated line.
+     */
+    private static final String TABBED_TYPE = "application/x-tabbed";
+
+    /**
+     * A JPEG media type.
+     */
+    private static final String IMAGE_JPEG = "image/jpeg";
+
+    /**
+     * The bundled media types source.
+     */
+    private static final String BUNDLED_TYPES = "classpath:mime.types";
+
+    /**
+     * A media types file name.
+     */
+    private static final String TYPES_FILE = "extra.types";
+
+    /**
+     * A comma that separates the values of a list parameter.
+     */
+    private static final String COMMA = ",";
+
+    /**
+     * A video media type.
+     */
+    private static final String VIDEO_MP4 = "video/mp4";
+
+    /**
+     * A video hint.
+     */
+    private static final String VIDEO = "video";
+
     /**
      * The POM file being used by the tests.
      */
     private static final File POM = new File("src/test/resources/test-pom.xml");
 
+    /**
+     * The hints used to test the generated lookups.
+     */
+    private static final String[] HINTS = { null, IMAGE, "audio", VIDEO, "application", "application/x", "model" };
+
+    /**
+     * The path of the generated source file, relative to the generated sources directory.
+     */
+    private static final String MEDIA_TYPE_PATH = "info/freelibrary/maven/MediaType.java";
+
+    /**
+     * An arbitrary timestamp used to check whether a generated file has been rewritten.
+     */
+    private static final long OLD_TIMESTAMP = 1_000_000_000_000L;
+
     /**
      * The generated sources directory path used in the tests.
      */
     private static final String TEST_GEN_SRC = new File("src/test/generated").getAbsolutePath();
 
+    /**
+     * The directory under which each test's own generated sources directory is created.
+     */
+    private static final String TEST_GEN_SRC_ROOT = "target/generated-test-sources";
+
     /**
      * The package name used in the tests.
      */
     private static final String TEST_PACKAGE = "info.freelibrary.maven";
 
+    /**
+     * The name of the generated enum.
+     */
+    private static final String MEDIA_TYPE = TEST_PACKAGE + ".MediaType";
+
+    /**
+     * The parsed media types cache directory used in the tests.
+     */
+    private static final String TEST_CACHE_DIR = new File("target/test-cache").getAbsolutePath();
+
+    /**
+     * The build state directory used in the tests.
+     */
+    private static final String TEST_STATE_DIR = new File("target/test-state").getAbsolutePath();
+
     /**
      * Tests running the {@link MediaTypeMojo}.
      *
@@ -35,8 +213,9 @@ public class MediaTypeMojoTest extends BetterAbstractMojoTestCase {
      */
     @Test
     public void testMojoGoal() throws Exception {
-        final Properties props = getProperties(Config.PACKAGE, TEST_PACKAGE, Config.GEN_SRC, TEST_GEN_SRC);
-        final File mediaTypeFile = new File("src/test/generated/info/freelibrary/maven/MediaType.java");
+        final Properties props = getProperties(Config.PACKAGE, TEST_PACKAGE, Config.GEN_SRC, TEST_GEN_SRC,
+                Config.STATE_DIR, TEST_STATE_DIR, Config.CACHE_DIR, TEST_CACHE_DIR);
+        final File mediaTypeFile = new File(TEST_GEN_SRC, MEDIA_TYPE_PATH);
 
         // Run our test of the mojo
         lookupConfiguredMojo(POM, props, MojoNames.GENERATE_MEDIATYPE).execute();
@@ -47,4 +226,516 @@ public class MediaTypeMojoTest extends BetterAbstractMojoTestCase {
         // Test the that test artifact has been cleaned up
         assertTrue(mediaTypeFile.delete());
     }
+
+    /**
+     * Tests that the {@link MediaTypeMojo} leaves the generated source alone when nothing has changed.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testMojoGoalUnchanged() throws Exception {
+        final File genSrcDir = new File(TEST_GEN_SRC_ROOT, UUID.randomUUID().toString());
+        final File stateDir = new File(TEST_STATE_DIR, UUID.randomUUID().toString());
+        final Properties props =
+                getProperties(Config.PACKAGE, TEST_PACKAGE, Config.GEN_SRC, genSrcDir.getAbsolutePath(),
+                        Config.STATE_DIR, stateDir.getAbsolutePath(), Config.CACHE_DIR, TEST_CACHE_DIR);
+        final File mediaTypeFile = new File(genSrcDir, MEDIA_TYPE_PATH);
+        final File stateFile = new File(stateDir, MojoNames.GENERATE_MEDIATYPE + ".sha256");
+
+        lookupConfiguredMojo(POM, props, MojoNames.GENERATE_MEDIATYPE).execute();
+
+        assertTrue(mediaTypeFile.exists());
+        assertTrue(stateFile.exists());
+        assertTrue(mediaTypeFile.setLastModified(OLD_TIMESTAMP));
+
+        // With the same inputs, generation should be skipped altogether
+        lookupConfiguredMojo(POM, props, MojoNames.GENERATE_MEDIATYPE).execute();
+        assertEquals(OLD_TIMESTAMP, mediaTypeFile.lastModified());
+
+        // Without a build state, the source is regenerated but isn't rewritten since its contents are the same
+        assertTrue(stateFile.delete());
+        lookupConfiguredMojo(POM, props, MojoNames.GENERATE_MEDIATYPE).execute();
+        assertEquals(OLD_TIMESTAMP, mediaTypeFile.lastModified());
+        assertTrue(stateFile.exists());
+    }
+
+    /**
+     * Tests that the generated media type lookups return what a scan of all the media types would.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testGeneratedLookups() throws Exception {
+        checkLookups(compile(generate()));
+    }
+
+    /**
+     * Tests that the media type lookups generated as switches return what a scan of all the media types would, that the
+     * generated self-check agrees, and that the enum has no static fields, other than its constants, to initialize.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testGeneratedSwitchLookups() throws Exception {
+        final Class<?> mediaType = compile(generate(Config.LOOKUP, "switch"));
+        final Method selfCheck = mediaType.getDeclaredMethod("checkLookups");
+
+        checkLookups(mediaType);
+
+        for (final Field field : mediaType.getDeclaredFields()) {
+            assertFalse(field.getName(),
+                    Modifier.isStatic(field.getModifiers()) && !field.isEnumConstant() && !field.isSynthetic());
+        }
+
+        selfCheck.setAccessible(true);
+        selfCheck.invoke(null);
+
+        assertEquals(mediaType.getMethod(FROM_STRING, String.class).invoke(null, VIDEO_MP4),
+                mediaType.getMethod(PARSE, URI.class, String.class).invoke(null, CLIP_URI, VIDEO));
+    }
+
+    /**
+     * Tests that the media type lookups generated with per-class holders return what a scan of all the media types
+     * would.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testGeneratedLazyLookups() throws Exception {
+        final Class<?> mediaType = compile(generate(Config.LOOKUP, LAZY_LOOKUP));
+
+        checkLookups(mediaType);
+
+        assertEquals(mediaType.getMethod(FROM_STRING, String.class).invoke(null, VIDEO_MP4),
+                mediaType.getMethod(PARSE, URI.class, String.class).invoke(null, CLIP_URI, VIDEO));
+    }
+
+    /**
+     * Tests that the lazy lookups only initialize the holders they need, and measures how long the first lookup takes,
+     * including loading and initializing the enum, with and without them.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testLazyStartup() throws Exception {
+        final File indexClasses = compileSource(generate());
+        final RecordingClassLoader lazyLoader =
+                new RecordingClassLoader(compileSource(generate(Config.LOOKUP, LAZY_LOOKUP)));
+        final String imageTypes = MEDIA_TYPE + "$ImageTypes";
+        final Class<?> mediaType;
+
+        LOGGER.info(FIRST_LOOKUP_TIME, timeFirstLookup(new RecordingClassLoader(indexClasses)), "index");
+        LOGGER.info(FIRST_LOOKUP_TIME, timeFirstLookup(lazyLoader), LAZY_LOOKUP);
+
+        // Finding the image types only loads the holder of the image types
+        assertEquals(Set.of(MEDIA_TYPE, imageTypes), lazyLoader.getLoaded());
+
+        // Finding an extension with a hint only adds the hinted class's extension index
+        mediaType = lazyLoader.loadClass(MEDIA_TYPE);
+        assertTrue(((Optional<?>) mediaType.getMethod(FROM_EXT, CharSequence.class, String.class).invoke(null, "png",
+                IMAGE)).isPresent());
+        assertEquals(Set.of(MEDIA_TYPE, imageTypes, MEDIA_TYPE + "$ImageExts"), lazyLoader.getLoaded());
+    }
+
+    /**
+     * Tests that the class generated to read a binary registry finds the same media types as the generated enum.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testGeneratedRegistry() throws Exception {
+        final Class<?> mediaType = compile(generate());
+        final File registryDir = new File(TEST_GEN_SRC_ROOT, UUID.randomUUID().toString());
+        final File classesDir = compileSource(
+                generate(Config.OUTPUT, REGISTRY_OUTPUT, Config.REGISTRY_DIR, registryDir.getAbsolutePath()));
+        final Method fromExt = mediaType.getMethod(FROM_EXT, CharSequence.class, String.class);
+        final Method getExts = mediaType.getMethod(GET_EXTS);
+
+        try (URLClassLoader loader = new URLClassLoader(
+                new URL[] { classesDir.toURI().toURL(), registryDir.toURI().toURL() }, getClass().getClassLoader())) {
+            final Class<?> registry = loader.loadClass(MEDIA_TYPE);
+            final Method registryFromExt = registry.getMethod(FROM_EXT, CharSequence.class, String.class);
+            final Method registryFromString = registry.getMethod(FROM_STRING, String.class);
+            final Method registryGetExts = registry.getMethod(GET_EXTS);
+
+            assertTrue(new File(registryDir, "info/freelibrary/maven/media-types.bin").exists());
+
+            for (final Object type : mediaType.getEnumConstants()) {
+                final Object found =
+                        ((Optional<?>) registryFromString.invoke(null, type.toString().toUpperCase(Locale.ROOT))).get();
+
+                assertEquals(type.toString(), found.toString());
+                assertTrue(Arrays.equals((String[]) getExts.invoke(type), (String[]) registryGetExts.invoke(found)));
+
+                for (final String ext : (String[]) getExts.invoke(type)) {
+                    for (final String hint : HINTS) {
+                        assertEquals(fromExt.invoke(null, ext, hint).toString(),
+                                registryFromExt.invoke(null, ext.toUpperCase(Locale.ROOT), hint).toString());
+                    }
+                }
+            }
+
+            for (final String hint : HINTS) {
+                if (hint != null) {
+                    assertEquals(mediaType.getMethod(GET_TYPES, String.class).invoke(null, hint).toString(), registry
+                            .getMethod(GET_TYPES, String.class).invoke(null, hint.toUpperCase(Locale.ROOT)).toString());
+                }
+            }
+
+            assertEquals(Optional.of(VIDEO_MP4).toString(),
+                    registry.getMethod(PARSE, URI.class, String.class).invoke(null, CLIP_URI, VIDEO).toString());
+            assertEquals(Optional.empty(), registryFromExt.invoke(null, UNKNOWN_EXT, null));
+            assertEquals(Optional.empty(), registryFromString.invoke(null, UNKNOWN_TYPE));
+        }
+    }
+
+    /**
+     * Tests that the {@link MediaTypeMojo} rejects an output it can't generate.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testUnknownOutput() throws Exception {
+        try {
+            generate(Config.OUTPUT, UNKNOWN_OUTPUT);
+            fail("Expected an unknown output to be rejected");
+        } catch (final MojoExecutionException details) {
+            assertTrue(details.getMessage().contains(UNKNOWN_OUTPUT));
+        }
+    }
+
+    /**
+     * Tests that media types are parsed from whitespace separated lines, and that the extensions of a media type that's
+     * found again in a later source are merged into the ones it already has.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testMergedMediaTypes() throws Exception {
+        final File typesFile = writeTypes(new File(TEST_GEN_SRC_ROOT, UUID.randomUUID().toString()));
+        final Class<?> mediaType = compile(generate(Config.SOURCES, BUNDLED_TYPES + COMMA + typesFile.getPath()));
+        final Method fromExt = mediaType.getMethod(FROM_EXT, CharSequence.class);
+        final Method fromString = mediaType.getMethod(FROM_STRING, String.class);
+        final Optional<?> jpeg = (Optional<?>) fromString.invoke(null, IMAGE_JPEG);
+        final String[] jpegExts = (String[]) mediaType.getMethod(GET_EXTS).invoke(jpeg.get());
+
+        assertEquals(jpeg, fromExt.invoke(null, MERGED_EXT));
+        assertEquals(MERGED_EXT, jpegExts[jpegExts.length - 1]);
+        assertEquals(1, Arrays.stream(jpegExts).filter("jpg"::equals).count());
+        assertEquals(fromString.invoke(null, TABBED_TYPE), fromExt.invoke(null, TABBED_EXT));
+        assertTrue(((Optional<?>) fromExt.invoke(null, TABBED_EXT)).isPresent());
+        assertEquals(Optional.empty(), fromString.invoke(null, "application/x-no-exts"));
+    }
+
+    /**
+     * Tests that media types can be read from a directory of <code>.types</code> files and from a jar entry, and that
+     * sources that are read again are parsed from the cache.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testMediaTypeSources() throws Exception {
+        final File workDir = new File(TEST_GEN_SRC_ROOT, UUID.randomUUID().toString()).getAbsoluteFile();
+        final File cacheDir = new File(workDir, "cache");
+        final File jarFile = new File(workDir, "types.jar");
+        final File typesFile = writeTypes(new File(workDir, "types"));
+        final String dirSources = BUNDLED_TYPES + COMMA + typesFile.getParent();
+        final String jarSources = BUNDLED_TYPES + COMMA + "jar:" + jarFile.toURI() + "!/" + TYPES_FILE;
+        final File dirSrcDir = generate(Config.SOURCES, dirSources, Config.CACHE_DIR, cacheDir.getPath());
+        final String source = Files.readString(new File(dirSrcDir, MEDIA_TYPE_PATH).toPath());
+        final File[] cacheFiles;
+
+        try (JarOutputStream jar = new JarOutputStream(Files.newOutputStream(jarFile.toPath()))) {
+            jar.putNextEntry(new JarEntry(TYPES_FILE));
+            jar.write(Files.readAllBytes(typesFile.toPath()));
+            jar.closeEntry();
+        }
+
+        // Both of the sources have been parsed and cached, and a type from the directory has been generated
+        cacheFiles = cacheDir.listFiles();
+        assertNotNull(cacheFiles);
+        assertEquals(2, cacheFiles.length);
+        assertTrue(source.contains(TABBED_TYPE));
+
+        // The jar entry has the same contents as the directory's file, so it's read from the cache
+        assertEquals(source, Files.readString(
+                new File(generate(Config.SOURCES, jarSources, Config.CACHE_DIR, cacheDir.getPath()), MEDIA_TYPE_PATH)
+                        .toPath()));
+        assertEquals(2, cacheDir.listFiles().length);
+
+        // A corrupt cache file is ignored, and the source is parsed again
+        for (final File cacheFile : cacheFiles) {
+            Files.writeString(cacheFile.toPath(), "corrupt");
+        }
+
+        assertEquals(source, Files.readString(
+                new File(generate(Config.SOURCES, dirSources, Config.CACHE_DIR, cacheDir.getPath()), MEDIA_TYPE_PATH)
+                        .toPath()));
+    }
+
+    /**
+     * Tests that a configured media type source that doesn't exist is rejected.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testMissingMediaTypeSource() throws Exception {
+        final String missingSource = new File(TEST_GEN_SRC_ROOT, UUID.randomUUID().toString()).getPath();
+
+        try {
+            generate(Config.SOURCES, missingSource);
+            fail("Expected a missing media type source to be rejected");
+        } catch (final MojoExecutionException details) {
+            assertTrue(details.getMessage().contains(missingSource));
+        }
+    }
+
+    /**
+     * Tests that an unknown lookup is rejected.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testUnknownLookup() throws Exception {
+        try {
+            generate(Config.LOOKUP, UNKNOWN_LOOKUP);
+            fail("Expected an unknown lookup to be rejected");
+        } catch (final MojoExecutionException details) {
+            assertTrue(details.getMessage().contains(UNKNOWN_LOOKUP));
+        }
+    }
+
+    /**
+     * Tests that the generated media type parsing finds extensions in a URI's path.
+     *
+     * @throws Exception If there is trouble running the test
+     */
+    @Test
+    public void testGeneratedParse() throws Exception {
+        final Class<?> mediaType = compile(generate());
+        final Method parse = mediaType.getMethod(PARSE, String.class);
+        final Method parseWithHint = mediaType.getMethod(PARSE, URI.class, String.class);
+        final Method fromExt = mediaType.getMethod(FROM_EXT, CharSequence.class);
+        final Method fromString = mediaType.getMethod(FROM_STRING, String.class);
+        final Optional<?> jpeg = (Optional<?>) fromString.invoke(null, IMAGE_JPEG);
+
+        assertEquals(jpeg, parse.invoke(null, "http://example.com/images/photo.JPG"));
+        assertEquals(jpeg, parse.invoke(null, "http://example.com/photo.jpg?size=full#page.png"));
+        assertEquals(jpeg, parse.invoke(null, jpeg.get().toString()));
+        assertEquals(jpeg, fromExt.invoke(null, new StringBuilder("Jpeg")));
+        assertEquals(Optional.empty(), parse.invoke(null, "http://example.com/images.d/photo"));
+        assertEquals(Optional.empty(), parse.invoke(null, "http://example.com/photo."));
+        assertEquals(fromString.invoke(null, VIDEO_MP4), parseWithHint.invoke(null, CLIP_URI, VIDEO));
+        assertEquals(fromString.invoke(null, "audio/mp4"), parseWithHint.invoke(null, CLIP_URI, "AUDIO"));
+    }
+
+    /**
+     * Checks that the generated media type lookups return what a scan of all the media types would.
+     *
+     * @param aMediaType The generated <code>MediaType</code> class
+     * @throws Exception If the generated lookups cannot be run
+     */
+    private void checkLookups(final Class<?> aMediaType) throws Exception {
+        final Method fromExt = aMediaType.getMethod(FROM_EXT, CharSequence.class, String.class);
+        final Method fromString = aMediaType.getMethod(FROM_STRING, String.class);
+        final Method getTypes = aMediaType.getMethod(GET_TYPES, String.class);
+        final Method getExts = aMediaType.getMethod(GET_EXTS);
+        final Object[] mediaTypes = aMediaType.getEnumConstants();
+
+        for (final Object type : mediaTypes) {
+            for (final String ext : (String[]) getExts.invoke(type)) {
+                for (final String hint : HINTS) {
+                    assertEquals(scanExts(mediaTypes, getExts, ext, hint),
+                            fromExt.invoke(null, ext.toUpperCase(Locale.ROOT), hint));
+                }
+            }
+
+            assertEquals(Optional.of(type), fromString.invoke(null, type.toString().toUpperCase(Locale.ROOT)));
+        }
+
+        for (final String hint : HINTS) {
+            if (hint != null) {
+                assertEquals(scanTypes(mediaTypes, hint), getTypes.invoke(null, hint.toUpperCase(Locale.ROOT)));
+            }
+        }
+
+        assertEquals(Optional.empty(), fromExt.invoke(null, UNKNOWN_EXT, null));
+        assertEquals(Optional.empty(), fromExt.invoke(null, null, null));
+        assertEquals(Optional.empty(), fromString.invoke(null, UNKNOWN_TYPE));
+        assertEquals(Optional.empty(), fromString.invoke(null, (Object) null));
+    }
+
+    /**
+     * Compiles the generated <code>MediaType</code> source and loads the resulting class.
+     *
+     * @param aGenSrcDir The directory into which the source was generated
+     * @return The generated <code>MediaType</code> class
+     * @throws Exception If the generated source cannot be compiled or loaded
+     */
+    private Class<?> compile(final File aGenSrcDir) throws Exception {
+        return new URLClassLoader(new URL[] { compileSource(aGenSrcDir).toURI().toURL() }, getClass().getClassLoader())
+                .loadClass(MEDIA_TYPE);
+    }
+
+    /**
+     * Compiles the generated <code>MediaType</code> source.
+     *
+     * @param aGenSrcDir The directory into which the source was generated
+     * @return The directory into which the source was compiled
+     * @throws Exception If the generated source cannot be compiled
+     */
+    private File compileSource(final File aGenSrcDir) throws Exception {
+        final File classesDir = new File(aGenSrcDir.getPath() + "-classes");
+        final int result =
+                ToolProvider.getSystemJavaCompiler().run(null, null, null, "-d", classesDir.getAbsolutePath(), "-cp",
+                        System.getProperty("java.class.path"), new File(aGenSrcDir, MEDIA_TYPE_PATH).getAbsolutePath());
+
+        assertEquals(0, result);
+        return classesDir;
+    }
+
+    /**
+     * Times the first lookup of the image types, which includes loading and initializing the enum.
+     *
+     * @param aLoader A class loader that hasn't yet loaded the enum
+     * @return How long the first lookup took, in nanoseconds
+     * @throws Exception If the enum cannot be loaded or its lookup cannot be run
+     */
+    private long timeFirstLookup(final ClassLoader aLoader) throws Exception {
+        final Method getTypes = aLoader.loadClass(MEDIA_TYPE).getMethod(GET_TYPES, String.class);
+        final long start = System.nanoTime();
+
+        assertFalse(((List<?>) getTypes.invoke(null, IMAGE)).isEmpty());
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * Runs the {@link MediaTypeMojo} with a fresh generated sources directory and build state.
+     *
+     * @param aKvArray Additional configuration options, as keys and values
+     * @return The directory into which the source was generated
+     * @throws Exception If the mojo fails to run
+     */
+    private File generate(final String... aKvArray) throws Exception {
+        final File genSrcDir = new File(TEST_GEN_SRC_ROOT, UUID.randomUUID().toString());
+        final File stateDir = new File(TEST_STATE_DIR, UUID.randomUUID().toString());
+        final List<String> config =
+                new ArrayList<>(List.of(Config.PACKAGE, TEST_PACKAGE, Config.GEN_SRC, genSrcDir.getAbsolutePath(),
+                        Config.STATE_DIR, stateDir.getAbsolutePath(), Config.CACHE_DIR, TEST_CACHE_DIR));
+
+        config.addAll(Arrays.asList(aKvArray));
+        lookupConfiguredMojo(POM, getProperties(config.toArray(new String[0])), MojoNames.GENERATE_MEDIATYPE).execute();
+
+        return genSrcDir;
+    }
+
+    /**
+     * Writes a media types file with a tab separated type, a known type with a new extension, and a type without any
+     * extensions.
+     *
+     * @param aDir The directory in which to write the file
+     * @return The media types file
+     * @throws Exception If the file cannot be written
+     */
+    private File writeTypes(final File aDir) throws Exception {
+        final File typesFile = new File(aDir, TYPES_FILE).getAbsoluteFile();
+
+        assertTrue(aDir.mkdirs());
+        Files.writeString(typesFile.toPath(), """
+            # A tab separated type, a known type with a new extension, and a type without any extensions
+            application/x-tabbed\ttabbed
+              IMAGE/JPEG   jpg\tjfif-merged
+            application/x-no-exts
+            """);
+
+        return typesFile;
+    }
+
+    /**
+     * Finds a media type by extension the way the original generated code did, by scanning all the media types.
+     *
+     * @param aMediaTypes All the media types
+     * @param aGetExts The media type's <code>getExts()</code> method
+     * @param aExt An extension to look up
+     * @param aHint A class of type (e.g. 'audio' or 'application')
+     * @return The media type that corresponds to the supplied extension
+     * @throws Exception If the media type's extensions cannot be read
+     */
+    private Optional<Object> scanExts(final Object[] aMediaTypes, final Method aGetExts, final String aExt,
+            final String aHint) throws Exception {
+        Object chosenMediaType = null;
+
+        for (final Object mediaType : aMediaTypes) {
+            for (final String ext : (String[]) aGetExts.invoke(mediaType)) {
+                if (ext.equalsIgnoreCase(aExt)) {
+                    if (aHint != null && mediaType.toString().startsWith(aHint)) {
+                        return Optional.of(mediaType);
+                    }
+
+                    if (chosenMediaType == null) {
+                        chosenMediaType = mediaType;
+                    }
+                }
+            }
+        }
+
+        return Optional.ofNullable(chosenMediaType);
+    }
+
+    /**
+     * Finds the media types of a class the way the original generated code did, by scanning all the media types.
+     *
+     * @param aMediaTypes All the media types
+     * @param aClass A class of media type (e.g., "application")
+     * @return The media types that correspond to the supplied type class
+     */
+    private List<Object> scanTypes(final Object[] aMediaTypes, final String aClass) {
+        final List<Object> types = new ArrayList<>();
+
+        for (final Object mediaType : aMediaTypes) {
+            if (mediaType.toString().startsWith(aClass + "/")) {
+                types.add(mediaType);
+            }
+        }
+
+        return types;
+    }
+
+    /**
+     * A class loader that records the generated classes it loads.
+     */
+    private static final class RecordingClassLoader extends URLClassLoader {
+
+        /**
+         * The names of the classes that have been loaded.
+         */
+        private final Set<String> myLoaded = ConcurrentHashMap.newKeySet();
+
+        /**
+         * Creates a class loader that loads the classes in the supplied directory.
+         *
+         * @param aClassesDir A directory of compiled classes
+         * @throws Exception If the directory cannot be turned into a URL
+         */
+        RecordingClassLoader(final File aClassesDir) throws Exception {
+            super(new URL[] { aClassesDir.toURI().toURL() }, MediaTypeMojoTest.class.getClassLoader());
+        }
+
+        /**
+         * Gets the names of the classes that have been loaded from the directory.
+         *
+         * @return The names of the loaded classes
+         */
+        Set<String> getLoaded() {
+            return Set.copyOf(myLoaded);
+        }
+
+        @Override
+        protected Class<?> findClass(final String aName) throws ClassNotFoundException {
+            final Class<?> loadedClass = super.findClass(aName);
+
+            myLoaded.add(aName);
+            return loadedClass;
+        }
+    }
 }
@@ -6,6 +6,7 @@ import static info.freelibrary.maven.TemplateInitMojo.ARTIFACT_ID;
 import static info.freelibrary.maven.TemplateInitMojo.GROUP_ID;
 import static info.freelibrary.maven.TemplateInitMojo.MODULE_ARTIFACT;
 import static info.freelibrary.maven.TemplateInitMojo.MODULE_GROUP;
+import static info.freelibrary.maven.TemplateInitMojo.MODULE_LIST;
 import static info.freelibrary.maven.TemplateInitMojo.MODULE_NAME;
 import static info.freelibrary.maven.TemplateInitMojo.MODULE_VERSION;
 import static info.freelibrary.maven.TemplateInitMojo.PROPERTIES;
@@ -54,6 +55,21 @@ public class TemplateInitMojoTest extends BetterAbstractMojoTestCase {
      */
     private static final File POM = new File("src/test/resources/template-pom.xml");
 
+    /**
+     * The source of the module used by the tests.
+     */
+    private static final File MODULE = new File("src/test/resources/test.module");
+
+    /**
+     * The name of a module's POM file.
+     */
+    private static final String MODULE_POM = "pom.xml";
+
+    /**
+     * The suffix of the artifactIds of the modules in a batch.
+     */
+    private static final String ARTIFACT_SUFFIX = "-artifact";
+
     /**
      * The template POM file used by the tests.
      */
@@ -121,7 +137,7 @@ public class TemplateInitMojoTest extends BetterAbstractMojoTestCase {
         final Builder builder = new Builder();
 
         // Copy our test resources
-        FileUtils.copy(new File("src/test/resources/test.module"), moduleDir);
+        FileUtils.copy(MODULE, moduleDir);
 
         // Run our test of the mojo
         lookupConfiguredMojo(pomFile, props, TEMPLATE_INIT).execute();
@@ -129,7 +145,7 @@ public class TemplateInitMojoTest extends BetterAbstractMojoTestCase {
         try {
             final Element root = builder.build(pomFile).getRootElement();
             final Element properties = root.getFirstChildElement(PROPERTIES, XMLNS);
-            final Element module = builder.build(new File(moduleDir, "pom.xml")).getRootElement();
+            final Element module = builder.build(new File(moduleDir, MODULE_POM)).getRootElement();
 
             // Check parent POM module values
             assertEquals(TEST_GROUP_ID, properties.getFirstChildElement(MODULE_GROUP, XMLNS).getValue());
@@ -145,6 +161,142 @@ public class TemplateInitMojoTest extends BetterAbstractMojoTestCase {
         }
     }
 
+    /**
+     * Tests that the POMs are patched in place, keeping their formatting and comments, and that a POM that doesn't
+     * change isn't rewritten.
+     *
+     * @throws Exception If there is trouble while executing the tests.
+     */
+    @Test
+    public final void testTemplateInitMojoPatchesInPlace() throws Exception {
+        final File templatePOM = new File(StringUtils.format(TEMPLATE_POM, UUID.randomUUID().toString()));
+        final File moduleDir = new File(templatePOM.getParentFile(), TEST_MODULE);
+        final Properties props = getProperties(MODULE_ARTIFACT, TEST_ARTIFACT_ID, MODULE_GROUP, TEST_GROUP_ID,
+                MODULE_VERSION, TEST_VERSION, MODULE_NAME, TEST_MODULE);
+        final String pom = Files.asCharSource(POM, StandardCharsets.UTF_8).read().replace("<logLevel>",
+                "<!-- The module's coordinates follow -->\n    <module.group/>\n    <logLevel>");
+        final long lastModified = System.currentTimeMillis() - 60_000;
+
+        Files.asCharSink(templatePOM, StandardCharsets.UTF_8).write(pom);
+        FileUtils.copy(MODULE, moduleDir);
+
+        lookupConfiguredMojo(templatePOM, props, TEMPLATE_INIT).execute();
+
+        // Only the changed properties are different, and the new ones are indented like their siblings
+        assertEquals(
+                pom.replace("<module.group/>", "<module.group>" + TEST_GROUP_ID + "</module.group>").replace(
+                        "</properties>",
+                        "  <module.artifact>" + TEST_ARTIFACT_ID + "</module.artifact>\n    <module.version>" +
+                                TEST_VERSION + "</module.version>\n  </properties>"),
+                Files.asCharSource(templatePOM, StandardCharsets.UTF_8).read());
+        assertTrue(Files.asCharSource(new File(moduleDir, MODULE_POM), StandardCharsets.UTF_8).read()
+                .contains("<artifactId>" + TEST_ARTIFACT_ID + "</artifactId>"));
+
+        // Running again changes nothing, so neither POM is rewritten
+        assertTrue(templatePOM.setLastModified(lastModified));
+        assertTrue(new File(moduleDir, MODULE_POM).setLastModified(lastModified));
+        lookupConfiguredMojo(templatePOM, props, TEMPLATE_INIT).execute();
+        assertEquals(lastModified / 1000, templatePOM.lastModified() / 1000);
+        assertEquals(lastModified / 1000, new File(moduleDir, MODULE_POM).lastModified() / 1000);
+    }
+
+    /**
+     * Tests that a batch of modules is templated in one run, with each module given its own coordinates.
+     *
+     * @throws Exception If there is trouble while executing the tests.
+     */
+    @Test
+    public final void testTemplateInitMojoBatch() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        final File templatePOM = new File(StringUtils.format(TEMPLATE_POM, id));
+        final String[] modules = { "one-" + id, "two-" + id, "three-" + id };
+        final StringBuilder moduleList = new StringBuilder();
+        final StringBuilder moduleElements = new StringBuilder();
+        final Builder builder = new Builder();
+
+        for (final String module : modules) {
+            FileUtils.copy(MODULE, new File(templatePOM.getParentFile(), module));
+            moduleElements.append(getModuleElement(module));
+            moduleList.append(moduleList.length() == 0 ? "" : ",").append(module).append(':').append(TEST_GROUP_ID)
+                    .append(':').append(module).append(ARTIFACT_SUFFIX);
+        }
+
+        // The last module is given its own version; the others get the module version
+        moduleList.append(':').append(TEST_VERSION);
+
+        Files.asCharSink(templatePOM, StandardCharsets.UTF_8).write(Files.asCharSource(POM, StandardCharsets.UTF_8)
+                .read().replace(getModuleElement(TEST_MODULE), moduleElements.toString()));
+
+        lookupConfiguredMojo(templatePOM, getProperties(MODULE_LIST, moduleList.toString()), TEMPLATE_INIT).execute();
+
+        for (int index = 0; index < modules.length; index++) {
+            final File moduleDir = new File(templatePOM.getParentFile(), modules[index]);
+            final Element module = builder.build(new File(moduleDir, MODULE_POM)).getRootElement();
+
+            assertEquals(TEST_GROUP_ID, module.getFirstChildElement(GROUP_ID, XMLNS).getValue());
+            assertEquals(modules[index] + ARTIFACT_SUFFIX, module.getFirstChildElement(ARTIFACT_ID, XMLNS).getValue());
+            assertEquals(index == modules.length - 1 ? TEST_VERSION : DEFAULT_VERSION,
+                    module.getFirstChildElement(VERSION, XMLNS).getValue());
+        }
+
+        // The parent's module properties are only set from the module parameters, which weren't supplied
+        assertNull(builder.build(templatePOM).getRootElement().getFirstChildElement(PROPERTIES, XMLNS)
+                .getFirstChildElement(MODULE_ARTIFACT, XMLNS));
+    }
+
+    /**
+     * Tests that an exception is thrown if a module in a batch is malformed.
+     *
+     * @throws Exception If there is trouble while executing the tests.
+     */
+    @Test
+    public final void testTemplateInitMojoBatchWithInvalidModule() throws Exception {
+        final File templatePOM = new File(StringUtils.format(TEMPLATE_POM, UUID.randomUUID().toString()));
+        final Properties props = getProperties(MODULE_LIST, TEST_MODULE + ':' + TEST_GROUP_ID);
+
+        Files.copy(POM, templatePOM);
+
+        try {
+            lookupConfiguredMojo(templatePOM, props, TEMPLATE_INIT).execute();
+            fail(LOGGER.getMessage(MessageCodes.MVN_197, TEST_MODULE + ':' + TEST_GROUP_ID));
+        } catch (final MojoExecutionException details) {
+            assertNotNull(details);
+        }
+    }
+
+    /**
+     * Tests that no POM is written if a module in a batch doesn't have a POM.
+     *
+     * @throws Exception If there is trouble while executing the tests.
+     */
+    @Test
+    public final void testTemplateInitMojoBatchWithMissingModulePOM() throws Exception {
+        final String id = UUID.randomUUID().toString();
+        final File templatePOM = new File(StringUtils.format(TEMPLATE_POM, id));
+        final File modulePOM = new File(new File(templatePOM.getParentFile(), TEST_MODULE), MODULE_POM);
+        final String missingModule = "missing-" + id;
+        final Properties props = getProperties(MODULE_ARTIFACT, TEST_ARTIFACT_ID, MODULE_GROUP, TEST_GROUP_ID,
+                MODULE_NAME, TEST_MODULE, MODULE_LIST, missingModule + ':' + TEST_GROUP_ID + ':' + missingModule);
+        final String pom = Files.asCharSource(POM, StandardCharsets.UTF_8).read().replace(getModuleElement(TEST_MODULE),
+                getModuleElement(TEST_MODULE) + getModuleElement(missingModule));
+        final String modulePOMText;
+
+        Files.asCharSink(templatePOM, StandardCharsets.UTF_8).write(pom);
+        FileUtils.copy(MODULE, modulePOM.getParentFile());
+        modulePOMText = Files.asCharSource(modulePOM, StandardCharsets.UTF_8).read();
+
+        try {
+            lookupConfiguredMojo(templatePOM, props, TEMPLATE_INIT).execute();
+            fail(missingModule);
+        } catch (final MojoExecutionException details) {
+            assertNotNull(details);
+        }
+
+        // Neither the parent POM nor the module POM that could be read has been written
+        assertEquals(pom, Files.asCharSource(templatePOM, StandardCharsets.UTF_8).read());
+        assertEquals(modulePOMText, Files.asCharSource(modulePOM, StandardCharsets.UTF_8).read());
+    }
+
     /**
      * Tests if execution is skipped when skip flag supplied.
      *
@@ -237,6 +389,38 @@ public class TemplateInitMojoTest extends BetterAbstractMojoTestCase {
         }
     }
 
+    /**
+     * Tests that an exception is thrown if the project doesn't have any modules.
+     *
+     * @throws Exception If there is trouble while executing the tests.
+     */
+    @Test
+    public final void testTemplateInitMojoWithoutModules() throws Exception {
+        final File templatePOM = new File(StringUtils.format(TEMPLATE_POM, UUID.randomUUID().toString()));
+        final Properties props =
+                getProperties(MODULE_ARTIFACT, TEST_ARTIFACT_ID, MODULE_GROUP, TEST_GROUP_ID, MODULE_NAME, TEST_MODULE);
+
+        Files.asCharSink(templatePOM, StandardCharsets.UTF_8).write(
+                Files.asCharSource(POM, StandardCharsets.UTF_8).read().replaceAll("(?s)<modules>.*</modules>", ""));
+
+        try {
+            lookupConfiguredMojo(templatePOM, props, TEMPLATE_INIT).execute();
+            fail(LOGGER.getMessage(MessageCodes.MVN_201, templatePOM));
+        } catch (final MojoExecutionException details) {
+            assertTrue(details.getMessage().contains(templatePOM.getName()));
+        }
+    }
+
+    /**
+     * Gets the element that lists a module in a POM.
+     *
+     * @param aModule A module name
+     * @return The module's element
+     */
+    private static String getModuleElement(final String aModule) {
+        return "<module>" + aModule + "</module>";
+    }
+
     /**
      * Adds module properties to the POM so we can test with them present too.
      *